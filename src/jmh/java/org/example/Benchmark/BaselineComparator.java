@@ -0,0 +1,82 @@
+package org.example.Benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Порівняння результатів JMH (-rf json) з базовою лінією src/jmh/baseline/jmh-baseline.json.
+ *
+ * Використання: BaselineComparator <baseline.json> <current.json> [поріг у відсотках, за замовчуванням 10]
+ * Для кожного бенчмарку (з параметрами) друкує обидва значення та зміну; бенчмарки режиму AverageTime,
+ * що сповільнились більше ніж на поріг, позначаються як регресії, і процес завершується з кодом 1.
+ * Порожня базова лінія (ще не записана на еталонній машині) - усі бенчмарки NEW, код 0.
+ */
+public class BaselineComparator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Використання: BaselineComparator <baseline.json> <current.json> [поріг %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Double> baseline = readScores(args[0]);
+        Map<String, Double> current = readScores(args[1]);
+        if (baseline.isEmpty()) {
+            System.out.println("Базова лінія " + args[0] + " порожня - порівнювати нема з чим");
+        }
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> entry : new TreeMap<>(current).entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            if (before == null || before == 0.0) {
+                System.out.println(String.format(Locale.ROOT, "  NEW   %-90s %12.3f", entry.getKey(), entry.getValue()));
+                continue;
+            }
+            double change = (entry.getValue() - before) / before * 100.0;
+            boolean regression = change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.ROOT, "  %-5s %-90s %12.3f -> %12.3f  %+7.1f%%",
+                    regression ? "SLOW" : "ok", entry.getKey(), before, entry.getValue(), change));
+        }
+
+        System.out.println(regressions == 0 ? "Регресій немає" : "Регресій: " + regressions);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Ключ - ім'я бенчмарку з параметрами, значення - середній час (менше - краще)
+    private static Map<String, Double> readScores(String path) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(path))) {
+            JsonArray results = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : results) {
+                JsonObject result = element.getAsJsonObject();
+                if (!"avgt".equals(result.get("mode").getAsString())) {
+                    continue;
+                }
+                StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+                if (result.has("params")) {
+                    for (Map.Entry<String, JsonElement> param : new TreeMap<>(result.getAsJsonObject("params").asMap()).entrySet()) {
+                        key.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString());
+                    }
+                }
+                key.append(" [").append(result.getAsJsonObject("primaryMetric").get("scoreUnit").getAsString()).append(']');
+                scores.put(key.toString(), result.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.Benchmark;
+
+import org.example.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обхід графа сцени: оновлення світових трансформацій, пошук за ID, збір джерел світла.
+ * Дерева - глибокий ланцюжок і широкий корінь (SyntheticTrees).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeBenchmark {
+    @Param({"DEEP", "WIDE"})
+    public SyntheticTrees.Shape shape;
+
+    @Param({"256", "4096"})
+    public int size;
+
+    private Node root;
+    private UUID lastNodeId;
+    private float time;
+
+    @Setup
+    public void setup() {
+        root = SyntheticTrees.build(shape, size);
+        lastNodeId = SyntheticTrees.lastNode(root).getId();
+    }
+
+    @Benchmark
+    public Node updateWorldTransformation() {
+        // Рух кореня робить брудними трансформації всього дерева
+        time += 0.001f;
+        root.setPosition(time, 0.0f, 0.0f);
+        root.updateWorldTransformation();
+        return root;
+    }
+
+    @Benchmark
+    public Node findNodeById() {
+        return root.findNodeById(lastNodeId);
+    }
+
+    @Benchmark
+    public List<Node> getLightNodes() {
+        return root.getLightNodes();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.Benchmark;
+
+import org.example.Geometry.MeshCache;
+import org.example.ObjectLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Частина loadObjModel, що виконується на CPU; завантаження в GPU сюди не входить.
+ *
+ * Основні функції:
+ * - `parseObjModel` - лише розбір OBJ з ресурсів.
+ * - `loadMeshData` - повний імпорт без кешу .hmesh: розбір, MeshOptimizer і для моделей
+ *   від MeshCache.LOD_MIN_TRIANGLES трикутників рівні деталізації MeshSimplifier.
+ *   Сюди входить і рядок ACMR/LOD, який MeshCache друкує в консоль для кожної моделі.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectLoaderBenchmark {
+    // Усі моделі з src/main/resources/Object
+    @Param({
+            "/Object/Primitives/cube.obj",
+            "/Object/Primitives/sphere.obj",
+            "/Object/Primitives/SphereHighPoly.obj",
+            "/Object/Models/gold.obj",
+            "/Object/Models/barrel.obj",
+            "/Object/Tools/Arrow/ArrowMeshX.obj",
+            "/Object/Tools/Arrow/ArrowMeshY.obj",
+            "/Object/Tools/Arrow/ArrowMeshZ.obj",
+            "/Object/Tools/Circle/CircleMeshPitch.obj",
+            "/Object/Tools/Circle/CircleMeshRoll.obj",
+            "/Object/Tools/Circle/CircleMeshYaw.obj",
+            "/Object/Tools/scaleVector/scaleVectorX.obj",
+            "/Object/Tools/scaleVector/scaleVectorY.obj",
+            "/Object/Tools/scaleVector/scaleVectorZ.obj"
+    })
+    public String model;
+
+    // Без каталогу кешу кожен виклик loadMeshData оптимізує модель заново
+    @Setup(Level.Trial)
+    public void setup() {
+        MeshCache.configure(null, true, true);
+    }
+
+    @Benchmark
+    public ObjectLoader.MeshData parseObjModel() {
+        return ObjectLoader.parseObjModel(model);
+    }
+
+    @Benchmark
+    public ObjectLoader.MeshData loadMeshData() {
+        return ObjectLoader.loadMeshData(model);
+    }
+}
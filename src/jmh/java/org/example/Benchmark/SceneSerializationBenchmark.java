@@ -0,0 +1,54 @@
+package org.example.Benchmark;
+
+import org.example.Node;
+import org.example.Scene.LoadScene;
+import org.example.Scene.SaveScene;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Збереження та завантаження сцени через Gson (SaveScene/LoadScene) у пам'яті, без диска.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneSerializationBenchmark {
+    @Param({"64", "1024"})
+    public int size;
+
+    private Node root;
+    private String json;
+
+    @Setup
+    public void setup() {
+        root = SyntheticTrees.build(SyntheticTrees.Shape.WIDE, size);
+        StringWriter writer = new StringWriter();
+        SaveScene.saveScene(root, writer);
+        json = writer.toString();
+    }
+
+    @Benchmark
+    public String save() {
+        StringWriter writer = new StringWriter();
+        SaveScene.saveScene(root, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public Node load() {
+        return LoadScene.loadScene(new StringReader(json));
+    }
+
+    @Benchmark
+    public Node roundTrip() {
+        StringWriter writer = new StringWriter();
+        SaveScene.saveScene(root, writer);
+        return LoadScene.loadScene(new StringReader(writer.toString()));
+    }
+}
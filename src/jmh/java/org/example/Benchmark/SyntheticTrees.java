@@ -0,0 +1,46 @@
+package org.example.Benchmark;
+
+import org.example.Node;
+
+/**
+ * Синтетичні дерева сцени для бенчмарків: без мешів, тож не потребують контексту OpenGL.
+ * Кожен LIGHT_EVERY-й вузол - джерело світла.
+ */
+public final class SyntheticTrees {
+    public static final int LIGHT_EVERY = 16;
+
+    public enum Shape {
+        DEEP, // Ланцюжок: кожен вузол - єдиний нащадок попереднього
+        WIDE  // Корінь з усіма вузлами як прямими нащадками
+    }
+
+    private SyntheticTrees() {
+    }
+
+    public static Node build(Shape shape, int size) {
+        Node root = new Node("root");
+        Node parent = root;
+        for (int i = 1; i < size; i++) {
+            Node node = new Node("node_" + i);
+            node.setPosition(i * 0.01f, 0.5f, -i * 0.01f);
+            node.setRotation(0.01f * i, 0.0f, 0.0f);
+            if (i % LIGHT_EVERY == 0) {
+                node.setNodeType(Node.NodeType.LIGHT);
+            }
+            parent.addChild(node);
+            if (shape == Shape.DEEP) {
+                parent = node;
+            }
+        }
+        return root;
+    }
+
+    // Останній доданий вузол - найгірший випадок для пошуку в глибину
+    public static Node lastNode(Node root) {
+        Node current = root;
+        while (!current.getChildren().isEmpty()) {
+            current = current.getChildren().get(current.getChildren().size() - 1);
+        }
+        return current;
+    }
+}
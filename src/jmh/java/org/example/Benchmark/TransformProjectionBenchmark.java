@@ -0,0 +1,36 @@
+package org.example.Benchmark;
+
+import org.example.Editor.TransformTool;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проекція руху миші на вісь маніпулятора (TransformTool.calculateProjection) - виконується
+ * кожен кадр під час перетягування.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformProjectionBenchmark {
+    @Param({"X", "Y", "Z"})
+    public TransformTool.TransformAxis axis;
+
+    @Param({"TRANSLATE", "SCALE"})
+    public TransformTool.TransformMode mode;
+
+    private final Vector2f delta = new Vector2f(0.12f, -0.07f);
+    private final Vector3f start = new Vector3f(1.0f, 2.0f, 3.0f);
+    private final Vector3f cameraRight = new Vector3f(0.7071f, 0.0f, -0.7071f);
+    private final Vector3f cameraUp = new Vector3f(-0.3536f, 0.866f, -0.3536f);
+
+    @Benchmark
+    public Vector3f calculateProjection() {
+        return TransformTool.calculateProjection(delta, axis, mode, start, cameraRight, cameraUp);
+    }
+}
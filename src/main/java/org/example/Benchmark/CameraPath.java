@@ -0,0 +1,137 @@
+package org.example.Benchmark;
+
+import org.example.Camera;
+import org.example.Node;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Заскриптований маршрут камери для відтворюваних прогонів.
+ *
+ * Основні функції:
+ * - Маршрут - замкнене коло ключових кадрів (позиція камери + точка, куди вона дивиться).
+ * - Позиція інтерполюється сплайном Катмулла-Рома, ціль - лінійно.
+ * - Положення на маршруті задається часткою t ∈ [0, 1), а не реальним часом:
+ *   кадр N завжди бачить ту саму картинку незалежно від швидкості збірки.
+ *
+ * Вбудовані маршрути: "orbit" (обліт по колу навколо сцени) та "flyby" (проліт низько
+ * над сценою через центр і назад по діагоналі).
+ */
+public class CameraPath {
+    private static final int ORBIT_KEYFRAMES = 16;
+
+    private final List<Vector3f> positions = new ArrayList<>();
+    private final List<Vector3f> targets = new ArrayList<>();
+
+    public void addKeyframe(Vector3f position, Vector3f target) {
+        positions.add(new Vector3f(position));
+        targets.add(new Vector3f(target));
+    }
+
+    /**
+     * Маршрут за назвою, розмір якого підібрано під сцену (за позиціями всіх вузлів)
+     *
+     * @param name "orbit" або "flyby"
+     * @param rootNode корінь сцени з оновленими світовими трансформаціями
+     */
+    public static CameraPath create(String name, Node rootNode) {
+        float extent = 0.0f;
+        float height = 0.0f;
+        Vector3f position = new Vector3f();
+        for (Node node : rootNode.getAllNodes()) {
+            if (node.getNodeType() != Node.NodeType.DEFAULT) {
+                continue;
+            }
+            node.getWorldTransformation().getTranslation(position);
+            extent = Math.max(extent, Math.max(Math.abs(position.x), Math.abs(position.z)));
+            height = Math.max(height, position.y);
+        }
+        return create(name, Math.max(extent, 3.0f), height);
+    }
+
+    /**
+     * Маршрут за назвою
+     *
+     * @param name "orbit" або "flyby"
+     * @param extent половина сторони сцени в площині XZ
+     * @param height висота сцени
+     */
+    public static CameraPath create(String name, float extent, float height) {
+        switch (name) {
+            case "orbit":
+                return orbit(extent, height);
+            case "flyby":
+                return flyby(extent, height);
+            default:
+                throw new IllegalArgumentException("Невідомий маршрут камери: " + name);
+        }
+    }
+
+    // Коло навколо сцени на відстані, з якої видно всю сцену
+    public static CameraPath orbit(float extent, float height) {
+        CameraPath path = new CameraPath();
+        float radius = extent * 1.8f + 4.0f;
+        Vector3f target = new Vector3f(0.0f, height * 0.3f, 0.0f);
+        for (int i = 0; i < ORBIT_KEYFRAMES; i++) {
+            double angle = 2.0 * Math.PI * i / ORBIT_KEYFRAMES;
+            path.addKeyframe(new Vector3f((float) Math.cos(angle) * radius, height + extent * 0.6f,
+                    (float) Math.sin(angle) * radius), target);
+        }
+        return path;
+    }
+
+    // Проліт всередині сцени: більшість об'єктів то потрапляє в кадр, то виходить з нього
+    public static CameraPath flyby(float extent, float height) {
+        CameraPath path = new CameraPath();
+        float y = height * 0.5f + 1.5f;
+        float edge = extent + 2.0f;
+        path.addKeyframe(new Vector3f(-edge, y, -edge), new Vector3f(0.0f, 0.0f, 0.0f));
+        path.addKeyframe(new Vector3f(0.0f, y * 0.6f, 0.0f), new Vector3f(edge, 0.0f, edge));
+        path.addKeyframe(new Vector3f(edge, y, edge), new Vector3f(0.0f, 0.0f, 0.0f));
+        path.addKeyframe(new Vector3f(edge, y * 1.5f, -edge), new Vector3f(-edge, 0.0f, edge));
+        path.addKeyframe(new Vector3f(0.0f, y, 0.0f), new Vector3f(-edge, 0.0f, -edge));
+        path.addKeyframe(new Vector3f(-edge, y * 1.5f, edge), new Vector3f(0.0f, 0.0f, 0.0f));
+        return path;
+    }
+
+    /**
+     * Встановлює камеру в точку маршруту
+     *
+     * @param camera камера
+     * @param t частка маршруту; значення поза [0, 1) загортаються
+     */
+    public void apply(Camera camera, float t) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        int count = positions.size();
+        float wrapped = t - (float) Math.floor(t);
+        float segment = wrapped * count;
+        int index = (int) segment;
+        float local = segment - index;
+
+        Vector3f p0 = positions.get((index - 1 + count) % count);
+        Vector3f p1 = positions.get(index % count);
+        Vector3f p2 = positions.get((index + 1) % count);
+        Vector3f p3 = positions.get((index + 2) % count);
+
+        Vector3f position = new Vector3f(
+                catmullRom(p0.x, p1.x, p2.x, p3.x, local),
+                catmullRom(p0.y, p1.y, p2.y, p3.y, local),
+                catmullRom(p0.z, p1.z, p2.z, p3.z, local));
+        Vector3f target = new Vector3f(targets.get(index % count)).lerp(targets.get((index + 1) % count), local);
+
+        camera.setPosition(position);
+        camera.lookAt(target);
+    }
+
+    private static float catmullRom(float p0, float p1, float p2, float p3, float t) {
+        float t2 = t * t;
+        float t3 = t2 * t;
+        return 0.5f * ((2.0f * p1) + (-p0 + p2) * t
+                + (2.0f * p0 - 5.0f * p1 + 4.0f * p2 - p3) * t2
+                + (-p0 + 3.0f * p1 - 3.0f * p2 + p3) * t3);
+    }
+}
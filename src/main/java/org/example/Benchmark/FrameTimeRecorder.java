@@ -0,0 +1,164 @@
+package org.example.Benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Запис часу кадрів для headless-прогонів та підсумковий звіт.
+ *
+ * Основні функції:
+ * - Накопичує для кожного виміряного кадру (мс) три величини у масивах фіксованого розміру:
+ *   повний час кадру, CPU-час (до очікування GPU) та GPU-час (сума ділянок профайлера).
+ * - Для кожної величини рахує середнє, мінімум, максимум та перцентилі p50/p95/p99.
+ * - Додає до звіту довільні іменовані метрики (наприклад, середній GPU-час ділянок профайлера).
+ * - Друкує звіт у консоль, записує його в JSON і читає назад (ReportComparator).
+ */
+public class FrameTimeRecorder {
+    private final float[] frameMillis;
+    private final float[] cpuMillis;
+    private final float[] gpuMillis;
+    private int count = 0;
+    private final Map<String, Double> metrics = new LinkedHashMap<>();
+
+    // Статистика однієї величини за прогін
+    public static class Stats {
+        public double averageMs;
+        public double minMs;
+        public double p50Ms;
+        public double p95Ms;
+        public double p99Ms;
+        public double maxMs;
+    }
+
+    // Підсумок прогону; поля серіалізуються в JSON як є
+    public static class Report {
+        public String scene;
+        public String cameraPath;
+        public int frames;
+        public double averageFps;
+        public Stats frame = new Stats();
+        public Stats cpu = new Stats();
+        public Stats gpu = new Stats();
+        public Map<String, Double> metrics = new LinkedHashMap<>();
+    }
+
+    public FrameTimeRecorder(int capacity) {
+        this.frameMillis = new float[capacity];
+        this.cpuMillis = new float[capacity];
+        this.gpuMillis = new float[capacity];
+    }
+
+    /**
+     * Запис одного кадру
+     *
+     * @param frame повний час кадру
+     * @param cpu час роботи CPU над кадром (без очікування GPU)
+     * @param gpu час роботи GPU над кадром
+     */
+    public void record(double frame, double cpu, double gpu) {
+        if (count < frameMillis.length) {
+            frameMillis[count] = (float) frame;
+            cpuMillis[count] = (float) cpu;
+            gpuMillis[count] = (float) gpu;
+            count++;
+        }
+    }
+
+    public void putMetric(String name, double value) {
+        metrics.put(name, value);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count >= frameMillis.length;
+    }
+
+    public Report summarize(String scene, String cameraPath) {
+        Report report = new Report();
+        report.scene = scene;
+        report.cameraPath = cameraPath;
+        report.frames = count;
+        report.metrics.putAll(metrics);
+        if (count == 0) {
+            return report;
+        }
+
+        report.frame = stats(frameMillis, count);
+        report.cpu = stats(cpuMillis, count);
+        report.gpu = stats(gpuMillis, count);
+        report.averageFps = report.frame.averageMs > 0 ? 1000.0 / report.frame.averageMs : 0.0;
+        return report;
+    }
+
+    private static Stats stats(float[] values, int count) {
+        float[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        double sum = 0.0;
+        for (float value : sorted) {
+            sum += value;
+        }
+
+        Stats stats = new Stats();
+        stats.averageMs = sum / count;
+        stats.minMs = sorted[0];
+        stats.p50Ms = percentile(sorted, 0.50);
+        stats.p95Ms = percentile(sorted, 0.95);
+        stats.p99Ms = percentile(sorted, 0.99);
+        stats.maxMs = sorted[count - 1];
+        return stats;
+    }
+
+    // Перцентиль методом найближчого рангу
+    static double percentile(float[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    public static void print(Report report) {
+        System.out.println("Звіт прогону: " + report.scene + " (" + report.frames + " кадрів"
+                + (report.cameraPath != null ? ", маршрут " + report.cameraPath : "") + ")");
+        System.out.println(String.format(Locale.ROOT, "  %.1f FPS", report.averageFps));
+        printStats("frame", report.frame);
+        printStats("cpu", report.cpu);
+        printStats("gpu", report.gpu);
+        for (Map.Entry<String, Double> metric : report.metrics.entrySet()) {
+            System.out.println(String.format(Locale.ROOT, "  %-32s %.3f", metric.getKey(), metric.getValue()));
+        }
+    }
+
+    private static void printStats(String label, Stats stats) {
+        System.out.println(String.format(Locale.ROOT,
+                "  %-5s avg %.3f ms  min %.3f  p50 %.3f  p95 %.3f  p99 %.3f  max %.3f",
+                label, stats.averageMs, stats.minMs, stats.p50Ms, stats.p95Ms, stats.p99Ms, stats.maxMs));
+    }
+
+    public static void writeJson(Report report, Path path) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            gson.toJson(report, writer);
+        }
+    }
+
+    public static Report readJson(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            Report report = new Gson().fromJson(reader, Report.class);
+            if (report == null) {
+                throw new IOException("Порожній звіт: " + path);
+            }
+            return report;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.Benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Порівняння двох звітів headless-прогону (FrameTimeRecorder.writeJson) - наприклад, двох збірок рушія
+ * на тій самій стрес-сцені з тим самим маршрутом камери.
+ *
+ * Використання: ReportComparator <baseline.json> <current.json> [поріг у відсотках, за замовчуванням 5]
+ * Друкує p50/p95/p99/max для часу кадру, CPU та GPU в обох звітах і зміну; величини, що виросли
+ * більше ніж на поріг, позначаються як регресії, і процес завершується з кодом 1.
+ */
+public class ReportComparator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Використання: ReportComparator <baseline.json> <current.json> [поріг %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+
+        FrameTimeRecorder.Report baseline = FrameTimeRecorder.readJson(Paths.get(args[0]));
+        FrameTimeRecorder.Report current = FrameTimeRecorder.readJson(Paths.get(args[1]));
+
+        // Порівняння має сенс лише на тій самій сцені й маршруті
+        if (!String.valueOf(baseline.scene).equals(String.valueOf(current.scene))
+                || !String.valueOf(baseline.cameraPath).equals(String.valueOf(current.cameraPath))) {
+            System.err.println("Увага: звіти зняті на різних сценах: \"" + baseline.scene + "\" / \""
+                    + current.scene + "\"");
+        }
+        System.out.println("Сцена: " + current.scene + ", кадрів " + baseline.frames + " -> " + current.frames);
+
+        int regressions = 0;
+        regressions += compare("frame", baseline.frame, current.frame, threshold);
+        regressions += compare("cpu", baseline.cpu, current.cpu, threshold);
+        regressions += compare("gpu", baseline.gpu, current.gpu, threshold);
+
+        System.out.println(regressions == 0 ? "Регресій немає" : "Регресій: " + regressions);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static int compare(String label, FrameTimeRecorder.Stats before, FrameTimeRecorder.Stats after,
+                               double threshold) {
+        int regressions = 0;
+        regressions += compare(label + " p50", before.p50Ms, after.p50Ms, threshold);
+        regressions += compare(label + " p95", before.p95Ms, after.p95Ms, threshold);
+        regressions += compare(label + " p99", before.p99Ms, after.p99Ms, threshold);
+        regressions += compare(label + " max", before.maxMs, after.maxMs, threshold);
+        return regressions;
+    }
+
+    private static int compare(String label, double before, double after, double threshold) {
+        if (before <= 0.0) {
+            System.out.println(String.format(Locale.ROOT, "  NEW   %-10s %10.3f ms", label, after));
+            return 0;
+        }
+        double change = (after - before) / before * 100.0;
+        boolean regression = change > threshold;
+        System.out.println(String.format(Locale.ROOT, "  %-5s %-10s %10.3f -> %10.3f ms  %+7.1f%%",
+                regression ? "SLOW" : "ok", label, before, after, change));
+        return regression ? 1 : 0;
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.Benchmark;
+
+import org.example.Mesh;
+import org.example.Node;
+import org.example.ObjectLoader;
+import org.example.ShaderMaterial;
+import org.example.Scene.Scene;
+
+import java.util.Locale;
+
+/**
+ * Генератор параметризованих стрес-сцен для відтворюваних прогонів часу кадру.
+ *
+ * Основні функції:
+ * - N кубів (або іншої моделі) у вигляді ланцюжків глибини D: кожен наступний куб - дочірній вузол попереднього,
+ *   тож глибина ієрархії впливає на оновлення світових трансформацій.
+ * - Ланцюжки розставлені сіткою навколо початку координат, M джерел світла - колом над сценою.
+ * - Текстуровані або нетекстуровані матеріали; матеріали спільні для багатьох мешів,
+ *   щоб великі сцени не завантажували одну текстуру тисячі разів.
+ *
+ * Сцена будується детерміновано: ті самі параметри дають ту саму сцену в кожній збірці.
+ */
+public class StressSceneGenerator {
+    private static final String CUBE_MODEL = "/Object/Primitives/cube.obj";
+    private static final String LIGHT_MODEL = "/Object/Primitives/sphere.obj";
+    private static final String[] TEXTURES = {
+            "/Textures/primitivesPack/wood_01.png",
+            "/Textures/primitivesPack/brick_01.png",
+            "/Textures/primitivesPack/metal_01.png"
+    };
+
+    // Відстань між ланцюжками в сітці та крок вузла всередині ланцюжка
+    private static final float GRID_SPACING = 3.0f;
+    private static final float CHAIN_STEP = 1.2f;
+    private static final float CHAIN_TWIST_DEGREES = 10.0f;
+
+    public static class Config {
+        public final int cubes;
+        public final int lights;
+        public final int depth;
+        public final boolean textured;
+        // Модель вузлів; null - куб
+        public final String model;
+
+        public Config(int cubes, int lights, int depth, boolean textured) {
+            this(cubes, lights, depth, textured, null);
+        }
+
+        public Config(int cubes, int lights, int depth, boolean textured, String model) {
+            if (cubes <= 0 || depth <= 0 || lights < 0) {
+                throw new IllegalArgumentException("Некоректні параметри стрес-сцени: cubes=" + cubes
+                        + ", lights=" + lights + ", depth=" + depth);
+            }
+            this.cubes = cubes;
+            this.lights = lights;
+            this.depth = depth;
+            this.textured = textured;
+            this.model = model;
+        }
+
+        public String getModel() {
+            return model != null ? model : CUBE_MODEL;
+        }
+
+        // Назва сцени у звіті, наприклад "stress cubes=1000 lights=4 depth=8 textured"
+        public String describe() {
+            return String.format(Locale.ROOT, "stress cubes=%d lights=%d depth=%d %s%s",
+                    cubes, lights, depth, textured ? "textured" : "untextured", model != null ? " model=" + model : "");
+        }
+    }
+
+    public static Scene generate(Config config) {
+        ObjectLoader.MeshData cubeData = ObjectLoader.loadMeshData(config.getModel());
+        ObjectLoader.MeshData lightData = ObjectLoader.loadMeshData(LIGHT_MODEL);
+        if (cubeData == null || lightData == null) {
+            throw new RuntimeException("Не вдалося завантажити моделі для стрес-сцени");
+        }
+
+        ShaderMaterial[] materials = createMaterials(config.textured);
+        Node root = new Node("root");
+
+        int chains = chainCount(config);
+        int gridSide = gridSide(config);
+        float gridOffset = (gridSide - 1) * GRID_SPACING * 0.5f;
+
+        int created = 0;
+        for (int chain = 0; chain < chains; chain++) {
+            Node parent = root;
+            for (int level = 0; level < config.depth && created < config.cubes; level++, created++) {
+                Node cube = new Node("Cube " + created);
+                if (level == 0) {
+                    cube.setPosition((chain % gridSide) * GRID_SPACING - gridOffset, 0.0f,
+                            (chain / gridSide) * GRID_SPACING - gridOffset);
+                } else {
+                    // Локальне зміщення відносно батька: світова позиція залежить від усього ланцюжка
+                    cube.setPosition(0.0f, CHAIN_STEP, 0.0f);
+                    cube.setRotation(0.0f, (float) Math.toRadians(CHAIN_TWIST_DEGREES), 0.0f);
+                    cube.setScale(0.9f, 0.9f, 0.9f);
+                }
+
+                Mesh mesh = new Mesh(cubeData, config.getModel(), ObjectLoader.getVertexFormat());
+                mesh.setShaderMaterial(materials[created % materials.length]);
+                cube.addMesh(mesh);
+
+                parent.addChild(cube);
+                parent = cube;
+            }
+        }
+
+        // Світла колом над сценою
+        float lightRadius = Math.max(gridOffset, GRID_SPACING);
+        for (int i = 0; i < config.lights; i++) {
+            double angle = 2.0 * Math.PI * i / config.lights;
+            Node light = new Node("Light " + i);
+            light.setNodeType(Node.NodeType.LIGHT);
+            light.setPosition((float) Math.cos(angle) * lightRadius, 6.0f, (float) Math.sin(angle) * lightRadius);
+            light.setScale(0.2f, 0.2f, 0.2f);
+            light.setLightColor(1.0f, 0.9f + 0.1f * (i % 2), 0.8f + 0.2f * ((i + 1) % 2));
+            light.setLightIntensity(1.0f);
+            light.addMesh(new Mesh(lightData, LIGHT_MODEL, ObjectLoader.getVertexFormat()));
+            root.addChild(light);
+        }
+
+        root.updateWorldTransformation();
+        return new Scene(config.describe(), root);
+    }
+
+    private static int chainCount(Config config) {
+        return (config.cubes + config.depth - 1) / config.depth;
+    }
+
+    private static int gridSide(Config config) {
+        return (int) Math.ceil(Math.sqrt(chainCount(config)));
+    }
+
+    private static ShaderMaterial[] createMaterials(boolean textured) {
+        if (textured) {
+            ShaderMaterial[] materials = new ShaderMaterial[TEXTURES.length];
+            for (int i = 0; i < TEXTURES.length; i++) {
+                materials[i] = ShaderMaterial.createTexturedMaterial(TEXTURES[i]);
+            }
+            return materials;
+        }
+        return new ShaderMaterial[]{
+                ShaderMaterial.createGold(),
+                ShaderMaterial.createSilver(),
+                ShaderMaterial.createRed(),
+                ShaderMaterial.createGreen(),
+                ShaderMaterial.createBlue()
+        };
+    }
+}
@@ -161,6 +161,24 @@ public class Camera implements EditorListener {
         updateCameraVectors();
     }
 
+    /**
+     * Повернути камеру до точки (кути Ейлера розраховуються з напрямку)
+     *
+     * @param target точка, на яку дивиться камера
+     */
+    public void lookAt(Vector3f target) {
+        Vector3f direction = new Vector3f(target).sub(position);
+        if (direction.lengthSquared() < 1e-8f) {
+            return;
+        }
+        direction.normalize();
+
+        yaw = (float) Math.toDegrees(Math.atan2(direction.z, direction.x));
+        pitch = (float) Math.toDegrees(Math.asin(Math.max(-1.0f, Math.min(1.0f, direction.y))));
+        pitch = Math.max(-89.0f, Math.min(89.0f, pitch));
+        updateCameraVectors();
+    }
+
     /**
      * Обробка руху миші для обертання камери
      *
@@ -3,20 +3,56 @@ package org.example;
 import org.example.Editor.Editor;
 import org.example.Editor.TransformTool;
 import org.example.GUI.GUI;
+import org.example.GUI.ProfilerPanel;
+import org.example.GUI.RenderStatsPanel;
+import org.example.Geometry.MeshCache;
+import org.example.Benchmark.CameraPath;
+import org.example.Benchmark.FrameTimeRecorder;
+import org.example.Benchmark.StressSceneGenerator;
+import org.example.GUI.RenderSettingsPanel;
+import org.example.Render.DepthPrepass;
+import org.example.Render.GeometryArena;
+import org.example.Render.Grid.ProceduralGridRenderStrategy;
+import org.example.Render.IndirectRenderer;
+import org.example.Render.LightUniforms;
+import org.example.Render.LodSelector;
+import org.example.Render.OcclusionCuller;
+import org.example.Render.OffscreenTarget;
+import org.example.Render.RenderQueue;
+import org.example.Render.RetiredMeshes;
 import org.example.Render.Shadow.IShadowMap;
+import org.example.Render.Shadow.PointShadowMap;
+import org.example.Render.Shadow.ShadowAtlas;
 import org.example.Render.Shadow.ShadowMap;
+import org.example.Render.Shadow.ShadowQualityBenchmark;
 import org.example.Render.Shadow.ShadowRenderer;
+import org.example.Render.Shadow.ShadowSettings;
+import org.example.Render.Shadow.ShadowTechnique;
+import org.example.Render.UniformRingBuffer;
+import org.example.Profiler.FrameProfiler;
+import org.example.Profiler.ProfilerScope;
+import org.example.Profiler.RenderStats;
 import org.example.Scene.LoadScene;
 import org.example.Scene.SaveScene;
 import org.example.Scene.Scene;
+import org.example.Simulation.RenderSnapshot;
+import org.example.Simulation.SceneCommandQueue;
+import org.example.Simulation.SimulationThread;
+import org.example.Simulation.SnapshotWriter;
+import org.example.Texture.TextureArray;
+import org.example.Texture.TextureArrayBuilder;
+import org.example.Texture.TextureCache;
+import org.example.Texture.TextureStreamer;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
+import org.joml.Vector4f;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.glfw.GLFWVidMode;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.system.MemoryStack;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,9 +65,11 @@ import static org.lwjgl.system.MemoryUtil.NULL;
 
 
 public class Core {
+    private final EngineOptions options;
+
     private long window;
-    private int WIDTH = 1280;
-    private int HEIGHT = 720;
+    private int WIDTH;
+    private int HEIGHT;
 
     private Viewport viewport;
     private List<Mesh> meshes = new ArrayList<>();
@@ -40,22 +78,61 @@ public class Core {
     private int lightShaderProgram;
     private int gridShaderProgram;
     private int shadowShaderProgram;
+    private int pointShadowShaderProgram;
 
     private Camera camera;
     private InputManager inputManager;
     private Node node;
     private Grid grid;
+    private ProceduralGridRenderStrategy proceduralGrid;
     private Editor editor;
     private TransformTool transformTool;
     private GUI gui;
     private IShadowMap shadowMap;
+    private final ShadowTechnique shadowTechnique;
+    private int pointShadowResolution = 1024;
+    private int shadowAtlasSize = 4096;
+    private ShadowSettings shadowSettings;
+    private ShadowQualityBenchmark shadowBenchmark;
+    private FrameProfiler profiler;
 
     private Scene scene;
 
+    // Headless-режим: рендеринг у фреймбуфер та запис часу кадрів
+    private OffscreenTarget offscreenTarget;
+    private FrameTimeRecorder frameTimeRecorder;
+    // Заскриптований маршрут камери (null - камерою керує користувач)
+    private CameraPath cameraPath;
+    private static final int WINDOWED_PATH_FRAMES = 1200;
+    // Масиви текстур, зібрані з матеріалів сцени
+    private List<TextureArray> textureArrays = new ArrayList<>();
+    private final RenderQueue renderQueue = new RenderQueue();
+    private final FramePacer framePacer = new FramePacer();
+    private IndirectRenderer indirectRenderer;
+    // Поток обновления сцены с фиксированным шагом (--simulation-thread) или null
+    private SimulationThread simulation;
+    // Изменения сцены из GUI - выполняет поток симуляции или сам цикл
+    private final SceneCommandQueue commandQueue = new SceneCommandQueue();
+    // Без потока симуляции снимок сцены пишет сам цикл - проходы рендеринга читают сцену только из снимка
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();
+    private final RenderSnapshot frameSnapshot = new RenderSnapshot();
+
+    public Core(EngineOptions options) {
+        this.options = options;
+        this.WIDTH = options.getWidth();
+        this.HEIGHT = options.getHeight();
+        this.shadowTechnique = options.getShadowTechnique();
+    }
+
     private void run() {
         init();
         loop();
 
+        // Поток симуляции останавливается до освобождения ресурсов сцены
+        if (simulation != null) {
+            simulation.stop();
+        }
+
         //FIXME: Очистка должна быть отдельно
         for (Mesh mesh : meshes) {
             mesh.cleanup();
@@ -66,6 +143,7 @@ public class Core {
         glDeleteProgram(lightShaderProgram);
         glDeleteProgram(gridShaderProgram);
         glDeleteProgram(shadowShaderProgram);
+        glDeleteProgram(pointShadowShaderProgram);
         meshes.clear();
 
         if (node != null) {
@@ -74,6 +152,9 @@ public class Core {
         if(grid != null){
             grid.cleanup();
         }
+        if (proceduralGrid != null) {
+            proceduralGrid.cleanup();
+        }
         if(editor != null){
             editor.cleanup();
         }
@@ -83,6 +164,28 @@ public class Core {
         if(shadowMap != null) {
             shadowMap.cleanup(); // Очистка ресурсов теневой карты
         }
+        if(shadowSettings != null) {
+            shadowSettings.cleanup();
+        }
+        if(profiler != null) {
+            profiler.cleanup();
+        }
+        if(offscreenTarget != null) {
+            offscreenTarget.cleanup();
+        }
+        if (indirectRenderer != null) {
+            indirectRenderer.cleanup();
+        }
+        for (TextureArray textureArray : textureArrays) {
+            textureArray.cleanup();
+        }
+        TextureManager.cleanup();
+        TextureStreamer.shutdown();
+        MaterialRegistry.cleanup();
+        GeometryArena.cleanup();
+        OcclusionCuller.cleanup();
+        DepthPrepass.cleanup();
+        UniformRingBuffer.cleanup();
 
 
         glfwFreeCallbacks(window);
@@ -91,21 +194,73 @@ public class Core {
         glfwSetErrorCallback(null).free();
     }
 
-    private void init() {
-        GLFWErrorCallback.createPrint(System.err).set();
-        if (!glfwInit())
-            throw new IllegalStateException("Ошибка инициализации GLFW");
+    // Uniform-ы теней основного прохода (для основной программы и программы IndirectRenderer)
+    private void applyShadowUniforms(int shaderProgram) {
+        glUseProgram(shaderProgram);
+        int shadowMapLoc = glGetUniformLocation(shaderProgram, "shadowMap");
+        glUniform1i(shadowMapLoc, 1);  // Текстурний блок 1
+        RenderStats.uniformUpload();
+        glUniform1i(glGetUniformLocation(shaderProgram, "pointShadowMap"), 2);
+        RenderStats.uniformUpload();
+        glUniform1i(glGetUniformLocation(shaderProgram, "usePointShadow"), shadowMap.isOmnidirectional() ? 1 : 0);
+        RenderStats.uniformUpload();
+        glUniform1f(glGetUniformLocation(shaderProgram, "shadowFarPlane"), shadowMap.getFarPlane());
+        RenderStats.uniformUpload();
+        shadowSettings.apply(shaderProgram);
+
+        // Тайл і матриця простору світла для кожного світла шейдера (у звичайної карти тінь має лише світло 0)
+        float[] shadowAtlasRects = new float[LightUniforms.MAX_LIGHTS * 4];
+        float[] lightSpaceMatrices = new float[LightUniforms.MAX_LIGHTS * 16];
+        for (int i = 0; i < LightUniforms.MAX_LIGHTS; i++) {
+            Vector4f shadowAtlasRect = shadowMap.getAtlasRect(i);
+            shadowAtlasRects[i * 4] = shadowAtlasRect.x;
+            shadowAtlasRects[i * 4 + 1] = shadowAtlasRect.y;
+            shadowAtlasRects[i * 4 + 2] = shadowAtlasRect.z;
+            shadowAtlasRects[i * 4 + 3] = shadowAtlasRect.w;
+            shadowMap.getLightSpaceMatrix(i).get(lightSpaceMatrices, i * 16);
+        }
+        glUniform4fv(glGetUniformLocation(shaderProgram, "shadowAtlasRects"), shadowAtlasRects);
+        RenderStats.uniformUpload();
+        glUniformMatrix4fv(glGetUniformLocation(shaderProgram, "lightSpaceMatrices"), false, lightSpaceMatrices);
+        RenderStats.uniformUpload();
+    }
 
-        // Настройка GLFW для OpenGL 3.3
+    private void setWindowHints(int major, int minor, boolean surfaceless) {
         glfwDefaultWindowHints();
-        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
-        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, major);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, minor);
         glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
         glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
-        glfwWindowHint(GLFW_RESIZABLE, GLFW_TRUE);
+        glfwWindowHint(GLFW_RESIZABLE, options.isHeadless() ? GLFW_FALSE : GLFW_TRUE);
+        if (surfaceless) {
+            glfwWindowHint(GLFW_CONTEXT_CREATION_API, GLFW_OSMESA_CONTEXT_API);
+        }
+    }
+
+    private void init() {
+        GLFWErrorCallback.createPrint(System.err).set();
 
-        // Создание окна
-        window = glfwCreateWindow(WIDTH, HEIGHT, "HexEngine", NULL, NULL);
+        // Без дисплея (сервер збірки) - платформа GLFW без вікон і програмний контекст OSMesa
+        boolean surfaceless = options.isHeadless() && !hasDisplay() && glfwPlatformSupported(GLFW_PLATFORM_NULL);
+        if (surfaceless) {
+            glfwInitHint(GLFW_PLATFORM, GLFW_PLATFORM_NULL);
+        }
+        if (!glfwInit())
+            throw new IllegalStateException("Ошибка инициализации GLFW");
+
+        // Для --indirect-draw сначала пробуем OpenGL 4.3, иначе (и при неудаче) - OpenGL 3.3
+        window = NULL;
+        if (options.isIndirectDraw()) {
+            setWindowHints(4, 3, surfaceless);
+            window = glfwCreateWindow(WIDTH, HEIGHT, "HexEngine", NULL, NULL);
+            if (window == NULL) {
+                System.err.println("Контекст OpenGL 4.3 недоступен - используется OpenGL 3.3 без indirect draw");
+            }
+        }
+        if (window == NULL) {
+            setWindowHints(3, 3, surfaceless);
+            window = glfwCreateWindow(WIDTH, HEIGHT, "HexEngine", NULL, NULL);
+        }
         if (window == NULL)
             throw new RuntimeException("Ошибка создания окна GLFW");
 
@@ -120,25 +275,41 @@ public class Core {
             editor.resizePickingFBO(width, height); // Редактор
         });
 
-        try (MemoryStack stack = stackPush()) {
-            IntBuffer pWidth = stack.mallocInt(1);
-            IntBuffer pHeight = stack.mallocInt(1);
-            glfwGetWindowSize(window, pWidth, pHeight);
-            GLFWVidMode vidmode = glfwGetVideoMode(glfwGetPrimaryMonitor());
-
-            glfwSetWindowPos(
-                    window,
-                    (vidmode.width() - pWidth.get(0)) / 2,
-                    (vidmode.height() - pHeight.get(0)) / 2
-            );
+        // Прихованому вікну позиція не потрібна (і монітора може не бути)
+        if (!options.isHeadless()) {
+            try (MemoryStack stack = stackPush()) {
+                IntBuffer pWidth = stack.mallocInt(1);
+                IntBuffer pHeight = stack.mallocInt(1);
+                glfwGetWindowSize(window, pWidth, pHeight);
+                GLFWVidMode vidmode = glfwGetVideoMode(glfwGetPrimaryMonitor());
+
+                glfwSetWindowPos(
+                        window,
+                        (vidmode.width() - pWidth.get(0)) / 2,
+                        (vidmode.height() - pHeight.get(0)) / 2
+                );
+            }
         }
 
         glfwMakeContextCurrent(window);
-        glfwSwapInterval(1); // Включаем вертикальную синхронизацию
-        glfwShowWindow(window);
+        // Вертикальная синхронизация, без ограничений или ограничение FPS (в headless-режиме без ограничений)
+        framePacer.setMode(options.getFramePacing(), options.getFpsCap());
+        // Гистограмма и перцентили времени кадра публикуются в снимке RenderStats (панель и JMX)
+        RenderStats.setFramePacer(framePacer);
+        if (!options.isHeadless()) {
+            glfwShowWindow(window);
+        }
 
         // Загрузка всех функций OpenGL для текущего контекста
         GL.createCapabilities();
+        // Содержимое материалов (UBO, текстуры) меняется только из этого потока
+        MaterialRegistry.bindRenderThread();
+
+        // Без окна рисуем во фреймбуфер
+        if (options.isHeadless()) {
+            offscreenTarget = new OffscreenTarget(WIDTH, HEIGHT);
+            frameTimeRecorder = new FrameTimeRecorder(options.getFrames());
+        }
 
         // Включаем тест глубины для 3D
         glEnable(GL_DEPTH_TEST);
@@ -165,13 +336,36 @@ public class Core {
                     "/Shader/shadowShaderProgram/shadow_vertex.glsl",
                     "/Shader/shadowShaderProgram/shadow_fragment.glsl"
             );
+            pointShadowShaderProgram = ShaderLoader.loadShader(
+                    "/Shader/pointShadowShaderProgram/point_shadow_vertex.glsl",
+                    "/Shader/pointShadowShaderProgram/point_shadow_fragment.glsl"
+            );
+
+            // Матрицы вызовов основного прохода - в кольцевой uniform-буфер по кадрам
+            UniformRingBuffer.init();
+
+            // Предварительный проход глубины собственной программой по матрицам из кольцевого буфера
+            DepthPrepass.init();
+            DepthPrepass.setEnabled(options.isDepthPrepass());
+
+            // Отсечение перекрытых объектов запросами по AABB
+            OcclusionCuller.init();
+            OcclusionCuller.setEnabled(options.isGpuOcclusionQueries());
+
+            // Путь glMultiDrawElementsIndirect - только если контекст действительно 4.3+
+            if (options.isIndirectDraw() && GL.getCapabilities().OpenGL43) {
+                indirectRenderer = new IndirectRenderer();
+            }
 
         } catch (IOException e) {
             throw new RuntimeException("Ошибка загрузки шейдеров: " + e.getMessage());
         }
 
-        // Создание карты теней
-        shadowMap = new ShadowMap(shadowShaderProgram);
+        // Создание карты теней и настроек её фильтрации
+        shadowMap = createShadowMap(shadowTechnique);
+        shadowSettings = new ShadowSettings();
+        shadowBenchmark = new ShadowQualityBenchmark(shadowSettings);
+        profiler = new FrameProfiler();
 
         // Создание и настройка камеры
         camera = new Camera(new Vector3f(3.0f, 3.0f, 3.0f), new Vector3f(0.0f, 1.0f, 0.0f), -135.0f, -30.0f);
@@ -180,6 +374,19 @@ public class Core {
 
 
 
+        // Кеш текстур с готовыми mip-уровнями (TexturePreprocessor)
+        TextureCache.configure(options.getTextureCachePath() != null ? Paths.get(options.getTextureCachePath()) : null,
+                options.isCompressedTextures());
+        // Потоковая загрузка mip-уровней: при старте только мелкие уровни
+        TextureStreamer.setEnabled(options.isTextureStreaming());
+        // Формат вершин загружаемых моделей (сжатый по умолчанию)
+        ObjectLoader.setVertexFormat(options.getVertexFormat());
+        // Оптимизация порядка треугольников моделей, результат кешируется в .hmesh
+        MeshCache.configure(options.getMeshCachePath() != null ? Paths.get(options.getMeshCachePath()) : null,
+                options.isMeshOptimization(), options.isLod());
+        // Упрощённые уровни детализации выбираются по экранному размеру узлов
+        LodSelector.setEnabled(options.isLod());
+
         //FIXME: Загрузка моделей должна быть отдельно
 
         // Загрузка моделей и настройка материалов
@@ -197,99 +404,365 @@ public class Core {
 
         Mesh sun = ObjectLoader.loadObjModel("/Object/Primitives/sphere.obj");
 
-        scene = new Scene("default", LoadScene.loadScene("Scene/test.json"));
+        StressSceneGenerator.Config stressConfig = options.getStressConfig();
+        if (stressConfig != null) {
+            // Згенерована стрес-сцена замість файлу
+            scene = StressSceneGenerator.generate(stressConfig);
+        } else {
+            Node rootNode = options.getScenePath() != null
+                    ? LoadScene.loadSceneFromFile(options.getScenePath())
+                    : LoadScene.loadScene(EngineOptions.DEFAULT_SCENE);
+            if (rootNode == null) {
+                throw new RuntimeException("Ошибка загрузки сцены: " + getSceneName());
+            }
+            scene = new Scene("default", rootNode);
+        }
 //        scene = new Scene("default", node = new Node("empty"));
         node = scene.getRootNode();
 
+        // Текстури одного размера и формата - в общие массивы, чтобы не переключать их между материалами
+        if (options.isTextureArrays()) {
+            textureArrays = TextureArrayBuilder.build(node);
+        }
+
         grid = new Grid();
+        // Бесконечная сетка из фрагментного шейдера; при ошибке остаётся сетка из линий
+        if (!options.isLineGrid()) {
+            try {
+                proceduralGrid = new ProceduralGridRenderStrategy();
+                grid.setRenderStrategy(proceduralGrid);
+            } catch (IOException e) {
+                System.err.println("Ошибка загрузки шейдеров процедурной сетки: " + e.getMessage());
+            }
+        }
         editor = new Editor(inputManager, viewport, camera, node);
         camera.setEditor(editor); // Передаем editor
 
 
         transformTool = new TransformTool(editor, inputManager,camera,viewport,node);
 
-        gui = new GUI(window,editor,node,transformTool);
+        // Маршрут камери будується за розмірами сцени
+        if (options.getCameraPath() != null) {
+            node.updateWorldTransformation();
+            cameraPath = CameraPath.create(options.getCameraPath(), node);
+        }
+
+        if (options.isAnimate()) {
+            for (Node sceneNode : node.getAllNodes()) {
+                if (sceneNode.getNodeType() == Node.NodeType.DEFAULT) {
+                    for (Mesh mesh : sceneNode.getMeshes()) {
+                        mesh.setAnimated(true);
+                    }
+                }
+            }
+        }
+        // Обновление сцены переносится в отдельный поток; цикл рендеринга берёт его снимки
+        if (options.isSimulationThread()) {
+            simulation = new SimulationThread(node, commandQueue, options.getSimulationRate());
+            simulation.start();
+        }
+        // Удалённые меши освобождаются, когда их нет уже и в снимке, который рисуется
+        RetiredMeshes.setTickSource(simulation != null ? simulation::getNextSnapshotTick : snapshotWriter::getNextTick);
+
+        // Без окна интерфейс не нужен
+        if (options.isHeadless()) {
+            RenderStats.registerMBean();
+            return;
+        }
+
+        gui = new GUI(window,editor,node,transformTool,commandQueue);
+        gui.addPanel(new RenderSettingsPanel(0, 0, 320, 260, shadowSettings, shadowBenchmark, framePacer));
+        gui.addPanel(new ProfilerPanel(0, 0, 320, 360, profiler));
+        gui.addPanel(new RenderStatsPanel(0, 0, 320, 260));
+
+        // Статистика рендерингу доступна також через JMX
+        RenderStats.registerMBean();
+    }
+
+    private IShadowMap createShadowMap(ShadowTechnique technique) {
+        switch (technique) {
+            case POINT:
+                return new PointShadowMap(pointShadowShaderProgram, pointShadowResolution);
+            case ATLAS:
+                return new ShadowAtlas(shadowShaderProgram, shadowAtlasSize);
+            case DIRECTIONAL:
+            default:
+                return new ShadowMap(shadowShaderProgram);
+        }
     }
 
     private void loop() {
         // Колір фону
         glClearColor(0.3f, 0.3f, 0.3f, 1.0f);
 
-        ShadowRenderer shadowRenderer = new ShadowRenderer(shadowMap, shadowShaderProgram);
+        ShadowRenderer shadowRenderer = new ShadowRenderer(shadowMap,
+                shadowMap.isOmnidirectional() ? pointShadowShaderProgram : shadowShaderProgram);
+        // Ділянки профайлера кадру
+        ProfilerScope shadowPassScope = profiler.scope("Shadow pass");
+        ProfilerScope mainPassScope = profiler.scope("Main pass");
+        ProfilerScope gridScope = profiler.scope("Grid");
+        ProfilerScope pickingScope = profiler.scope("Picking");
+        ProfilerScope selectionScope = profiler.scope("Selection outline");
+        ProfilerScope gizmoScope = profiler.scope("Transform gizmo");
+        ProfilerScope imguiScope = profiler.scope("ImGui");
+
+        int frameIndex = 0;
+
         //FIXME: Оптимизировать
         while (!glfwWindowShouldClose(window)) {
+            long frameStartNanos = System.nanoTime();
+            framePacer.beginFrame();
+            profiler.beginFrame();
+            RenderStats.beginFrame();
+            TextureManager.beginFrame();
+            TextureArray.resetBinding();
+            // Дефрагментация общего буфера геометрии - до любых проходов рисования
+            GeometryArena.maintain();
+            // Область кольцевого буфера этого кадра - когда GPU дочитал её данные трёхкадровой давности
+            UniformRingBuffer.beginFrame();
+
+            // Положення на маршруті залежить лише від номера кадру, не від реального часу
+            if (cameraPath != null) {
+                int pathFrames = options.isHeadless()
+                        ? options.getWarmupFrames() + options.getFrames()
+                        : WINDOWED_PATH_FRAMES;
+                cameraPath.apply(camera, (float) frameIndex / pathFrames);
+            }
+
             // Оновлюємо контролер вводу
-            inputManager.update();
+            inputManager.update(framePacer.getDeltaSeconds());
+
+            // Бенчмарк тіней виставляє свою конфігурацію до рендерингу
+            shadowBenchmark.beginFrame();
+
+            // Состояние сцены: снимок потока симуляции с интерполяцией между шагами или шаг прямо в цикле
+            RenderSnapshot snapshot;
+            if (simulation != null) {
+                snapshot = simulation.acquireSnapshot();
+                snapshot.apply(simulation.getAlpha(snapshot, System.nanoTime()));
+            } else {
+                commandQueue.drain();
+                node.simulate(framePacer.getDeltaSeconds());
+                node.updateWorldTransformation();
+                snapshotWriter.write(node, frameSnapshot, frameStartNanos);
+                snapshot = frameSnapshot;
+                snapshot.apply(1.0f);
+            }
+            RetiredMeshes.release(snapshot.getTick());
 
             // Отримуємо позицію камери та матриці виду і проекції
             Vector3f cameraPosition = camera.getPosition();
             Matrix4f viewMatrix = camera.getViewMatrix();
             Matrix4f projectionMatrix = viewport.getProjectionMatrix();
 
-            // Отримуємо вузли джерел світла
-            List<Node> lightNodes = node.getLightNodes();
-            Vector3f lightPos = lightNodes.isEmpty() ? new Vector3f(5, 5, 5) : lightNodes.get(0).getPosition();
+            // Проходы рендеринга читают сцену только из снимка - поток симуляции они не блокируют
+
+            // Догрузка mip-уровней по экранному размеру мешей (в пределах бюджета на кадр)
+            TextureStreamer.update(snapshot, viewMatrix, projectionMatrix, HEIGHT, cameraPosition);
+            // Уровень детализации мешей по экранному размеру узла
+            LodSelector.update(snapshot, viewMatrix, projectionMatrix, HEIGHT, cameraPosition);
 
-            // Оновлюємо матрицю простору світла для тіней
+            // Джерела світла кадру зі знімка
+            LightUniforms.capture(snapshot);
+            Vector3f lightPos = snapshot.getLightCount() > 0
+                    ? snapshot.getLightPosition(0, new Vector3f())
+                    : new Vector3f(5, 5, 5);
+
+            // Розподіляємо тайли атласу між світлами шейдера та оновлюємо матрицю простору світла для тіней
+            shadowMap.assignLights(snapshot, LightUniforms.count(snapshot), cameraPosition, viewMatrix, projectionMatrix);
             shadowMap.updateLightSpaceMatrix(lightPos, new Vector3f(0, 0, 0), 0.1f, 25.0f);
 
-            // Перший прохід - рендеринг в карту тіней
-            shadowMap.bindForShadowPass();
-            // Рендеримо тільки основні об'єкти (не джерела світла та сітку)
-            for (Node child : node.getChildren()) {
-                if (child.getNodeType() == Node.NodeType.DEFAULT) {
-                    // Для тіньової карти використовуємо тільки основні вузли
-                    shadowRenderer.renderNodeShadows(child, shadowMap.getLightSpaceMatrix());
+            // Перший прохід - рендеринг в карту тіней (по грані на прохід, незмінені грані пропускаються)
+            shadowPassScope.begin();
+            shadowMap.prepareCasters(snapshot);
+            for (int face = 0; face < shadowMap.getFaceCount(); face++) {
+                if (!shadowMap.bindFaceForShadowPass(face)) {
+                    continue;
                 }
+                // Рендеримо тільки основні об'єкти (не джерела світла та сітку)
+                shadowRenderer.renderShadows(snapshot, shadowMap.getFaceLightSpaceMatrix(face), face);
             }
             shadowMap.unbind(WIDTH, HEIGHT);
+            bindOffscreenTarget();
+            shadowPassScope.end();
 
             // Другий прохід - основний рендеринг
+            mainPassScope.begin();
             glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
 
-            // Прив'язуємо текстуру тіньової карти
-            shadowMap.bindDepthMapForReading(1); // Текстурний блок 1
+            // Прив'язуємо текстуру тіньової карти (кубічна - на блок 2)
+            shadowMap.bindDepthMapForReading(shadowMap.isOmnidirectional() ? 2 : 1);
+            if (!shadowMap.isOmnidirectional()) {
+                // Та сама текстура на блоці з семплером порівняння для апаратного PCF
+                shadowSettings.bindCompareSampler(shadowMap);
+            }
 
             // Для кожної шейдерної програми передаємо тіньову карту
-            glUseProgram(mainShaderProgram);
-            int shadowMapLoc = glGetUniformLocation(mainShaderProgram, "shadowMap");
-            glUniform1i(shadowMapLoc, 1);  // Текстурний блок 1
-
-            int lightSpaceMatrixLoc = glGetUniformLocation(mainShaderProgram, "lightSpaceMatrix");
-            float[] lightSpaceMatrixData = new float[16];
-            shadowMap.getLightSpaceMatrix().get(lightSpaceMatrixData);
-            glUniformMatrix4fv(lightSpaceMatrixLoc, false, lightSpaceMatrixData);
-
-            // Рендеримо сцену звичайним чином
-            for (Node child : node.getChildren()) {
-                switch (child.getNodeType()) {
-                    case DEFAULT:
-                        child.render(mainShaderProgram, viewMatrix, projectionMatrix, cameraPosition);
-                        break;
-                    case LIGHT:
-                        child.render(lightShaderProgram, viewMatrix, projectionMatrix, cameraPosition);
-                        break;
-                }
+            applyShadowUniforms(mainShaderProgram);
+            if (indirectRenderer != null) {
+                applyShadowUniforms(indirectRenderer.getShaderProgram());
             }
 
+            // Рендерим сцену, отсортированную по программе, текстуре и материалу;
+            // с IndirectRenderer обычные меши идут несколькими glMultiDrawElementsIndirect, очередь рисует лишь источники света
+            if (indirectRenderer != null) {
+                indirectRenderer.render(snapshot, viewMatrix, projectionMatrix, cameraPosition);
+                renderQueue.build(snapshot, 0, lightShaderProgram);
+            } else {
+                renderQueue.build(snapshot, mainShaderProgram, lightShaderProgram);
+            }
+            renderQueue.render(viewMatrix, projectionMatrix, cameraPosition);
+            shadowSettings.unbindCompareSampler();
+            mainPassScope.end();
 
+            gridScope.begin();
             grid.render(gridShaderProgram, viewMatrix, projectionMatrix);
+            gridScope.end();
+
+            // Редактор, гизмо и панели GUI читают и меняют живое дерево - под блокировкой потока симуляции;
+            // отрисовка уже собранного кадра ImGui дерево не трогает и идёт без неё
+            lockScene();
+            pickingScope.begin();
             editor.update();
+            bindOffscreenTarget(); // Вибір об'єктів повертає екранний буфер
+            pickingScope.end();
+
+            selectionScope.begin();
             editor.renderSelection();
+            selectionScope.end();
 
+            gizmoScope.begin();
             transformTool.update();
+            gizmoScope.end();
 
-            gui.render();
+            if (gui != null) {
+                imguiScope.begin();
+                gui.buildFrame();
+            }
+            unlockScene();
+            if (gui != null) {
+                gui.renderDrawData();
+                imguiScope.end();
+            }
 
             // Вимикаємо шейдер
             glUseProgram(0);
-
-            glfwSwapBuffers(window);
+            // Геометрія видалених мешів - після всіх проходів кадру
+            RetiredMeshes.freeReleased();
+
+            // CPU-час кадру - до очікування на GPU
+            long cpuEndNanos = System.nanoTime();
+            if (options.isHeadless()) {
+                // Чекаємо на GPU, щоб час кадру включав і його роботу
+                glFinish();
+            } else {
+                glfwSwapBuffers(window);
+            }
+            UniformRingBuffer.endFrame();
+            // Обработчики событий меняют только ввод, камеру и размер кадра - не сцену
             glfwPollEvents();
+
+            profiler.endFrame();
+            RenderStats.endFrame();
+
+            // Час GPU основного проходу - вимірювання для бенчмарку тіней
+            double mainPassMillis = mainPassScope.getNewGpuMillis();
+            if (mainPassMillis >= 0) {
+                shadowBenchmark.addSample(mainPassMillis);
+            }
+
+            // Headless-прогін: прогрів, потім фіксована кількість виміряних кадрів
+            if (frameTimeRecorder != null) {
+                if (frameIndex >= options.getWarmupFrames()) {
+                    frameTimeRecorder.record((System.nanoTime() - frameStartNanos) / 1_000_000.0,
+                            (cpuEndNanos - frameStartNanos) / 1_000_000.0,
+                            profiler.getFrameGpuMillis());
+                }
+                if (frameTimeRecorder.isFull()) {
+                    glfwSetWindowShouldClose(window, true);
+                }
+            }
+            frameIndex++;
+
+            // Ограничитель FPS ждёт в самом конце - ожидание не попадает во время кадра профайлера и отчёта,
+            // а гистограмма FramePacer (от начала до начала кадра) показывает итоговый темп
+            framePacer.endFrame();
+        }
+
+        if (frameTimeRecorder != null) {
+            reportHeadlessRun();
+        }
+    }
+
+    private void lockScene() {
+        if (simulation != null) {
+            simulation.lock();
+        }
+    }
+
+    private void unlockScene() {
+        if (simulation != null) {
+            simulation.unlock();
+        }
+    }
+
+    private void bindOffscreenTarget() {
+        if (offscreenTarget != null) {
+            offscreenTarget.bind();
+        }
+    }
+
+    // Звіт headless-прогону: час кадрів та середній час ділянок профайлера
+    private void reportHeadlessRun() {
+        for (ProfilerScope scope : profiler.getScopes()) {
+            frameTimeRecorder.putMetric(scope.getName() + " CPU ms", profiler.average(scope.getCpuHistory()));
+            frameTimeRecorder.putMetric(scope.getName() + " GPU ms", profiler.average(scope.getGpuHistory()));
+        }
+        RenderStats.Snapshot stats = RenderStats.get().getLastFrame();
+        frameTimeRecorder.putMetric("Draw calls", stats.drawCalls);
+        frameTimeRecorder.putMetric("Triangles", stats.triangles);
+        frameTimeRecorder.putMetric("LOD triangles saved", LodSelector.getTrianglesSavedLastFrame());
+        frameTimeRecorder.putMetric("Uniform ring fence stalls", UniformRingBuffer.getFenceStalls());
+        if (simulation != null) {
+            frameTimeRecorder.putMetric("Simulation ticks", simulation.getTicks());
+            frameTimeRecorder.putMetric("Simulation step ms", simulation.getAverageStepMillis());
+            frameTimeRecorder.putMetric("Simulation dropped steps", simulation.getDroppedSteps());
+        }
+        if (OcclusionCuller.isEnabled()) {
+            frameTimeRecorder.putMetric("Occlusion rejected draws", OcclusionCuller.getRejectedLastFrame());
+        }
+
+        FrameTimeRecorder.Report report = frameTimeRecorder.summarize(getSceneName(), options.getCameraPath());
+        FrameTimeRecorder.print(report);
+
+        if (options.getReportPath() != null) {
+            try {
+                FrameTimeRecorder.writeJson(report, Paths.get(options.getReportPath()));
+                System.out.println("Звіт записано: " + options.getReportPath());
+            } catch (IOException e) {
+                System.err.println("Помилка при записі звіту: " + e.getMessage());
+            }
+        }
+    }
+
+    // Назва сцени для звітів: параметри стрес-сцени або шлях до файлу
+    private String getSceneName() {
+        if (options.getStressConfig() != null) {
+            return options.getStressConfig().describe();
+        }
+        return options.getScenePath() != null ? options.getScenePath() : EngineOptions.DEFAULT_SCENE;
+    }
+
+    // Чи є дисплей, на якому GLFW може створити вікно
+    private static boolean hasDisplay() {
+        String os = System.getProperty("os.name", "").toLowerCase();
+        if (os.contains("win") || os.contains("mac")) {
+            return true;
         }
+        return System.getenv("DISPLAY") != null || System.getenv("WAYLAND_DISPLAY") != null;
     }
 
     public static void main(String[] args) {
-        new Core().run();
+        new Core(EngineOptions.parse(args)).run();
     }
 }
\ No newline at end of file
@@ -6,4 +6,8 @@ import org.example.Node;
 public interface Component {
     void setNode(Node node);
     void cleanup();
+
+    // Шаг симуляции (Node.simulate); с SimulationThread вызывается из его потока с фиксированным шагом
+    default void update(float deltaSeconds) {
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.example.Editor;
 
 import imgui.ImGui;
 import org.example.*;
+import org.example.Profiler.RenderStats;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
@@ -226,6 +227,7 @@ public class Editor implements NodeListener {
         // Расположение униформ в шейдере
         int mvpLoc = glGetUniformLocation(pickingShaderProgram, "mvp");
         int colorLoc = glGetUniformLocation(pickingShaderProgram, "objectColor");
+        RenderStats.programBind();
 
         // Рендерим усі типи вузлів
         for (Node rootNode : toolRootNodes.values()) {
@@ -252,6 +254,7 @@ public class Editor implements NodeListener {
 
             // Устанавливаем цвет для выбора
             glUniform3f(colorLoc, nodeColor.x, nodeColor.y, nodeColor.z);
+            RenderStats.uniformUpload();
 
             // Рендерим все меши узла
             for (Mesh mesh : node.getMeshes()) {
@@ -260,16 +263,19 @@ public class Editor implements NodeListener {
                 // Вычисляем и передаем MVP матрицу
                 Matrix4f mvpMatrix = new Matrix4f();
                 projectionMatrix.mul(viewMatrix, mvpMatrix);
-                mvpMatrix.mul(modelMatrix);
+                mvpMatrix.mul(modelMatrix).mul(mesh.getDecodeMatrix());
 
                 float[] mvpBuffer = new float[16];
                 mvpMatrix.get(mvpBuffer);
                 glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+                RenderStats.uniformUpload();
 
                 // Рендерим меш (только геометрию, без материалов)
                 glBindVertexArray(mesh.getVaoID());
-                glDrawElements(GL_TRIANGLES, mesh.getIndices().length, GL_UNSIGNED_INT, 0);
+                mesh.draw();
                 glBindVertexArray(0);
+                RenderStats.vaoBind();
+                RenderStats.drawCall(mesh.getVertexCount());
             }
         }
 
@@ -437,6 +443,8 @@ public class Editor implements NodeListener {
 
             // Устанавливаем оранжевый цвет для выделения
             glUniform3f(colorLoc, 1.0f, 0.5f, 0.0f);
+            RenderStats.programBind();
+            RenderStats.uniformUpload();
 
             // Рендерим все меши выбранного узла
             selectedNode.updateWorldTransformation();
@@ -446,16 +454,19 @@ public class Editor implements NodeListener {
                 // Вычисляем и передаем MVP матрицу
                 Matrix4f mvpMatrix = new Matrix4f();
                 projectionMatrix.mul(viewMatrix, mvpMatrix);
-                mvpMatrix.mul(modelMatrix);
+                mvpMatrix.mul(modelMatrix).mul(mesh.getDecodeMatrix());
 
                 float[] mvpBuffer = new float[16];
                 mvpMatrix.get(mvpBuffer);
                 glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+                RenderStats.uniformUpload();
 
                 // Рендерим меш
                 glBindVertexArray(mesh.getVaoID());
-                glDrawElements(GL_TRIANGLES, mesh.getIndices().length, GL_UNSIGNED_INT, 0);
+                mesh.draw();
                 glBindVertexArray(0);
+                RenderStats.vaoBind();
+                RenderStats.drawCall(mesh.getVertexCount());
             }
 
             // Восстанавливаем предыдущее состояние OpenGL
@@ -493,18 +493,25 @@ public class TransformTool implements EditorListener {
 
     // Проекція руху миші на площину екрану
     private Vector3f calculateProjection(Vector2f delta, TransformAxis axis, TransformMode transformMode) {
-        Vector3f cameraRight = camera.getRightVector();
-        Vector3f cameraUp = camera.getUpVector();
-        Vector3f cameraForward = camera.getFront();
+        Vector3f start = transformMode == TransformMode.TRANSLATE ? startPosition : startScale;
+        return calculateProjection(delta, axis, transformMode, start, camera.getRightVector(), camera.getUpVector());
+    }
 
+    /**
+     * Проекція руху миші на вісь інструменту без стану редактора (чиста функція, зручна для бенчмарків).
+     *
+     * @param start початкова позиція (TRANSLATE) або масштаб (SCALE)
+     * @return новий вектор; null для режиму ROTATE
+     */
+    public static Vector3f calculateProjection(Vector2f delta, TransformAxis axis, TransformMode transformMode,
+                                               Vector3f start, Vector3f cameraRight, Vector3f cameraUp) {
         // Для перемещения и масштабирования
         Vector3f result = null;
 
 
         if (transformMode == TransformMode.TRANSLATE || transformMode == TransformMode.SCALE) {
             // Начальный вектор в зависимости от операции
-            result = transformMode == TransformMode.TRANSLATE ?
-                    new Vector3f(startPosition) : new Vector3f(startScale);
+            result = new Vector3f(start);
         }
 
         switch (axis) {
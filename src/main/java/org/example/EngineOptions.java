@@ -0,0 +1,360 @@
+package org.example;
+
+import org.example.Benchmark.StressSceneGenerator;
+import org.example.Render.Shadow.ShadowTechnique;
+import org.example.Render.VertexFormat;
+
+/**
+ * Параметри запуску рушія з командного рядка.
+ *
+ * Підтримувані аргументи:
+ * - `--headless` – без видимого вікна: рендеринг у FBO, без вертикальної синхронізації та GUI,
+ *   фіксована кількість кадрів і звіт про час кадрів наприкінці.
+ * - `--frames N` – кількість кадрів, що вимірюються в headless-режимі (за замовчуванням 600).
+ * - `--warmup N` – кадри прогріву перед вимірюванням (за замовчуванням 60).
+ * - `--scene PATH` – файл сцени на диску; без нього завантажується ресурс DEFAULT_SCENE.
+ * - `--width N`, `--height N` – розмір кадру.
+ * - `--no-vsync` – вимикає вертикальну синхронізацію у віконному режимі (режим uncapped).
+ * - `--frame-pacing vsync|adaptive|uncapped|limited` – темп кадрів (FramePacer); за замовчуванням vsync,
+ *   у headless-режимі uncapped.
+ * - `--fps-cap N` – обмеження кадрів за секунду для режиму limited (без --frame-pacing вмикає його).
+ * - `--report PATH` – JSON-файл для звіту headless-прогону.
+ * - `--cubes N`, `--lights M`, `--depth D`, `--textured` – замість файлу сцени згенерувати стрес-сцену
+ *   (StressSceneGenerator): N кубів ланцюжками глибини D, M джерел світла (за замовчуванням 1 і 1).
+ * - `--model PATH` – модель-ресурс для вузлів стрес-сцени замість куба (наприклад /Object/Primitives/SphereHighPoly.obj).
+ * - `--camera-path orbit|flyby|none` – маршрут камери (CameraPath); за замовчуванням orbit у headless-режимі.
+ * - `--texture-cache DIR` – каталог з файлами .htex (TexturePreprocessor) з готовими mip-рівнями.
+ * - `--no-compressed-textures` – не використовувати стислі файли кешу, декодувати PNG/JPG.
+ * - `--no-texture-arrays` – не пакувати однакові за розміром текстури в масиви (TextureArrayBuilder).
+ * - `--texture-streaming` – потокове завантаження mip-рівнів (TextureStreamer) замість повного при старті.
+ * - `--indirect-draw` – запитати контекст OpenGL 4.3 і малювати сцену через glMultiDrawElementsIndirect
+ *   (IndirectRenderer); без підтримки 4.3 лишається звичайний шлях OpenGL 3.3.
+ * - `--mesh-cache DIR` – каталог для файлів .hmesh з оптимізованою геометрією моделей (MeshCache).
+ * - `--no-mesh-optimization` – завантажувати моделі без оптимізації порядку трикутників і вершин.
+ * - `--gpu-occlusion-queries` – апаратні запити перекриття GPU (GL_ANY_SAMPLES_PASSED, OcclusionCuller):
+ *   умовне малювання мешів основного проходу RenderQueue, перекритих у попередньому кадрі.
+ *   Не діє на `--indirect-draw` і проходи тіней; програмного відсікання на CPU немає.
+ * - `--depth-prepass` – попередній прохід глибини і кольоровий прохід з GL_EQUAL (DepthPrepass).
+ * - `--line-grid` – стара сітка з ліній ±10 одиниць замість нескінченної процедурної (ProceduralGridRenderStrategy).
+ * - `--no-lod` – не генерувати спрощені рівні деталізації моделей і завжди малювати вихідну геометрію.
+ * - `--simulation-thread` – оновлення сцени з фіксованим кроком в окремому потоці (SimulationThread),
+ *   рендеринг інтерполює між кроками.
+ * - `--simulation-rate N` – кроків симуляції за секунду (за замовчуванням 60).
+ * - `--animate` – обертати меші сцени (анімація Mesh.update), щоб було що симулювати.
+ * - `--shadows directional|point|atlas` – карта тіней (ShadowTechnique): одна ортографічна (за замовчуванням),
+ *   кубічна для точкового світла (PointShadowMap) або атлас тайлів для кількох світел (ShadowAtlas).
+ * - `--vertex-format compact|standard` – розкладка вершин моделей (VertexFormat); за замовчуванням compact.
+ */
+public class EngineOptions {
+    public static final String DEFAULT_SCENE = "Scene/test.json";
+
+    private boolean headless = false;
+    private boolean vsync = true;
+    private FramePacer.Mode framePacing = null;
+    private int fpsCap = 0;
+    private int frames = 600;
+    private int warmupFrames = 60;
+    private String scenePath = null;
+    private int width = 1280;
+    private int height = 720;
+    private String reportPath = null;
+
+    private int stressCubes = 0;
+    private int stressLights = 1;
+    private int stressDepth = 1;
+    private boolean stressTextured = false;
+    private String stressModel = null;
+    private String cameraPath = null;
+    private String textureCachePath = null;
+    private boolean compressedTextures = true;
+    private boolean textureArrays = true;
+    private boolean textureStreaming = false;
+    private boolean indirectDraw = false;
+    private VertexFormat vertexFormat = VertexFormat.COMPACT;
+    private ShadowTechnique shadowTechnique = ShadowTechnique.DIRECTIONAL;
+    private String meshCachePath = null;
+    private boolean meshOptimization = true;
+    private boolean lod = true;
+    private boolean gpuOcclusionQueries = false;
+    private boolean depthPrepass = false;
+    private boolean lineGrid = false;
+    private boolean simulationThread = false;
+    private int simulationRate = 60;
+    private boolean animate = false;
+
+    public static EngineOptions parse(String[] args) {
+        EngineOptions options = new EngineOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--headless":
+                    options.headless = true;
+                    options.vsync = false;
+                    break;
+                case "--no-vsync":
+                    options.vsync = false;
+                    break;
+                case "--frame-pacing":
+                    options.framePacing = FramePacer.Mode.parse(value(args, ++i));
+                    break;
+                case "--fps-cap":
+                    options.fpsCap = parsePositive(args, ++i);
+                    break;
+                case "--frames":
+                    options.frames = parsePositive(args, ++i);
+                    break;
+                case "--warmup":
+                    options.warmupFrames = parseNonNegative(args, ++i);
+                    break;
+                case "--scene":
+                    options.scenePath = value(args, ++i);
+                    break;
+                case "--width":
+                    options.width = parsePositive(args, ++i);
+                    break;
+                case "--height":
+                    options.height = parsePositive(args, ++i);
+                    break;
+                case "--report":
+                    options.reportPath = value(args, ++i);
+                    break;
+                case "--cubes":
+                    options.stressCubes = parsePositive(args, ++i);
+                    break;
+                case "--lights":
+                    options.stressLights = parseNonNegative(args, ++i);
+                    break;
+                case "--depth":
+                    options.stressDepth = parsePositive(args, ++i);
+                    break;
+                case "--textured":
+                    options.stressTextured = true;
+                    break;
+                case "--model":
+                    options.stressModel = value(args, ++i);
+                    break;
+                case "--texture-cache":
+                    options.textureCachePath = value(args, ++i);
+                    break;
+                case "--no-compressed-textures":
+                    options.compressedTextures = false;
+                    break;
+                case "--no-texture-arrays":
+                    options.textureArrays = false;
+                    break;
+                case "--texture-streaming":
+                    options.textureStreaming = true;
+                    break;
+                case "--indirect-draw":
+                    options.indirectDraw = true;
+                    break;
+                case "--mesh-cache":
+                    options.meshCachePath = value(args, ++i);
+                    break;
+                case "--no-mesh-optimization":
+                    options.meshOptimization = false;
+                    break;
+                case "--gpu-occlusion-queries":
+                    options.gpuOcclusionQueries = true;
+                    break;
+                case "--depth-prepass":
+                    options.depthPrepass = true;
+                    break;
+                case "--line-grid":
+                    options.lineGrid = true;
+                    break;
+                case "--no-lod":
+                    options.lod = false;
+                    break;
+                case "--simulation-thread":
+                    options.simulationThread = true;
+                    break;
+                case "--simulation-rate":
+                    options.simulationRate = parsePositive(args, ++i);
+                    break;
+                case "--animate":
+                    options.animate = true;
+                    break;
+                case "--shadows":
+                    options.shadowTechnique = ShadowTechnique.parse(value(args, ++i));
+                    break;
+                case "--vertex-format":
+                    options.vertexFormat = VertexFormat.parse(value(args, ++i));
+                    break;
+                case "--camera-path":
+                    options.cameraPath = value(args, ++i);
+                    if (!options.cameraPath.equals("orbit") && !options.cameraPath.equals("flyby")
+                            && !options.cameraPath.equals("none")) {
+                        throw new IllegalArgumentException("Невідомий маршрут камери: " + options.cameraPath);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Невідомий аргумент: " + args[i]);
+            }
+        }
+        if (options.scenePath != null && options.stressCubes > 0) {
+            throw new IllegalArgumentException("--scene та --cubes не можна використовувати разом");
+        }
+        if (options.stressModel != null && options.stressCubes == 0) {
+            throw new IllegalArgumentException("--model використовується лише разом з --cubes");
+        }
+        return options;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Аргумент " + args[index - 1] + " потребує значення");
+        }
+        return args[index];
+    }
+
+    private static int parseNonNegative(String[] args, int index) {
+        String value = value(args, index);
+        try {
+            int result = Integer.parseInt(value);
+            if (result < 0) {
+                throw new IllegalArgumentException("Значення " + args[index - 1] + " не може бути від'ємним: " + value);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Очікується число для " + args[index - 1] + ": " + value);
+        }
+    }
+
+    private static int parsePositive(String[] args, int index) {
+        int result = parseNonNegative(args, index);
+        if (result == 0) {
+            throw new IllegalArgumentException("Значення " + args[index - 1] + " має бути більше нуля");
+        }
+        return result;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public boolean isVsync() {
+        return vsync;
+    }
+
+    // Явний режим, інакше limited з --fps-cap, інакше за вертикальною синхронізацією
+    public FramePacer.Mode getFramePacing() {
+        if (framePacing != null) {
+            return framePacing;
+        }
+        if (fpsCap > 0) {
+            return FramePacer.Mode.LIMITED;
+        }
+        return vsync ? FramePacer.Mode.VSYNC : FramePacer.Mode.UNCAPPED;
+    }
+
+    // Обмеження FPS для режиму limited; без --fps-cap - 60
+    public int getFpsCap() {
+        return fpsCap > 0 ? fpsCap : 60;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public int getWarmupFrames() {
+        return warmupFrames;
+    }
+
+    // Шлях до файлу сцени або null - тоді використовується ресурс DEFAULT_SCENE
+    public String getScenePath() {
+        return scenePath;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public String getReportPath() {
+        return reportPath;
+    }
+
+    // Параметри стрес-сцени або null, якщо сцена завантажується з файлу
+    public StressSceneGenerator.Config getStressConfig() {
+        if (stressCubes == 0) {
+            return null;
+        }
+        return new StressSceneGenerator.Config(stressCubes, stressLights, stressDepth, stressTextured, stressModel);
+    }
+
+    // Назва маршруту камери або null, якщо камера керується лише користувачем
+    public String getCameraPath() {
+        if (cameraPath == null) {
+            return headless ? "orbit" : null;
+        }
+        return cameraPath.equals("none") ? null : cameraPath;
+    }
+
+    // Каталог кешу текстур або null
+    public String getTextureCachePath() {
+        return textureCachePath;
+    }
+
+    public boolean isCompressedTextures() {
+        return compressedTextures;
+    }
+
+    public boolean isTextureArrays() {
+        return textureArrays;
+    }
+
+    public boolean isTextureStreaming() {
+        return textureStreaming;
+    }
+
+    public boolean isIndirectDraw() {
+        return indirectDraw;
+    }
+
+    public VertexFormat getVertexFormat() {
+        return vertexFormat;
+    }
+
+    public ShadowTechnique getShadowTechnique() {
+        return shadowTechnique;
+    }
+
+    public String getMeshCachePath() {
+        return meshCachePath;
+    }
+
+    public boolean isMeshOptimization() {
+        return meshOptimization;
+    }
+
+    public boolean isLod() {
+        return lod;
+    }
+
+    public boolean isGpuOcclusionQueries() {
+        return gpuOcclusionQueries;
+    }
+
+    public boolean isDepthPrepass() {
+        return depthPrepass;
+    }
+
+    public boolean isLineGrid() {
+        return lineGrid;
+    }
+
+    public boolean isSimulationThread() {
+        return simulationThread;
+    }
+
+    public int getSimulationRate() {
+        return simulationRate;
+    }
+
+    public boolean isAnimate() {
+        return animate;
+    }
+}
@@ -0,0 +1,204 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+/**
+ * Темп кадрів: вертикальна синхронізація, режим без обмежень та обмеження FPS.
+ *
+ * Основні функції:
+ * - Режими: VSYNC (інтервал обміну 1), ADAPTIVE (інтервал -1 - пропущений кадр показується одразу,
+ *   якщо драйвер підтримує *_EXT_swap_control_tear, інакше як VSYNC), UNCAPPED (інтервал 0)
+ *   та LIMITED (інтервал 0 і очікування до наступного дедлайну 1 / fpsCap).
+ * - Очікування спершу спить (LockSupport.parkNanos) до SPIN_THRESHOLD_NANOS перед дедлайном, далі
+ *   крутиться на System.nanoTime: точність сну ОС (1-15 мс) не зсуває кадр. Дедлайни йдуть із
+ *   кроком періоду, тож похибка не накопичується; після довгого кадру відлік починається заново.
+ * - Єдиний монотонний годинник рушія: `beginFrame()` рахує крок часу між кадрами (System.nanoTime),
+ *   його беруть InputManager та оновлення сцени.
+ * - Гістограма тривалості кадрів (відрізок від початку кадру до початку наступного) з кошиками
+ *   по HISTOGRAM_BUCKET_MS і перцентилями; публікується в знімку RenderStats (RenderStatsPanel, JMX).
+ *
+ * Методи, що змінюють інтервал обміну, викликаються з потоку з контекстом OpenGL.
+ */
+public class FramePacer {
+    public enum Mode {
+        VSYNC, ADAPTIVE, UNCAPPED, LIMITED;
+
+        public static Mode parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Невідомий режим темпу кадрів: " + name);
+            }
+        }
+    }
+
+    public static final float HISTOGRAM_BUCKET_MS = 1.0f;
+    public static final int HISTOGRAM_BUCKETS = 50;
+    // Останній відрізок перед дедлайном, який очікується активно
+    private static final long SPIN_THRESHOLD_NANOS = 2_000_000L;
+    // Довший крок часу не передається далі (пауза в налагоджувачі, перетягування вікна)
+    private static final float MAX_DELTA_SECONDS = 0.25f;
+
+    private Mode mode = Mode.VSYNC;
+    private int fpsCap = 60;
+    private boolean adaptiveSupported = false;
+
+    private long lastFrameStart = 0L;
+    private long nextDeadline = 0L;
+    private float deltaSeconds = 0.0f;
+
+    // Останній кошик - усі кадри, довші за діапазон гістограми
+    private final float[] histogram = new float[HISTOGRAM_BUCKETS];
+    private long histogramFrames = 0;
+    private double histogramSumMillis = 0.0;
+    private float histogramMaxMillis = 0.0f;
+    private long limiterWaitNanos = 0;
+
+    /**
+     * Застосувати режим до поточного контексту
+     *
+     * @param fpsCap обмеження кадрів за секунду для LIMITED
+     */
+    public void setMode(Mode mode, int fpsCap) {
+        if (fpsCap <= 0) {
+            throw new IllegalArgumentException("Обмеження FPS має бути більше нуля: " + fpsCap);
+        }
+        this.mode = mode;
+        this.fpsCap = fpsCap;
+        adaptiveSupported = glfwExtensionSupported("WGL_EXT_swap_control_tear")
+                || glfwExtensionSupported("GLX_EXT_swap_control_tear");
+        switch (mode) {
+            case VSYNC:
+                glfwSwapInterval(1);
+                break;
+            case ADAPTIVE:
+                glfwSwapInterval(adaptiveSupported ? -1 : 1);
+                break;
+            case UNCAPPED:
+            case LIMITED:
+                glfwSwapInterval(0);
+                break;
+        }
+        nextDeadline = 0L;
+        limiterWaitNanos = 0;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getFpsCap() {
+        return fpsCap;
+    }
+
+    // Драйвер підтримує адаптивну синхронізацію (інакше ADAPTIVE працює як VSYNC)
+    public boolean isAdaptiveSupported() {
+        return adaptiveSupported;
+    }
+
+    /**
+     * Початок кадру: крок часу від попереднього кадру і запис його тривалості в гістограму
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        if (lastFrameStart != 0L) {
+            long frameNanos = now - lastFrameStart;
+            deltaSeconds = Math.min(frameNanos / 1_000_000_000.0f, MAX_DELTA_SECONDS);
+            record(frameNanos / 1_000_000.0f);
+        }
+        lastFrameStart = now;
+    }
+
+    /**
+     * Кінець кадру (після обміну буферів): у режимі LIMITED чекати до дедлайну наступного кадру
+     */
+    public void endFrame() {
+        if (mode != Mode.LIMITED) {
+            return;
+        }
+        long period = 1_000_000_000L / fpsCap;
+        long now = System.nanoTime();
+        // Перший кадр або кадр довший за період - відлік від поточного моменту, без догону
+        if (nextDeadline == 0L || now - nextDeadline > period) {
+            nextDeadline = now + period;
+        } else {
+            nextDeadline += period;
+        }
+
+        long waitStart = now;
+        long remaining;
+        while ((remaining = nextDeadline - System.nanoTime()) > SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+        }
+        while (nextDeadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+        limiterWaitNanos = System.nanoTime() - waitStart;
+    }
+
+    private void record(float frameMillis) {
+        int bucket = Math.min((int) (frameMillis / HISTOGRAM_BUCKET_MS), HISTOGRAM_BUCKETS - 1);
+        histogram[bucket]++;
+        histogramFrames++;
+        histogramSumMillis += frameMillis;
+        histogramMaxMillis = Math.max(histogramMaxMillis, frameMillis);
+    }
+
+    // Крок часу між початками двох останніх кадрів, секунди
+    public float getDeltaSeconds() {
+        return deltaSeconds;
+    }
+
+    // Кількість кадрів у кошиках по HISTOGRAM_BUCKET_MS (для ImGui.plotHistogram)
+    public float[] getHistogram() {
+        return histogram;
+    }
+
+    public long getHistogramFrames() {
+        return histogramFrames;
+    }
+
+    public double getAverageMillis() {
+        return histogramFrames > 0 ? histogramSumMillis / histogramFrames : 0.0;
+    }
+
+    public float getMaxMillis() {
+        return histogramMaxMillis;
+    }
+
+    /**
+     * Перцентиль тривалості кадру за гістограмою (верхня межа кошика)
+     *
+     * @param fraction частка кадрів, наприклад 0.99
+     */
+    public float getPercentileMillis(double fraction) {
+        if (histogramFrames == 0) {
+            return 0.0f;
+        }
+        long threshold = (long) Math.ceil(histogramFrames * fraction);
+        long accumulated = 0;
+        for (int i = 0; i < HISTOGRAM_BUCKETS - 1; i++) {
+            accumulated += (long) histogram[i];
+            if (accumulated >= threshold) {
+                return (i + 1) * HISTOGRAM_BUCKET_MS;
+            }
+        }
+        return histogramMaxMillis;
+    }
+
+    // Час очікування обмежувача в останньому кадрі, мс
+    public float getLimiterWaitMillis() {
+        return limiterWaitNanos / 1_000_000.0f;
+    }
+
+    public void resetHistogram() {
+        Arrays.fill(histogram, 0.0f);
+        histogramFrames = 0;
+        histogramSumMillis = 0.0;
+        histogramMaxMillis = 0.0f;
+    }
+}
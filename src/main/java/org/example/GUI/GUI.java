@@ -9,6 +9,7 @@ import org.example.Editor.Editor;
 import org.example.Editor.TransformTool;
 import org.example.Node;
 import org.example.Scene.Scene;
+import org.example.Simulation.SceneCommandQueue;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -63,11 +64,19 @@ public class GUI {
     private ToolBarPanel toolBarPanel;
     private NodeTreePanel nodeTreePanel;
     private NodePropertiesPanel nodePropertiesPanel;
+    private final SceneCommandQueue commandQueue;
 
-    public GUI(long window, Editor editor, Node node, TransformTool transformTool) {
+    // Додаткові панелі (налаштування рендерингу тощо) - розташовуються стовпчиком справа над сценою
+    private List<AbstractPanel> overlayPanels = new ArrayList<>();
+
+    /**
+     * @param commandQueue черга змін сцени для панелі властивостей
+     */
+    public GUI(long window, Editor editor, Node node, TransformTool transformTool, SceneCommandQueue commandQueue) {
         this.window = window;
         this.editor = editor;
         this.transformTool = transformTool;
+        this.commandQueue = commandQueue;
 
         initImGui();
         initPanels(node);
@@ -132,7 +141,7 @@ public class GUI {
         nodePropertiesPanel = new NodePropertiesPanel(
                 displayWidth - rightPanelWidth, topBarHeight,
                 rightPanelWidth, displayHeight - topBarHeight,
-                editor);
+                editor, commandQueue);
         panels.add(nodePropertiesPanel);
 
         // Ініціалізація всіх панелей
@@ -141,7 +150,21 @@ public class GUI {
         }
     }
 
+    // Додає панель поверх сцени; позицію панелі задає updateLayout()
+    public void addPanel(AbstractPanel panel) {
+        overlayPanels.add(panel);
+        panels.add(panel);
+        panel.init();
+        updateLayout();
+    }
+
     public void render() {
+        buildFrame();
+        renderDrawData();
+    }
+
+    // Кадр інтерфейсу: панелі читають і змінюють сцену (з потоком симуляції - під його блокуванням)
+    public void buildFrame() {
         imGuiGlfw.newFrame();
         ImGui.newFrame();
 
@@ -151,6 +174,10 @@ public class GUI {
         }
 
         ImGui.render();
+    }
+
+    // Малювання зібраного кадру; сцену не читає
+    public void renderDrawData() {
         imGuiGl3.renderDrawData(ImGui.getDrawData());
 
         updateLayout(); // Оновлюємо
@@ -194,5 +221,20 @@ public class GUI {
 
         nodePropertiesPanel.setPosition(displayWidth - rightPanelWidth, topBarHeight);
         nodePropertiesPanel.setSize(rightPanelWidth, displayHeight - topBarHeight);
+
+        // Додаткові панелі - стовпчиками справа наліво, новий стовпчик, коли не вистачає висоти
+        float columnRight = displayWidth - rightPanelWidth;
+        float columnWidth = 0;
+        float overlayY = topBarHeight + topToolBarHeight;
+        for (AbstractPanel panel : overlayPanels) {
+            if (overlayY > topBarHeight + topToolBarHeight && overlayY + panel.getHeight() > displayHeight) {
+                columnRight -= columnWidth;
+                columnWidth = 0;
+                overlayY = topBarHeight + topToolBarHeight;
+            }
+            panel.setPosition(columnRight - panel.getWidth(), overlayY);
+            columnWidth = Math.max(columnWidth, panel.getWidth());
+            overlayY += panel.getHeight();
+        }
     }
 }
\ No newline at end of file
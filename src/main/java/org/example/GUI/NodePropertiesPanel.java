@@ -5,6 +5,7 @@ import imgui.type.ImFloat;
 import imgui.type.ImString;
 import org.example.*;
 import org.example.Editor.Editor;
+import org.example.Simulation.SceneCommandQueue;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
@@ -21,6 +22,8 @@ import java.util.List;
  * - Надає можливість змінювати матеріали, текстури та використовувати готові пресети.
  * - Дозволяє додавати або видаляти 3D-моделі (меші) у вибраного вузла.
  * - Підтримує додавання компонентів, таких як фізика, аудіо або скриптові модулі.
+ * - Зміни вузлів (назва, трансформація, видимість, меші, пресети матеріалів) не застосовуються напряму,
+ *   а додаються в SceneCommandQueue і виконуються потоком оновлення сцени.
  *
  * Основні методи:
  * - `renderContent()` – відображає вміст панелі, оновлюючи значення параметрів вибраного вузла.
@@ -36,11 +39,13 @@ import java.util.List;
 
 public class NodePropertiesPanel extends AbstractPanel {
     private Editor editor;
+    private final SceneCommandQueue commandQueue;
     private List<String> availableMeshes;
     private ImString nodeName = new ImString(64);
     private Vector3f position = new Vector3f(0, 0, 0);
     private Vector3f rotation = new Vector3f(0, 0, 0);
     private Vector3f scale = new Vector3f(1, 1, 1);
+    private boolean visible = true;
 
     // Матеріал
     private Vector3f ambient = new Vector3f(0.2f, 0.2f, 0.2f);
@@ -52,9 +57,11 @@ public class NodePropertiesPanel extends AbstractPanel {
     private TextureLoader diffuseMap;
     private List<String> availableTextures;
 
-    public NodePropertiesPanel(float posX, float posY, float width, float height, Editor editor) {
+    public NodePropertiesPanel(float posX, float posY, float width, float height, Editor editor,
+                               SceneCommandQueue commandQueue) {
         super("Properties", posX, posY, width, height);
         this.editor = editor;
+        this.commandQueue = commandQueue;
 
         // Ініціалізація списку доступних моделей
         this.availableMeshes = new ArrayList<>();
@@ -80,13 +87,23 @@ public class NodePropertiesPanel extends AbstractPanel {
             return;
         }
 
-        // Оновлюємо значення UI, коли вибраний вузол
-        updateUIValues(selectedNode);
+        // Оновлюємо значення UI, коли вибраний вузол. Поки поле редагується, команди ще в черзі -
+        // значення з вузла відстають і не повинні перетирати введене
+        if (!ImGui.isAnyItemActive()) {
+            updateUIValues(selectedNode);
+        }
 
         // Назва вузла
         ImGui.text("Name:");
         if (ImGui.inputText("##NodeName", nodeName)) {
-            selectedNode.setName(nodeName.get());
+            String name = nodeName.get();
+            commandQueue.submit(() -> selectedNode.setName(name));
+        }
+
+        if (ImGui.checkbox("Visible", visible)) {
+            visible = !visible;
+            boolean value = visible;
+            commandQueue.submit(() -> selectedNode.setVisible(value));
         }
 
         // ID вузла
@@ -99,7 +116,7 @@ public class NodePropertiesPanel extends AbstractPanel {
             float[] posArr = {position.x, position.y, position.z};
             if (ImGui.dragFloat3("##Position", posArr, 0.1f)) {
                 position.set(posArr);
-                selectedNode.setPosition(position.x, position.y, position.z);
+                commandQueue.submit(() -> selectedNode.setPosition(posArr[0], posArr[1], posArr[2]));
             }
 
             // Поворот
@@ -107,11 +124,11 @@ public class NodePropertiesPanel extends AbstractPanel {
             float[] rotArr = {rotation.x, rotation.y, rotation.z};
             if (ImGui.dragFloat3("##Rotation", rotArr, 0.1f)) {
                 rotation.set(rotArr[0], rotArr[1], rotArr[2]); // Update local rotation vector
-                selectedNode.setRotation(
-                        (float) Math.toRadians(rotation.x),
-                        (float) Math.toRadians(rotation.y),
-                        (float) Math.toRadians(rotation.z)
-                );
+                commandQueue.submit(() -> selectedNode.setRotation(
+                        (float) Math.toRadians(rotArr[0]),
+                        (float) Math.toRadians(rotArr[1]),
+                        (float) Math.toRadians(rotArr[2])
+                ));
             }
 
             // Масштаб
@@ -119,7 +136,7 @@ public class NodePropertiesPanel extends AbstractPanel {
             float[] scaleArr = {scale.x, scale.y, scale.z};
             if (ImGui.dragFloat3("##Scale", scaleArr, 0.1f)) {
                 scale.set(scaleArr);
-                selectedNode.setScale(scale.x, scale.y, scale.z);
+                commandQueue.submit(() -> selectedNode.setScale(scaleArr[0], scaleArr[1], scaleArr[2]));
             }
         }
 
@@ -146,11 +163,14 @@ public class NodePropertiesPanel extends AbstractPanel {
                 ImGui.text("Доступні моделі:");
                 for (String meshPath : availableMeshes) {
                     if (ImGui.selectable(meshPath)) {
+                        // Завантаження в буфери GPU - тут, у потоці з контекстом OpenGL
                         Mesh mesh = ObjectLoader.loadObjModel(meshPath);
                         mesh.setShaderMaterial(ShaderMaterial.createSilver());
-                        selectedNode.addMesh(mesh);
-                        editor.notifySceneChanged();
-                        editor.registerNodeForPicking(selectedNode);
+                        commandQueue.submit(() -> {
+                            selectedNode.addMesh(mesh);
+                            editor.notifySceneChanged();
+                            editor.registerNodeForPicking(selectedNode);
+                        });
                         ImGui.closeCurrentPopup();
                     }
                 }
@@ -195,6 +215,8 @@ public class NodePropertiesPanel extends AbstractPanel {
             if (mesh.getShaderMaterial() != null) {
                 ShaderMaterial material = mesh.getShaderMaterial();
 
+                // Вміст матеріалу належить потоку рендерингу (цьому) - змінюється напряму;
+                // заміна матеріалу меша на пресет - зміна сцени, через commandQueue
                 // Оновлюємо значення матеріалу в UI
                 updateMaterialUIValues(material);
 
@@ -235,18 +257,21 @@ public class NodePropertiesPanel extends AbstractPanel {
                 // Швидкі налаштування матеріалів
                 ImGui.text("Presets:");
                 if (ImGui.button("Gold", 60, 25)) {
-                    mesh.setShaderMaterial(ShaderMaterial.createGold());
-                    updateMaterialUIValues(mesh.getShaderMaterial());
+                    ShaderMaterial preset = ShaderMaterial.createGold();
+                    commandQueue.submit(() -> mesh.setShaderMaterial(preset));
+                    updateMaterialUIValues(preset);
                 }
                 ImGui.sameLine();
                 if (ImGui.button("Silver", 60, 25)) {
-                    mesh.setShaderMaterial(ShaderMaterial.createSilver());
-                    updateMaterialUIValues(mesh.getShaderMaterial());
+                    ShaderMaterial preset = ShaderMaterial.createSilver();
+                    commandQueue.submit(() -> mesh.setShaderMaterial(preset));
+                    updateMaterialUIValues(preset);
                 }
                 ImGui.sameLine();
                 if (ImGui.button("Holographic", 60, 25)) {
-                    mesh.setShaderMaterial(ShaderMaterial.createHolographicMaterial());
-                    updateMaterialUIValues(mesh.getShaderMaterial());
+                    ShaderMaterial preset = ShaderMaterial.createHolographicMaterial();
+                    commandQueue.submit(() -> mesh.setShaderMaterial(preset));
+                    updateMaterialUIValues(preset);
                 }
             } else {
                 ImGui.text("Відсутній матеріал");
@@ -330,6 +355,8 @@ public class NodePropertiesPanel extends AbstractPanel {
         // Оновлюємо масштаб
         Vector3f scl = node.getScale();
         scale.set(scl);
+
+        visible = node.isVisible();
     }
 
     private void updateMaterialUIValues(ShaderMaterial material) {
@@ -7,6 +7,7 @@ import org.example.Editor.Editor;
 import org.example.Editor.EditorListener;
 import org.example.Mesh;
 import org.example.Node;
+import org.example.Render.RetiredMeshes;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -97,6 +98,7 @@ public class NodeTreePanel extends AbstractPanel implements EditorListener {
         ImGui.sameLine();
         if (ImGui.button("Видалити", 125, 25) && selectedNode != null && selectedNode.getParent() != null) {
             selectedNode.getParent().removeChild(selectedNode);
+            RetiredMeshes.retire(selectedNode);
             editor.clearSelection();
             editor.notifySceneChanged();
         }
@@ -144,6 +146,7 @@ public class NodeTreePanel extends AbstractPanel implements EditorListener {
 
             if (ImGui.menuItem("Видалити") && node.getParent() != null) {
                 node.getParent().removeChild(node);
+                RetiredMeshes.retire(node);
                 editor.clearSelection();
                 editor.notifySceneChanged();
                 ImGui.endPopup();
@@ -187,6 +190,7 @@ public class NodeTreePanel extends AbstractPanel implements EditorListener {
                 if (ImGui.beginPopupContextItem()) {
                     if (ImGui.menuItem("Видалити модель")) {
                         node.removeMesh(mesh);
+                        RetiredMeshes.retire(mesh);
                         editor.notifySceneChanged();
                     }
                     ImGui.endPopup();
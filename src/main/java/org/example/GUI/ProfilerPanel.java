@@ -0,0 +1,78 @@
+package org.example.GUI;
+
+import imgui.ImGui;
+import org.example.Profiler.FrameProfiler;
+import org.example.Profiler.ProfilerScope;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Панель `ProfilerPanel` з графіками часу кадру.
+ *
+ * Основні функції:
+ * - Рухомі графіки CPU- та GPU-часу для кожної ділянки FrameProfiler.
+ * - Середні значення за історію поруч з графіком.
+ * - Експорт історії в CSV-файл у робочій директорії.
+ *
+ * Залежності:
+ * - `FrameProfiler` - джерело вимірювань.
+ */
+
+public class ProfilerPanel extends AbstractPanel {
+    private static final float GRAPH_HEIGHT = 40;
+
+    private final FrameProfiler profiler;
+    private String lastExport = "";
+
+    public ProfilerPanel(float posX, float posY, float width, float height, FrameProfiler profiler) {
+        super("Profiler", posX, posY, width, height);
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void renderContent() {
+        int count = profiler.getRecordedFrames();
+        int offset = profiler.getHistoryOffset();
+        float graphWidth = ImGui.getContentRegionAvailX();
+
+        float frameAverage = profiler.average(profiler.getFrameHistory());
+        ImGui.text(String.format("Frame: %.2f ms (%.0f FPS)", frameAverage, frameAverage > 0 ? 1000.0f / frameAverage : 0.0f));
+        ImGui.plotLines("##Frame", profiler.getFrameHistory(), count, offset,
+                "", 0.0f, Float.MAX_VALUE, graphWidth, GRAPH_HEIGHT);
+
+        for (ProfilerScope scope : profiler.getScopes()) {
+            if (ImGui.collapsingHeader(scope.getName())) {
+                float cpuAverage = profiler.average(scope.getCpuHistory());
+                float gpuAverage = profiler.average(scope.getGpuHistory());
+
+                ImGui.text(String.format("CPU %.3f ms", cpuAverage));
+                ImGui.plotLines("##" + scope.getName() + "Cpu", scope.getCpuHistory(), count, offset,
+                        "", 0.0f, Float.MAX_VALUE, graphWidth, GRAPH_HEIGHT);
+
+                ImGui.text(String.format("GPU %.3f ms (skipped %d)", gpuAverage, scope.getSkippedGpuSamples()));
+                ImGui.plotLines("##" + scope.getName() + "Gpu", scope.getGpuHistory(), count, offset,
+                        "", 0.0f, Float.MAX_VALUE, graphWidth, GRAPH_HEIGHT);
+            }
+        }
+
+        ImGui.separator();
+        if (ImGui.button("Export CSV")) {
+            String fileName = "profiler_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv";
+            Path path = Paths.get(fileName);
+            try {
+                profiler.exportCsv(path);
+                lastExport = path.toAbsolutePath().toString();
+            } catch (IOException e) {
+                System.err.println("Помилка при експорті профайлера: " + e.getMessage());
+                lastExport = "";
+            }
+        }
+        if (!lastExport.isEmpty()) {
+            ImGui.textWrapped(lastExport);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.GUI;
+
+import imgui.ImGui;
+import imgui.type.ImInt;
+import org.example.FramePacer;
+import org.example.Render.DepthPrepass;
+import org.example.Render.OcclusionCuller;
+import org.example.Render.Shadow.ShadowQuality;
+import org.example.Render.Shadow.ShadowQualityBenchmark;
+import org.example.Render.Shadow.ShadowSettings;
+
+/**
+ * Панель `RenderSettingsPanel` з налаштуваннями рендерингу.
+ *
+ * Основні функції:
+ * - Вибір фільтрації тіней, кількості вибірок PCF та раннього завершення поза пірамідою світла.
+ * - Запуск бенчмарку якості тіней і перегляд його результатів (час GPU основного проходу).
+ * - Увімкнення апаратних запитів перекриття GPU (OcclusionCuller) і попереднього проходу глибини (DepthPrepass).
+ * - Темп кадрів (FramePacer): вертикальна синхронізація, адаптивна, без обмежень або з обмеженням FPS.
+ *
+ * Залежності:
+ * - `ShadowSettings` - поточні налаштування тіней.
+ * - `ShadowQualityBenchmark` - порівняння режимів фільтрації.
+ * - `FramePacer` - режим темпу кадрів.
+ */
+
+public class RenderSettingsPanel extends AbstractPanel {
+    private final ShadowSettings shadowSettings;
+    private final ShadowQualityBenchmark shadowBenchmark;
+    private final FramePacer framePacer;
+
+    private final String[] qualityNames;
+    private final ImInt qualityIndex = new ImInt();
+    private final int[] pcfTaps = new int[1];
+    private final String[] pacingNames;
+    private final ImInt pacingIndex = new ImInt();
+    private final int[] fpsCap = new int[1];
+
+    public RenderSettingsPanel(float posX, float posY, float width, float height,
+                               ShadowSettings shadowSettings, ShadowQualityBenchmark shadowBenchmark,
+                               FramePacer framePacer) {
+        super("Render Settings", posX, posY, width, height);
+        this.shadowSettings = shadowSettings;
+        this.shadowBenchmark = shadowBenchmark;
+        this.framePacer = framePacer;
+
+        FramePacer.Mode[] modes = FramePacer.Mode.values();
+        this.pacingNames = new String[modes.length];
+        for (int i = 0; i < modes.length; i++) {
+            pacingNames[i] = modes[i].name();
+        }
+
+        ShadowQuality[] qualities = ShadowQuality.values();
+        this.qualityNames = new String[qualities.length];
+        for (int i = 0; i < qualities.length; i++) {
+            qualityNames[i] = qualities[i].name();
+        }
+    }
+
+    @Override
+    protected void renderContent() {
+        if (ImGui.collapsingHeader("Frame pacing")) {
+            pacingIndex.set(framePacer.getMode().ordinal());
+            if (ImGui.combo("Mode", pacingIndex, pacingNames)) {
+                framePacer.setMode(FramePacer.Mode.values()[pacingIndex.get()], framePacer.getFpsCap());
+            }
+            if (framePacer.getMode() == FramePacer.Mode.LIMITED) {
+                fpsCap[0] = framePacer.getFpsCap();
+                if (ImGui.sliderInt("FPS cap", fpsCap, 15, 360)) {
+                    framePacer.setMode(FramePacer.Mode.LIMITED, fpsCap[0]);
+                }
+            }
+            if (framePacer.getMode() == FramePacer.Mode.ADAPTIVE && !framePacer.isAdaptiveSupported()) {
+                ImGui.text("Adaptive sync unsupported, using vsync");
+            }
+        }
+
+        if (ImGui.collapsingHeader("Visibility")) {
+            if (ImGui.checkbox("GPU occlusion queries", OcclusionCuller.isEnabled())) {
+                OcclusionCuller.setEnabled(!OcclusionCuller.isEnabled());
+            }
+            if (ImGui.checkbox("Depth pre-pass", DepthPrepass.isEnabled())) {
+                DepthPrepass.setEnabled(!DepthPrepass.isEnabled());
+            }
+        }
+
+        if (ImGui.collapsingHeader("Shadows")) {
+            // Під час бенчмарку налаштуваннями керує він сам
+            if (shadowBenchmark.isRunning()) {
+                ImGui.text("Benchmark: " + shadowSettings.getQuality() + " x" + shadowSettings.getPcfTaps());
+                ImGui.progressBar(shadowBenchmark.getProgress());
+                return;
+            }
+
+            qualityIndex.set(shadowSettings.getQuality().ordinal());
+            if (ImGui.combo("Filter", qualityIndex, qualityNames)) {
+                shadowSettings.setQuality(ShadowQuality.values()[qualityIndex.get()]);
+            }
+
+            // Для MANUAL_PCF кількість вибірок фіксована (3x3)
+            if (shadowSettings.getQuality() != ShadowQuality.MANUAL_PCF) {
+                pcfTaps[0] = shadowSettings.getPcfTaps();
+                if (ImGui.sliderInt("Taps", pcfTaps, 1, ShadowSettings.MAX_PCF_TAPS)) {
+                    shadowSettings.setPcfTaps(pcfTaps[0]);
+                }
+            }
+
+            if (ImGui.checkbox("Early-out outside light frustum", shadowSettings.isEarlyOut())) {
+                shadowSettings.setEarlyOut(!shadowSettings.isEarlyOut());
+            }
+
+            ImGui.separator();
+            if (ImGui.button("Run shadow benchmark")) {
+                shadowBenchmark.start();
+            }
+
+            // Результати останнього запуску
+            for (ShadowQualityBenchmark.Result result : shadowBenchmark.getResults()) {
+                ImGui.text(String.format("%-28s %.3f ms", result.getLabel(), result.getAverageMillis()));
+            }
+        }
+    }
+}
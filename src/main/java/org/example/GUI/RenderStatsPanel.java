@@ -0,0 +1,109 @@
+package org.example.GUI;
+
+import imgui.ImGui;
+import org.example.FramePacer;
+import org.example.MaterialRegistry;
+import org.example.Profiler.RenderStats;
+import org.example.Render.GeometryArena;
+import org.example.Render.LodSelector;
+import org.example.Render.OcclusionCuller;
+import org.example.Render.UniformRingBuffer;
+import org.example.TextureManager;
+import org.example.Texture.TextureStreamer;
+
+/**
+ * Панель `RenderStatsPanel` зі статистикою рендерингу останнього кадру.
+ *
+ * Основні функції:
+ * - Виклики малювання, трикутники, зміни програм та VAO, завантаження uniform-ів, прив'язки текстур.
+ * - Видимі та відсічені об'єкти.
+ * - Виділення пам'яті в купі Java за кадр та пікові значення з кнопкою скидання.
+ * - Кеш текстур: кількість, зайнята відеопам'ять відносно бюджету, вивантаження.
+ * - Рівні деталізації: зекономлені трикутники та перемикання рівнів.
+ * - Апаратні запити перекриття GPU: запити, умовні виклики та відкинуті GPU.
+ * - Кільцевий uniform-буфер: виклики за кадр, переповнення та очікування парканів.
+ * - Гістограма тривалості кадрів (FramePacer) із середнім, 50/95/99-м перцентилями і максимумом.
+ *
+ * Ті самі значення доступні через JMX (RenderStats.OBJECT_NAME).
+ */
+
+public class RenderStatsPanel extends AbstractPanel {
+    private final RenderStats stats;
+
+    public RenderStatsPanel(float posX, float posY, float width, float height) {
+        super("Render Stats", posX, posY, width, height);
+        this.stats = RenderStats.get();
+    }
+
+    @Override
+    protected void renderContent() {
+        RenderStats.Snapshot frame = stats.getLastFrame();
+
+        ImGui.text("Draw calls: " + frame.drawCalls);
+        ImGui.text("Triangles: " + frame.triangles);
+        ImGui.text("Program binds: " + frame.programBinds);
+        ImGui.text("VAO binds: " + frame.vaoBinds);
+        ImGui.text("Uniform uploads: " + frame.uniformUploads);
+        ImGui.text("Texture binds: " + frame.textureBinds);
+        ImGui.text("Objects visible / culled: " + frame.visibleObjects + " / " + frame.culledObjects);
+        ImGui.text("Shadow casters drawn / culled: " + frame.shadowCasters + " / " + frame.culledShadowCasters);
+        ImGui.text(String.format("Heap allocated: %.1f KB/frame", frame.allocatedBytes / 1024.0));
+
+        ImGui.separator();
+        ImGui.text("Textures in use / cached: " + TextureManager.getReferencedCount() + " / " + TextureManager.getTextureCount());
+        ImGui.text(String.format("Texture VRAM: %.1f / %.1f MB", TextureManager.getResidentBytes() / (1024.0 * 1024.0),
+                TextureManager.getBudgetBytes() / (1024.0 * 1024.0)));
+        ImGui.text(String.format("Texture arrays: %.1f MB", TextureManager.getArrayBytes() / (1024.0 * 1024.0)));
+        ImGui.text("Texture evictions: " + TextureManager.getEvictions());
+        ImGui.text("Materials in UBO: " + MaterialRegistry.getMaterialCount());
+        ImGui.text(String.format("Geometry arena: %d meshes, %d vertices, %.2f / %.2f MB",
+                GeometryArena.getAllocationCount(), GeometryArena.getUsedVertices(),
+                GeometryArena.getUsedBytes() / (1024.0 * 1024.0), GeometryArena.getCapacityBytes() / (1024.0 * 1024.0)));
+        ImGui.text("Arena free blocks: " + GeometryArena.getFreeBlockCount()
+                + ", defragmentations: " + GeometryArena.getDefragmentations());
+        if (LodSelector.isEnabled()) {
+            ImGui.text("LOD triangles saved: " + LodSelector.getTrianglesSavedLastFrame()
+                    + ", switches: " + LodSelector.getSwitchesLastFrame() + " (" + LodSelector.getSwitches() + " total)");
+        }
+        ImGui.text(String.format("Uniform ring (%s): %d draws, %d overflow, %d KB/frame region",
+                UniformRingBuffer.isPersistent() ? "persistent" : "unsynchronized",
+                UniformRingBuffer.getDrawsLastFrame(), UniformRingBuffer.getOverflowDrawsLastFrame(),
+                UniformRingBuffer.getRegionBytes() / 1024));
+        ImGui.text(String.format("Uniform ring fence wait: %.3f ms (%d stalls)",
+                UniformRingBuffer.getFenceWaitMillisLastFrame(), UniformRingBuffer.getFenceStalls()));
+        if (OcclusionCuller.isEnabled()) {
+            ImGui.text("Occlusion queries: " + OcclusionCuller.getQueriesLastFrame()
+                    + ", conditional draws: " + OcclusionCuller.getDeferredLastFrame());
+            ImGui.text("Occlusion rejected draws: " + OcclusionCuller.getRejectedLastFrame()
+                    + " (" + OcclusionCuller.getRejectedTotal() + " total)");
+        }
+        if (TextureStreamer.isEnabled()) {
+            ImGui.text(String.format("Streamed mips: %.1f / %.1f MB, pending %d / %d",
+                    TextureStreamer.getResidentBytes() / (1024.0 * 1024.0),
+                    TextureStreamer.getMemoryBudgetBytes() / (1024.0 * 1024.0),
+                    TextureStreamer.getPendingCount(), TextureStreamer.getTextureCount()));
+            ImGui.text(String.format("Mip uploads: %.2f MB this frame, %d levels, %d dropped",
+                    TextureStreamer.getUploadedBytesLastFrame() / (1024.0 * 1024.0),
+                    TextureStreamer.getUploadedLevels(), TextureStreamer.getDroppedLevels()));
+        }
+
+        ImGui.separator();
+        ImGui.text(String.format("Frame pacing %s: avg %.2f ms, max %.2f ms, limiter wait %.2f ms",
+                frame.framePacingMode, frame.frameAverageMillis, frame.frameMaxMillis, frame.limiterWaitMillis));
+        ImGui.text(String.format("Frame time p50 / p95 / p99: %.0f / %.0f / %.0f ms",
+                frame.frameP50Millis, frame.frameP95Millis, frame.frameP99Millis));
+        ImGui.plotHistogram("##FrameHistogram", frame.frameHistogram, FramePacer.HISTOGRAM_BUCKETS, 0,
+                String.format("0-%.0f ms, %d frames", FramePacer.HISTOGRAM_BUCKETS * FramePacer.HISTOGRAM_BUCKET_MS,
+                        frame.histogramFrames), 0.0f, Float.MAX_VALUE, 0.0f, 60.0f);
+        if (ImGui.button("Reset histogram")) {
+            stats.resetFrameHistogram();
+        }
+
+        ImGui.separator();
+        ImGui.text("Peak draw calls: " + stats.getPeakDrawCalls());
+        ImGui.text(String.format("Peak allocation: %.1f KB/frame", stats.getPeakAllocatedBytes() / 1024.0));
+        if (ImGui.button("Reset peaks")) {
+            stats.resetPeaks();
+        }
+    }
+}
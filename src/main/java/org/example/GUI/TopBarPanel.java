@@ -4,6 +4,7 @@ import imgui.ImGui;
 import imgui.flag.ImGuiWindowFlags;
 import org.example.Editor.Editor;
 import org.example.Node;
+import org.example.Render.RetiredMeshes;
 import org.example.Scene.LoadScene;
 import org.example.Scene.SaveScene;
 import org.example.Scene.Scene;
@@ -98,7 +99,9 @@ public class TopBarPanel extends AbstractPanel {
 
             if (ImGui.menuItem("Delete Selected", "Del")) {
                 if (editor.getSelectedNode() != null && editor.getSelectedNode().getParent() != null) {
-                    editor.getSelectedNode().getParent().removeChild(editor.getSelectedNode());
+                    Node selected = editor.getSelectedNode();
+                    selected.getParent().removeChild(selected);
+                    RetiredMeshes.retire(selected);
                     editor.clearSelection();
                 }
             }
@@ -0,0 +1,174 @@
+package org.example.Geometry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Файл кешу моделі (.hmesh) з уже оптимізованою геометрією (MeshOptimizer) і рівнями деталізації (MeshSimplifier).
+ *
+ * Структура (little-endian):
+ * - заголовок: "HMSH", версія, CRC32 вихідного файлу моделі, float на вершину, кількість рівнів,
+ *   ACMR до і після оптимізації, прапорці (FLAG_LODS - рівні деталізації генерувались);
+ * - для кожного рівня: кількість вершин, кількість індексів, вершини (float), індекси (int).
+ *   Рівень 0 - вихідна геометрія, далі спрощені.
+ *
+ * CRC32 вихідного файлу дозволяє виявити застарілий кеш після зміни моделі.
+ */
+public class HmeshFile {
+    public static final String EXTENSION = ".hmesh";
+
+    private static final int MAGIC = 0x48534D48; // "HMSH" у little-endian
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int LEVEL_HEADER_SIZE = 8;
+    private static final int MAX_LEVELS = 16;
+
+    public static final int FLAG_LODS = 1;
+
+    private final int sourceCrc;
+    private final float[][] vertices;
+    private final int[][] indices;
+    private final float acmrBefore;
+    private final float acmrAfter;
+    private final int flags;
+
+    /**
+     * @param vertices вершини рівнів, починаючи з вихідного
+     * @param indices індекси рівнів у тому ж порядку
+     */
+    public HmeshFile(int sourceCrc, List<float[]> vertices, List<int[]> indices, float acmrBefore, float acmrAfter, int flags) {
+        if (vertices.isEmpty() || vertices.size() != indices.size() || vertices.size() > MAX_LEVELS) {
+            throw new IllegalArgumentException("Невідповідна кількість рівнів моделі: " + vertices.size());
+        }
+        this.sourceCrc = sourceCrc;
+        this.vertices = vertices.toArray(new float[0][]);
+        this.indices = indices.toArray(new int[0][]);
+        this.acmrBefore = acmrBefore;
+        this.acmrAfter = acmrAfter;
+        this.flags = flags;
+    }
+
+    private HmeshFile(int sourceCrc, float[][] vertices, int[][] indices, float acmrBefore, float acmrAfter, int flags) {
+        this.sourceCrc = sourceCrc;
+        this.vertices = vertices;
+        this.indices = indices;
+        this.acmrBefore = acmrBefore;
+        this.acmrAfter = acmrAfter;
+        this.flags = flags;
+    }
+
+    public static HmeshFile read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл не є кешем моделі (.hmesh)");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Непідтримувана версія кешу моделі: " + buffer.getInt(4));
+        }
+        int sourceCrc = buffer.getInt(8);
+        int vertexFloats = buffer.getInt(12);
+        int levelCount = buffer.getInt(16);
+        float acmrBefore = buffer.getFloat(20);
+        float acmrAfter = buffer.getFloat(24);
+        int flags = buffer.getInt(28);
+        if (vertexFloats != MeshOptimizer.VERTEX_FLOATS) {
+            throw new IOException("Непідтримуваний формат вершин у кеші моделі: " + vertexFloats + " float");
+        }
+        if (levelCount < 1 || levelCount > MAX_LEVELS) {
+            throw new IOException("Пошкоджений кеш моделі: кількість рівнів " + levelCount);
+        }
+
+        float[][] vertices = new float[levelCount][];
+        int[][] indices = new int[levelCount][];
+        long offset = HEADER_SIZE;
+        for (int level = 0; level < levelCount; level++) {
+            if (offset + LEVEL_HEADER_SIZE > buffer.capacity()) {
+                throw new IOException("Пошкоджений кеш моделі: невідповідний розмір файлу");
+            }
+            int vertexCount = buffer.getInt((int) offset);
+            int indexCount = buffer.getInt((int) offset + 4);
+            long size = (long) vertexCount * vertexFloats * Float.BYTES + (long) indexCount * Integer.BYTES;
+            if (vertexCount < 0 || indexCount < 0 || offset + LEVEL_HEADER_SIZE + size > buffer.capacity()) {
+                throw new IOException("Пошкоджений кеш моделі: невідповідний розмір файлу");
+            }
+            buffer.position((int) offset + LEVEL_HEADER_SIZE);
+            vertices[level] = new float[vertexCount * vertexFloats];
+            buffer.asFloatBuffer().get(vertices[level]);
+            buffer.position(buffer.position() + vertices[level].length * Float.BYTES);
+            indices[level] = new int[indexCount];
+            buffer.asIntBuffer().get(indices[level]);
+            for (int index : indices[level]) {
+                if (index < 0 || index >= vertexCount) {
+                    throw new IOException("Пошкоджений кеш моделі: індекс " + index + " поза межами");
+                }
+            }
+            offset += LEVEL_HEADER_SIZE + size;
+        }
+        if (offset != buffer.capacity()) {
+            throw new IOException("Пошкоджений кеш моделі: невідповідний розмір файлу");
+        }
+        return new HmeshFile(sourceCrc, vertices, indices, acmrBefore, acmrAfter, flags);
+    }
+
+    public void write(Path path) throws IOException {
+        int size = HEADER_SIZE;
+        for (int level = 0; level < vertices.length; level++) {
+            size += LEVEL_HEADER_SIZE + vertices[level].length * Float.BYTES + indices[level].length * Integer.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(sourceCrc).putInt(MeshOptimizer.VERTEX_FLOATS)
+                .putInt(vertices.length).putFloat(acmrBefore).putFloat(acmrAfter).putInt(flags);
+        for (int level = 0; level < vertices.length; level++) {
+            buffer.putInt(vertices[level].length / MeshOptimizer.VERTEX_FLOATS).putInt(indices[level].length);
+            buffer.asFloatBuffer().put(vertices[level]);
+            buffer.position(buffer.position() + vertices[level].length * Float.BYTES);
+            buffer.asIntBuffer().put(indices[level]);
+            buffer.position(buffer.position() + indices[level].length * Integer.BYTES);
+        }
+        buffer.position(0);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public int getSourceCrc() {
+        return sourceCrc;
+    }
+
+    public int getLevelCount() {
+        return vertices.length;
+    }
+
+    public float[] getVertices(int level) {
+        return vertices[level];
+    }
+
+    public int[] getIndices(int level) {
+        return indices[level];
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public float getAcmrBefore() {
+        return acmrBefore;
+    }
+
+    public float getAcmrAfter() {
+        return acmrAfter;
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.Geometry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Оптимізація моделей при імпорті з кешуванням результату у файлах .hmesh.
+ *
+ * Основні функції:
+ * - `load(resourcePath, vertices, indices)` повертає оптимізовану геометрію (MeshOptimizer);
+ *   з налаштованим каталогом кешу результат зберігається в <каталог>/<шлях ресурсу>.hmesh
+ *   і при наступних запусках читається звідти, поки не зміниться CRC32 вихідного файлу.
+ * - ACMR до і після оптимізації виводиться в консоль для кожної моделі.
+ * - Оптимізацію можна вимкнути (`--no-mesh-optimization`) - тоді геометрія повертається як є.
+ * - Для моделей від LOD_MIN_TRIANGLES трикутників генеруються до LOD_LEVELS спрощених рівнів
+ *   (MeshSimplifier), кожен удвічі легший за попередній; вимикається `--no-lod`.
+ */
+public class MeshCache {
+    private static Path directory = null;
+    private static boolean optimizationEnabled = true;
+    private static boolean lodsEnabled = true;
+
+    public static final int LOD_LEVELS = 3;
+    public static final int LOD_MIN_TRIANGLES = 512;
+    // Найгрубіший рівень не спрощується нижче цієї кількості трикутників
+    private static final int LOD_FLOOR_TRIANGLES = 64;
+
+    // Геометрія для завантаження в GPU
+    public static class Entry {
+        public final float[] vertices;
+        public final int[] indices;
+        // Спрощені рівні від детальнішого до грубішого; порожній список - без LOD
+        public final List<Entry> lods;
+
+        Entry(float[] vertices, int[] indices, List<Entry> lods) {
+            this.vertices = vertices;
+            this.indices = indices;
+            this.lods = lods;
+        }
+    }
+
+    /**
+     * @param cacheDirectory каталог для файлів .hmesh або null, щоб оптимізувати при кожному завантаженні
+     * @param optimize оптимізувати порядок трикутників і вершин
+     * @param lods генерувати рівні деталізації
+     */
+    public static void configure(Path cacheDirectory, boolean optimize, boolean lods) {
+        directory = cacheDirectory;
+        optimizationEnabled = optimize;
+        lodsEnabled = lods;
+    }
+
+    public static boolean isOptimizationEnabled() {
+        return optimizationEnabled;
+    }
+
+    public static boolean isLodEnabled() {
+        return lodsEnabled;
+    }
+
+    // Шлях до файлу кешу: /Object/a/b.obj -> <каталог>/Object/a/b.obj.hmesh
+    public static Path cachePath(Path cacheDirectory, String resourcePath) {
+        String relative = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+        return cacheDirectory.resolve(relative + HmeshFile.EXTENSION);
+    }
+
+    /**
+     * Кешована геометрія моделі без розбору OBJ
+     *
+     * @return геометрія або null, якщо кешу немає, він застарів чи оптимізацію вимкнено
+     */
+    public static Entry findCached(String resourcePath) {
+        if (!optimizationEnabled || directory == null) {
+            return null;
+        }
+        Path path = cachePath(directory, resourcePath);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            HmeshFile file = HmeshFile.read(path);
+            if (file.getSourceCrc() != sourceCrc(resourcePath)) {
+                return null;
+            }
+            // Кеш збережено без LOD - перегенерувати
+            if (lodsEnabled && !file.hasFlag(HmeshFile.FLAG_LODS)) {
+                return null;
+            }
+            List<Entry> lods = new ArrayList<>();
+            if (lodsEnabled) {
+                for (int level = 1; level < file.getLevelCount(); level++) {
+                    lods.add(new Entry(file.getVertices(level), file.getIndices(level), Collections.emptyList()));
+                }
+            }
+            return new Entry(file.getVertices(0), file.getIndices(0), lods);
+        } catch (IOException e) {
+            System.err.println("Помилка при читанні кешу моделі " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Оптимізувати розібрану модель, згенерувати рівні деталізації і зберегти результат у кеш
+     *
+     * @param vertices вершини по 8 float, як їх повертає ObjectLoader.parseObjModel
+     */
+    public static Entry optimize(String resourcePath, float[] vertices, int[] indices) {
+        if (!optimizationEnabled) {
+            return new Entry(vertices, indices, generateLods(resourcePath, vertices, indices));
+        }
+        long start = System.nanoTime();
+        MeshOptimizer.Result result = MeshOptimizer.optimize(vertices, indices);
+        System.out.println(String.format(Locale.ROOT,
+                "Оптимізація %s: %d -> %d вершин, ACMR %.3f (після дедуплікації %.3f) -> %.3f, %.1f мс",
+                resourcePath, vertices.length / MeshOptimizer.VERTEX_FLOATS, result.getVertexCount(),
+                result.inputAcmr, result.deduplicatedAcmr, result.optimizedAcmr, (System.nanoTime() - start) / 1e6));
+        List<Entry> lods = generateLods(resourcePath, result.vertices, result.indices);
+
+        if (directory != null) {
+            Path path = cachePath(directory, resourcePath);
+            List<float[]> levelVertices = new ArrayList<>();
+            List<int[]> levelIndices = new ArrayList<>();
+            levelVertices.add(result.vertices);
+            levelIndices.add(result.indices);
+            for (Entry lod : lods) {
+                levelVertices.add(lod.vertices);
+                levelIndices.add(lod.indices);
+            }
+            try {
+                new HmeshFile(sourceCrc(resourcePath), levelVertices, levelIndices,
+                        result.deduplicatedAcmr, result.optimizedAcmr, lodsEnabled ? HmeshFile.FLAG_LODS : 0).write(path);
+            } catch (IOException e) {
+                System.err.println("Помилка при записі кешу моделі " + path + ": " + e.getMessage());
+            }
+        }
+        return new Entry(result.vertices, result.indices, lods);
+    }
+
+    // Спрощені рівні моделі; кожен рівень також проходить оптимізацію порядку вершин і трикутників
+    private static List<Entry> generateLods(String resourcePath, float[] vertices, int[] indices) {
+        if (!lodsEnabled || indices.length / 3 < LOD_MIN_TRIANGLES) {
+            return Collections.emptyList();
+        }
+        long start = System.nanoTime();
+        List<Entry> lods = new ArrayList<>();
+        StringBuilder counts = new StringBuilder().append(indices.length / 3);
+        for (MeshSimplifier.Level level : MeshSimplifier.generateLods(vertices, indices, LOD_LEVELS, LOD_FLOOR_TRIANGLES)) {
+            if (optimizationEnabled) {
+                MeshOptimizer.Result optimized = MeshOptimizer.optimize(level.vertices, level.indices);
+                lods.add(new Entry(optimized.vertices, optimized.indices, Collections.emptyList()));
+            } else {
+                lods.add(new Entry(level.vertices, level.indices, Collections.emptyList()));
+            }
+            counts.append(" -> ").append(level.getTriangleCount());
+        }
+        System.out.println(String.format(Locale.ROOT, "LOD %s: %s трикутників, %.1f мс",
+                resourcePath, counts, (System.nanoTime() - start) / 1e6));
+        return lods;
+    }
+
+    // CRC32 вихідного файлу ресурсу; 0 - ресурс не знайдено
+    private static int sourceCrc(String resourcePath) throws IOException {
+        try (InputStream is = MeshCache.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                return 0;
+            }
+            CRC32 crc = new CRC32();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = is.read(chunk)) > 0) {
+                crc.update(chunk, 0, read);
+            }
+            return (int) crc.getValue();
+        }
+    }
+}
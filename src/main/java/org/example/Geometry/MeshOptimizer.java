@@ -0,0 +1,489 @@
+package org.example.Geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Оптимізація геометрії моделі під час імпорту (без звернень до OpenGL).
+ *
+ * Основні функції:
+ * - Дедуплікація: однакові вершини (усі 8 float) зливаються, індекси переписуються.
+ * - Порядок трикутників під кеш вершин після трансформації - алгоритм Форсайта
+ *   (Tom Forsyth, "Linear-Speed Vertex Cache Optimisation"): жадібно обирається трикутник
+ *   з найбільшою сумою оцінок вершин за позицією в LRU-кеші та кількістю ще не виданих трикутників.
+ * - Порядок кластерів проти перемальовування (Sander et al., "Fast Triangle Reordering for Vertex
+ *   Locality and Reduced Overdraw"): послідовність ділиться на кластери в точках, де кеш і так
+ *   холодний або ACMR кластера не гірший за OVERDRAW_THRESHOLD від ACMR цілого; кластери
+ *   сортуються за тим, наскільки вони дивляться назовні від центру моделі, - зовнішні малюються
+ *   першими й закривають внутрішні для раннього тесту глибини.
+ * - Порядок вершин під вибірку: вершини перенумеровуються в порядку першого використання.
+ * - ACMR (середня кількість промахів кешу на трикутник) рахується моделлю FIFO-кешу
+ *   з MEASURE_CACHE_SIZE вершин: 3.0 - кожна вершина трансформується заново, ~0.5-0.7 - близько до ідеалу.
+ *
+ * Вершини - по VERTEX_FLOATS float (позиція, текстурні координати, нормаль), як у ObjectLoader.
+ */
+public class MeshOptimizer {
+    public static final int VERTEX_FLOATS = 8;
+    public static final int MEASURE_CACHE_SIZE = 16;
+    // Допустиме погіршення ACMR при розбитті на кластери
+    public static final float OVERDRAW_THRESHOLD = 1.05f;
+
+    // Параметри оцінки Форсайта
+    private static final int FORSYTH_CACHE_SIZE = 32;
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+    private static final int MAX_VALENCE_SCORE = 32;
+
+    private static final float[] CACHE_SCORES = new float[FORSYTH_CACHE_SIZE];
+    private static final float[] VALENCE_SCORES = new float[MAX_VALENCE_SCORE];
+
+    static {
+        for (int position = 0; position < FORSYTH_CACHE_SIZE; position++) {
+            if (position < 3) {
+                // Вершини щойно виданого трикутника: штраф, щоб не ходити по стрічці туди-назад
+                CACHE_SCORES[position] = LAST_TRIANGLE_SCORE;
+            } else {
+                float scaler = 1.0f / (FORSYTH_CACHE_SIZE - 3);
+                CACHE_SCORES[position] = (float) Math.pow(1.0f - (position - 3) * scaler, CACHE_DECAY_POWER);
+            }
+        }
+        for (int valence = 1; valence < MAX_VALENCE_SCORE; valence++) {
+            VALENCE_SCORES[valence] = VALENCE_BOOST_SCALE * (float) Math.pow(valence, -VALENCE_BOOST_POWER);
+        }
+    }
+
+    // Результат оптимізації
+    public static class Result {
+        public final float[] vertices;
+        public final int[] indices;
+        // ACMR вхідних даних, після дедуплікації та після оптимізації
+        public final float inputAcmr;
+        public final float deduplicatedAcmr;
+        public final float optimizedAcmr;
+
+        Result(float[] vertices, int[] indices, float inputAcmr, float deduplicatedAcmr, float optimizedAcmr) {
+            this.vertices = vertices;
+            this.indices = indices;
+            this.inputAcmr = inputAcmr;
+            this.deduplicatedAcmr = deduplicatedAcmr;
+            this.optimizedAcmr = optimizedAcmr;
+        }
+
+        public int getVertexCount() {
+            return vertices.length / VERTEX_FLOATS;
+        }
+    }
+
+    /**
+     * Повний конвеєр: дедуплікація, кеш вершин, кластери проти перемальовування, порядок вибірки
+     */
+    public static Result optimize(float[] vertices, int[] indices) {
+        int vertexCount = vertices.length / VERTEX_FLOATS;
+        float inputAcmr = computeAcmr(indices, vertexCount, MEASURE_CACHE_SIZE);
+
+        int[] remap = new int[vertexCount];
+        float[] unique = deduplicate(vertices, remap);
+        int uniqueCount = unique.length / VERTEX_FLOATS;
+        int[] remapped = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            remapped[i] = remap[indices[i]];
+        }
+        float deduplicatedAcmr = computeAcmr(remapped, uniqueCount, MEASURE_CACHE_SIZE);
+
+        int[] cacheOrder = optimizeVertexCache(remapped, uniqueCount);
+        int[] drawOrder = optimizeOverdraw(cacheOrder, unique, OVERDRAW_THRESHOLD);
+
+        int[] fetchIndices = new int[drawOrder.length];
+        float[] fetchVertices = optimizeVertexFetch(unique, drawOrder, fetchIndices);
+        float optimizedAcmr = computeAcmr(fetchIndices, fetchVertices.length / VERTEX_FLOATS, MEASURE_CACHE_SIZE);
+        return new Result(fetchVertices, fetchIndices, inputAcmr, deduplicatedAcmr, optimizedAcmr);
+    }
+
+    // Ключ вершини для дедуплікації - точні біти всіх компонент
+    private static final class VertexKey {
+        private final int[] bits = new int[VERTEX_FLOATS];
+        private final int hash;
+
+        VertexKey(float[] vertices, int vertex) {
+            for (int i = 0; i < VERTEX_FLOATS; i++) {
+                bits[i] = Float.floatToIntBits(vertices[vertex * VERTEX_FLOATS + i]);
+            }
+            hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof VertexKey && Arrays.equals(bits, ((VertexKey) other).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Злиття однакових вершин
+     *
+     * @param remap результат: новий номер для кожної вхідної вершини
+     * @return унікальні вершини в порядку першої появи
+     */
+    public static float[] deduplicate(float[] vertices, int[] remap) {
+        int vertexCount = vertices.length / VERTEX_FLOATS;
+        Map<VertexKey, Integer> unique = new HashMap<>(vertexCount * 2);
+        float[] result = new float[vertices.length];
+        int uniqueCount = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            Integer existing = unique.putIfAbsent(new VertexKey(vertices, v), uniqueCount);
+            if (existing != null) {
+                remap[v] = existing;
+            } else {
+                System.arraycopy(vertices, v * VERTEX_FLOATS, result, uniqueCount * VERTEX_FLOATS, VERTEX_FLOATS);
+                remap[v] = uniqueCount++;
+            }
+        }
+        return Arrays.copyOf(result, uniqueCount * VERTEX_FLOATS);
+    }
+
+    /**
+     * Перестановка трикутників під кеш вершин (алгоритм Форсайта)
+     */
+    public static int[] optimizeVertexCache(int[] indices, int vertexCount) {
+        int triangleCount = indices.length / 3;
+        int[] result = new int[triangleCount * 3];
+        if (triangleCount == 0) {
+            return result;
+        }
+
+        // Суміжність вершина -> трикутники; живі трикутники тримаються на початку свого відрізка
+        int[] liveTriangles = new int[vertexCount];
+        for (int i = 0; i < triangleCount * 3; i++) {
+            liveTriangles[indices[i]]++;
+        }
+        int[] adjacencyOffsets = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            adjacencyOffsets[v + 1] = adjacencyOffsets[v] + liveTriangles[v];
+        }
+        int[] adjacency = new int[triangleCount * 3];
+        int[] fill = Arrays.copyOf(adjacencyOffsets, vertexCount);
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                adjacency[fill[indices[t * 3 + k]]++] = t;
+            }
+        }
+
+        int[] cachePosition = new int[vertexCount];
+        Arrays.fill(cachePosition, -1);
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexScores[v] = vertexScore(-1, liveTriangles[v]);
+        }
+        float[] triangleScores = new float[triangleCount];
+        boolean[] emitted = new boolean[triangleCount];
+        int bestTriangle = 0;
+        for (int t = 0; t < triangleCount; t++) {
+            triangleScores[t] = vertexScores[indices[t * 3]] + vertexScores[indices[t * 3 + 1]]
+                    + vertexScores[indices[t * 3 + 2]];
+            if (triangleScores[t] > triangleScores[bestTriangle]) {
+                bestTriangle = t;
+            }
+        }
+
+        int[] cache = new int[FORSYTH_CACHE_SIZE + 3];
+        int[] nextCache = new int[FORSYTH_CACHE_SIZE + 3];
+        int cacheSize = 0;
+        int scanCursor = 0;
+        for (int written = 0; written < triangleCount; written++) {
+            if (bestTriangle < 0) {
+                // Кеш не торкається жодного живого трикутника - беремо наступний невиданий
+                while (emitted[scanCursor]) {
+                    scanCursor++;
+                }
+                bestTriangle = scanCursor;
+            }
+            int triangle = bestTriangle;
+            emitted[triangle] = true;
+            int a = indices[triangle * 3];
+            int b = indices[triangle * 3 + 1];
+            int c = indices[triangle * 3 + 2];
+            result[written * 3] = a;
+            result[written * 3 + 1] = b;
+            result[written * 3 + 2] = c;
+
+            // Прибираємо трикутник зі списків суміжності його вершин
+            for (int k = 0; k < 3; k++) {
+                int v = indices[triangle * 3 + k];
+                int start = adjacencyOffsets[v];
+                int last = start + liveTriangles[v] - 1;
+                for (int i = start; i <= last; i++) {
+                    if (adjacency[i] == triangle) {
+                        adjacency[i] = adjacency[last];
+                        adjacency[last] = triangle;
+                        break;
+                    }
+                }
+                liveTriangles[v]--;
+            }
+
+            // LRU: вершини трикутника на початок, решта зсувається; надлишок витісняється
+            int nextSize = 0;
+            nextCache[nextSize++] = a;
+            if (b != a) {
+                nextCache[nextSize++] = b;
+            }
+            if (c != a && c != b) {
+                nextCache[nextSize++] = c;
+            }
+            for (int i = 0; i < cacheSize; i++) {
+                int v = cache[i];
+                if (v != a && v != b && v != c) {
+                    nextCache[nextSize++] = v;
+                }
+            }
+            int[] swap = cache;
+            cache = nextCache;
+            nextCache = swap;
+
+            for (int i = 0; i < nextSize; i++) {
+                int v = cache[i];
+                cachePosition[v] = i < FORSYTH_CACHE_SIZE ? i : -1;
+                vertexScores[v] = vertexScore(cachePosition[v], liveTriangles[v]);
+            }
+
+            // Переоцінка трикутників навколо кешу (і витіснених вершин); найкращий - серед тих, що в кеші
+            bestTriangle = -1;
+            float bestScore = -1.0f;
+            for (int i = 0; i < nextSize; i++) {
+                int v = cache[i];
+                int start = adjacencyOffsets[v];
+                for (int j = start; j < start + liveTriangles[v]; j++) {
+                    int t = adjacency[j];
+                    float score = vertexScores[indices[t * 3]] + vertexScores[indices[t * 3 + 1]]
+                            + vertexScores[indices[t * 3 + 2]];
+                    triangleScores[t] = score;
+                    if (i < FORSYTH_CACHE_SIZE && score > bestScore) {
+                        bestScore = score;
+                        bestTriangle = t;
+                    }
+                }
+            }
+            cacheSize = Math.min(nextSize, FORSYTH_CACHE_SIZE);
+        }
+        return result;
+    }
+
+    private static float vertexScore(int cachePosition, int liveTriangles) {
+        if (liveTriangles == 0) {
+            // Вершина більше не потрібна
+            return -1.0f;
+        }
+        float score = cachePosition >= 0 ? CACHE_SCORES[cachePosition] : 0.0f;
+        return score + VALENCE_SCORES[Math.min(liveTriangles, MAX_VALENCE_SCORE - 1)];
+    }
+
+    /**
+     * Перестановка кластерів трикутників проти перемальовування; порядок усередині кластерів зберігається
+     *
+     * @param indices індекси, вже впорядковані під кеш вершин
+     * @param threshold допустиме погіршення ACMR (1.05 - на 5%)
+     */
+    public static int[] optimizeOverdraw(int[] indices, float[] vertices, float threshold) {
+        int triangleCount = indices.length / 3;
+        int vertexCount = vertices.length / VERTEX_FLOATS;
+        if (triangleCount < 2) {
+            return indices.clone();
+        }
+
+        // Жорсткі межі - трикутники, на яких кеш повністю холодний (три промахи)
+        FifoCache cache = new FifoCache(vertexCount, MEASURE_CACHE_SIZE);
+        List<Integer> hardStarts = new ArrayList<>();
+        for (int t = 0; t < triangleCount; t++) {
+            if (cache.access(indices, t) == 3) {
+                hardStarts.add(t);
+            }
+        }
+        if (hardStarts.isEmpty() || hardStarts.get(0) != 0) {
+            hardStarts.add(0, 0);
+        }
+
+        // М'які межі всередині жорстких кластерів: там, де ACMR частини не гірший за threshold від цілого
+        List<Integer> clusterStarts = new ArrayList<>();
+        for (int h = 0; h < hardStarts.size(); h++) {
+            int start = hardStarts.get(h);
+            int end = h + 1 < hardStarts.size() ? hardStarts.get(h + 1) : triangleCount;
+
+            cache.flush();
+            int clusterMisses = 0;
+            for (int t = start; t < end; t++) {
+                clusterMisses += cache.access(indices, t);
+            }
+            float clusterAcmr = (float) clusterMisses / (end - start);
+
+            cache.flush();
+            clusterStarts.add(start);
+            int subStart = start;
+            int subMisses = 0;
+            for (int t = start; t < end - 1; t++) {
+                subMisses += cache.access(indices, t);
+                if (subMisses <= threshold * clusterAcmr * (t - subStart + 1)) {
+                    clusterStarts.add(t + 1);
+                    subStart = t + 1;
+                    subMisses = 0;
+                    cache.flush();
+                }
+            }
+        }
+
+        // Центр моделі - зважений за площею центр трикутників
+        float[] meshCentroid = new float[3];
+        float meshArea = 0.0f;
+        float[] triangle = new float[7];
+        for (int t = 0; t < triangleCount; t++) {
+            triangleGeometry(indices, vertices, t, triangle);
+            for (int k = 0; k < 3; k++) {
+                meshCentroid[k] += triangle[k] * triangle[6];
+            }
+            meshArea += triangle[6];
+        }
+        if (meshArea > 0.0f) {
+            for (int k = 0; k < 3; k++) {
+                meshCentroid[k] /= meshArea;
+            }
+        }
+
+        // Ключ кластера - проєкція зсуву його центру від центру моделі на його середню нормаль
+        int clusterCount = clusterStarts.size();
+        float[] sortKeys = new float[clusterCount];
+        Integer[] order = new Integer[clusterCount];
+        for (int c = 0; c < clusterCount; c++) {
+            int start = clusterStarts.get(c);
+            int end = c + 1 < clusterCount ? clusterStarts.get(c + 1) : triangleCount;
+            float[] centroid = new float[3];
+            float[] normal = new float[3];
+            float area = 0.0f;
+            for (int t = start; t < end; t++) {
+                triangleGeometry(indices, vertices, t, triangle);
+                for (int k = 0; k < 3; k++) {
+                    centroid[k] += triangle[k] * triangle[6];
+                    // Ненормалізовані нормалі граней - вже зважені площею
+                    normal[k] += triangle[3 + k];
+                }
+                area += triangle[6];
+            }
+            float normalLength = (float) Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1] + normal[2] * normal[2]);
+            float key = 0.0f;
+            if (area > 0.0f && normalLength > 0.0f) {
+                for (int k = 0; k < 3; k++) {
+                    key += (centroid[k] / area - meshCentroid[k]) * normal[k] / normalLength;
+                }
+            }
+            sortKeys[c] = key;
+            order[c] = c;
+        }
+        Arrays.sort(order, (x, y) -> Float.compare(sortKeys[y], sortKeys[x]));
+
+        int[] result = new int[triangleCount * 3];
+        int written = 0;
+        for (int c : order) {
+            int start = clusterStarts.get(c);
+            int end = c + 1 < clusterCount ? clusterStarts.get(c + 1) : triangleCount;
+            System.arraycopy(indices, start * 3, result, written, (end - start) * 3);
+            written += (end - start) * 3;
+        }
+        return result;
+    }
+
+    // Центр (0-2), подвоєна площа як ненормалізована нормаль (3-5) і площа (6) трикутника
+    private static void triangleGeometry(int[] indices, float[] vertices, int triangle, float[] out) {
+        int a = indices[triangle * 3] * VERTEX_FLOATS;
+        int b = indices[triangle * 3 + 1] * VERTEX_FLOATS;
+        int c = indices[triangle * 3 + 2] * VERTEX_FLOATS;
+        float e1x = vertices[b] - vertices[a], e1y = vertices[b + 1] - vertices[a + 1], e1z = vertices[b + 2] - vertices[a + 2];
+        float e2x = vertices[c] - vertices[a], e2y = vertices[c + 1] - vertices[a + 1], e2z = vertices[c + 2] - vertices[a + 2];
+        out[0] = (vertices[a] + vertices[b] + vertices[c]) / 3.0f;
+        out[1] = (vertices[a + 1] + vertices[b + 1] + vertices[c + 1]) / 3.0f;
+        out[2] = (vertices[a + 2] + vertices[b + 2] + vertices[c + 2]) / 3.0f;
+        out[3] = e1y * e2z - e1z * e2y;
+        out[4] = e1z * e2x - e1x * e2z;
+        out[5] = e1x * e2y - e1y * e2x;
+        out[6] = 0.5f * (float) Math.sqrt(out[3] * out[3] + out[4] * out[4] + out[5] * out[5]);
+    }
+
+    /**
+     * Перенумерація вершин у порядку першого використання; невикористані вершини відкидаються
+     *
+     * @param outIndices результат: індекси з новими номерами (довжина як у indices)
+     * @return вершини в новому порядку
+     */
+    public static float[] optimizeVertexFetch(float[] vertices, int[] indices, int[] outIndices) {
+        int vertexCount = vertices.length / VERTEX_FLOATS;
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            if (remap[v] < 0) {
+                remap[v] = next++;
+            }
+            outIndices[i] = remap[v];
+        }
+        float[] result = new float[next * VERTEX_FLOATS];
+        for (int v = 0; v < vertexCount; v++) {
+            if (remap[v] >= 0) {
+                System.arraycopy(vertices, v * VERTEX_FLOATS, result, remap[v] * VERTEX_FLOATS, VERTEX_FLOATS);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Середня кількість промахів кешу вершин на трикутник (модель FIFO-кешу)
+     */
+    public static float computeAcmr(int[] indices, int vertexCount, int cacheSize) {
+        int triangleCount = indices.length / 3;
+        if (triangleCount == 0) {
+            return 0.0f;
+        }
+        FifoCache cache = new FifoCache(vertexCount, cacheSize);
+        int misses = 0;
+        for (int t = 0; t < triangleCount; t++) {
+            misses += cache.access(indices, t);
+        }
+        return (float) misses / triangleCount;
+    }
+
+    // FIFO-кеш через мітки часу: вершина в кеші, якщо після її завантаження було менше cacheSize промахів
+    private static final class FifoCache {
+        private final int[] timestamps;
+        private final int cacheSize;
+        private int time;
+
+        FifoCache(int vertexCount, int cacheSize) {
+            this.timestamps = new int[vertexCount];
+            this.cacheSize = cacheSize;
+            this.time = cacheSize + 1;
+        }
+
+        // Кількість промахів на трикутнику
+        int access(int[] indices, int triangle) {
+            int misses = 0;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[triangle * 3 + k];
+                if (time - timestamps[v] > cacheSize) {
+                    timestamps[v] = time++;
+                    misses++;
+                }
+            }
+            return misses;
+        }
+
+        void flush() {
+            time += cacheSize + 1;
+        }
+    }
+}
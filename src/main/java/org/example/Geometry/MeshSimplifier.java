@@ -0,0 +1,520 @@
+package org.example.Geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Спрощення моделі стягуванням ребер за квадричною метрикою похибки (Garland, Heckbert,
+ * "Surface Simplification Using Quadric Error Metrics") для рівнів деталізації (LOD).
+ *
+ * Основні функції:
+ * - Вершини з однаковою позицією зварюються; кожна позиція накопичує квадрики площин суміжних
+ *   трикутників (зважені площею), межові ребра додають перпендикулярні площини з BORDER_WEIGHT.
+ * - Стягування напівребра u -> v (позиція u переходить у v) з найменшою похибкою Q(u)+Q(v) у точці v;
+ *   нові позиції не створюються, тож стислі формати вершин (VertexFormat) лишаються в тому ж AABB.
+ * - Стягування відкидається, якщо воно перевертає трикутник, порушує умову зв'язності
+ *   (неманіфолдна поверхня) або зсуває межову вершину вздовж внутрішнього ребра.
+ * - Кути трикутників зберігають свої текстурні координати й нормалі; змінюється лише позиція.
+ * - `generateLods()` спрощує поступово і знімає знімки на кожній цільовій кількості трикутників.
+ */
+public class MeshSimplifier {
+    private static final int VERTEX_FLOATS = MeshOptimizer.VERTEX_FLOATS;
+    private static final double BORDER_WEIGHT = 10.0;
+    // Мінімальний косинус між нормаллю трикутника до і після стягування
+    private static final double MIN_NORMAL_COSINE = 0.2;
+
+    // Один рівень деталізації
+    public static class Level {
+        public final float[] vertices;
+        public final int[] indices;
+
+        public Level(float[] vertices, int[] indices) {
+            this.vertices = vertices;
+            this.indices = indices;
+        }
+
+        public int getTriangleCount() {
+            return indices.length / 3;
+        }
+    }
+
+    private static final class Collapse implements Comparable<Collapse> {
+        final double cost;
+        final int from;
+        final int to;
+        final int fromVersion;
+        final int toVersion;
+
+        Collapse(double cost, int from, int to, int fromVersion, int toVersion) {
+            this.cost = cost;
+            this.from = from;
+            this.to = to;
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+        }
+
+        @Override
+        public int compareTo(Collapse other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+
+    private final float[] vertices;
+    private final int triangleCount;
+    // Позиція кожного кута трикутника (змінюється при стягуванні) і вершина, з якої беруться атрибути
+    private final int[] cornerPositions;
+    private final int[] cornerAttributes;
+    private final boolean[] triangleAlive;
+    private int liveTriangles;
+
+    private final float[] positions;
+    private final double[] quadrics;
+    private final boolean[] positionAlive;
+    private final boolean[] border;
+    private final int[] versions;
+    private final List<int[]> adjacency = new ArrayList<>();
+    private final int[] adjacencySize;
+    private final PriorityQueue<Collapse> queue = new PriorityQueue<>();
+
+    /**
+     * @param vertices вершини по 8 float (позиція, текстурні координати, нормаль)
+     */
+    public MeshSimplifier(float[] vertices, int[] indices) {
+        this.vertices = vertices;
+        this.triangleCount = indices.length / 3;
+        this.cornerAttributes = Arrays.copyOf(indices, triangleCount * 3);
+        this.cornerPositions = new int[triangleCount * 3];
+        this.triangleAlive = new boolean[triangleCount];
+
+        // Зварювання вершин за позицією
+        Map<Long, Integer> positionIds = new HashMap<>();
+        Map<Integer, Integer> secondary = new HashMap<>();
+        int vertexCount = vertices.length / VERTEX_FLOATS;
+        int[] positionOf = new int[vertexCount];
+        float[] weldedPositions = new float[vertexCount * 3];
+        int positionCount = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            int x = Float.floatToIntBits(vertices[v * VERTEX_FLOATS]);
+            int y = Float.floatToIntBits(vertices[v * VERTEX_FLOATS + 1]);
+            int z = Float.floatToIntBits(vertices[v * VERTEX_FLOATS + 2]);
+            long key = ((long) x << 32) ^ (y & 0xFFFFFFFFL) ^ ((long) z * 0x9E3779B97F4A7C15L);
+            Integer id = positionIds.get(key);
+            // Збіг ключа ще не означає однакову позицію - перевіряємо компоненти
+            while (id != null && !samePosition(weldedPositions, id, vertices, v)) {
+                id = secondary.get(id);
+            }
+            if (id == null) {
+                id = positionCount++;
+                weldedPositions[id * 3] = vertices[v * VERTEX_FLOATS];
+                weldedPositions[id * 3 + 1] = vertices[v * VERTEX_FLOATS + 1];
+                weldedPositions[id * 3 + 2] = vertices[v * VERTEX_FLOATS + 2];
+                Integer previous = positionIds.put(key, id);
+                if (previous != null) {
+                    secondary.put(id, previous);
+                }
+            }
+            positionOf[v] = id;
+        }
+        this.positions = Arrays.copyOf(weldedPositions, positionCount * 3);
+        this.quadrics = new double[positionCount * 10];
+        this.positionAlive = new boolean[positionCount];
+        this.border = new boolean[positionCount];
+        this.versions = new int[positionCount];
+        this.adjacencySize = new int[positionCount];
+        Arrays.fill(positionAlive, true);
+        for (int p = 0; p < positionCount; p++) {
+            adjacency.add(new int[4]);
+        }
+
+        for (int t = 0; t < triangleCount; t++) {
+            int a = positionOf[indices[t * 3]];
+            int b = positionOf[indices[t * 3 + 1]];
+            int c = positionOf[indices[t * 3 + 2]];
+            cornerPositions[t * 3] = a;
+            cornerPositions[t * 3 + 1] = b;
+            cornerPositions[t * 3 + 2] = c;
+            // Вироджені після зварювання трикутники не беруть участі
+            if (a == b || b == c || a == c) {
+                continue;
+            }
+            triangleAlive[t] = true;
+            liveTriangles++;
+            addAdjacency(a, t);
+            addAdjacency(b, t);
+            addAdjacency(c, t);
+            addTriangleQuadric(t);
+        }
+        addBorderQuadrics();
+
+        for (int p = 0; p < positionCount; p++) {
+            pushCollapses(p);
+        }
+    }
+
+    private static boolean samePosition(float[] welded, int id, float[] vertices, int v) {
+        return welded[id * 3] == vertices[v * VERTEX_FLOATS]
+                && welded[id * 3 + 1] == vertices[v * VERTEX_FLOATS + 1]
+                && welded[id * 3 + 2] == vertices[v * VERTEX_FLOATS + 2];
+    }
+
+    /**
+     * Рівні деталізації: кожен наступний має приблизно вдвічі менше трикутників
+     *
+     * @param maxLevels кількість рівнів без вихідного
+     * @param minTriangles рівні з меншою кількістю трикутників не створюються
+     * @return рівні від детальнішого до грубішого (без вихідної геометрії)
+     */
+    public static List<Level> generateLods(float[] vertices, int[] indices, int maxLevels, int minTriangles) {
+        List<Level> levels = new ArrayList<>();
+        MeshSimplifier simplifier = new MeshSimplifier(vertices, indices);
+        int previous = simplifier.liveTriangles;
+        for (int level = 1; level <= maxLevels; level++) {
+            int target = previous / 2;
+            if (target < minTriangles) {
+                break;
+            }
+            simplifier.simplify(target);
+            // Спрощення застрягло - грубіші рівні нічого не дадуть
+            if (simplifier.liveTriangles > previous * 0.8) {
+                break;
+            }
+            levels.add(simplifier.snapshot());
+            previous = simplifier.liveTriangles;
+        }
+        return levels;
+    }
+
+    // Стягувати ребра, доки трикутників не стане не більше target або не скінчаться допустимі стягування
+    public void simplify(int targetTriangles) {
+        while (liveTriangles > targetTriangles && !queue.isEmpty()) {
+            Collapse collapse = queue.poll();
+            int u = collapse.from;
+            int v = collapse.to;
+            if (!positionAlive[u] || !positionAlive[v]
+                    || versions[u] != collapse.fromVersion || versions[v] != collapse.toVersion) {
+                continue;
+            }
+            if (!canCollapse(u, v)) {
+                continue;
+            }
+            collapse(u, v);
+        }
+    }
+
+    public int getTriangleCount() {
+        return liveTriangles;
+    }
+
+    // Поточна геометрія: вершина результату - позиція кута плюс атрибути його вихідної вершини
+    public Level snapshot() {
+        Map<Long, Integer> outputIds = new HashMap<>();
+        float[] outVertices = new float[liveTriangles * 3 * VERTEX_FLOATS];
+        int[] outIndices = new int[liveTriangles * 3];
+        int vertexCount = 0;
+        int written = 0;
+        for (int t = 0; t < triangleCount; t++) {
+            if (!triangleAlive[t]) {
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                int position = cornerPositions[t * 3 + k];
+                int attributes = cornerAttributes[t * 3 + k];
+                long key = ((long) position << 32) | (attributes & 0xFFFFFFFFL);
+                Integer id = outputIds.get(key);
+                if (id == null) {
+                    id = vertexCount++;
+                    outputIds.put(key, id);
+                    int base = id * VERTEX_FLOATS;
+                    System.arraycopy(vertices, attributes * VERTEX_FLOATS, outVertices, base, VERTEX_FLOATS);
+                    outVertices[base] = positions[position * 3];
+                    outVertices[base + 1] = positions[position * 3 + 1];
+                    outVertices[base + 2] = positions[position * 3 + 2];
+                }
+                outIndices[written++] = id;
+            }
+        }
+        return new Level(Arrays.copyOf(outVertices, vertexCount * VERTEX_FLOATS), outIndices);
+    }
+
+    private void addAdjacency(int position, int triangle) {
+        int[] list = adjacency.get(position);
+        if (adjacencySize[position] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            adjacency.set(position, list);
+        }
+        list[adjacencySize[position]++] = triangle;
+    }
+
+    private void addTriangleQuadric(int triangle) {
+        double[] normal = new double[3];
+        double area = triangleNormal(triangle, -1, -1, normal);
+        if (area <= 0.0) {
+            return;
+        }
+        int a = cornerPositions[triangle * 3];
+        double d = -(normal[0] * positions[a * 3] + normal[1] * positions[a * 3 + 1] + normal[2] * positions[a * 3 + 2]);
+        for (int k = 0; k < 3; k++) {
+            addPlane(cornerPositions[triangle * 3 + k], normal[0], normal[1], normal[2], d, area);
+        }
+    }
+
+    // Межові ребра (лише один трикутник): площина через ребро, перпендикулярна трикутнику
+    private void addBorderQuadrics() {
+        Map<Long, Integer> edgeUse = new HashMap<>();
+        for (int t = 0; t < triangleCount; t++) {
+            if (!triangleAlive[t]) {
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                edgeUse.merge(edgeKey(cornerPositions[t * 3 + k], cornerPositions[t * 3 + (k + 1) % 3]), 1, Integer::sum);
+            }
+        }
+        double[] normal = new double[3];
+        for (int t = 0; t < triangleCount; t++) {
+            if (!triangleAlive[t]) {
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                int a = cornerPositions[t * 3 + k];
+                int b = cornerPositions[t * 3 + (k + 1) % 3];
+                if (edgeUse.get(edgeKey(a, b)) != 1) {
+                    continue;
+                }
+                border[a] = true;
+                border[b] = true;
+                if (triangleNormal(t, -1, -1, normal) <= 0.0) {
+                    continue;
+                }
+                double ex = positions[b * 3] - positions[a * 3];
+                double ey = positions[b * 3 + 1] - positions[a * 3 + 1];
+                double ez = positions[b * 3 + 2] - positions[a * 3 + 2];
+                double lengthSquared = ex * ex + ey * ey + ez * ez;
+                // Нормаль площини: ребро × нормаль трикутника
+                double px = ey * normal[2] - ez * normal[1];
+                double py = ez * normal[0] - ex * normal[2];
+                double pz = ex * normal[1] - ey * normal[0];
+                double length = Math.sqrt(px * px + py * py + pz * pz);
+                if (length == 0.0) {
+                    continue;
+                }
+                px /= length;
+                py /= length;
+                pz /= length;
+                double d = -(px * positions[a * 3] + py * positions[a * 3 + 1] + pz * positions[a * 3 + 2]);
+                addPlane(a, px, py, pz, d, BORDER_WEIGHT * lengthSquared);
+                addPlane(b, px, py, pz, d, BORDER_WEIGHT * lengthSquared);
+            }
+        }
+    }
+
+    private static long edgeKey(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    // Квадрика площини ax + by + cz + d = 0 у верхньому трикутнику симетричної матриці 4x4
+    private void addPlane(int position, double a, double b, double c, double d, double weight) {
+        int q = position * 10;
+        quadrics[q] += weight * a * a;
+        quadrics[q + 1] += weight * a * b;
+        quadrics[q + 2] += weight * a * c;
+        quadrics[q + 3] += weight * a * d;
+        quadrics[q + 4] += weight * b * b;
+        quadrics[q + 5] += weight * b * c;
+        quadrics[q + 6] += weight * b * d;
+        quadrics[q + 7] += weight * c * c;
+        quadrics[q + 8] += weight * c * d;
+        quadrics[q + 9] += weight * d * d;
+    }
+
+    // Похибка (Q(u) + Q(v)) у позиції v
+    private double collapseCost(int u, int v) {
+        double x = positions[v * 3];
+        double y = positions[v * 3 + 1];
+        double z = positions[v * 3 + 2];
+        double cost = 0.0;
+        for (int p : new int[]{u, v}) {
+            int q = p * 10;
+            cost += quadrics[q] * x * x + 2 * quadrics[q + 1] * x * y + 2 * quadrics[q + 2] * x * z + 2 * quadrics[q + 3] * x
+                    + quadrics[q + 4] * y * y + 2 * quadrics[q + 5] * y * z + 2 * quadrics[q + 6] * y
+                    + quadrics[q + 7] * z * z + 2 * quadrics[q + 8] * z
+                    + quadrics[q + 9];
+        }
+        return Math.max(cost, 0.0);
+    }
+
+    // Кандидати на стягування по всіх ребрах навколо позиції в обидва боки
+    private void pushCollapses(int position) {
+        int[] list = adjacency.get(position);
+        for (int i = 0; i < adjacencySize[position]; i++) {
+            int t = list[i];
+            if (!triangleAlive[t]) {
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                int other = cornerPositions[t * 3 + k];
+                if (other == position) {
+                    continue;
+                }
+                queue.add(new Collapse(collapseCost(position, other), position, other, versions[position], versions[other]));
+                queue.add(new Collapse(collapseCost(other, position), other, position, versions[other], versions[position]));
+            }
+        }
+    }
+
+    private boolean canCollapse(int u, int v) {
+        // Сусіди u і v та кількість спільних трикутників
+        List<Integer> neighboursU = neighbours(u);
+        List<Integer> neighboursV = neighbours(v);
+        int sharedTriangles = 0;
+        List<Integer> opposite = new ArrayList<>(2);
+        int[] list = adjacency.get(u);
+        for (int i = 0; i < adjacencySize[u]; i++) {
+            int t = list[i];
+            if (triangleAlive[t] && hasCorner(t, v)) {
+                sharedTriangles++;
+                for (int k = 0; k < 3; k++) {
+                    int p = cornerPositions[t * 3 + k];
+                    if (p != u && p != v) {
+                        opposite.add(p);
+                    }
+                }
+            }
+        }
+        if (sharedTriangles == 0) {
+            return false;
+        }
+        // Межова вершина може рухатись лише вздовж межі
+        if (border[u] && sharedTriangles != 1) {
+            return false;
+        }
+        // Умова зв'язності: спільні сусіди - лише протилежні вершини спільних трикутників
+        for (int n : neighboursU) {
+            if (neighboursV.contains(n) && !opposite.contains(n)) {
+                return false;
+            }
+        }
+
+        // Трикутники u, що залишаються, не мають перевернутись чи виродитись
+        double[] before = new double[3];
+        double[] after = new double[3];
+        for (int i = 0; i < adjacencySize[u]; i++) {
+            int t = list[i];
+            if (!triangleAlive[t] || hasCorner(t, v)) {
+                continue;
+            }
+            double areaBefore = triangleNormal(t, -1, -1, before);
+            double areaAfter = triangleNormal(t, u, v, after);
+            if (areaAfter <= 0.0) {
+                return false;
+            }
+            if (areaBefore > 0.0 && before[0] * after[0] + before[1] * after[1] + before[2] * after[2] < MIN_NORMAL_COSINE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collapse(int u, int v) {
+        int[] list = adjacency.get(u);
+        for (int i = 0; i < adjacencySize[u]; i++) {
+            int t = list[i];
+            if (!triangleAlive[t]) {
+                continue;
+            }
+            if (hasCorner(t, v)) {
+                triangleAlive[t] = false;
+                liveTriangles--;
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                if (cornerPositions[t * 3 + k] == u) {
+                    cornerPositions[t * 3 + k] = v;
+                }
+            }
+            addAdjacency(v, t);
+        }
+        positionAlive[u] = false;
+        adjacencySize[u] = 0;
+        for (int i = 0; i < 10; i++) {
+            quadrics[v * 10 + i] += quadrics[u * 10 + i];
+        }
+        border[v] |= border[u];
+        compactAdjacency(v);
+        versions[v]++;
+        pushCollapses(v);
+    }
+
+    // Прибрати мертві трикутники зі списку суміжності
+    private void compactAdjacency(int position) {
+        int[] list = adjacency.get(position);
+        int size = 0;
+        for (int i = 0; i < adjacencySize[position]; i++) {
+            if (triangleAlive[list[i]]) {
+                list[size++] = list[i];
+            }
+        }
+        adjacencySize[position] = size;
+    }
+
+    private List<Integer> neighbours(int position) {
+        List<Integer> result = new ArrayList<>();
+        int[] list = adjacency.get(position);
+        for (int i = 0; i < adjacencySize[position]; i++) {
+            int t = list[i];
+            if (!triangleAlive[t]) {
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                int p = cornerPositions[t * 3 + k];
+                if (p != position && !result.contains(p)) {
+                    result.add(p);
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean hasCorner(int triangle, int position) {
+        return cornerPositions[triangle * 3] == position || cornerPositions[triangle * 3 + 1] == position
+                || cornerPositions[triangle * 3 + 2] == position;
+    }
+
+    /**
+     * Одинична нормаль трикутника
+     *
+     * @param replaced позиція, яку треба замінити на replacement (-1 - без заміни)
+     * @return площа трикутника
+     */
+    private double triangleNormal(int triangle, int replaced, int replacement, double[] out) {
+        int a = cornerPositions[triangle * 3];
+        int b = cornerPositions[triangle * 3 + 1];
+        int c = cornerPositions[triangle * 3 + 2];
+        if (a == replaced) a = replacement;
+        if (b == replaced) b = replacement;
+        if (c == replaced) c = replacement;
+        double e1x = positions[b * 3] - positions[a * 3];
+        double e1y = positions[b * 3 + 1] - positions[a * 3 + 1];
+        double e1z = positions[b * 3 + 2] - positions[a * 3 + 2];
+        double e2x = positions[c * 3] - positions[a * 3];
+        double e2y = positions[c * 3 + 1] - positions[a * 3 + 1];
+        double e2z = positions[c * 3 + 2] - positions[a * 3 + 2];
+        double nx = e1y * e2z - e1z * e2y;
+        double ny = e1z * e2x - e1x * e2z;
+        double nz = e1x * e2y - e1y * e2x;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0.0) {
+            out[0] = 0.0;
+            out[1] = 0.0;
+            out[2] = 0.0;
+            return 0.0;
+        }
+        out[0] = nx / length;
+        out[1] = ny / length;
+        out[2] = nz / length;
+        return length * 0.5;
+    }
+}
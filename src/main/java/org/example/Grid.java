@@ -2,6 +2,7 @@ package org.example;
 
 import org.example.Render.DefaultRenderStrategy;
 import org.example.Render.Grid.GridRenderStrategy;
+import org.example.Render.Grid.ProceduralGridRenderStrategy;
 import org.example.Render.RenderStrategy;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -18,11 +19,15 @@ import static org.lwjgl.opengl.GL30.*;
 /**
  * Клас для відображення координатної сітки в 3D просторі використовуючи VAO/VBO/EBO
  * Сітка відображається на площині XZ, а по XY відображаються тільки вісі
+ *
+ * З ProceduralGridRenderStrategy сітка нескінченна і рахується у фрагментному шейдері:
+ * буфери ліній не створюються, зміна кроку не потребує перебудови.
  */
 public class Grid {
     // Налаштування сітки
     private float gridSize = 0.1f;        // Відстань між лініями сітки
     private float gridExtent = 10.0f;     // Розмір сітки в обидва боки від початку координат
+    private float fadeDistance = 100.0f;  // Відстань, на якій процедурна сітка повністю згасає
 
     // Кольори осей
     private float[] xAxisColor = {1.0f, 0.2f, 0.2f, 1.0f};  // Червоний для осі X
@@ -58,8 +63,10 @@ public class Grid {
             return;
         }
 
-        // Створюємо дані для сітки
-        createGridBuffers();
+        // Створюємо дані для сітки (процедурній сітці буфери ліній не потрібні)
+        if (!isProcedural()) {
+            createGridBuffers();
+        }
 
         // Створюємо дані для осей
         createAxesBuffers();
@@ -67,6 +74,16 @@ public class Grid {
         initialized = true;
     }
 
+    public void setRenderStrategy(RenderStrategy strategy) {
+        // Буфери ліній створюються лише для стратегії, якій вони потрібні
+        cleanup();
+        this.renderStrategy = strategy;
+    }
+
+    public boolean isProcedural() {
+        return renderStrategy instanceof ProceduralGridRenderStrategy;
+    }
+
     /**
      * Створення та заповнення буферів для сітки
      */
@@ -326,9 +343,15 @@ public class Grid {
     public void cleanup() {
         if (initialized) {
             // Видаляємо VAO, VBO та EBO для сітки
-            glDeleteVertexArrays(gridVAO);
-            glDeleteBuffers(gridVBO);
-            glDeleteBuffers(gridEBO);
+            if (gridVAO != 0) {
+                glDeleteVertexArrays(gridVAO);
+                glDeleteBuffers(gridVBO);
+                glDeleteBuffers(gridEBO);
+                gridVAO = 0;
+                gridVBO = 0;
+                gridEBO = 0;
+                gridVertexCount = 0;
+            }
 
             // Видаляємо VAO та VBO для осей
             glDeleteVertexArrays(axesVAO);
@@ -345,7 +368,10 @@ public class Grid {
 
     public void setGridSize(float gridSize) {
         this.gridSize = gridSize;
-        initialized = false; // Потрібна реініціалізація
+        // Процедурна сітка бере крок з uniform; буфери ліній звільняються і створюються заново
+        if (!isProcedural()) {
+            cleanup();
+        }
     }
 
     public float getGridExtent() {
@@ -354,7 +380,16 @@ public class Grid {
 
     public void setGridExtent(float gridExtent) {
         this.gridExtent = gridExtent;
-        initialized = false; // Потрібна реініціалізація
+        // Від розміру залежать і осі - звільняємо старі буфери перед перебудовою
+        cleanup();
+    }
+
+    public float getFadeDistance() {
+        return fadeDistance;
+    }
+
+    public void setFadeDistance(float fadeDistance) {
+        this.fadeDistance = fadeDistance;
     }
 
     public int getGridVAO() {
@@ -369,6 +404,14 @@ public class Grid {
         return axesVAO;
     }
 
+    public float[] getMajorGridColor() {
+        return majorGridColor;
+    }
+
+    public float[] getMinorGridColor() {
+        return minorGridColor;
+    }
+
     public float[] getxAxisColor() {
         return xAxisColor;
     }
@@ -22,7 +22,6 @@ public class InputManager {
 
     // Таймінг
     private float deltaTime = 0.0f;
-    private float lastFrame = 0.0f;
 
     // Налаштування швидкості руху
     private float movementSpeed = 2.5f;
@@ -99,12 +98,11 @@ public class InputManager {
 
     /**
      * Викликається кожен кадр для оновлення стану контролера
+     *
+     * @param deltaSeconds крок часу від попереднього кадру (FramePacer.getDeltaSeconds)
      */
-    public void update() {
-        // Обчислення deltaTime
-        float currentFrame = (float) glfwGetTime();
-        deltaTime = currentFrame - lastFrame;
-        lastFrame = currentFrame;
+    public void update(float deltaSeconds) {
+        deltaTime = deltaSeconds;
 
         // Обробка клавіатурного вводу
         processKeyboardInput();
@@ -0,0 +1,238 @@
+package org.example;
+
+import org.example.Profiler.RenderStats;
+import org.example.Texture.TextureArray;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL31.*;
+
+/**
+ * Реєстр матеріалів: параметри всіх матеріалів зберігаються один раз в uniform-буфері (UBO).
+ *
+ * Основні функції:
+ * - Матеріал отримує цілий ідентифікатор при першому використанні; 0 - матеріал за замовчуванням.
+ * - Параметри лежать у блоці `MaterialBlock` (std140, по 64 байти на матеріал) сторінками
+ *   по PAGE_SIZE матеріалів - стільки гарантовано вміщує один блок (16 КБ).
+ * - Змінені матеріали (сеттери ShaderMaterial) позначаються брудними й довантажуються одним
+ *   glBufferSubData перед наступним малюванням.
+ * - Перемикання матеріалу - один glUniform1i(materialIndex) плюс glBindBufferRange, якщо матеріал
+ *   на іншій сторінці, і прив'язка текстури, якщо вона інша. Повторне застосування того самого
+ *   матеріалу тією самою програмою нічого не викликає.
+ *
+ * Усі методи викликаються з потоку з контекстом OpenGL. Йому ж належить вміст матеріалів: після
+ * bindRenderThread() сеттери ShaderMaterial з іншого потоку кидають IllegalStateException.
+ */
+public class MaterialRegistry {
+    public static final int BINDING = 0;
+    public static final int PAGE_SIZE = 256;
+    // vec4 ambient (w - shininess), vec4 diffuse, vec4 specular, ivec4 flags (useTexture, textureLayer)
+    private static final int MATERIAL_BYTES = 64;
+    private static final int PAGE_BYTES = PAGE_SIZE * MATERIAL_BYTES;
+
+    // Індекс - ідентифікатор матеріалу; нульовий запис - матеріал за замовчуванням
+    private static final List<ShaderMaterial> materials = new ArrayList<>();
+    // Програма -> локація materialIndex
+    private static final Map<Integer, Integer> programs = new HashMap<>();
+
+    private static int bufferId = 0;
+    private static int capacityPages = 0;
+    private static int dirtyMin = Integer.MAX_VALUE;
+    private static int dirtyMax = -1;
+
+    // Кеш прив'язок: сторінка, остання програма та матеріал, текстура на блоці 0
+    private static int boundPage = -1;
+    private static int lastProgram = 0;
+    private static int lastMaterialId = -1;
+    private static int lastTextureId = -1;
+
+    // Потік з контекстом OpenGL; null - перевірка ще не ввімкнена (завантаження до створення контексту)
+    private static volatile Thread renderThread;
+
+    // Закріпити вміст матеріалів за поточним потоком (Core.init, після створення контексту)
+    public static void bindRenderThread() {
+        renderThread = Thread.currentThread();
+    }
+
+    // Параметри й текстури матеріалу змінюються лише з потоку рендерингу - поза ним зміна не дійшла б до UBO вчасно
+    static void checkRenderThread() {
+        Thread owner = renderThread;
+        if (owner != null && owner != Thread.currentThread()) {
+            throw new IllegalStateException("Матеріал змінюється лише з потоку рендерингу ("
+                    + owner.getName() + "), а не з " + Thread.currentThread().getName());
+        }
+    }
+
+    // Ідентифікатор матеріалу; незареєстрований матеріал реєструється
+    public static int idOf(ShaderMaterial material) {
+        if (material.materialId == 0) {
+            if (materials.isEmpty()) {
+                materials.add(null);
+            }
+            material.materialId = materials.size();
+            materials.add(material);
+            markDirty(material);
+        }
+        return material.materialId;
+    }
+
+    // Викликається при зміні параметрів матеріалу
+    static void markDirty(ShaderMaterial material) {
+        if (material.materialId == 0) {
+            return;
+        }
+        dirtyMin = Math.min(dirtyMin, material.materialId);
+        dirtyMax = Math.max(dirtyMax, material.materialId);
+        if (material.materialId == lastMaterialId) {
+            // Текстура могла змінитись - наступне застосування прив'яже її знову
+            lastMaterialId = -1;
+        }
+    }
+
+    /**
+     * Зробити матеріал поточним для програми
+     *
+     * @param shaderProgram програма з блоком MaterialBlock і uniform materialIndex
+     */
+    public static void apply(ShaderMaterial material, int shaderProgram) {
+        int id = idOf(material);
+        flush();
+        if (shaderProgram == lastProgram && id == lastMaterialId) {
+            return;
+        }
+        Integer indexLoc = programs.get(shaderProgram);
+        if (indexLoc == null) {
+            indexLoc = setupProgram(shaderProgram);
+        }
+
+        int page = id / PAGE_SIZE;
+        if (page != boundPage) {
+            glBindBufferRange(GL_UNIFORM_BUFFER, BINDING, bufferId, (long) page * PAGE_BYTES, PAGE_BYTES);
+            boundPage = page;
+        }
+        glUniform1i(indexLoc, id % PAGE_SIZE);
+        RenderStats.uniformUpload();
+
+        if (material.hasTexture()) {
+            TextureArray textureArray = material.getTextureArray();
+            if (textureArray != null) {
+                // Масив прив'язується лише при зміні - матеріали одного масиву відрізняються тільки шаром
+                textureArray.bind();
+            } else if (material.getDiffuseMap().getId() != lastTextureId || material.getDiffuseMap().getId() == 0) {
+                material.getDiffuseMap().bind();
+                lastTextureId = material.getDiffuseMap().getId();
+                RenderStats.textureBind();
+            }
+        }
+        lastProgram = shaderProgram;
+        lastMaterialId = id;
+    }
+
+    // Прив'язка блоку до BINDING і семплера дифузної карти до блоку 0 - один раз на програму
+    private static int setupProgram(int shaderProgram) {
+        int blockIndex = glGetUniformBlockIndex(shaderProgram, "MaterialBlock");
+        if (blockIndex != GL_INVALID_INDEX) {
+            glUniformBlockBinding(shaderProgram, blockIndex, BINDING);
+        }
+        glUniform1i(glGetUniformLocation(shaderProgram, "diffuseMap"), 0);
+        int indexLoc = glGetUniformLocation(shaderProgram, "materialIndex");
+        programs.put(shaderProgram, indexLoc);
+        return indexLoc;
+    }
+
+    /**
+     * Скидання кешу прив'язок: на початку проходу, після якого стан GL міг змінити інший код
+     */
+    public static void resetBindings() {
+        boundPage = -1;
+        lastProgram = 0;
+        lastMaterialId = -1;
+        lastTextureId = -1;
+    }
+
+    // Довантаження змінених матеріалів; буфер росте сторінками
+    public static void flush() {
+        int requiredPages = (materials.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        if (requiredPages > capacityPages) {
+            if (bufferId == 0) {
+                bufferId = glGenBuffers();
+            }
+            capacityPages = requiredPages;
+            glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+            glBufferData(GL_UNIFORM_BUFFER, (long) capacityPages * PAGE_BYTES, GL_DYNAMIC_DRAW);
+            glBindBuffer(GL_UNIFORM_BUFFER, 0);
+            // Новий буфер порожній - завантажуємо все, сторінку прив'язуємо знову
+            dirtyMin = 0;
+            dirtyMax = materials.size() - 1;
+            boundPage = -1;
+        }
+        if (dirtyMax < dirtyMin) {
+            return;
+        }
+
+        ByteBuffer data = BufferUtils.createByteBuffer((dirtyMax - dirtyMin + 1) * MATERIAL_BYTES);
+        for (int id = dirtyMin; id <= dirtyMax; id++) {
+            writeMaterial(data, materials.get(id));
+        }
+        data.flip();
+        glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+        glBufferSubData(GL_UNIFORM_BUFFER, (long) dirtyMin * MATERIAL_BYTES, data);
+        glBindBuffer(GL_UNIFORM_BUFFER, 0);
+
+        dirtyMin = Integer.MAX_VALUE;
+        dirtyMax = -1;
+    }
+
+    // Розкладка std140 структури MaterialData з fragment_shader.glsl
+    private static void writeMaterial(ByteBuffer data, ShaderMaterial material) {
+        if (material == null) {
+            // Матеріал за замовчуванням - сірий без текстури
+            data.putFloat(0.2f).putFloat(0.2f).putFloat(0.2f).putFloat(32.0f);
+            data.putFloat(0.8f).putFloat(0.8f).putFloat(0.8f).putFloat(0.0f);
+            data.putFloat(0.5f).putFloat(0.5f).putFloat(0.5f).putFloat(0.0f);
+            data.putInt(0).putInt(0).putInt(0).putInt(0);
+            return;
+        }
+        data.putFloat(material.getAmbient().x).putFloat(material.getAmbient().y).putFloat(material.getAmbient().z)
+                .putFloat(material.getShininess());
+        data.putFloat(material.getDiffuse().x).putFloat(material.getDiffuse().y).putFloat(material.getDiffuse().z)
+                .putFloat(0.0f);
+        data.putFloat(material.getSpecular().x).putFloat(material.getSpecular().y).putFloat(material.getSpecular().z)
+                .putFloat(0.0f);
+        // 1 - окрема текстура, 2 - шар масиву текстур
+        int useTexture = material.hasTexture() ? (material.getTextureArray() != null ? 2 : 1) : 0;
+        data.putInt(useTexture).putInt(material.getTextureLayer()).putInt(0).putInt(0);
+    }
+
+    // Буфер з усіма сторінками підряд: шлях IndirectRenderer читає його як SSBO за ідентифікатором
+    public static int getBufferId() {
+        return bufferId;
+    }
+
+    public static int getMaterialCount() {
+        return Math.max(0, materials.size() - 1);
+    }
+
+    public static void cleanup() {
+        if (bufferId != 0) {
+            glDeleteBuffers(bufferId);
+            bufferId = 0;
+        }
+        for (ShaderMaterial material : materials) {
+            if (material != null) {
+                material.materialId = 0;
+            }
+        }
+        materials.clear();
+        programs.clear();
+        capacityPages = 0;
+        dirtyMin = Integer.MAX_VALUE;
+        dirtyMax = -1;
+        resetBindings();
+    }
+}
@@ -1,100 +1,86 @@
 package org.example;
 
 import org.example.Render.DefaultRenderStrategy;
+import org.example.Render.GeometryArena;
 import org.example.Render.RenderStrategy;
+import org.example.Render.VertexFormat;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
-import org.lwjgl.BufferUtils;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import java.util.List;
 
-import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
 
 public class Mesh {
-    private final int vaoID;
-    private final int vboID;
-    private final int eboID;
-    private final int vertexCount;
+    // Рівні деталізації в GeometryArena (0 - вихідна геометрія) і поточний рівень
+    private GeometryArena.Allocation[] lods;
+    private GeometryArena.Allocation allocation;
+    private int lodLevel = 0;
     private ShaderMaterial shaderMaterial;
     private final float[] vertices;
     private final int[] indices;
-    private Matrix4f modelMatrix;
+    private final Matrix4f modelMatrix = new Matrix4f();
+    // Світова матриця вузла без повороту анімації - для інтерполяції знімка (RenderSnapshot)
+    private final Matrix4f nodeMatrix = new Matrix4f();
+    // Видимість з урахуванням предків (Node.updateWorldTransformation)
+    private boolean visible = true;
+    // Стан зі знімка (RenderSnapshot.apply); до першого знімка не задається
+    private final Matrix4f interpolatedMatrix = new Matrix4f();
+    private boolean snapshotVisible = true;
+    private ShaderMaterial snapshotMaterial;
+    private int snapshotMaterialId = 0;
+    private boolean interpolated = false;
     private final Vector3f position;
     private String resourcePath;
 
+    // Обмежувальний об'єм (AABB) у локальних координатах меша
+    private final Vector3f boundsMin = new Vector3f();
+    private final Vector3f boundsMax = new Vector3f();
+    // Переведення закодованих позицій у локальні координати (VertexFormat.decodeMatrix)
+    private final Matrix4f decodeMatrix = new Matrix4f();
+
     private RenderStrategy renderStrategy;
 
+    // Анімація: обертання навколо локальної осі Y, градусів за секунду (лише з setAnimated(true))
     private float rotationSpeed = 90.0f;
+    private boolean animated = false;
+    private float spinAngle = 0.0f;
 
     public Mesh(float[] vertices, int[] indices, String resourcePath) {
-        this.vertices = vertices;
-        this.indices = indices;
-        this.vertexCount = indices.length;
+        this(vertices, indices, resourcePath, VertexFormat.STANDARD);
+    }
+
+    /**
+     * @param vertices вершини по 8 float (xyz + uv + normal)
+     * @param format розкладка, в якій вершини зберігаються на GPU
+     */
+    public Mesh(float[] vertices, int[] indices, String resourcePath, VertexFormat format) {
+        this(new ObjectLoader.MeshData(vertices, indices), resourcePath, format);
+    }
+
+    /**
+     * @param data геометрія з рівнями деталізації (ObjectLoader.loadMeshData)
+     * @param format розкладка, в якій вершини зберігаються на GPU
+     */
+    public Mesh(ObjectLoader.MeshData data, String resourcePath, VertexFormat format) {
+        this.vertices = data.vertices;
+        this.indices = data.indices;
         this.position = new Vector3f(0.0f, 0.0f, 0.0f);
         this.resourcePath = resourcePath;
+        calculateBounds();
 
-        vaoID = glGenVertexArrays();
-        glBindVertexArray(vaoID);
-
-        vboID = glGenBuffers();
-        glBindBuffer(GL_ARRAY_BUFFER, vboID);
-        FloatBuffer buffer = BufferUtils.createFloatBuffer(vertices.length);
-        buffer.put(vertices).flip();
-        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
-
-        eboID = glGenBuffers();
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboID);
-        IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices.length);
-        indexBuffer.put(indices).flip();
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
-        /**
-         * --------------------------------------------------------------------------------------------------
-         */
-        // Атрибут 0: позиція вершини (x, y, z)
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 8 * Float.BYTES, 0);
-        glEnableVertexAttribArray(0);
-        /**
-         * 0 – номер атрибута в шейдері (layout(location = 0))
-         * 3 – кількість значень (x, y, z)
-         * GL_FLOAT – тип даних
-         * false – не нормалізуємо значення
-         * 8 * Float.BYTES – крок (stride), тобто скільки байтів займає одна вершина (32 байти)
-         * 0 – зміщення (offset), тобто де починаються координати (x, y, z) у буфері (з самого початку)
-         */
-        /**
-         * --------------------------------------------------------------------------------------------------
-         */
-        // Атрибут 1: текстурні координати (u, v)
-        glVertexAttribPointer(1, 2, GL_FLOAT, false, 8 * Float.BYTES, 3 * Float.BYTES);
-        glEnableVertexAttribArray(1);
-        /**
-         * 1 – номер атрибута (layout(location = 1))
-         * 2 – кількість значень (u, v)
-         * GL_FLOAT – тип даних
-         * false – не нормалізуємо
-         * 8 * Float.BYTES – крок (stride) в 32 байти (повна довжина однієї вершини)
-         * 3 * Float.BYTES – зміщення 12 байт (3 float значення, після x, y, z)
-         */
-        /**
-         * --------------------------------------------------------------------------------------------------
-         */
-        // Атрибут 2: нормаль (nx, ny, nz)
-        glVertexAttribPointer(2, 3, GL_FLOAT, false, 8 * Float.BYTES, 5 * Float.BYTES);
-        glEnableVertexAttribArray(2);
-        /**
-         * 2 – номер атрибута (layout(location = 2))
-         * 3 – кількість значень (nx, ny, nz)
-         * GL_FLOAT – тип даних
-         * false – не нормалізуємо
-         * 8 * Float.BYTES – крок (stride) у 32 байти
-         * 5 * Float.BYTES – зміщення 20 байт (5 float значень, після x, y, z, u, v)
-         */
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glBindVertexArray(0);
-
-        modelMatrix = new Matrix4f().identity();
+        // Геометрія лежить у спільних буферах; меш зберігає лише свої діапазони.
+        // Спрощені рівні не виходять за AABB вихідного, тож кодуються з тими ж межами і однією decodeMatrix
+        lods = new GeometryArena.Allocation[1 + data.lods.size()];
+        lods[0] = GeometryArena.allocate(format, format.encode(vertices, boundsMin, boundsMax),
+                vertices.length / VertexFormat.SOURCE_FLOATS, indices);
+        for (int level = 1; level < lods.length; level++) {
+            ObjectLoader.MeshData lod = data.lods.get(level - 1);
+            lods[level] = GeometryArena.allocate(format, format.encode(lod.vertices, boundsMin, boundsMax),
+                    lod.vertices.length / VertexFormat.SOURCE_FLOATS, lod.indices);
+        }
+        allocation = lods[0];
+        format.decodeMatrix(boundsMin, boundsMax, decodeMatrix);
 
         // По умолчанию создаем базовый материал
         shaderMaterial = new ShaderMaterial(
@@ -108,9 +94,34 @@ public class Mesh {
         this.renderStrategy = new DefaultRenderStrategy();
     }
 
+    // Розрахунок AABB за позиціями вершин (крок 8 float: xyz + uv + normal)
+    private void calculateBounds() {
+        if (vertices.length < 3) {
+            return;
+        }
+        boundsMin.set(Float.POSITIVE_INFINITY);
+        boundsMax.set(Float.NEGATIVE_INFINITY);
+        for (int i = 0; i + 2 < vertices.length; i += 8) {
+            boundsMin.set(Math.min(boundsMin.x, vertices[i]), Math.min(boundsMin.y, vertices[i + 1]), Math.min(boundsMin.z, vertices[i + 2]));
+            boundsMax.set(Math.max(boundsMax.x, vertices[i]), Math.max(boundsMax.y, vertices[i + 1]), Math.max(boundsMax.z, vertices[i + 2]));
+        }
+    }
+
+    /**
+     * Крок анімації; кут застосовується до модельної матриці в наступному Node.updateWorldTransformation
+     */
     public void update(float deltaTime) {
-        float angle = rotationSpeed * deltaTime;
-        modelMatrix.rotate(angle, new Vector3f(0.0f, 1.0f, 0.0f));
+        if (animated) {
+            spinAngle = (spinAngle + rotationSpeed * deltaTime) % 360.0f;
+        }
+    }
+
+    public void setAnimated(boolean animated) {
+        this.animated = animated;
+    }
+
+    public boolean isAnimated() {
+        return animated;
     }
 
     public void setRenderStrategy(RenderStrategy strategy) {
@@ -121,15 +132,55 @@ public class Mesh {
         renderStrategy.render(this, shaderProgram, viewMatrix, projectionMatrix, cameraPosition, lightNodes);
     }
 
+    /**
+     * Малювання діапазону меша зі спільного VAO (VAO має бути прив'язаний через getVaoID())
+     *
+     * @param mode примітив: GL_TRIANGLES, GL_LINES, GL_POINTS
+     */
+    public void draw(int mode) {
+        glDrawElementsBaseVertex(mode, allocation.getIndexCount(), allocation.getIndexType(),
+                allocation.getIndexByteOffset(), allocation.getBaseVertex());
+    }
+
+    public void draw() {
+        draw(GL_TRIANGLES);
+    }
+
+    // Кожна вершина меша рівно один раз (для відображення точок)
+    public void drawVertices() {
+        glDrawArrays(GL_POINTS, allocation.getBaseVertex(), allocation.getVertexCount());
+    }
+
     public void cleanup() {
-        glDeleteBuffers(vboID);
-        glDeleteBuffers(eboID);
-        glDeleteVertexArrays(vaoID);
+        for (GeometryArena.Allocation lod : lods) {
+            GeometryArena.free(lod);
+        }
+        lods = new GeometryArena.Allocation[0];
+        allocation = null;
+    }
+
+    // Рівень деталізації для наступних draw(); обирає LodSelector
+    public void setLodLevel(int level) {
+        lodLevel = Math.max(0, Math.min(level, lods.length - 1));
+        allocation = lods[lodLevel];
+    }
+
+    public int getLodLevel() {
+        return lodLevel;
+    }
+
+    public int getLodCount() {
+        return lods.length;
+    }
+
+    public int getLodTriangleCount(int level) {
+        return lods[level].getIndexCount() / 3;
     }
 
     public void setPosition(float x, float y, float z) {
         position.set(x, y, z);
-        modelMatrix.identity().translate(position);
+        modelMatrix.translation(position);
+        nodeMatrix.translation(position);
     }
 
     public float[] getVertices() {
@@ -144,16 +195,98 @@ public class Mesh {
         this.shaderMaterial = shaderMaterial;
     }
 
+    // Світова матриця вузла (копіюється) з поворотом анімації
     public void setModelMatrix(Matrix4f modelMatrix){
-        this.modelMatrix = modelMatrix;
+        nodeMatrix.set(modelMatrix);
+        this.modelMatrix.set(modelMatrix);
+        if (spinAngle != 0.0f) {
+            this.modelMatrix.rotateY((float) Math.toRadians(spinAngle));
+        }
+    }
+
+    // Видимість вузла з предками; задає Node.updateWorldTransformation
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    /**
+     * Стан зі знімка для рендерингу: getModelMatrix, getDrawMatrix, getWorldBounds, isVisible,
+     * getShaderMaterial і getMaterialId повертають його замість стану симуляції.
+     * Задає лише потік рендерингу (RenderSnapshot)
+     */
+    public void applySnapshot(Matrix4f matrix, boolean visible, ShaderMaterial material, int materialId) {
+        interpolatedMatrix.set(matrix);
+        snapshotVisible = visible;
+        snapshotMaterial = material;
+        snapshotMaterialId = materialId;
+        interpolated = true;
+    }
+
+    // Модельна матриця останнього кроку симуляції, без інтерполяції
+    public void getSimulatedMatrix(Matrix4f dest) {
+        dest.set(modelMatrix);
+    }
+
+    // Світова матриця вузла останнього кроку без повороту анімації
+    public void getNodeMatrix(Matrix4f dest) {
+        dest.set(nodeMatrix);
+    }
+
+    // Кут анімації навколо локальної осі Y, градусів
+    public float getSpinAngle() {
+        return spinAngle;
+    }
+
+    public boolean isSimulatedVisible() {
+        return visible;
+    }
+
+    public boolean isVisible() {
+        return interpolated ? snapshotVisible : visible;
+    }
+
+    // Ідентифікатор матеріалу (MaterialRegistry); матеріал, ще не зареєстрований на момент знімка, реєструється тут
+    public int getMaterialId() {
+        if (interpolated && snapshotMaterialId != 0) {
+            return snapshotMaterialId;
+        }
+        ShaderMaterial material = getShaderMaterial();
+        return material != null ? material.getMaterialId() : 0;
+    }
+
+    private Matrix4f renderMatrix() {
+        return interpolated ? interpolatedMatrix : modelMatrix;
     }
 
     public ShaderMaterial getShaderMaterial() {
+        return interpolated ? snapshotMaterial : shaderMaterial;
+    }
+
+    // Матеріал, призначений сценою (SceneCommandQueue); знімок публікує саме його
+    public ShaderMaterial getSimulatedShaderMaterial() {
         return shaderMaterial;
     }
 
+    // Спільний VAO усіх мешів цього формату (GeometryArena)
     public int getVaoID() {
-        return vaoID;
+        return GeometryArena.getVaoId(allocation.getFormat());
+    }
+
+    public VertexFormat getVertexFormat() {
+        return allocation.getFormat();
+    }
+
+    // GL_UNSIGNED_SHORT або GL_UNSIGNED_INT
+    public int getIndexType() {
+        return allocation.getIndexType();
+    }
+
+    public int getBaseVertex() {
+        return allocation.getBaseVertex();
+    }
+
+    public int getFirstIndex() {
+        return allocation.getFirstIndex();
     }
 
     public Vector3f getPosition() {
@@ -161,14 +294,52 @@ public class Mesh {
     }
 
     public Matrix4f getModelMatrix() {
-        return new Matrix4f(modelMatrix);
+        return new Matrix4f(renderMatrix());
+    }
+
+    // Те саме без виділення пам'яті - для проходів, що викликаються на кожен меш кадру
+    public Matrix4f getModelMatrix(Matrix4f dest) {
+        return dest.set(renderMatrix());
+    }
+
+    // Модельна матриця для вершинного шейдера: з декодуванням стислих позицій.
+    // Матрицю нормалей рахувати з getModelMatrix - масштаб декодування нормалей не стосується
+    public Matrix4f getDrawMatrix() {
+        return new Matrix4f(renderMatrix()).mul(decodeMatrix);
+    }
+
+    public Matrix4f getDrawMatrix(Matrix4f dest) {
+        return renderMatrix().mul(decodeMatrix, dest);
     }
 
+    public Matrix4f getDecodeMatrix() {
+        return new Matrix4f(decodeMatrix);
+    }
+
+    // Кількість індексів поточного рівня деталізації
     public int getVertexCount() {
-        return vertexCount;
+        return allocation.getIndexCount();
     }
 
     public String getResourcePath() {
         return resourcePath;
     }
+
+    public Vector3f getBoundsMin() {
+        return new Vector3f(boundsMin);
+    }
+
+    public Vector3f getBoundsMax() {
+        return new Vector3f(boundsMax);
+    }
+
+    /**
+     * Обчислює AABB меша у світових координатах з урахуванням поточної модельної матриці
+     *
+     * @param outMin мінімальна точка (результат)
+     * @param outMax максимальна точка (результат)
+     */
+    public void getWorldBounds(Vector3f outMin, Vector3f outMax) {
+        renderMatrix().transformAab(boundsMin, boundsMax, outMin, outMax);
+    }
 }
\ No newline at end of file
@@ -33,6 +33,8 @@ public class Node {
 
     // Флаг выбора для редактора
     private boolean selected;
+    // Скрытый узел не рисуется вместе с дочерними
+    private boolean visible = true;
 
     // События
     private final List<NodeListener> listeners;
@@ -95,7 +97,12 @@ public class Node {
     }
 
     public void updateWorldTransformation() {
+        updateWorldTransformation(parent == null || parent.isVisibleInHierarchy());
+    }
+
+    private void updateWorldTransformation(boolean parentVisible) {
         updateLocalTransformation();
+        boolean visibleInHierarchy = parentVisible && visible;
 
         if (parent != null) {
             worldTransformation.set(parent.getWorldTransformation()).mul(localTransformation);
@@ -105,10 +112,27 @@ public class Node {
 
         for (Mesh mesh : meshes) {
             mesh.setModelMatrix(worldTransformation);
+            mesh.setVisible(visibleInHierarchy);
+        }
+
+        for (Node child : children) {
+            child.updateWorldTransformation(visibleInHierarchy);
         }
+    }
 
+    /**
+     * Крок симуляції вузла і дочірніх: компоненти та анімація мешів.
+     * Світові матриці після кроку оновлює updateWorldTransformation
+     */
+    public void simulate(float deltaSeconds) {
+        for (Component component : components.values()) {
+            component.update(deltaSeconds);
+        }
+        for (Mesh mesh : meshes) {
+            mesh.update(deltaSeconds);
+        }
         for (Node child : children) {
-            child.updateWorldTransformation();
+            child.simulate(deltaSeconds);
         }
     }
 
@@ -223,6 +247,25 @@ public class Node {
     }
 
     // Методы для выделения узла
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        notifyNodeChanged();
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    // Узел и все его предки видимы
+    public boolean isVisibleInHierarchy() {
+        for (Node current = this; current != null; current = current.parent) {
+            if (!current.visible) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void setSelected(boolean selected) {
         this.selected = selected;
         notifySelectionChanged();
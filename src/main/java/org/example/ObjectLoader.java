@@ -1,5 +1,7 @@
 package org.example;
 
+import org.example.Geometry.MeshCache;
+import org.example.Render.VertexFormat;
 import org.joml.Vector2f;
 import org.joml.Vector3f;
 
@@ -8,11 +10,70 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ObjectLoader {
+    // Розкладка, в якій моделі зберігаються на GPU
+    private static VertexFormat vertexFormat = VertexFormat.COMPACT;
+
+    public static void setVertexFormat(VertexFormat format) {
+        vertexFormat = format;
+    }
+
+    public static VertexFormat getVertexFormat() {
+        return vertexFormat;
+    }
+
+    // Розібрані дані моделі без звернень до OpenGL: вершини (xyz + uv + normal xyz) та індекси
+    public static class MeshData {
+        public final float[] vertices;
+        public final int[] indices;
+        // Спрощені рівні деталізації від детальнішого до грубішого
+        public final List<MeshData> lods;
+
+        public MeshData(float[] vertices, int[] indices) {
+            this(vertices, indices, Collections.emptyList());
+        }
+
+        public MeshData(float[] vertices, int[] indices, List<MeshData> lods) {
+            this.vertices = vertices;
+            this.indices = indices;
+            this.lods = lods;
+        }
+    }
 
     public static Mesh loadObjModel(String resourcePath) {
+        MeshData data = loadMeshData(resourcePath);
+        if (data == null) {
+            return null;
+        }
+        return new Mesh(data, resourcePath, vertexFormat);
+    }
+
+    // Геометрія моделі, готова до завантаження: з кешу .hmesh або розібрана й оптимізована (MeshCache)
+    public static MeshData loadMeshData(String resourcePath) {
+        MeshCache.Entry cached = MeshCache.findCached(resourcePath);
+        if (cached != null) {
+            return toMeshData(cached);
+        }
+        MeshData data = parseObjModel(resourcePath);
+        if (data == null) {
+            return null;
+        }
+        return toMeshData(MeshCache.optimize(resourcePath, data.vertices, data.indices));
+    }
+
+    private static MeshData toMeshData(MeshCache.Entry entry) {
+        List<MeshData> lods = new ArrayList<>();
+        for (MeshCache.Entry lod : entry.lods) {
+            lods.add(new MeshData(lod.vertices, lod.indices));
+        }
+        return new MeshData(entry.vertices, entry.indices, lods);
+    }
+
+    // Розбір OBJ з ресурсів; завантаження в GPU окремо (loadObjModel), тож метод можна вимірювати без контексту GL
+    public static MeshData parseObjModel(String resourcePath) {
         List<Vector3f> positions = new ArrayList<>();
         List<Vector3f> normals = new ArrayList<>();
         List<Integer> indices = new ArrayList<>();
@@ -173,7 +234,7 @@ public class ObjectLoader {
             }
 
             reader.close();
-            return new Mesh(verticesArray, indicesArray, resourcePath);
+            return new MeshData(verticesArray, indicesArray);
 
         } catch (IOException e) {
             System.err.println("Ошибка при загрузке модели: " + e.getMessage());
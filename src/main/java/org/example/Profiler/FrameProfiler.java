@@ -0,0 +1,130 @@
+package org.example.Profiler;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Профайлер кадру з іменованими ділянками (тіньовий прохід, основний прохід, сітка, ImGui тощо).
+ *
+ * Основні функції:
+ * - Для кожної ділянки вимірює CPU-час (System.nanoTime) та GPU-час (GL_TIME_ELAPSED).
+ *   Запити GPU читаються з кільця на кілька кадрів назад, тож конвеєр не зупиняється.
+ * - Зберігає історію останніх HISTORY_SIZE кадрів для графіків у ProfilerPanel.
+ * - Експортує історію в CSV для аналізу поза редактором.
+ *
+ * Використання: beginFrame(), далі scope("Назва").begin()/end() навколо ділянок, endFrame().
+ */
+public class FrameProfiler {
+    public static final int HISTORY_SIZE = 300;
+
+    private final Map<String, ProfilerScope> scopes = new LinkedHashMap<>();
+    private final float[] frameHistory = new float[HISTORY_SIZE];
+
+    private int historyIndex = 0;
+    private int recordedFrames = 0;
+    private long frameStartNanos;
+
+    // Ділянку створюємо при першому зверненні, порядок - порядок створення
+    public ProfilerScope scope(String name) {
+        return scopes.computeIfAbsent(name, key -> new ProfilerScope(key, HISTORY_SIZE));
+    }
+
+    public void beginFrame() {
+        frameStartNanos = System.nanoTime();
+    }
+
+    public void endFrame() {
+        frameHistory[historyIndex] = (System.nanoTime() - frameStartNanos) / 1_000_000.0f;
+        for (ProfilerScope scope : scopes.values()) {
+            scope.finishFrame(historyIndex);
+        }
+        historyIndex = (historyIndex + 1) % HISTORY_SIZE;
+        recordedFrames = Math.min(recordedFrames + 1, HISTORY_SIZE);
+    }
+
+    // Сумарний GPU-час усіх ділянок за останніми відомими результатами (відстає на кілька кадрів)
+    public double getFrameGpuMillis() {
+        double sum = 0.0;
+        for (ProfilerScope scope : scopes.values()) {
+            sum += scope.getGpuMillis();
+        }
+        return sum;
+    }
+
+    public List<ProfilerScope> getScopes() {
+        return Collections.unmodifiableList(new ArrayList<>(scopes.values()));
+    }
+
+    public float[] getFrameHistory() {
+        return frameHistory;
+    }
+
+    // Індекс найстарішого запису в кільцевих буферах (для ImGui.plotLines)
+    public int getHistoryOffset() {
+        return recordedFrames < HISTORY_SIZE ? 0 : historyIndex;
+    }
+
+    public int getRecordedFrames() {
+        return recordedFrames;
+    }
+
+    // Середнє значення за записану історію
+    public float average(float[] history) {
+        if (recordedFrames == 0) {
+            return 0.0f;
+        }
+        float sum = 0.0f;
+        for (int i = 0; i < recordedFrames; i++) {
+            sum += history[i];
+        }
+        return sum / recordedFrames;
+    }
+
+    /**
+     * Записує історію в CSV: рядок на кадр, від найстарішого до найновішого.
+     * Колонки: frame, frame_cpu_ms, далі <назва>_cpu_ms і <назва>_gpu_ms для кожної ділянки.
+     */
+    public void exportCsv(Path path) throws IOException {
+        List<ProfilerScope> scopeList = getScopes();
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            StringBuilder header = new StringBuilder("frame,frame_cpu_ms");
+            for (ProfilerScope scope : scopeList) {
+                String column = scope.getName().toLowerCase(Locale.ROOT).replace(' ', '_');
+                header.append(',').append(column).append("_cpu_ms");
+                header.append(',').append(column).append("_gpu_ms");
+            }
+            writer.println(header);
+
+            int offset = getHistoryOffset();
+            for (int frame = 0; frame < recordedFrames; frame++) {
+                int index = (offset + frame) % HISTORY_SIZE;
+                StringBuilder row = new StringBuilder();
+                row.append(frame).append(',').append(format(frameHistory[index]));
+                for (ProfilerScope scope : scopeList) {
+                    row.append(',').append(format(scope.getCpuHistory()[index]));
+                    row.append(',').append(format(scope.getGpuHistory()[index]));
+                }
+                writer.println(row);
+            }
+        }
+    }
+
+    private static String format(float value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    public void cleanup() {
+        for (ProfilerScope scope : scopes.values()) {
+            scope.cleanup();
+        }
+        scopes.clear();
+    }
+}
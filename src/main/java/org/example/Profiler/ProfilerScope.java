@@ -0,0 +1,94 @@
+package org.example.Profiler;
+
+import org.example.Render.GpuTimer;
+
+/**
+ * Іменована ділянка кадру для FrameProfiler.
+ *
+ * CPU-час вимірюється через System.nanoTime між begin() та end(), GPU-час - запитом
+ * GL_TIME_ELAPSED (GpuTimer). GPU-результат приходить із запізненням у кілька кадрів
+ * і записується в історію того кадру, в якому став доступним.
+ */
+public class ProfilerScope {
+    private final String name;
+    private final GpuTimer gpuTimer;
+
+    // Кільцеві буфери історії (мс), спільний індекс веде FrameProfiler
+    private final float[] cpuHistory;
+    private final float[] gpuHistory;
+
+    private long startNanos;
+    private boolean open = false;
+    private double cpuMillis = 0.0;
+    private double gpuMillis = 0.0;
+    // GPU-результат, що з'явився в поточному кадрі (-1 - немає)
+    private double newGpuMillis = -1.0;
+
+    ProfilerScope(String name, int historySize) {
+        this.name = name;
+        this.gpuTimer = new GpuTimer();
+        this.cpuHistory = new float[historySize];
+        this.gpuHistory = new float[historySize];
+    }
+
+    public void begin() {
+        startNanos = System.nanoTime();
+        gpuTimer.begin();
+        open = true;
+    }
+
+    public void end() {
+        if (!open) {
+            return;
+        }
+        gpuTimer.end();
+        cpuMillis += (System.nanoTime() - startNanos) / 1_000_000.0;
+        open = false;
+    }
+
+    // Запис результатів кадру в історію; CPU-час накопичується, якщо ділянка відкривалась кілька разів
+    void finishFrame(int historyIndex) {
+        newGpuMillis = gpuTimer.pollMillis();
+        if (newGpuMillis >= 0) {
+            gpuMillis = newGpuMillis;
+        }
+        cpuHistory[historyIndex] = (float) cpuMillis;
+        gpuHistory[historyIndex] = (float) gpuMillis;
+        cpuMillis = 0.0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public float[] getCpuHistory() {
+        return cpuHistory;
+    }
+
+    public float[] getGpuHistory() {
+        return gpuHistory;
+    }
+
+    // Останній відомий GPU-час ділянки
+    public double getGpuMillis() {
+        return gpuMillis;
+    }
+
+    // Кількість GPU-вимірів, пропущених без очікування результату
+    public long getSkippedGpuSamples() {
+        return gpuTimer.getSkipped();
+    }
+
+    /**
+     * GPU-час, отриманий саме в цьому кадрі
+     *
+     * @return час у мілісекундах або -1, якщо новий результат ще не прийшов
+     */
+    public double getNewGpuMillis() {
+        return newGpuMillis;
+    }
+
+    void cleanup() {
+        gpuTimer.cleanup();
+    }
+}
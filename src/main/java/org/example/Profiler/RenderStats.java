@@ -0,0 +1,379 @@
+package org.example.Profiler;
+
+import org.example.FramePacer;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Лічильники рендерингу за кадр: виклики малювання, трикутники, зміни стану (програми, VAO),
+ * завантаження uniform-ів, прив'язки текстур, видимі та відсічені об'єкти, виділення пам'яті в купі Java.
+ *
+ * Видимі та відсічені об'єкти рахуються лише в основному проході камери (кожен меш сцени раз за кадр);
+ * тіньові проходи мають окремі лічильники кастерів - по одному на меш у кожній грані чи тайлі.
+ * Завантаження uniform-ів рахуються по одному одразу після кожного виклику glUniform*.
+ *
+ * Стратегії рендерингу створюються без контексту, тому лічильники статичні:
+ * місце виклику GL просто повідомляє RenderStats.drawCall(...), RenderStats.programBind() тощо.
+ * Core.loop обрамлює кадр beginFrame()/endFrame(); після endFrame() значення кадру
+ * доступні панелі RenderStatsPanel та через JMX (ObjectName OBJECT_NAME).
+ * Усі лічильники пишуться лише з потоку рендерингу; JMX читає незмінний знімок.
+ *
+ * Темп кадрів береться з FramePacer (setFramePacer): endFrame() копіює в знімок режим, гістограму
+ * тривалості кадрів, середнє, перцентилі, максимум і час очікування обмежувача. Очікування обмежувача
+ * відбувається після endFrame(), тож у знімку - значення попереднього кадру.
+ */
+public class RenderStats implements RenderStatsMBean {
+    public static final String OBJECT_NAME = "org.example:type=RenderStats";
+
+    private static final RenderStats INSTANCE = new RenderStats();
+
+    // Лічильники поточного кадру
+    private static int drawCalls;
+    private static long triangles;
+    private static int programBinds;
+    private static int vaoBinds;
+    private static int uniformUploads;
+    private static int textureBinds;
+    private static int visibleObjects;
+    private static int culledObjects;
+    private static int shadowCasters;
+    private static int culledShadowCasters;
+
+    private static long frameStartAllocatedBytes;
+    private static long renderThreadId;
+
+    private static FramePacer framePacer;
+    // Скидання гістограми з JMX чи панелі виконується в endFrame() у потоці рендерингу
+    private static volatile boolean histogramResetRequested;
+
+    // Знімок останнього завершеного кадру
+    private volatile Snapshot lastFrame = new Snapshot();
+    private volatile long frameCount;
+    private volatile int peakDrawCalls;
+    private volatile long peakAllocatedBytes;
+
+    // Незмінні значення одного кадру
+    public static class Snapshot {
+        public final int drawCalls;
+        public final long triangles;
+        public final int programBinds;
+        public final int vaoBinds;
+        public final int uniformUploads;
+        public final int textureBinds;
+        public final int visibleObjects;
+        public final int culledObjects;
+        public final int shadowCasters;
+        public final int culledShadowCasters;
+        public final long allocatedBytes;
+
+        // Темп кадрів (FramePacer); без нього - нулі та порожня гістограма
+        public final String framePacingMode;
+        // Кількість кадрів у кошиках по FramePacer.HISTOGRAM_BUCKET_MS
+        public final float[] frameHistogram;
+        public final long histogramFrames;
+        public final double frameAverageMillis;
+        public final float frameP50Millis;
+        public final float frameP95Millis;
+        public final float frameP99Millis;
+        public final float frameMaxMillis;
+        public final float limiterWaitMillis;
+
+        private Snapshot() {
+            this(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, null);
+        }
+
+        private Snapshot(int drawCalls, long triangles, int programBinds, int vaoBinds, int uniformUploads,
+                         int textureBinds, int visibleObjects, int culledObjects, int shadowCasters,
+                         int culledShadowCasters, long allocatedBytes, FramePacer pacer) {
+            this.drawCalls = drawCalls;
+            this.triangles = triangles;
+            this.programBinds = programBinds;
+            this.vaoBinds = vaoBinds;
+            this.uniformUploads = uniformUploads;
+            this.textureBinds = textureBinds;
+            this.visibleObjects = visibleObjects;
+            this.culledObjects = culledObjects;
+            this.shadowCasters = shadowCasters;
+            this.culledShadowCasters = culledShadowCasters;
+            this.allocatedBytes = allocatedBytes;
+
+            if (pacer != null) {
+                this.framePacingMode = pacer.getMode().name();
+                this.frameHistogram = pacer.getHistogram().clone();
+                this.histogramFrames = pacer.getHistogramFrames();
+                this.frameAverageMillis = pacer.getAverageMillis();
+                this.frameP50Millis = pacer.getPercentileMillis(0.50);
+                this.frameP95Millis = pacer.getPercentileMillis(0.95);
+                this.frameP99Millis = pacer.getPercentileMillis(0.99);
+                this.frameMaxMillis = pacer.getMaxMillis();
+                this.limiterWaitMillis = pacer.getLimiterWaitMillis();
+            } else {
+                this.framePacingMode = "";
+                this.frameHistogram = new float[FramePacer.HISTOGRAM_BUCKETS];
+                this.histogramFrames = 0;
+                this.frameAverageMillis = 0.0;
+                this.frameP50Millis = 0.0f;
+                this.frameP95Millis = 0.0f;
+                this.frameP99Millis = 0.0f;
+                this.frameMaxMillis = 0.0f;
+                this.limiterWaitMillis = 0.0f;
+            }
+        }
+    }
+
+    private RenderStats() {
+    }
+
+    public static RenderStats get() {
+        return INSTANCE;
+    }
+
+    // Реєстрація в платформному MBeanServer (jconsole / VisualVM / JFR)
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Помилка при реєстрації RenderStats в JMX: " + e.getMessage());
+        }
+    }
+
+    // Джерело гістограми та перцентилів тривалості кадрів; викликається з потоку рендерингу
+    public static void setFramePacer(FramePacer pacer) {
+        framePacer = pacer;
+    }
+
+    public static void beginFrame() {
+        drawCalls = 0;
+        triangles = 0;
+        programBinds = 0;
+        vaoBinds = 0;
+        uniformUploads = 0;
+        textureBinds = 0;
+        visibleObjects = 0;
+        culledObjects = 0;
+        shadowCasters = 0;
+        culledShadowCasters = 0;
+
+        renderThreadId = Thread.currentThread().getId();
+        frameStartAllocatedBytes = threadAllocatedBytes(renderThreadId);
+    }
+
+    public static void endFrame() {
+        long allocated = 0;
+        long frameEndAllocatedBytes = threadAllocatedBytes(renderThreadId);
+        if (frameStartAllocatedBytes >= 0 && frameEndAllocatedBytes >= 0) {
+            allocated = frameEndAllocatedBytes - frameStartAllocatedBytes;
+        }
+
+        if (histogramResetRequested && framePacer != null) {
+            histogramResetRequested = false;
+            framePacer.resetHistogram();
+        }
+
+        INSTANCE.lastFrame = new Snapshot(drawCalls, triangles, programBinds, vaoBinds, uniformUploads,
+                textureBinds, visibleObjects, culledObjects, shadowCasters, culledShadowCasters, allocated,
+                framePacer);
+        INSTANCE.frameCount++;
+        INSTANCE.peakDrawCalls = Math.max(INSTANCE.peakDrawCalls, drawCalls);
+        INSTANCE.peakAllocatedBytes = Math.max(INSTANCE.peakAllocatedBytes, allocated);
+    }
+
+    // Байти, виділені потоком з моменту його запуску; -1, якщо JVM цього не підтримує
+    private static long threadAllocatedBytes(long threadId) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (sunThreadBean.isThreadAllocatedMemorySupported() && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadBean.getThreadAllocatedBytes(threadId);
+            }
+        }
+        return -1;
+    }
+
+    // Лічильники, які викликають місця звернень до GL
+
+    // Виклик малювання трикутників; indexCount - кількість індексів (вершин)
+    public static void drawCall(int indexCount) {
+        drawCalls++;
+        triangles += indexCount / 3;
+    }
+
+    // Виклик малювання ліній або точок (трикутників не додає)
+    public static void drawCall() {
+        drawCalls++;
+    }
+
+    public static void programBind() {
+        programBinds++;
+    }
+
+    public static void vaoBind() {
+        vaoBinds++;
+    }
+
+    // Один виклик glUniform* (масив uniform-ів одним викликом - теж одне завантаження)
+    public static void uniformUpload() {
+        uniformUploads++;
+    }
+
+    public static void textureBind() {
+        textureBinds++;
+    }
+
+    public static void visibleObject() {
+        visibleObjects++;
+    }
+
+    public static void culledObject() {
+        culledObjects++;
+    }
+
+    // Меш, намальований у грань чи тайл карти тіней
+    public static void shadowCaster() {
+        shadowCasters++;
+    }
+
+    // Меш поза пірамідою грані карти тіней
+    public static void culledShadowCaster() {
+        culledShadowCasters++;
+    }
+
+    public Snapshot getLastFrame() {
+        return lastFrame;
+    }
+
+    // RenderStatsMBean
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public int getDrawCalls() {
+        return lastFrame.drawCalls;
+    }
+
+    @Override
+    public long getTriangles() {
+        return lastFrame.triangles;
+    }
+
+    @Override
+    public int getProgramBinds() {
+        return lastFrame.programBinds;
+    }
+
+    @Override
+    public int getVaoBinds() {
+        return lastFrame.vaoBinds;
+    }
+
+    @Override
+    public int getUniformUploads() {
+        return lastFrame.uniformUploads;
+    }
+
+    @Override
+    public int getTextureBinds() {
+        return lastFrame.textureBinds;
+    }
+
+    @Override
+    public int getVisibleObjects() {
+        return lastFrame.visibleObjects;
+    }
+
+    @Override
+    public int getCulledObjects() {
+        return lastFrame.culledObjects;
+    }
+
+    @Override
+    public int getShadowCasters() {
+        return lastFrame.shadowCasters;
+    }
+
+    @Override
+    public int getCulledShadowCasters() {
+        return lastFrame.culledShadowCasters;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return lastFrame.allocatedBytes;
+    }
+
+    @Override
+    public String getFramePacingMode() {
+        return lastFrame.framePacingMode;
+    }
+
+    @Override
+    public float[] getFrameHistogram() {
+        return lastFrame.frameHistogram.clone();
+    }
+
+    @Override
+    public long getHistogramFrames() {
+        return lastFrame.histogramFrames;
+    }
+
+    @Override
+    public double getFrameAverageMillis() {
+        return lastFrame.frameAverageMillis;
+    }
+
+    @Override
+    public float getFrameP50Millis() {
+        return lastFrame.frameP50Millis;
+    }
+
+    @Override
+    public float getFrameP95Millis() {
+        return lastFrame.frameP95Millis;
+    }
+
+    @Override
+    public float getFrameP99Millis() {
+        return lastFrame.frameP99Millis;
+    }
+
+    @Override
+    public float getFrameMaxMillis() {
+        return lastFrame.frameMaxMillis;
+    }
+
+    @Override
+    public float getLimiterWaitMillis() {
+        return lastFrame.limiterWaitMillis;
+    }
+
+    @Override
+    public void resetFrameHistogram() {
+        histogramResetRequested = true;
+    }
+
+    @Override
+    public int getPeakDrawCalls() {
+        return peakDrawCalls;
+    }
+
+    @Override
+    public long getPeakAllocatedBytes() {
+        return peakAllocatedBytes;
+    }
+
+    @Override
+    public void resetPeaks() {
+        peakDrawCalls = 0;
+        peakAllocatedBytes = 0;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.Profiler;
+
+/**
+ * JMX-інтерфейс статистики рендерингу (стандартний MBean для RenderStats).
+ * Значення - за останній завершений кадр, пікові - з моменту запуску або resetPeaks().
+ * Гістограма та перцентилі тривалості кадрів (FramePacer) - з моменту запуску або resetFrameHistogram().
+ */
+public interface RenderStatsMBean {
+    long getFrameCount();
+
+    int getDrawCalls();
+    long getTriangles();
+    int getProgramBinds();
+    int getVaoBinds();
+    int getUniformUploads();
+    int getTextureBinds();
+    int getVisibleObjects();
+    int getCulledObjects();
+    int getShadowCasters();
+    int getCulledShadowCasters();
+    long getAllocatedBytes();
+
+    String getFramePacingMode();
+    float[] getFrameHistogram();
+    long getHistogramFrames();
+    double getFrameAverageMillis();
+    float getFrameP50Millis();
+    float getFrameP95Millis();
+    float getFrameP99Millis();
+    float getFrameMaxMillis();
+    float getLimiterWaitMillis();
+    void resetFrameHistogram();
+
+    int getPeakDrawCalls();
+    long getPeakAllocatedBytes();
+
+    void resetPeaks();
+}
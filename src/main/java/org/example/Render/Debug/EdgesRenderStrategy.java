@@ -2,14 +2,14 @@ package org.example.Render.Debug;
 
 import org.example.Mesh;
 import org.example.Node;
+import org.example.Profiler.RenderStats;
 import org.example.Render.RenderStrategy;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
 import java.util.List;
 
-import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
-import static org.lwjgl.opengl.GL11.glDrawElements;
+import static org.lwjgl.opengl.GL11.GL_LINES;
 import static org.lwjgl.opengl.GL20.*;
 import static org.lwjgl.opengl.GL20.glUseProgram;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
@@ -24,18 +24,21 @@ public class EdgesRenderStrategy implements RenderStrategy {
 
         Matrix4f mvpMatrix = new Matrix4f();
         projectionMatrix.mul(viewMatrix, mvpMatrix);
-        mvpMatrix.mul(mesh.getModelMatrix());
+        mvpMatrix.mul(mesh.getDrawMatrix());
 
         float[] mvpBuffer = new float[16];
         mvpMatrix.get(mvpBuffer);
         glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+        RenderStats.uniformUpload();
 
-        glEnableVertexAttribArray(0);
-        glDrawElements(GL_LINES, mesh.getVertexCount(), GL_UNSIGNED_INT, 0);
-        glDisableVertexAttribArray(0);
+        mesh.draw(GL_LINES);
         glBindVertexArray(0);
 
         glUseProgram(0);
 
+        RenderStats.programBind();
+        RenderStats.vaoBind();
+        RenderStats.drawCall();
+
     }
 }
@@ -2,6 +2,7 @@ package org.example.Render.Debug;
 
 import org.example.Mesh;
 import org.example.Node;
+import org.example.Profiler.RenderStats;
 import org.example.Render.RenderStrategy;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -9,7 +10,6 @@ import org.joml.Vector3f;
 import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
 import static org.lwjgl.opengl.GL20.*;
 import static org.lwjgl.opengl.GL20.glUseProgram;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
@@ -24,19 +24,22 @@ public class VerticesRenderStrategy implements RenderStrategy {
 
         Matrix4f mvpMatrix = new Matrix4f();
         projectionMatrix.mul(viewMatrix, mvpMatrix);
-        mvpMatrix.mul(mesh.getModelMatrix());
+        mvpMatrix.mul(mesh.getDrawMatrix());
 
         float[] mvpBuffer = new float[16];
         mvpMatrix.get(mvpBuffer);
         glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+        RenderStats.uniformUpload();
 
-        glEnableVertexAttribArray(0);
         glPointSize(5.0f);
-        glDrawElements(GL_POINTS, mesh.getVertices().length, GL_UNSIGNED_INT, 0);
-        glDisableVertexAttribArray(0);
+        mesh.drawVertices();
         glBindVertexArray(0);
 
         glUseProgram(0);
 
+        RenderStats.programBind();
+        RenderStats.vaoBind();
+        RenderStats.drawCall();
+
     }
 }
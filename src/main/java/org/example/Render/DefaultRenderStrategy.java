@@ -2,94 +2,156 @@ package org.example.Render;
 
 import org.example.Mesh;
 import org.example.Node;
+import org.example.Profiler.RenderStats;
+import org.example.Render.Shadow.ShadowSettings;
+import org.example.Texture.TextureArray;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.lwjgl.opengl.GL30.*;
 
+/**
+ * Стратегія основного проходу: освітлення, тіні, матеріал.
+ *
+ * Матриці виклику (MVP, модельна, нормалей) не передаються через glUniformMatrix4fv, а пишуться
+ * в UniformRingBuffer (`writeDrawData`) і прив'язуються зміщенням. RenderQueue записує матриці всіх
+ * викликів проходу заздалегідь; звичайний `render` записує і прив'язує їх для одного виклику.
+ *
+ * Програма та VAO прив'язуються лише при зміні (RenderQueue сортує виклики за ними). Локації uniform-ів
+ * і семплери налаштовуються один раз на програму, світла й позиція камери - лише коли змінились,
+ * тож на виклик лишаються матеріал, зміщення DrawBlock і сам draw.
+ */
 public class DefaultRenderStrategy implements RenderStrategy {
+    // Локації програми та останні передані значення кадру
+    private static class ProgramState {
+        int viewPosLoc;
+        int lightVersion = -1;
+        final Vector3f viewPos = new Vector3f(Float.NaN);
+    }
+
+    // Спільні для всіх екземплярів (Node.render створює стратегію на кожен меш); лише GL-потік
+    private static final Map<Integer, ProgramState> programs = new HashMap<>();
+    private static int boundProgram = 0;
+    private static int boundVao = 0;
+
+    private final Matrix4f mvpMatrix = new Matrix4f();
+    private final Matrix4f drawMatrix = new Matrix4f();
+    private final Matrix4f normalMatrix = new Matrix4f();
+
+    /**
+     * Записати матриці виклику в кільцевий буфер. Порядок множення той самий, що й у DepthPrepass
+     *
+     * @return зміщення для render(..., drawOffset) після UniformRingBuffer.flush()
+     */
+    public long writeDrawData(Mesh mesh, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        projectionMatrix.mul(viewMatrix, mvpMatrix);
+        mvpMatrix.mul(mesh.getDrawMatrix(drawMatrix));
+        // Матриця нормалей - без декодування стислих позицій
+        mesh.getModelMatrix(normalMatrix).invert().transpose();
+        return UniformRingBuffer.write(mvpMatrix, drawMatrix, normalMatrix);
+    }
+
     @Override
     public void render(Mesh mesh, int shaderProgram, Matrix4f viewMatrix, Matrix4f projectionMatrix,
                        Vector3f cameraPosition, List<Node> lightNodes) {
-        glUseProgram(shaderProgram);
-        glBindVertexArray(mesh.getVaoID());
-
-        // Налаштування джерел світла
-        if (!lightNodes.isEmpty()) {
-            Node lightNode = lightNodes.get(0);
-            Vector3f lightPos = lightNode.getPosition();
-            int lightPosLoc = glGetUniformLocation(shaderProgram, "lightPos");
-            glUniform3f(lightPosLoc, lightPos.x, lightPos.y, lightPos.z);
-
-            Vector3f lightColor = lightNode.getLightColor();
-            int lightColorLoc = glGetUniformLocation(shaderProgram, "lightColor");
-            glUniform3f(lightColorLoc, lightColor.x, lightColor.y, lightColor.z);
-
-            // Передача інтенсивності
-            int lightIntensityLoc = glGetUniformLocation(shaderProgram, "lightIntensity");
-            if (lightIntensityLoc != -1) {
-                glUniform1f(lightIntensityLoc, lightNode.getLightIntensity());
-            }
-        } else {
-            // Значення за замовчуванням
-            int lightPosLoc = glGetUniformLocation(shaderProgram, "lightPos");
-            glUniform3f(lightPosLoc, 5.0f, 5.0f, 5.0f);
-
-            int lightColorLoc = glGetUniformLocation(shaderProgram, "lightColor");
-            glUniform3f(lightColorLoc, 1.0f, 1.0f, 1.0f);
-        }
+        long drawOffset = writeDrawData(mesh, viewMatrix, projectionMatrix);
+        UniformRingBuffer.flush();
+        resetBindings();
+        render(mesh, shaderProgram, cameraPosition, lightNodes, drawOffset);
+        finishBatch();
+    }
 
-        // Отримання локації для теневой карты
-        int shadowMapLoc = glGetUniformLocation(shaderProgram, "shadowMap");
-        if (shadowMapLoc != -1) {
-            glUniform1i(shadowMapLoc, 1);  // Текстурний блок 1
+    /**
+     * Малювання з уже записаними в UniformRingBuffer матрицями. Програма і VAO лишаються прив'язаними
+     * для наступного виклику; після серії викликів - finishBatch(), а якщо між викликами стан GL змінював
+     * інший код - resetBindings()
+     *
+     * @param drawOffset результат writeDrawData
+     */
+    public void render(Mesh mesh, int shaderProgram, Vector3f cameraPosition, List<Node> lightNodes, long drawOffset) {
+        if (shaderProgram != boundProgram) {
+            glUseProgram(shaderProgram);
+            RenderStats.programBind();
+            boundProgram = shaderProgram;
+            applyFrameUniforms(shaderProgram, cameraPosition);
         }
-
-        // Локація для матриці простору світла
-        int lightSpaceMatrixLoc = glGetUniformLocation(shaderProgram, "lightSpaceMatrix");
-        if (lightSpaceMatrixLoc != -1) {
-            // Матриця буде встановлена ззовні
+        int vaoId = mesh.getVaoID();
+        if (vaoId != boundVao) {
+            glBindVertexArray(vaoId);
+            RenderStats.vaoBind();
+            boundVao = vaoId;
         }
 
-        // MVP матриця та інші розрахунки
-        int mvpLoc = glGetUniformLocation(shaderProgram, "mvp");
-        int modelLoc = glGetUniformLocation(shaderProgram, "model");
-        int normalMatrixLoc = glGetUniformLocation(shaderProgram, "normalMatrix");
-
         // Застосовуємо матеріал
         mesh.getShaderMaterial().apply(shaderProgram);
 
-        // Позиція камери для бликів
-        int viewPosLoc = glGetUniformLocation(shaderProgram, "viewPos");
-        glUniform3f(viewPosLoc, cameraPosition.x, cameraPosition.y, cameraPosition.z);
+        // MVP, модельна матриця і матриця нормалей - блок DrawBlock зі зміщенням у кільцевому буфері
+        UniformRingBuffer.bind(drawOffset);
 
-        // Обчислення матриць
-        Matrix4f mvpMatrix = new Matrix4f();
-        projectionMatrix.mul(viewMatrix, mvpMatrix);
-        mvpMatrix.mul(mesh.getModelMatrix());
-
-        // Матриця нормалей
-        Matrix4f normalMatrix = new Matrix4f(mesh.getModelMatrix());
-        normalMatrix.invert().transpose();
+        mesh.draw();
+        RenderStats.drawCall(mesh.getVertexCount());
+    }
 
-        // Передача матриць у шейдер
-        float[] mvpBuffer = new float[16];
-        mvpMatrix.get(mvpBuffer);
-        glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+    // Завершити серію викликів render(..., drawOffset)
+    public static void finishBatch() {
+        glBindVertexArray(0);
+        glUseProgram(0);
+        resetBindings();
+    }
 
-        float[] modelBuffer = new float[16];
-        mesh.getModelMatrix().get(modelBuffer);
-        glUniformMatrix4fv(modelLoc, false, modelBuffer);
+    // Програму або VAO змінював інший код (інша стратегія, DepthPrepass, OcclusionCuller)
+    public static void resetBindings() {
+        boundProgram = 0;
+        boundVao = 0;
+    }
 
-        float[] normalMatrixBuffer = new float[16];
-        normalMatrix.get(normalMatrixBuffer);
-        glUniformMatrix4fv(normalMatrixLoc, false, normalMatrixBuffer);
+    /**
+     * Значення, спільні для всіх викликів кадру: світла (LightUniforms) і позиція камери - лише коли
+     * вони змінились для цієї програми, тобто не частіше разу на кадр
+     */
+    private static void applyFrameUniforms(int shaderProgram, Vector3f cameraPosition) {
+        ProgramState state = programs.get(shaderProgram);
+        if (state == null) {
+            state = setupProgram(shaderProgram);
+        }
+        if (state.lightVersion != LightUniforms.getVersion()) {
+            // Налаштування джерел світла (масиви за індексом світла, скопійовані на початку кадру)
+            LightUniforms.apply(shaderProgram);
+            state.lightVersion = LightUniforms.getVersion();
+        }
+        if (!state.viewPos.equals(cameraPosition)) {
+            // Позиція камери для бликів
+            glUniform3f(state.viewPosLoc, cameraPosition.x, cameraPosition.y, cameraPosition.z);
+            RenderStats.uniformUpload();
+            state.viewPos.set(cameraPosition);
+        }
+    }
 
-        glDrawElements(GL_TRIANGLES, mesh.getVertexCount(), GL_UNSIGNED_INT, 0);
+    // Локації та семплери програми - один раз: значення семплерів зберігаються в самій програмі
+    private static ProgramState setupProgram(int shaderProgram) {
+        ProgramState state = new ProgramState();
+        state.viewPosLoc = glGetUniformLocation(shaderProgram, "viewPos");
+        // Карта тіней на блоці 1, кубічна - завжди на окремому блоці 2, щоб не конфліктувати з sampler2D
+        setSampler(shaderProgram, "shadowMap", 1);
+        setSampler(shaderProgram, "pointShadowMap", 2);
+        // Та сама карта тіней з апаратним порівнянням (sampler2DShadow)
+        setSampler(shaderProgram, "shadowMapCompare", ShadowSettings.COMPARE_TEXTURE_UNIT);
+        // Масиви текстур на окремому блоці: семплери різних типів не можуть ділити блок 0
+        setSampler(shaderProgram, "diffuseArrayMap", TextureArray.TEXTURE_UNIT);
+        UniformRingBuffer.setupProgram(shaderProgram);
+        programs.put(shaderProgram, state);
+        return state;
+    }
 
-        glBindVertexArray(0);
-        glUseProgram(0);
+    private static void setSampler(int shaderProgram, String name, int unit) {
+        int location = glGetUniformLocation(shaderProgram, name);
+        if (location != -1) {
+            glUniform1i(location, unit);
+            RenderStats.uniformUpload();
+        }
     }
 }
\ No newline at end of file
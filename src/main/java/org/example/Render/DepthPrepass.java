@@ -0,0 +1,87 @@
+package org.example.Render;
+
+import org.example.Mesh;
+import org.example.Profiler.RenderStats;
+import org.example.ShaderLoader;
+
+import java.io.IOException;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Попередній прохід глибини основного проходу.
+ *
+ * Основні функції:
+ * - Меші DefaultRenderStrategy спершу малюються лише в буфер глибини власною програмою
+ *   (depthPrepassShaderProgram), від ближніх до дальніх.
+ * - Програма читає той самий блок DrawBlock UniformRingBuffer, що й основний вершинний шейдер, і
+ *   прив'язує ті самі зміщення, записані RenderQueue для кольорового проходу: MVP не перераховується.
+ * - Обидва вершинні шейдери обчислюють `mvp * vec4(aPos, 1.0)` з `invariant gl_Position`, тож
+ *   глибина в обох проходах збігається і кольоровий прохід іде з GL_EQUAL без запису глибини:
+ *   освітлення і PCF рахуються рівно один раз на піксель.
+ *
+ * Використовується RenderQueue; вмикається `--depth-prepass` або в RenderSettingsPanel.
+ */
+public class DepthPrepass {
+    private static boolean enabled = false;
+    private static int shaderProgram = 0;
+    private static int boundVao = 0;
+
+    public static void init() throws IOException {
+        shaderProgram = ShaderLoader.loadShader(
+                "/Shader/depthPrepassShaderProgram/depth_vertex.glsl",
+                "/Shader/depthPrepassShaderProgram/depth_fragment.glsl");
+        UniformRingBuffer.setupProgram(shaderProgram);
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled && shaderProgram != 0;
+    }
+
+    // Початок проходу: лише запис глибини
+    public static void begin() {
+        glUseProgram(shaderProgram);
+        RenderStats.programBind();
+        glColorMask(false, false, false, false);
+        boundVao = 0;
+    }
+
+    /**
+     * @param drawOffset зміщення матриць меша в UniformRingBuffer, записане для кольорового проходу
+     */
+    public static void draw(Mesh mesh, long drawOffset) {
+        if (mesh.getVaoID() != boundVao) {
+            boundVao = mesh.getVaoID();
+            glBindVertexArray(boundVao);
+            RenderStats.vaoBind();
+        }
+        UniformRingBuffer.bind(drawOffset);
+        mesh.draw();
+        RenderStats.drawCall(mesh.getVertexCount());
+    }
+
+    // Кінець проходу: колір пишеться лише там, де глибина збіглася з попереднім проходом
+    public static void end() {
+        glBindVertexArray(0);
+        glColorMask(true, true, true, true);
+        glDepthMask(false);
+        glDepthFunc(GL_EQUAL);
+    }
+
+    // Відновлення звичайного тесту глибини після кольорового проходу
+    public static void restore() {
+        glDepthMask(true);
+        glDepthFunc(GL_LESS);
+    }
+
+    public static void cleanup() {
+        if (shaderProgram != 0) {
+            glDeleteProgram(shaderProgram);
+            shaderProgram = 0;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package org.example.Render;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.lwjgl.opengl.GL32.*;
+
+/**
+ * Спільне сховище геометрії: один VBO, один EBO і один VAO на кожен формат вершин (VertexFormat).
+ *
+ * Основні функції:
+ * - `allocate(format, vertexData, vertexCount, indices)` виділяє діапазони вершин і індексів
+ *   (RangeAllocator) і завантажує дані через glBufferSubData; меш малюється з
+ *   (baseVertex, firstIndex, indexCount) через glDrawElementsBaseVertex, тож між мешами одного
+ *   формату не перемикається VAO. Індекси меша лишаються локальними.
+ * - Меш, що має не більше 65536 вершин, зберігає індекси як GL_UNSIGNED_SHORT. Індексний буфер
+ *   розподіляється словами по 4 байти, тож зміщення обох типів завжди вирівняні.
+ * - Коли вільного блоку не вистачає, буфер подвоюється: вміст копіюється на GPU (glCopyBufferSubData),
+ *   VAO переналаштовується на новий буфер.
+ * - `free(allocation)` повертає діапазони; `maintain()` раз на кадр дефрагментує буфери, якщо дірки
+ *   між живими діапазонами займають більше DEFRAGMENT_RATIO вільного місця: живі діапазони
+ *   копіюються впритул у нові буфери, а Allocation оновлюються на місці.
+ * - `getVersion(format)` змінюється при кожному переміщенні буферів або діапазонів, щоб сторонні VAO
+ *   (IndirectRenderer) могли переналаштуватись.
+ *
+ * Усі методи викликаються з потоку з контекстом OpenGL.
+ */
+public class GeometryArena {
+    public static final int MAX_SHORT_INDEX_VERTICES = 65536;
+    private static final int INDEX_WORD_BYTES = 4;
+    private static final int INITIAL_VERTICES = 64 * 1024;
+    private static final int INITIAL_INDEX_WORDS = 256 * 1024;
+    // Дефрагментація, коли дірки займають більше половини вільного місця
+    private static final float DEFRAGMENT_RATIO = 0.5f;
+    // ...і їх більше, ніж стільки блоків (дрібна фрагментація не варта копіювання)
+    private static final int DEFRAGMENT_MIN_BLOCKS = 16;
+
+    // Діапазон меша в спільних буферах; зміщення змінюються при дефрагментації
+    public static class Allocation {
+        private final VertexFormat format;
+        private final int indexType;
+        private int baseVertex;
+        private int vertexCount;
+        private int indexWord;
+        private int indexWordCount;
+        private int indexCount;
+
+        private Allocation(VertexFormat format, int indexType) {
+            this.format = format;
+            this.indexType = indexType;
+        }
+
+        public VertexFormat getFormat() {
+            return format;
+        }
+
+        // GL_UNSIGNED_SHORT або GL_UNSIGNED_INT
+        public int getIndexType() {
+            return indexType;
+        }
+
+        public int getBaseVertex() {
+            return baseVertex;
+        }
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        // Перший індекс в одиницях свого типу (для команд непрямого малювання)
+        public int getFirstIndex() {
+            return indexType == GL_UNSIGNED_SHORT ? indexWord * 2 : indexWord;
+        }
+
+        public int getIndexCount() {
+            return indexCount;
+        }
+
+        // Зміщення першого індексу в байтах (для glDrawElementsBaseVertex)
+        public long getIndexByteOffset() {
+            return (long) indexWord * INDEX_WORD_BYTES;
+        }
+    }
+
+    // Буфери та розподільники одного формату вершин
+    private static class Pool {
+        final VertexFormat format;
+        final Set<Allocation> allocations = Collections.newSetFromMap(new IdentityHashMap<>());
+        final RangeAllocator vertexAllocator = new RangeAllocator(INITIAL_VERTICES);
+        final RangeAllocator indexAllocator = new RangeAllocator(INITIAL_INDEX_WORDS);
+        final int vaoId;
+        int vboId;
+        int eboId;
+        int version = 0;
+
+        Pool(VertexFormat format) {
+            this.format = format;
+            vboId = createBuffer((long) INITIAL_VERTICES * format.getStride());
+            eboId = createBuffer((long) INITIAL_INDEX_WORDS * INDEX_WORD_BYTES);
+            vaoId = glGenVertexArrays();
+            configureVao();
+        }
+
+        // Атрибути 0-2 спільного VAO вказують на поточний VBO; EBO запам'ятовується у VAO
+        void configureVao() {
+            glBindVertexArray(vaoId);
+            glBindBuffer(GL_ARRAY_BUFFER, vboId);
+            format.configureAttributes();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
+            glBindVertexArray(0);
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+            version++;
+        }
+    }
+
+    private static final Map<VertexFormat, Pool> pools = new EnumMap<>(VertexFormat.class);
+    private static int defragmentations = 0;
+
+    /**
+     * Розмістити геометрію меша
+     *
+     * @param vertexData закодовані вершини (VertexFormat.encode)
+     * @param indices індекси відносно першої вершини меша
+     */
+    public static Allocation allocate(VertexFormat format, ByteBuffer vertexData, int vertexCount, int[] indices) {
+        Pool pool = pool(format);
+        boolean shortIndices = vertexCount <= MAX_SHORT_INDEX_VERTICES;
+        Allocation allocation = new Allocation(format, shortIndices ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT);
+        allocation.vertexCount = vertexCount;
+        allocation.indexCount = indices.length;
+        allocation.indexWordCount = shortIndices ? (indices.length + 1) / 2 : indices.length;
+
+        allocation.baseVertex = pool.vertexAllocator.allocate(vertexCount);
+        if (allocation.baseVertex < 0) {
+            growVertices(pool, vertexCount);
+            allocation.baseVertex = pool.vertexAllocator.allocate(vertexCount);
+        }
+        allocation.indexWord = pool.indexAllocator.allocate(allocation.indexWordCount);
+        if (allocation.indexWord < 0) {
+            growIndices(pool, allocation.indexWordCount);
+            allocation.indexWord = pool.indexAllocator.allocate(allocation.indexWordCount);
+        }
+        pool.allocations.add(allocation);
+
+        glBindBuffer(GL_ARRAY_BUFFER, pool.vboId);
+        glBufferSubData(GL_ARRAY_BUFFER, (long) allocation.baseVertex * format.getStride(), vertexData);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        ByteBuffer indexData = BufferUtils.createByteBuffer(allocation.indexWordCount * INDEX_WORD_BYTES);
+        for (int index : indices) {
+            if (shortIndices) {
+                indexData.putShort((short) index);
+            } else {
+                indexData.putInt(index);
+            }
+        }
+        indexData.position(indexData.capacity()).flip();
+        // EBO прив'язаний до VAO - оновлюємо його через GL_COPY_WRITE_BUFFER, не чіпаючи стан VAO
+        glBindBuffer(GL_COPY_WRITE_BUFFER, pool.eboId);
+        glBufferSubData(GL_COPY_WRITE_BUFFER, allocation.getIndexByteOffset(), indexData);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        return allocation;
+    }
+
+    public static void free(Allocation allocation) {
+        if (allocation == null) {
+            return;
+        }
+        Pool pool = pools.get(allocation.format);
+        if (pool == null || !pool.allocations.remove(allocation)) {
+            return;
+        }
+        pool.vertexAllocator.free(allocation.baseVertex, allocation.vertexCount);
+        pool.indexAllocator.free(allocation.indexWord, allocation.indexWordCount);
+    }
+
+    public static int getVaoId(VertexFormat format) {
+        return pool(format).vaoId;
+    }
+
+    public static int getVboId(VertexFormat format) {
+        Pool pool = pools.get(format);
+        return pool != null ? pool.vboId : 0;
+    }
+
+    public static int getEboId(VertexFormat format) {
+        Pool pool = pools.get(format);
+        return pool != null ? pool.eboId : 0;
+    }
+
+    // 0 - буферів цього формату ще немає
+    public static int getVersion(VertexFormat format) {
+        Pool pool = pools.get(format);
+        return pool != null ? pool.version : 0;
+    }
+
+    // Викликається раз на кадр, поза проходами малювання
+    public static void maintain() {
+        for (Pool pool : pools.values()) {
+            if (isFragmented(pool.vertexAllocator) || isFragmented(pool.indexAllocator)) {
+                defragment(pool);
+            }
+        }
+    }
+
+    private static boolean isFragmented(RangeAllocator allocator) {
+        int free = allocator.getCapacity() - allocator.getUsed();
+        int holes = free - allocator.getTailFree();
+        return allocator.getFreeBlockCount() > DEFRAGMENT_MIN_BLOCKS && holes > free * DEFRAGMENT_RATIO;
+    }
+
+    // Дефрагментація буферів усіх форматів
+    public static void defragment() {
+        for (Pool pool : pools.values()) {
+            defragment(pool);
+        }
+    }
+
+    /**
+     * Переписати живі діапазони впритул один до одного в нові буфери тієї ж місткості
+     */
+    private static void defragment(Pool pool) {
+        List<Allocation> live = new ArrayList<>(pool.allocations);
+        int stride = pool.format.getStride();
+
+        int newVbo = createBuffer((long) pool.vertexAllocator.getCapacity() * stride);
+        glBindBuffer(GL_COPY_READ_BUFFER, pool.vboId);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, newVbo);
+        live.sort(Comparator.comparingInt(Allocation::getBaseVertex));
+        int nextVertex = 0;
+        for (Allocation allocation : live) {
+            if (allocation.vertexCount > 0) {
+                glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER,
+                        (long) allocation.baseVertex * stride, (long) nextVertex * stride,
+                        (long) allocation.vertexCount * stride);
+            }
+            allocation.baseVertex = nextVertex;
+            nextVertex += allocation.vertexCount;
+        }
+
+        int newEbo = createBuffer((long) pool.indexAllocator.getCapacity() * INDEX_WORD_BYTES);
+        glBindBuffer(GL_COPY_READ_BUFFER, pool.eboId);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, newEbo);
+        live.sort(Comparator.comparingInt(allocation -> allocation.indexWord));
+        int nextWord = 0;
+        for (Allocation allocation : live) {
+            if (allocation.indexWordCount > 0) {
+                glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER,
+                        allocation.getIndexByteOffset(), (long) nextWord * INDEX_WORD_BYTES,
+                        (long) allocation.indexWordCount * INDEX_WORD_BYTES);
+            }
+            allocation.indexWord = nextWord;
+            nextWord += allocation.indexWordCount;
+        }
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+
+        glDeleteBuffers(pool.vboId);
+        glDeleteBuffers(pool.eboId);
+        pool.vboId = newVbo;
+        pool.eboId = newEbo;
+        pool.vertexAllocator.reset(nextVertex);
+        pool.indexAllocator.reset(nextWord);
+        pool.configureVao();
+        defragmentations++;
+    }
+
+    private static Pool pool(VertexFormat format) {
+        return pools.computeIfAbsent(format, Pool::new);
+    }
+
+    private static int createBuffer(long sizeBytes) {
+        int bufferId = glGenBuffers();
+        glBindBuffer(GL_COPY_WRITE_BUFFER, bufferId);
+        glBufferData(GL_COPY_WRITE_BUFFER, sizeBytes, GL_STATIC_DRAW);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        return bufferId;
+    }
+
+    private static void growVertices(Pool pool, int required) {
+        int oldCapacity = pool.vertexAllocator.getCapacity();
+        int newCapacity = Math.max(oldCapacity * 2, oldCapacity + required);
+        int stride = pool.format.getStride();
+        pool.vboId = growBuffer(pool.vboId, (long) oldCapacity * stride, (long) newCapacity * stride);
+        pool.vertexAllocator.grow(newCapacity);
+        pool.configureVao();
+    }
+
+    private static void growIndices(Pool pool, int required) {
+        int oldCapacity = pool.indexAllocator.getCapacity();
+        int newCapacity = Math.max(oldCapacity * 2, oldCapacity + required);
+        pool.eboId = growBuffer(pool.eboId, (long) oldCapacity * INDEX_WORD_BYTES, (long) newCapacity * INDEX_WORD_BYTES);
+        pool.indexAllocator.grow(newCapacity);
+        pool.configureVao();
+    }
+
+    // Новий буфер більшого розміру з копією старого вмісту (на GPU, без читання в пам'ять CPU)
+    private static int growBuffer(int oldBuffer, long oldSize, long newSize) {
+        int newBuffer = createBuffer(newSize);
+        glBindBuffer(GL_COPY_READ_BUFFER, oldBuffer);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, newBuffer);
+        glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, 0, 0, oldSize);
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        glDeleteBuffers(oldBuffer);
+        return newBuffer;
+    }
+
+    public static int getAllocationCount() {
+        int count = 0;
+        for (Pool pool : pools.values()) {
+            count += pool.allocations.size();
+        }
+        return count;
+    }
+
+    public static int getUsedVertices() {
+        int used = 0;
+        for (Pool pool : pools.values()) {
+            used += pool.vertexAllocator.getUsed();
+        }
+        return used;
+    }
+
+    // Зайнятий обсяг вершинних та індексних буферів усіх форматів у байтах
+    public static long getUsedBytes() {
+        long used = 0;
+        for (Pool pool : pools.values()) {
+            used += (long) pool.vertexAllocator.getUsed() * pool.format.getStride();
+            used += (long) pool.indexAllocator.getUsed() * INDEX_WORD_BYTES;
+        }
+        return used;
+    }
+
+    public static long getCapacityBytes() {
+        long capacity = 0;
+        for (Pool pool : pools.values()) {
+            capacity += (long) pool.vertexAllocator.getCapacity() * pool.format.getStride();
+            capacity += (long) pool.indexAllocator.getCapacity() * INDEX_WORD_BYTES;
+        }
+        return capacity;
+    }
+
+    public static int getFreeBlockCount() {
+        int blocks = 0;
+        for (Pool pool : pools.values()) {
+            blocks += pool.vertexAllocator.getFreeBlockCount() + pool.indexAllocator.getFreeBlockCount();
+        }
+        return blocks;
+    }
+
+    public static int getDefragmentations() {
+        return defragmentations;
+    }
+
+    public static void cleanup() {
+        for (Pool pool : pools.values()) {
+            glDeleteVertexArrays(pool.vaoId);
+            glDeleteBuffers(pool.vboId);
+            glDeleteBuffers(pool.eboId);
+        }
+        pools.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.Render;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Вимірювання часу роботи GPU через запити GL_TIME_ELAPSED.
+ *
+ * Результат запиту стає доступним лише через кілька кадрів, тому запити зберігаються
+ * в кільцевому буфері: begin()/end() пишуть у поточний запит, а читається найстаріший.
+ * Якщо результат ще не готовий, кадр пропускається - конвеєр не блокується.
+ * Якщо ж усе кільце ще в польоті, вимір поточного кадру відкидається (getSkipped()),
+ * а не чекає на GL_QUERY_RESULT.
+ */
+public class GpuTimer {
+    // Скільки кадрів запит може "летіти" до GPU
+    private static final int QUERY_COUNT = 4;
+
+    private final int[] queries = new int[QUERY_COUNT];
+    private final boolean[] pending = new boolean[QUERY_COUNT];
+    private int current = 0;
+    private boolean active = false;
+
+    private double lastMillis = 0.0;
+    private boolean hasResult = false;
+    private long skipped = 0;
+
+    public GpuTimer() {
+        glGenQueries(queries);
+    }
+
+    public void begin() {
+        // Запит ще не прочитано - забираємо результат лише якщо він уже готовий.
+        // Інакше пропускаємо вимір цього кадру: GL_QUERY_RESULT на неготовому запиті блокує CPU
+        if (pending[current]) {
+            if (glGetQueryObjecti(queries[current], GL_QUERY_RESULT_AVAILABLE) != GL_TRUE) {
+                skipped++;
+                return;
+            }
+            collect(current);
+        }
+        glBeginQuery(GL_TIME_ELAPSED, queries[current]);
+        active = true;
+    }
+
+    public void end() {
+        if (!active) {
+            return;
+        }
+        glEndQuery(GL_TIME_ELAPSED);
+        pending[current] = true;
+        active = false;
+        current = (current + 1) % QUERY_COUNT;
+
+        // Найстаріший запит у кільці
+        int oldest = current;
+        if (pending[oldest] && glGetQueryObjecti(queries[oldest], GL_QUERY_RESULT_AVAILABLE) == GL_TRUE) {
+            collect(oldest);
+        }
+    }
+
+    private void collect(int index) {
+        long nanos = glGetQueryObjecti64(queries[index], GL_QUERY_RESULT);
+        lastMillis = nanos / 1_000_000.0;
+        hasResult = true;
+        pending[index] = false;
+    }
+
+    /**
+     * Забирає новий результат, якщо він з'явився з часу попереднього виклику
+     *
+     * @return час у мілісекундах або -1, якщо нового результату немає
+     */
+    public double pollMillis() {
+        if (!hasResult) {
+            return -1.0;
+        }
+        hasResult = false;
+        return lastMillis;
+    }
+
+    public double getLastMillis() {
+        return lastMillis;
+    }
+
+    // Скільки вимірів відкинуто, бо всі запити кільця ще не повернулися з GPU
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void cleanup() {
+        glDeleteQueries(queries);
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.Render.Grid;
 
 import org.example.Grid;
+import org.example.Profiler.RenderStats;
 import org.example.Render.RenderStrategy;
 import org.joml.Matrix4f;
 import org.lwjgl.system.MemoryUtil;
@@ -19,48 +20,18 @@ import static org.lwjgl.opengl.GL30.glBindVertexArray;
 public class GridRenderStrategy implements RenderStrategy {
     @Override
     public void render(Grid grid, int shaderProgram, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
-        // Використовуємо шейдерну програму
-        glUseProgram(shaderProgram);
-
-        // Створюємо модельну матрицю (для сітки це одинична матриця)
-        Matrix4f modelMatrix = new Matrix4f().identity();
-
-        // Створюємо комбіновану матрицю MVP (Model-View-Projection)
-        Matrix4f mvpMatrix = new Matrix4f();
-        projectionMatrix.mul(viewMatrix, mvpMatrix);   // mvp = projection * view
-        mvpMatrix.mul(modelMatrix);                    // mvp = projection * view * model
-
-        // Передаємо MVP матрицю в шейдер (за допомогою uniform mvp)
-        int mvpLoc = glGetUniformLocation(shaderProgram, "mvp");
-
         // Створюємо буфер для матриці MVP
         FloatBuffer mvpBuffer = MemoryUtil.memAllocFloat(16);
 
         try {
-            // Заповнюємо буфер даними з матриці MVP
-            mvpMatrix.get(mvpBuffer);
-
-            // Передаємо матрицю MVP в шейдер
-            glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
-
-            // Встановлюємо власні значення матеріалу для сітки
-            int ambientLoc = glGetUniformLocation(shaderProgram, "material.ambient");
-            int diffuseLoc = glGetUniformLocation(shaderProgram, "material.diffuse");
-            int specularLoc = glGetUniformLocation(shaderProgram, "material.specular");
-            int shininessLoc = glGetUniformLocation(shaderProgram, "material.shininess");
-
-            // Встановлюємо значення за замовчуванням для матеріалу сітки
-            glUniform3f(ambientLoc, 0.5f, 0.5f, 0.5f);
-            glUniform3f(diffuseLoc, 0.5f, 0.5f, 0.5f);
-            glUniform3f(specularLoc, 0.0f, 0.0f, 0.0f);
-            glUniform1f(shininessLoc, 1.0f);
+            int lightColorLoc = setupProgram(shaderProgram, viewMatrix, projectionMatrix, mvpBuffer);
 
             // Малюємо сітку
             glBindVertexArray(grid.getGridVAO());
 
             // Встановлюємо колір для сітки через uniform lightColor
-            int lightColorLoc = glGetUniformLocation(shaderProgram, "lightColor");
             glUniform3f(lightColorLoc, 0.3f, 0.3f, 0.3f);
+            RenderStats.uniformUpload();
 
             glLineWidth(1.0f);
             glDrawElements(GL_LINES, grid.getGridVertexCount(), GL_UNSIGNED_INT, 0);
@@ -75,22 +46,98 @@ public class GridRenderStrategy implements RenderStrategy {
 
             // Малюємо вісь X (червона)
             glUniform3f(lightColorLoc, xAxisColor[0], xAxisColor[1], xAxisColor[2]);
+            RenderStats.uniformUpload();
             glDrawArrays(GL_LINES, 0, 2);
 
             // Малюємо вісь Y (зелена)
             glUniform3f(lightColorLoc, yAxisColor[0], yAxisColor[1], yAxisColor[2]);
+            RenderStats.uniformUpload();
             glDrawArrays(GL_LINES, 2, 2);
 
             // Малюємо вісь Z (синя)
             glUniform3f(lightColorLoc, zAxisColor[0], zAxisColor[1], zAxisColor[2]);
+            RenderStats.uniformUpload();
             glDrawArrays(GL_LINES, 4, 2);
 
             // Відв'язуємо VAO
             glBindVertexArray(0);
+
+            // Статистика кадру: програма, два VAO, сітка та три осі
+            RenderStats.programBind();
+            RenderStats.vaoBind();
+            RenderStats.vaoBind();
+            for (int i = 0; i < 4; i++) {
+                RenderStats.drawCall();
+            }
         } finally {
             // Звільняємо пам'ять буфера
             MemoryUtil.memFree(mvpBuffer);
         }
     }
-}
 
+    /**
+     * Лише вертикальна вісь Y - для процедурної сітки, яка малює осі X і Z сама
+     */
+    public void renderVerticalAxis(Grid grid, int shaderProgram, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        FloatBuffer mvpBuffer = MemoryUtil.memAllocFloat(16);
+        try {
+            int lightColorLoc = setupProgram(shaderProgram, viewMatrix, projectionMatrix, mvpBuffer);
+            glBindVertexArray(grid.getAxesVAO());
+            glLineWidth(2.0f);
+            float[] yAxisColor = grid.getyAxisColor();
+            glUniform3f(lightColorLoc, yAxisColor[0], yAxisColor[1], yAxisColor[2]);
+            RenderStats.uniformUpload();
+            glDrawArrays(GL_LINES, 2, 2);
+            glBindVertexArray(0);
+
+            // Статистика кадру: програма, VAO, одна вісь
+            RenderStats.programBind();
+            RenderStats.vaoBind();
+            RenderStats.drawCall();
+        } finally {
+            MemoryUtil.memFree(mvpBuffer);
+        }
+    }
+
+    /**
+     * Програма сітки з матрицею MVP і матеріалом за замовчуванням
+     *
+     * @return локація uniform lightColor, через який задається колір ліній
+     */
+    private int setupProgram(int shaderProgram, Matrix4f viewMatrix, Matrix4f projectionMatrix, FloatBuffer mvpBuffer) {
+        // Використовуємо шейдерну програму
+        glUseProgram(shaderProgram);
+
+        // Створюємо модельну матрицю (для сітки це одинична матриця)
+        Matrix4f modelMatrix = new Matrix4f().identity();
+
+        // Створюємо комбіновану матрицю MVP (Model-View-Projection)
+        Matrix4f mvpMatrix = new Matrix4f();
+        projectionMatrix.mul(viewMatrix, mvpMatrix);   // mvp = projection * view
+        mvpMatrix.mul(modelMatrix);                    // mvp = projection * view * model
+
+        // Передаємо MVP матрицю в шейдер (за допомогою uniform mvp)
+        int mvpLoc = glGetUniformLocation(shaderProgram, "mvp");
+        mvpMatrix.get(mvpBuffer);
+        glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+        RenderStats.uniformUpload();
+
+        // Встановлюємо власні значення матеріалу для сітки
+        int ambientLoc = glGetUniformLocation(shaderProgram, "material.ambient");
+        int diffuseLoc = glGetUniformLocation(shaderProgram, "material.diffuse");
+        int specularLoc = glGetUniformLocation(shaderProgram, "material.specular");
+        int shininessLoc = glGetUniformLocation(shaderProgram, "material.shininess");
+
+        // Встановлюємо значення за замовчуванням для матеріалу сітки
+        glUniform3f(ambientLoc, 0.5f, 0.5f, 0.5f);
+        RenderStats.uniformUpload();
+        glUniform3f(diffuseLoc, 0.5f, 0.5f, 0.5f);
+        RenderStats.uniformUpload();
+        glUniform3f(specularLoc, 0.0f, 0.0f, 0.0f);
+        RenderStats.uniformUpload();
+        glUniform1f(shininessLoc, 1.0f);
+        RenderStats.uniformUpload();
+
+        return glGetUniformLocation(shaderProgram, "lightColor");
+    }
+}
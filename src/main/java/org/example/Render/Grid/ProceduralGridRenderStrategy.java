@@ -0,0 +1,99 @@
+package org.example.Render.Grid;
+
+import org.example.Grid;
+import org.example.Profiler.RenderStats;
+import org.example.Render.RenderStrategy;
+import org.example.ShaderLoader;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Нескінченна процедурна сітка на площині XZ.
+ *
+ * Основні функції:
+ * - Один повноекранний прямокутник (4 вершини з gl_VertexID, без вершинних буферів); для кожного
+ *   пікселя фрагментний шейдер перетинає промінь камери з площиною y = 0.
+ * - Лінії (другорядні з кроком gridSize, основні - кожна п'ята) та осі X і Z рахуються аналітично:
+ *   ширина в один піксель за похідними (fwidth), згладжування без MSAA, надто густі лінії зникають.
+ * - Сітка згасає з відстанню (Grid.getFadeDistance). Глибина точки площини (gl_FragDepth) бере участь
+ *   у тесті, тож об'єкти перекривають сітку як і раніше, але в буфер глибини не пишеться.
+ * - Пам'ять стала, зміна кроку - лише uniform, перебудова буферів не потрібна.
+ *
+ * Вертикальна вісь Y малюється лінією, як у GridRenderStrategy.
+ */
+public class ProceduralGridRenderStrategy implements RenderStrategy {
+    private final int shaderProgram;
+    private final int vaoId;
+    private final GridRenderStrategy axisStrategy = new GridRenderStrategy();
+
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final Matrix4f inverseViewProjection = new Matrix4f();
+    private final Vector3f cameraPosition = new Vector3f();
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+
+    public ProceduralGridRenderStrategy() throws IOException {
+        shaderProgram = ShaderLoader.loadShader(
+                "/Shader/gridShaderProgram/infinite_grid_vertex.glsl",
+                "/Shader/gridShaderProgram/infinite_grid_fragment.glsl"
+        );
+        // Core profile вимагає прив'язаний VAO навіть без атрибутів
+        vaoId = glGenVertexArrays();
+    }
+
+    /**
+     * @param lineShaderProgram програма сітки ліній - нею малюється вертикальна вісь
+     */
+    @Override
+    public void render(Grid grid, int lineShaderProgram, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        projectionMatrix.mul(viewMatrix, viewProjection);
+        viewProjection.invert(inverseViewProjection);
+        viewMatrix.originAffine(cameraPosition);
+
+        glUseProgram(shaderProgram);
+        glUniformMatrix4fv(glGetUniformLocation(shaderProgram, "viewProjection"), false, viewProjection.get(matrixBuffer));
+        RenderStats.uniformUpload();
+        glUniformMatrix4fv(glGetUniformLocation(shaderProgram, "inverseViewProjection"), false,
+                inverseViewProjection.get(matrixBuffer));
+        RenderStats.uniformUpload();
+        glUniform3f(glGetUniformLocation(shaderProgram, "viewPos"), cameraPosition.x, cameraPosition.y, cameraPosition.z);
+        RenderStats.uniformUpload();
+        glUniform1f(glGetUniformLocation(shaderProgram, "gridSize"), grid.getGridSize());
+        RenderStats.uniformUpload();
+        glUniform1f(glGetUniformLocation(shaderProgram, "fadeDistance"), grid.getFadeDistance());
+        RenderStats.uniformUpload();
+        setColor("minorColor", grid.getMinorGridColor());
+        setColor("majorColor", grid.getMajorGridColor());
+        setColor("xAxisColor", grid.getxAxisColor());
+        setColor("zAxisColor", grid.getzAxisColor());
+
+        // Напівпрозора площина не повинна закривати глибиною те, що малюється після неї
+        glDepthMask(false);
+        glBindVertexArray(vaoId);
+        glDrawArrays(GL_TRIANGLE_STRIP, 0, 4);
+        glBindVertexArray(0);
+        glDepthMask(true);
+
+        // Статистика кадру: програма, VAO, два трикутники
+        RenderStats.programBind();
+        RenderStats.vaoBind();
+        RenderStats.drawCall(6);
+
+        axisStrategy.renderVerticalAxis(grid, lineShaderProgram, viewMatrix, projectionMatrix);
+    }
+
+    private void setColor(String name, float[] color) {
+        glUniform4f(glGetUniformLocation(shaderProgram, name), color[0], color[1], color[2], color[3]);
+        RenderStats.uniformUpload();
+    }
+
+    public void cleanup() {
+        glDeleteVertexArrays(vaoId);
+        glDeleteProgram(shaderProgram);
+    }
+}
@@ -0,0 +1,336 @@
+package org.example.Render;
+
+import org.example.MaterialRegistry;
+import org.example.Mesh;
+import org.example.Profiler.RenderStats;
+import org.example.Render.Shadow.ShadowSettings;
+import org.example.ShaderLoader;
+import org.example.ShaderMaterial;
+import org.example.Simulation.RenderSnapshot;
+import org.example.Texture.TextureArray;
+import org.example.TextureLoader;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL43.*;
+
+/**
+ * Основний прохід через glMultiDrawElementsIndirect (контекст OpenGL 4.3+).
+ *
+ * Основні функції:
+ * - Геометрія береться зі спільних буферів GeometryArena; команда посилається на діапазон меша
+ *   (firstIndex, baseVertex). На кожен формат вершин - власний VAO (атрибути арени плюс номер
+ *   виклику), що переналаштовується, коли арена переміщує буфери.
+ * - Дані кожного виклику (модельна матриця, матриця нормалей, ідентифікатор матеріалу) пишуться
+ *   в SSBO (binding 0); параметри матеріалів шейдер читає з буфера MaterialRegistry як SSBO (binding 1).
+ * - Номер виклику передається через baseInstance команди і атрибут з дільником 1, тож вистачає
+ *   OpenGL 4.3 (gl_DrawID та gl_BaseInstance з'являються лише в 4.6).
+ * - Меші беруться з RenderSnapshot (живе дерево сцени не обходиться); меші поза пірамідою видимості
+ *   не потрапляють до команд. Решта групуються за форматом вершин,
+ *   типом індексів і текстурою: один виклик glMultiDrawElementsIndirect на кожну окрему текстуру чи масив текстур
+ *   (нетекстуровані - разом із сусідньою групою), тож тисячі Mesh.render стають кількома викликами API.
+ *
+ * Вузли-джерела світла малюються як раніше (RenderQueue).
+ */
+public class IndirectRenderer {
+    // mat4 model, mat4 normalMatrix, ivec4 info (std430)
+    private static final int DRAW_DATA_BYTES = 144;
+    // count, instanceCount, firstIndex, baseVertex, baseInstance
+    private static final int COMMAND_BYTES = 20;
+    private static final int DRAW_BINDING = 0;
+    private static final int MATERIAL_BINDING = 1;
+
+    private static class DrawItem {
+        Mesh mesh;
+        VertexFormat format;
+        int indexType;
+        int materialId;
+        int textureKey;
+        TextureLoader texture;
+        TextureArray textureArray;
+    }
+
+    private static final Comparator<DrawItem> ORDER = Comparator
+            .comparingInt((DrawItem item) -> item.format.ordinal())
+            .thenComparingInt(item -> item.indexType)
+            .thenComparingInt(item -> item.textureKey)
+            .thenComparingInt(item -> item.materialId);
+
+    private final int shaderProgram;
+    private final int viewPosLoc;
+    private final int diffuseMapLoc;
+    private final int shadowMapCompareLoc;
+    private final int diffuseArrayMapLoc;
+    private final int viewProjectionLoc;
+    // VAO і версія буферів арени, на яку він налаштований, для кожного формату вершин
+    private final Map<VertexFormat, Integer> vaos = new EnumMap<>(VertexFormat.class);
+    private final Map<VertexFormat, Integer> arenaVersions = new EnumMap<>(VertexFormat.class);
+    private final int drawIndexBufferId;
+    private final int drawDataBufferId;
+    private final int commandBufferId;
+
+    private int drawIndexCapacity = 0;
+
+    private final List<DrawItem> items = new ArrayList<>();
+    private final List<DrawItem> pool = new ArrayList<>();
+    private ByteBuffer drawData = BufferUtils.createByteBuffer(DRAW_DATA_BYTES * 64);
+    private ByteBuffer commands = BufferUtils.createByteBuffer(COMMAND_BYTES * 64);
+    private int lastBatchCount = 0;
+
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final Matrix4f drawMatrix = new Matrix4f();
+    private final Matrix4f normalMatrix = new Matrix4f();
+    private final Vector3f boundsMin = new Vector3f();
+    private final Vector3f boundsMax = new Vector3f();
+    private final float[] matrixData = new float[16];
+
+    public IndirectRenderer() throws IOException {
+        shaderProgram = ShaderLoader.loadShader(
+                "/Shader/mainShaderProgram/indirect_vertex.glsl",
+                "/Shader/mainShaderProgram/fragment_shader.glsl",
+                "430 core", "INDIRECT_DRAW");
+        viewPosLoc = glGetUniformLocation(shaderProgram, "viewPos");
+        diffuseMapLoc = glGetUniformLocation(shaderProgram, "diffuseMap");
+        shadowMapCompareLoc = glGetUniformLocation(shaderProgram, "shadowMapCompare");
+        diffuseArrayMapLoc = glGetUniformLocation(shaderProgram, "diffuseArrayMap");
+        viewProjectionLoc = glGetUniformLocation(shaderProgram, "viewProjection");
+
+        drawIndexBufferId = glGenBuffers();
+        drawDataBufferId = glGenBuffers();
+        commandBufferId = glGenBuffers();
+    }
+
+    // VAO формату: атрибути 0-2 і EBO вказують на поточні буфери арени (змінюються при рості
+    // й дефрагментації), атрибут 3 - номер виклику
+    private int vaoFor(VertexFormat format) {
+        Integer vaoId = vaos.get(format);
+        if (vaoId == null) {
+            vaoId = glGenVertexArrays();
+            vaos.put(format, vaoId);
+            glBindVertexArray(vaoId);
+            // Атрибут 3: номер виклику, один на екземпляр - читається з позиції baseInstance
+            glBindBuffer(GL_ARRAY_BUFFER, drawIndexBufferId);
+            glVertexAttribIPointer(3, 1, GL_INT, Integer.BYTES, 0);
+            glVertexAttribDivisor(3, 1);
+            glEnableVertexAttribArray(3);
+        }
+        Integer syncedVersion = arenaVersions.get(format);
+        if (syncedVersion == null || syncedVersion != GeometryArena.getVersion(format)) {
+            glBindVertexArray(vaoId);
+            glBindBuffer(GL_ARRAY_BUFFER, GeometryArena.getVboId(format));
+            format.configureAttributes();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, GeometryArena.getEboId(format));
+            glBindVertexArray(0);
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+            arenaVersions.put(format, GeometryArena.getVersion(format));
+        }
+        return vaoId;
+    }
+
+    public int getShaderProgram() {
+        return shaderProgram;
+    }
+
+    /**
+     * Намалювати меші вузлів типу DEFAULT. Uniform-и тіней програми (getShaderProgram)
+     * виставляються ззовні, як і для основної програми.
+     */
+    public void render(RenderSnapshot snapshot, Matrix4f viewMatrix, Matrix4f projectionMatrix, Vector3f cameraPosition) {
+        projectionMatrix.mul(viewMatrix, viewProjection);
+        frustum.set(viewProjection);
+
+        pool.addAll(items);
+        items.clear();
+        for (int i = 0; i < snapshot.getMeshCount(); i++) {
+            int flags = snapshot.getFlags(i);
+            // Меші вузлів DEFAULT під вузлом DEFAULT верхнього рівня; джерела світла малює RenderQueue
+            if ((flags & RenderSnapshot.FLAG_DEFAULT_PROGRAM) != 0 && (flags & RenderSnapshot.FLAG_LIGHT_STRATEGY) == 0
+                    && snapshot.isVisible(i)) {
+                collect(snapshot.getMesh(i), snapshot.getMaterial(i));
+            }
+        }
+        if (items.isEmpty()) {
+            lastBatchCount = 0;
+            return;
+        }
+        items.sort(ORDER);
+        MaterialRegistry.flush();
+        uploadDrawData();
+
+        glUseProgram(shaderProgram);
+        RenderStats.programBind();
+        applyFrameUniforms(cameraPosition);
+
+        glBindBuffer(GL_DRAW_INDIRECT_BUFFER, commandBufferId);
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, DRAW_BINDING, drawDataBufferId);
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, MATERIAL_BINDING, MaterialRegistry.getBufferId());
+
+        // Групи з однаковою текстурою - один виклик на групу; нетекстуровані приєднуються до сусідньої.
+        // Зміна формату вершин або типу індексів завжди починає нову групу
+        lastBatchCount = 0;
+        VertexFormat boundFormat = null;
+        int batchStart = 0;
+        while (batchStart < items.size()) {
+            DrawItem first = items.get(batchStart);
+            DrawItem textured = null;
+            int batchEnd = batchStart;
+            int indexCount = 0;
+            for (; batchEnd < items.size(); batchEnd++) {
+                DrawItem item = items.get(batchEnd);
+                if (item.format != first.format || item.indexType != first.indexType) {
+                    break;
+                }
+                if (item.textureKey != 0) {
+                    if (textured == null) {
+                        textured = item;
+                    } else if (item.textureKey != textured.textureKey) {
+                        break;
+                    }
+                }
+                indexCount += item.mesh.getVertexCount();
+            }
+            if (textured != null && textured.textureArray != null) {
+                textured.textureArray.bind();
+            } else if (textured != null) {
+                glActiveTexture(GL_TEXTURE0);
+                textured.texture.bind();
+                RenderStats.textureBind();
+            }
+            if (first.format != boundFormat) {
+                glBindVertexArray(vaoFor(first.format));
+                RenderStats.vaoBind();
+                boundFormat = first.format;
+            }
+            glMultiDrawElementsIndirect(GL_TRIANGLES, first.indexType, (long) batchStart * COMMAND_BYTES,
+                    batchEnd - batchStart, 0);
+            RenderStats.drawCall(indexCount);
+            lastBatchCount++;
+            batchStart = batchEnd;
+        }
+
+        glBindBuffer(GL_DRAW_INDIRECT_BUFFER, 0);
+        glBindVertexArray(0);
+        glUseProgram(0);
+        // Текстури та програма змінились поза MaterialRegistry
+        MaterialRegistry.resetBindings();
+    }
+
+    private void collect(Mesh mesh, ShaderMaterial material) {
+        mesh.getWorldBounds(boundsMin, boundsMax);
+        if (!frustum.testAab(boundsMin, boundsMax)) {
+            RenderStats.culledObject();
+            return;
+        }
+        RenderStats.visibleObject();
+        DrawItem item = pool.isEmpty() ? new DrawItem() : pool.remove(pool.size() - 1);
+        item.mesh = mesh;
+        item.format = mesh.getVertexFormat();
+        item.indexType = mesh.getIndexType();
+        item.materialId = mesh.getMaterialId();
+        item.texture = null;
+        item.textureArray = null;
+        item.textureKey = 0;
+        if (material != null && material.hasTexture()) {
+            if (material.getTextureArray() != null) {
+                item.textureArray = material.getTextureArray();
+                item.textureKey = -item.textureArray.getId();
+            } else if (material.getDiffuseMap() != null) {
+                item.texture = material.getDiffuseMap();
+                item.textureKey = item.texture.getId();
+            }
+        }
+        items.add(item);
+    }
+
+    private void uploadDrawData() {
+        int count = items.size();
+        if (drawData.capacity() < count * DRAW_DATA_BYTES) {
+            drawData = BufferUtils.createByteBuffer(count * 2 * DRAW_DATA_BYTES);
+            commands = BufferUtils.createByteBuffer(count * 2 * COMMAND_BYTES);
+        }
+        drawData.clear();
+        commands.clear();
+        for (int i = 0; i < count; i++) {
+            DrawItem item = items.get(i);
+            // Модельна матриця з декодуванням стислих позицій; нормалі - за звичайною модельною
+            item.mesh.getDrawMatrix(drawMatrix).get(drawData.position(), drawData);
+            item.mesh.getModelMatrix(normalMatrix).invert().transpose();
+            normalMatrix.get(drawData.position() + 64, drawData);
+            drawData.position(drawData.position() + 128);
+            drawData.putInt(item.materialId).putInt(0).putInt(0).putInt(0);
+
+            commands.putInt(item.mesh.getVertexCount())
+                    .putInt(1)
+                    .putInt(item.mesh.getFirstIndex())
+                    .putInt(item.mesh.getBaseVertex())
+                    .putInt(i);
+        }
+        drawData.flip();
+        commands.flip();
+
+        // Старий вміст буферів відкидається (orphaning), щоб не чекати на попередній кадр
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, drawDataBufferId);
+        glBufferData(GL_SHADER_STORAGE_BUFFER, drawData, GL_STREAM_DRAW);
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+        glBindBuffer(GL_DRAW_INDIRECT_BUFFER, commandBufferId);
+        glBufferData(GL_DRAW_INDIRECT_BUFFER, commands, GL_STREAM_DRAW);
+        glBindBuffer(GL_DRAW_INDIRECT_BUFFER, 0);
+
+        // Номери викликів 0..N-1 змінюються лише при зростанні
+        if (count > drawIndexCapacity) {
+            drawIndexCapacity = Math.max(count, drawIndexCapacity * 2);
+            IntBuffer drawIndices = BufferUtils.createIntBuffer(drawIndexCapacity);
+            for (int i = 0; i < drawIndexCapacity; i++) {
+                drawIndices.put(i);
+            }
+            drawIndices.flip();
+            glBindBuffer(GL_ARRAY_BUFFER, drawIndexBufferId);
+            glBufferData(GL_ARRAY_BUFFER, drawIndices, GL_STATIC_DRAW);
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+        }
+    }
+
+    // Uniform-и, які DefaultRenderStrategy виставляє на кожен виклик, тут - раз на кадр
+    private void applyFrameUniforms(Vector3f cameraPosition) {
+        LightUniforms.apply(shaderProgram);
+        glUniform3f(viewPosLoc, cameraPosition.x, cameraPosition.y, cameraPosition.z);
+        RenderStats.uniformUpload();
+        glUniform1i(diffuseMapLoc, 0);
+        RenderStats.uniformUpload();
+        glUniform1i(shadowMapCompareLoc, ShadowSettings.COMPARE_TEXTURE_UNIT);
+        RenderStats.uniformUpload();
+        glUniform1i(diffuseArrayMapLoc, TextureArray.TEXTURE_UNIT);
+        RenderStats.uniformUpload();
+
+        viewProjection.get(matrixData);
+        glUniformMatrix4fv(viewProjectionLoc, false, matrixData);
+        RenderStats.uniformUpload();
+    }
+
+    // Кількість викликів glMultiDrawElementsIndirect в останньому кадрі
+    public int getLastBatchCount() {
+        return lastBatchCount;
+    }
+
+    public void cleanup() {
+        glDeleteBuffers(drawIndexBufferId);
+        glDeleteBuffers(drawDataBufferId);
+        glDeleteBuffers(commandBufferId);
+        for (int vaoId : vaos.values()) {
+            glDeleteVertexArrays(vaoId);
+        }
+        glDeleteProgram(shaderProgram);
+    }
+}
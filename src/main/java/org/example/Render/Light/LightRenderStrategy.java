@@ -2,6 +2,7 @@ package org.example.Render.Light;
 
 import org.example.Mesh;
 import org.example.Node;
+import org.example.Profiler.RenderStats;
 import org.example.Render.RenderStrategy;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -21,17 +22,24 @@ public class LightRenderStrategy implements RenderStrategy {
 
         Matrix4f mvpMatrix = new Matrix4f();
         projectionMatrix.mul(viewMatrix, mvpMatrix);
-        mvpMatrix.mul(mesh.getModelMatrix());
+        mvpMatrix.mul(mesh.getDrawMatrix());
 
         float[] mvpBuffer = new float[16];
         mvpMatrix.get(mvpBuffer);
         glUniformMatrix4fv(mvpLoc, false, mvpBuffer);
+        RenderStats.uniformUpload();
 
         // Встановлюємо колір джерела світла
         int lightColorLoc = glGetUniformLocation(shaderProgram, "lightColor");
         glUniform3f(lightColorLoc, 1.0f, 1.0f, 0.0f); // Жовтий колір для джерела світла
+        RenderStats.uniformUpload();
 
-        glDrawElements(GL_TRIANGLES, mesh.getVertexCount(), GL_UNSIGNED_INT, 0);
+        mesh.draw();
+
+        // Статистика кадру: програма, VAO, виклик малювання
+        RenderStats.programBind();
+        RenderStats.vaoBind();
+        RenderStats.drawCall(mesh.getVertexCount());
 
         glBindVertexArray(0);
         glUseProgram(0);
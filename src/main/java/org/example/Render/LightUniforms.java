@@ -0,0 +1,96 @@
+package org.example.Render;
+
+import org.example.Profiler.RenderStats;
+import org.example.Simulation.RenderSnapshot;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL20.*;
+
+/**
+ * Масиви джерел світла основного шейдера (lightCount, lightPositions, lightColors, lightIntensities).
+ *
+ * Індекс світла в масивах збігається з індексом світла в RenderSnapshot (порядок Node.getLightNodes), тож тайл атласу
+ * та матриця простору світла з тим самим індексом (Core.applyShadowUniforms) належать тому самому світлу.
+ * Світла понад MAX_LIGHTS не враховуються; без жодного світла шейдер отримує одне біле світло в (5, 5, 5).
+ *
+ * Значення копіюються зі знімка сцени раз на кадр (`capture`), а `apply` лише передає копію в програму -
+ * проходи не читають вузли, які змінює потік симуляції.
+ */
+public class LightUniforms {
+    // Розмір масивів світла у fragment_shader.glsl
+    public static final int MAX_LIGHTS = 8;
+
+    private static final FloatBuffer positions = BufferUtils.createFloatBuffer(MAX_LIGHTS * 3);
+    private static final FloatBuffer colors = BufferUtils.createFloatBuffer(MAX_LIGHTS * 3);
+    private static final FloatBuffer intensities = BufferUtils.createFloatBuffer(MAX_LIGHTS);
+    private static final Vector3f position = new Vector3f();
+    private static final Vector3f color = new Vector3f();
+    private static int capturedCount = 0;
+    // Зростає з кожним capture - програми передають світла лише раз на нову копію
+    private static int version = 0;
+    // Програма -> локації lightCount, lightPositions, lightColors, lightIntensities
+    private static final Map<Integer, int[]> locations = new HashMap<>();
+
+    // Кількість світел, які бачить шейдер
+    public static int count(RenderSnapshot snapshot) {
+        return Math.min(snapshot.getLightCount(), MAX_LIGHTS);
+    }
+
+    // Копіює світла кадру зі знімка; викликається до проходів
+    public static void capture(RenderSnapshot snapshot) {
+        int count = count(snapshot);
+        positions.clear();
+        colors.clear();
+        intensities.clear();
+        if (count == 0) {
+            positions.put(5.0f).put(5.0f).put(5.0f);
+            colors.put(1.0f).put(1.0f).put(1.0f);
+            intensities.put(1.0f);
+            count = 1;
+        } else {
+            for (int i = 0; i < count; i++) {
+                snapshot.getLightPosition(i, position);
+                snapshot.getLightColor(i, color);
+                positions.put(position.x).put(position.y).put(position.z);
+                colors.put(color.x).put(color.y).put(color.z);
+                intensities.put(snapshot.getLightIntensity(i));
+            }
+        }
+        positions.flip();
+        colors.flip();
+        intensities.flip();
+        capturedCount = count;
+        version++;
+    }
+
+    public static int getVersion() {
+        return version;
+    }
+
+    // Передає світла останнього capture в програму; викликається з GL-потоку для активної програми
+    public static void apply(int shaderProgram) {
+        int[] programLocations = locations.get(shaderProgram);
+        if (programLocations == null) {
+            programLocations = new int[]{
+                    glGetUniformLocation(shaderProgram, "lightCount"),
+                    glGetUniformLocation(shaderProgram, "lightPositions"),
+                    glGetUniformLocation(shaderProgram, "lightColors"),
+                    glGetUniformLocation(shaderProgram, "lightIntensities")
+            };
+            locations.put(shaderProgram, programLocations);
+        }
+        glUniform1i(programLocations[0], capturedCount);
+        RenderStats.uniformUpload();
+        glUniform3fv(programLocations[1], positions);
+        RenderStats.uniformUpload();
+        glUniform3fv(programLocations[2], colors);
+        RenderStats.uniformUpload();
+        glUniform1fv(programLocations[3], intensities);
+        RenderStats.uniformUpload();
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.Render;
+
+import org.example.Mesh;
+import org.example.Simulation.RenderSnapshot;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ * Вибір рівня деталізації мешів за екранним розміром вузла.
+ *
+ * Основні функції:
+ * - Для кожного вузла з мешами (послідовні меші знімка з однаковим RenderSnapshot.getGroup) береться сфера навколо об'єднання їх AABB у світі і її діаметр
+ *   у пікселях (так само, як у TextureStreamer).
+ * - Бюджет трикутників: площа кола на екрані / PIXELS_PER_TRIANGLE; порівнюється з половиною
+ *   трикутників рівня (приблизно стільки повернуто до камери).
+ * - Обирається найгрубіший рівень, що вкладається в бюджет. До грубішого рівня меш переходить лише
+ *   з запасом HYSTERESIS, до детальнішого - одразу, тож на межі рівні не перемикаються щокадру.
+ * - Невидимі вузли зберігають свій рівень.
+ *
+ * Викликається з потоку рендерингу: рівень залежить від камери і зберігається в Mesh, потік симуляції його не читає.
+ * Рівні генеруються при імпорті (MeshCache + MeshSimplifier); меш без спрощених рівнів не змінюється.
+ */
+public class LodSelector {
+    // Бажана середня площа трикутника на екрані, пікселів
+    private static final float PIXELS_PER_TRIANGLE = 16.0f;
+    private static final float HYSTERESIS = 0.15f;
+    private static final float MIN_DISTANCE = 0.01f;
+
+    private static boolean enabled = true;
+    private static int switchesLastFrame = 0;
+    private static long switches = 0;
+    private static int trianglesSavedLastFrame = 0;
+
+    private static final FrustumIntersection frustum = new FrustumIntersection();
+    private static final Matrix4f viewProjection = new Matrix4f();
+    private static final Vector3f meshMin = new Vector3f();
+    private static final Vector3f meshMax = new Vector3f();
+    private static final Vector3f nodeMin = new Vector3f();
+    private static final Vector3f nodeMax = new Vector3f();
+    private static final Vector3f center = new Vector3f();
+
+    // Вимкнений вибір повертає всі меші до вихідної геометрії
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void update(RenderSnapshot snapshot, Matrix4f viewMatrix, Matrix4f projectionMatrix,
+                              int viewportHeight, Vector3f cameraPosition) {
+        switchesLastFrame = 0;
+        trianglesSavedLastFrame = 0;
+        frustum.set(viewProjection.set(projectionMatrix).mul(viewMatrix));
+        // Пікселів на одиницю довжини на відстані 1
+        float pixelScale = projectionMatrix.m11() * viewportHeight * 0.5f;
+
+        int count = snapshot.getMeshCount();
+        for (int start = 0, end; start < count; start = end) {
+            // Меші одного вузла йдуть у знімку підряд
+            end = start + 1;
+            while (end < count && snapshot.getGroup(end) == snapshot.getGroup(start)) {
+                end++;
+            }
+            if (!enabled) {
+                for (int i = start; i < end; i++) {
+                    setLevel(snapshot.getMesh(i), 0);
+                }
+                continue;
+            }
+
+            nodeMin.set(Float.POSITIVE_INFINITY);
+            nodeMax.set(Float.NEGATIVE_INFINITY);
+            for (int i = start; i < end; i++) {
+                snapshot.getMesh(i).getWorldBounds(meshMin, meshMax);
+                nodeMin.min(meshMin);
+                nodeMax.max(meshMax);
+            }
+            if (!frustum.testAab(nodeMin, nodeMax)) {
+                continue;
+            }
+            float radius = nodeMin.distance(nodeMax) * 0.5f;
+            nodeMin.add(nodeMax, center).mul(0.5f);
+            float distance = Math.max(center.distance(cameraPosition) - radius, MIN_DISTANCE);
+            float projectedPixels = 2.0f * radius * pixelScale / distance;
+            float budget = (float) (Math.PI * 0.25) * projectedPixels * projectedPixels / PIXELS_PER_TRIANGLE;
+
+            for (int i = start; i < end; i++) {
+                Mesh mesh = snapshot.getMesh(i);
+                int current = mesh.getLodLevel();
+                int level = selectLevel(mesh, budget);
+                if (level > current) {
+                    // Грубіший рівень - лише якщо він вкладається в бюджет із запасом
+                    level = Math.max(current, selectLevel(mesh, budget * (1.0f + HYSTERESIS)));
+                }
+                setLevel(mesh, level);
+                trianglesSavedLastFrame += mesh.getLodTriangleCount(0) - mesh.getLodTriangleCount(mesh.getLodLevel());
+            }
+        }
+    }
+
+    // Найгрубіший рівень, видимих трикутників якого не менше бюджету
+    private static int selectLevel(Mesh mesh, float budget) {
+        int level = 0;
+        while (level + 1 < mesh.getLodCount() && mesh.getLodTriangleCount(level + 1) * 0.5f >= budget) {
+            level++;
+        }
+        return level;
+    }
+
+    private static void setLevel(Mesh mesh, int level) {
+        if (mesh.getLodLevel() != level) {
+            mesh.setLodLevel(level);
+            switchesLastFrame++;
+            switches++;
+        }
+    }
+
+    public static int getSwitchesLastFrame() {
+        return switchesLastFrame;
+    }
+
+    public static long getSwitches() {
+        return switches;
+    }
+
+    // Скільки трикутників видимих мешів зекономлено відносно вихідної геометрії в останньому кадрі
+    public static int getTrianglesSavedLastFrame() {
+        return trianglesSavedLastFrame;
+    }
+}
@@ -0,0 +1,315 @@
+package org.example.Render;
+
+import org.example.Mesh;
+import org.example.Profiler.RenderStats;
+import org.example.ShaderLoader;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Апаратні запити перекриття GPU (GL_ANY_SAMPLES_PASSED) для основного проходу RenderQueue.
+ * Це не повне відсікання перекритих об'єктів: CPU не знає, що меш перекритий, і все одно
+ * подає його виклик - відкидає його GPU через умовне малювання.
+ *
+ * Основні функції:
+ * - Після основного проходу для кожного намальованого меша малюється його AABB (без запису кольору
+ *   й глибини) усередині запиту: чи пройшов хоч один фрагмент тест глибини повної сцени.
+ * - Результати читаються наступного кадру лише якщо вже готові (GL_QUERY_RESULT_AVAILABLE),
+ *   тож CPU ніколи не чекає на GPU; неготовий результат лишає попередній стан.
+ * - Меш, перекритий за попереднім кадром, малюється після решти: спершу його AABB із запитом проти
+ *   глибини вже намальованих об'єктів, потім сам меш через glBeginConditionalRender. Якщо об'єкт
+ *   з'явився з-за перешкоди, GPU малює його в тому ж кадрі - без запізнення на кадр.
+ * - Меші поза пірамідою видимості не малюються і не перевіряються.
+ * - Якщо камера всередині AABB (з запасом на ближню площину), об'єкт вважається видимим.
+ * - Статистика: кількість запитів, відкладених мешів і відкинутих GPU умовних викликів малювання.
+ *
+ * Обмеження:
+ * - Лише апаратні запити; програмного растеризатора глибини перекривачів на CPU немає, тож
+ *   кількість викликів малювання з боку CPU не зменшується.
+ * - Діє тільки на основний прохід RenderQueue. З `--indirect-draw` звичайні меші малює IndirectRenderer
+ *   без відсікання (у черзі лишаються джерела світла). Прохід тіней (ShadowRenderer) перевіряє лише
+ *   IShadowMap.isCasterVisible - піраміду грані в PointShadowMap; перекритий для камери об'єкт
+ *   може кидати видиму тінь, тож результати запитів камери до нього не застосовуються.
+ *
+ * Використовується RenderQueue; вмикається `--gpu-occlusion-queries` або прапорцем
+ * "GPU occlusion queries" у RenderSettingsPanel.
+ */
+public class OcclusionCuller {
+    // Розширення AABB, щоб грані не збігалися з поверхнею меша (тест глибини GL_LESS)
+    private static final float BOUNDS_PADDING = 0.01f;
+    // Запас на ближню площину відсікання: з камерою ближче до AABB грані можуть бути обрізані
+    private static final float NEAR_MARGIN = 0.5f;
+    // Кадрів без використання, після яких запит меша видаляється
+    private static final int STALE_FRAMES = 120;
+
+    private static class State {
+        int query;
+        boolean pending;
+        // Запит кадру, у якому меш малювався умовно
+        boolean conditional;
+        boolean occluded;
+        int lastUsedFrame;
+    }
+
+    private static boolean enabled = false;
+    private static int shaderProgram = 0;
+    private static int vaoId = 0;
+    private static int vboId = 0;
+    private static int eboId = 0;
+    private static int mvpLoc = -1;
+
+    private static final Map<Mesh, State> states = new IdentityHashMap<>();
+    private static int frameIndex = 0;
+
+    private static int queriesLastFrame = 0;
+    private static int deferredLastFrame = 0;
+    private static int rejectedLastFrame = 0;
+    private static long rejectedTotal = 0;
+
+    private static final FrustumIntersection frustum = new FrustumIntersection();
+    private static final Matrix4f viewProjection = new Matrix4f();
+    private static final Matrix4f proxyMatrix = new Matrix4f();
+    private static final Vector3f boundsMin = new Vector3f();
+    private static final Vector3f boundsMax = new Vector3f();
+    private static final Vector3f cameraPosition = new Vector3f();
+    private static final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+
+    public static void init() throws IOException {
+        shaderProgram = ShaderLoader.loadShader(
+                "/Shader/occlusionShaderProgram/occlusion_vertex.glsl",
+                "/Shader/occlusionShaderProgram/occlusion_fragment.glsl");
+        mvpLoc = glGetUniformLocation(shaderProgram, "mvp");
+
+        // Одиничний куб [-1, 1]: 8 вершин, 12 трикутників
+        float[] corners = {
+                -1, -1, -1,  1, -1, -1,  1, 1, -1,  -1, 1, -1,
+                -1, -1,  1,  1, -1,  1,  1, 1,  1,  -1, 1,  1
+        };
+        byte[] indices = {
+                0, 2, 1, 0, 3, 2,  4, 5, 6, 4, 6, 7,
+                0, 1, 5, 0, 5, 4,  3, 6, 2, 3, 7, 6,
+                0, 4, 7, 0, 7, 3,  1, 2, 6, 1, 6, 5
+        };
+        vaoId = glGenVertexArrays();
+        vboId = glGenBuffers();
+        eboId = glGenBuffers();
+        glBindVertexArray(vaoId);
+        FloatBuffer vertexBuffer = BufferUtils.createFloatBuffer(corners.length);
+        vertexBuffer.put(corners).flip();
+        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+        glBufferData(GL_ARRAY_BUFFER, vertexBuffer, GL_STATIC_DRAW);
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, 3 * Float.BYTES, 0);
+        glEnableVertexAttribArray(0);
+        ByteBuffer indexBuffer = BufferUtils.createByteBuffer(indices.length);
+        indexBuffer.put(indices).flip();
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    public static void setEnabled(boolean value) {
+        if (enabled && !value) {
+            deleteQueries();
+        }
+        enabled = value;
+    }
+
+    // Відсікання працює лише після init() - без шейдера AABB малювати нічим
+    public static boolean isEnabled() {
+        return enabled && shaderProgram != 0;
+    }
+
+    /**
+     * Початок кадру: забрати готові результати попереднього кадру і запам'ятати камеру
+     */
+    public static void beginFrame(Matrix4f viewMatrix, Matrix4f projectionMatrix, Vector3f camera) {
+        frameIndex++;
+        queriesLastFrame = 0;
+        deferredLastFrame = 0;
+        rejectedLastFrame = 0;
+        frustum.set(viewProjection.set(projectionMatrix).mul(viewMatrix));
+        cameraPosition.set(camera);
+
+        Iterator<State> iterator = states.values().iterator();
+        while (iterator.hasNext()) {
+            State state = iterator.next();
+            if (state.pending && glGetQueryObjecti(state.query, GL_QUERY_RESULT_AVAILABLE) == GL_TRUE) {
+                state.occluded = glGetQueryObjecti(state.query, GL_QUERY_RESULT) == GL_FALSE;
+                state.pending = false;
+                if (state.conditional && state.occluded) {
+                    rejectedLastFrame++;
+                    rejectedTotal++;
+                }
+            }
+            // Меш давно не малювався (видалений зі сцени) - звільняємо запит
+            if (!state.pending && frameIndex - state.lastUsedFrame > STALE_FRAMES) {
+                glDeleteQueries(state.query);
+                iterator.remove();
+            }
+        }
+    }
+
+    // Меш видалено зі сцени (RetiredMeshes) - запит звільняється одразу, не чекаючи STALE_FRAMES
+    public static void forget(Mesh mesh) {
+        State state = states.remove(mesh);
+        if (state != null) {
+            glDeleteQueries(state.query);
+        }
+    }
+
+    // Меш поза пірамідою видимості - не малювати
+    public static boolean isOutsideFrustum(Mesh mesh) {
+        mesh.getWorldBounds(boundsMin, boundsMax);
+        return !frustum.testAab(boundsMin, boundsMax);
+    }
+
+    // Меш перекритий за останнім відомим результатом - малювати умовно після решти
+    public static boolean isOccluded(Mesh mesh) {
+        State state = states.get(mesh);
+        return state != null && state.occluded && !state.pending && !containsCamera(mesh);
+    }
+
+    /**
+     * Перевірити AABB меша проти вже намальованої глибини і почати умовне малювання.
+     * Після виклику малювання меша обов'язково endConditional()
+     */
+    public static void beginConditional(Mesh mesh) {
+        State state = state(mesh);
+        beginProxies();
+        issueQuery(state, mesh);
+        endProxies();
+        state.conditional = true;
+        deferredLastFrame++;
+        glBeginConditionalRender(state.query, GL_QUERY_WAIT);
+    }
+
+    public static void endConditional() {
+        glEndConditionalRender();
+    }
+
+    /**
+     * Запити для мешів, намальованих звичайно: AABB проти глибини всієї сцени.
+     * Викликати після основного проходу
+     */
+    public static void testVisible(List<Mesh> meshes) {
+        if (meshes.isEmpty()) {
+            return;
+        }
+        beginProxies();
+        for (Mesh mesh : meshes) {
+            State state = state(mesh);
+            // Попередній запит ще летить - не перезаписуємо його результат
+            if (state.pending) {
+                continue;
+            }
+            if (containsCamera(mesh)) {
+                state.occluded = false;
+                continue;
+            }
+            state.conditional = false;
+            issueQuery(state, mesh);
+        }
+        endProxies();
+    }
+
+    private static State state(Mesh mesh) {
+        State state = states.get(mesh);
+        if (state == null) {
+            state = new State();
+            state.query = glGenQueries();
+            states.put(mesh, state);
+        }
+        state.lastUsedFrame = frameIndex;
+        return state;
+    }
+
+    private static void issueQuery(State state, Mesh mesh) {
+        mesh.getWorldBounds(boundsMin, boundsMax);
+        float padding = BOUNDS_PADDING * boundsMin.distance(boundsMax) + BOUNDS_PADDING;
+        proxyMatrix.set(viewProjection)
+                .translate((boundsMin.x + boundsMax.x) * 0.5f, (boundsMin.y + boundsMax.y) * 0.5f,
+                        (boundsMin.z + boundsMax.z) * 0.5f)
+                .scale((boundsMax.x - boundsMin.x) * 0.5f + padding, (boundsMax.y - boundsMin.y) * 0.5f + padding,
+                        (boundsMax.z - boundsMin.z) * 0.5f + padding);
+        glUniformMatrix4fv(mvpLoc, false, proxyMatrix.get(matrixBuffer));
+        RenderStats.uniformUpload();
+
+        glBeginQuery(GL_ANY_SAMPLES_PASSED, state.query);
+        glDrawElements(GL_TRIANGLES, 36, GL_UNSIGNED_BYTE, 0);
+        glEndQuery(GL_ANY_SAMPLES_PASSED);
+        state.pending = true;
+        queriesLastFrame++;
+    }
+
+    // Стан для AABB: без запису кольору й глибини
+    private static void beginProxies() {
+        glUseProgram(shaderProgram);
+        glBindVertexArray(vaoId);
+        glColorMask(false, false, false, false);
+        glDepthMask(false);
+        glDepthFunc(GL_LEQUAL);
+    }
+
+    private static void endProxies() {
+        glColorMask(true, true, true, true);
+        glDepthMask(true);
+        glDepthFunc(GL_LESS);
+        glBindVertexArray(0);
+    }
+
+    private static boolean containsCamera(Mesh mesh) {
+        mesh.getWorldBounds(boundsMin, boundsMax);
+        return cameraPosition.x > boundsMin.x - NEAR_MARGIN && cameraPosition.x < boundsMax.x + NEAR_MARGIN
+                && cameraPosition.y > boundsMin.y - NEAR_MARGIN && cameraPosition.y < boundsMax.y + NEAR_MARGIN
+                && cameraPosition.z > boundsMin.z - NEAR_MARGIN && cameraPosition.z < boundsMax.z + NEAR_MARGIN;
+    }
+
+    private static void deleteQueries() {
+        for (State state : states.values()) {
+            glDeleteQueries(state.query);
+        }
+        states.clear();
+    }
+
+    public static int getQueriesLastFrame() {
+        return queriesLastFrame;
+    }
+
+    // Меші, намальовані умовно (перекриті за попереднім кадром)
+    public static int getDeferredLastFrame() {
+        return deferredLastFrame;
+    }
+
+    // Умовні виклики, які GPU відкинув (результати попереднього кадру)
+    public static int getRejectedLastFrame() {
+        return rejectedLastFrame;
+    }
+
+    public static long getRejectedTotal() {
+        return rejectedTotal;
+    }
+
+    public static void cleanup() {
+        deleteQueries();
+        if (shaderProgram != 0) {
+            glDeleteProgram(shaderProgram);
+            glDeleteVertexArrays(vaoId);
+            glDeleteBuffers(vboId);
+            glDeleteBuffers(eboId);
+            shaderProgram = 0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.Render;
+
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Фреймбуфер для рендерингу без вікна: колірний та глибинний renderbuffer заданого розміру.
+ * Використовується headless-режимом замість екранного буфера.
+ */
+public class OffscreenTarget {
+    private int fbo;
+    private int colorBuffer;
+    private int depthBuffer;
+    private int width;
+    private int height;
+
+    public OffscreenTarget(int width, int height) {
+        this.width = width;
+        this.height = height;
+        init();
+    }
+
+    private void init() {
+        fbo = glGenFramebuffers();
+        glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+
+        colorBuffer = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, colorBuffer);
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_RGBA8, width, height);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, colorBuffer);
+
+        depthBuffer = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, depthBuffer);
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH24_STENCIL8, width, height);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_STENCIL_ATTACHMENT, GL_RENDERBUFFER, depthBuffer);
+
+        if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE) {
+            throw new RuntimeException("Помилка при створенні фреймбуфера для рендерингу без вікна");
+        }
+
+        glBindRenderbuffer(GL_RENDERBUFFER, 0);
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+    }
+
+    // Робить фреймбуфер поточною ціллю рендерингу
+    public void bind() {
+        glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+        glViewport(0, 0, width, height);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void cleanup() {
+        glDeleteFramebuffers(fbo);
+        glDeleteRenderbuffers(colorBuffer);
+        glDeleteRenderbuffers(depthBuffer);
+    }
+}
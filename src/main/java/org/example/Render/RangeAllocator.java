@@ -0,0 +1,105 @@
+package org.example.Render;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Розподіл діапазонів [offset, offset + size) в буфері фіксованої місткості.
+ *
+ * Вільні блоки зберігаються у списку, впорядкованому за зміщенням (free-list); виділення -
+ * перший блок, що вміщує запит, звільнення зливає блок із сусідніми вільними.
+ * Одиниці (вершини, індекси) визначає власник.
+ */
+class RangeAllocator {
+    // Зміщення вільного блоку -> розмір
+    private final TreeMap<Integer, Integer> freeBlocks = new TreeMap<>();
+    private int capacity;
+    private int used = 0;
+
+    RangeAllocator(int capacity) {
+        this.capacity = capacity;
+        if (capacity > 0) {
+            freeBlocks.put(0, capacity);
+        }
+    }
+
+    /**
+     * @return зміщення виділеного діапазону або -1, якщо немає вільного блоку потрібного розміру
+     */
+    int allocate(int size) {
+        if (size <= 0) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Integer> block : freeBlocks.entrySet()) {
+            if (block.getValue() >= size) {
+                int offset = block.getKey();
+                freeBlocks.remove(offset);
+                if (block.getValue() > size) {
+                    freeBlocks.put(offset + size, block.getValue() - size);
+                }
+                used += size;
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    void free(int offset, int size) {
+        if (size <= 0) {
+            return;
+        }
+        used -= size;
+        int start = offset;
+        int end = offset + size;
+        // Зливаємо з попереднім і наступним вільними блоками
+        Map.Entry<Integer, Integer> previous = freeBlocks.floorEntry(offset);
+        if (previous != null && previous.getKey() + previous.getValue() == start) {
+            start = previous.getKey();
+            freeBlocks.remove(previous.getKey());
+        }
+        Integer nextSize = freeBlocks.get(end);
+        if (nextSize != null) {
+            freeBlocks.remove(end);
+            end += nextSize;
+        }
+        freeBlocks.put(start, end - start);
+    }
+
+    // Збільшення місткості: новий простір додається в кінець як вільний
+    void grow(int newCapacity) {
+        if (newCapacity <= capacity) {
+            return;
+        }
+        int oldCapacity = capacity;
+        capacity = newCapacity;
+        used += newCapacity - oldCapacity;
+        free(oldCapacity, newCapacity - oldCapacity);
+    }
+
+    // Після дефрагментації: зайнято [0, usedSize), решта - один вільний блок
+    void reset(int usedSize) {
+        freeBlocks.clear();
+        used = usedSize;
+        if (usedSize < capacity) {
+            freeBlocks.put(usedSize, capacity - usedSize);
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getUsed() {
+        return used;
+    }
+
+    int getFreeBlockCount() {
+        return freeBlocks.size();
+    }
+
+    // Найбільший вільний блок у кінці буфера - решта вільного місця розкидана дірками
+    int getTailFree() {
+        Map.Entry<Integer, Integer> last = freeBlocks.lastEntry();
+        return last != null && last.getKey() + last.getValue() == capacity ? last.getValue() : 0;
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.Render;
+
+import org.example.MaterialRegistry;
+import org.example.Mesh;
+import org.example.Node;
+import org.example.Profiler.RenderStats;
+import org.example.Render.Light.LightRenderStrategy;
+import org.example.ShaderMaterial;
+import org.example.Simulation.RenderSnapshot;
+import org.example.Texture.TextureArray;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Черга малювання основного проходу, відсортована за станом GPU.
+ *
+ * Основні функції:
+ * - `build()` бере елементи малювання з RenderSnapshot: програма - за типом вузла верхнього рівня,
+ *   стратегія - за типом вузла меша (RenderSnapshot.FLAG_*), як у Node.render. Живе дерево сцени
+ *   черга не обходить.
+ * - Елементи сортуються за програмою, текстурою (масив або окрема), ідентифікатором матеріалу
+ *   (MaterialRegistry) і VAO, тож меші зі спільним матеріалом ідуть підряд і матеріал
+ *   застосовується один раз на групу.
+ * - Матриці, видимість і матеріал мешів - зі знімка (RenderSnapshot.apply до build()); черга їх лише читає.
+ * - Елементи черги перевикористовуються між кадрами, щоб не створювати об'єкти щокадру.
+ * - З увімкненим OcclusionCuller меші поза пірамідою видимості пропускаються, а перекриті
+ *   за попереднім кадром малюються наприкінці умовно (glBeginConditionalRender).
+ * - З увімкненим DepthPrepass видимі меші DefaultRenderStrategy спершу малюються лише в глибину
+ *   від ближніх до дальніх, а кольоровий прохід лишається в порядку стану GPU; меші інших стратегій
+ *   малюються після нього зі звичайним тестом глибини.
+ * - Матриці всіх викликів DefaultRenderStrategy записуються в UniformRingBuffer до малювання
+ *   одним проходом; сам виклик лише прив'язує своє зміщення. Програма й VAO прив'язуються лише при зміні
+ *   в порядку сортування і знімаються один раз наприкінці (DefaultRenderStrategy.finishBatch).
+ */
+public class RenderQueue {
+    private static final DefaultRenderStrategy DEFAULT_STRATEGY = new DefaultRenderStrategy();
+    private static final RenderStrategy LIGHT_STRATEGY = new LightRenderStrategy();
+    // Світла стратегії беруть з LightUniforms, а не з вузлів
+    private static final List<Node> NO_LIGHT_NODES = List.of();
+
+    private static class DrawItem {
+        Mesh mesh;
+        RenderStrategy strategy;
+        int program;
+        int textureKey;
+        // Зміщення матриць виклику в UniformRingBuffer (лише DEFAULT_STRATEGY)
+        long drawOffset;
+        int materialId;
+        int vaoId;
+        // Квадрат відстані від камери до центру AABB - для порядку від ближніх до дальніх
+        float depth;
+    }
+
+    private static final Comparator<DrawItem> ORDER = Comparator
+            .comparingInt((DrawItem item) -> item.program)
+            .thenComparingInt(item -> item.textureKey)
+            .thenComparingInt(item -> item.materialId)
+            .thenComparingInt(item -> item.vaoId);
+    private static final Comparator<DrawItem> FRONT_TO_BACK = Comparator.comparingDouble(item -> item.depth);
+
+    private final List<DrawItem> items = new ArrayList<>();
+    private final List<DrawItem> pool = new ArrayList<>();
+    private final List<DrawItem> deferred = new ArrayList<>();
+    private final List<DrawItem> drawn = new ArrayList<>();
+    private final List<DrawItem> frontToBack = new ArrayList<>();
+    private final List<Mesh> drawnMeshes = new ArrayList<>();
+    private final Vector3f boundsMin = new Vector3f();
+    private final Vector3f boundsMax = new Vector3f();
+
+    /**
+     * Зібрати елементи малювання зі знімка сцени
+     *
+     * @param defaultProgram програма для вузлів типу DEFAULT; 0 - не збирати їх (їх малює IndirectRenderer)
+     * @param lightProgram програма для вузлів-джерел світла
+     */
+    public void build(RenderSnapshot snapshot, int defaultProgram, int lightProgram) {
+        pool.addAll(items);
+        items.clear();
+
+        for (int i = 0; i < snapshot.getMeshCount(); i++) {
+            int flags = snapshot.getFlags(i);
+            int program;
+            if ((flags & RenderSnapshot.FLAG_LIGHT_PROGRAM) != 0) {
+                program = lightProgram;
+            } else if ((flags & RenderSnapshot.FLAG_DEFAULT_PROGRAM) != 0 && defaultProgram != 0) {
+                program = defaultProgram;
+            } else {
+                continue;
+            }
+            if (!snapshot.isVisible(i)) {
+                continue;
+            }
+            Mesh mesh = snapshot.getMesh(i);
+            DrawItem item = pool.isEmpty() ? new DrawItem() : pool.remove(pool.size() - 1);
+            item.mesh = mesh;
+            item.strategy = (flags & RenderSnapshot.FLAG_LIGHT_STRATEGY) != 0 ? LIGHT_STRATEGY : DEFAULT_STRATEGY;
+            item.program = program;
+            item.vaoId = mesh.getVaoID();
+            item.materialId = mesh.getMaterialId();
+            item.textureKey = textureKey(snapshot.getMaterial(i));
+            items.add(item);
+        }
+        items.sort(ORDER);
+    }
+
+    // Масиви й окремі текстури в різних діапазонах ключа; без текстури - 0
+    private static int textureKey(ShaderMaterial material) {
+        if (material == null || !material.hasTexture()) {
+            return 0;
+        }
+        TextureArray textureArray = material.getTextureArray();
+        if (textureArray != null) {
+            return -textureArray.getId();
+        }
+        return material.getDiffuseMap() != null ? material.getDiffuseMap().getId() : 0;
+    }
+
+    public void render(Matrix4f viewMatrix, Matrix4f projectionMatrix, Vector3f cameraPosition) {
+        // Між кадрами текстури, uniform-и, програму й VAO могли змінювати інші проходи
+        MaterialRegistry.resetBindings();
+        DefaultRenderStrategy.resetBindings();
+        boolean occlusion = OcclusionCuller.isEnabled();
+        if (occlusion) {
+            OcclusionCuller.beginFrame(viewMatrix, projectionMatrix, cameraPosition);
+        }
+
+        deferred.clear();
+        drawn.clear();
+        for (DrawItem item : items) {
+            if (occlusion && OcclusionCuller.isOutsideFrustum(item.mesh)) {
+                RenderStats.culledObject();
+                continue;
+            }
+            if (occlusion && OcclusionCuller.isOccluded(item.mesh)) {
+                // Малюється лише за умовою запиту - не рахується видимим
+                RenderStats.culledObject();
+                deferred.add(item);
+                continue;
+            }
+            drawn.add(item);
+        }
+
+        // Матриці кадру - в кільцевий буфер наперед, одним копіюванням без синхронізації
+        writeDrawData(drawn, viewMatrix, projectionMatrix);
+        writeDrawData(deferred, viewMatrix, projectionMatrix);
+        UniformRingBuffer.flush();
+
+        boolean prepass = DepthPrepass.isEnabled() && !drawn.isEmpty();
+        if (prepass) {
+            frontToBack.clear();
+            for (DrawItem item : drawn) {
+                if (item.strategy != DEFAULT_STRATEGY) {
+                    continue;
+                }
+                item.mesh.getWorldBounds(boundsMin, boundsMax);
+                item.depth = boundsMin.add(boundsMax).mul(0.5f).distanceSquared(cameraPosition);
+                frontToBack.add(item);
+            }
+            frontToBack.sort(FRONT_TO_BACK);
+            DepthPrepass.begin();
+            for (DrawItem item : frontToBack) {
+                DepthPrepass.draw(item.mesh, item.drawOffset);
+            }
+            DepthPrepass.end();
+            DefaultRenderStrategy.resetBindings();
+        }
+
+        for (DrawItem item : drawn) {
+            if (prepass && item.strategy != DEFAULT_STRATEGY) {
+                continue;
+            }
+            draw(item, viewMatrix, projectionMatrix, cameraPosition);
+            RenderStats.visibleObject();
+        }
+        if (prepass) {
+            DepthPrepass.restore();
+            // Не пройшли попередній прохід (немає зміщення в UniformRingBuffer) - зі звичайним тестом глибини
+            for (DrawItem item : drawn) {
+                if (item.strategy != DEFAULT_STRATEGY) {
+                    draw(item, viewMatrix, projectionMatrix, cameraPosition);
+                    RenderStats.visibleObject();
+                }
+            }
+        }
+        if (!occlusion) {
+            DefaultRenderStrategy.finishBatch();
+            return;
+        }
+
+        // Перекриті раніше - перевірка проти глибини вже намальованої сцени; чи малювати, вирішує GPU
+        for (DrawItem item : deferred) {
+            OcclusionCuller.beginConditional(item.mesh);
+            // Запит прив'язав свою програму й VAO
+            DefaultRenderStrategy.resetBindings();
+            draw(item, viewMatrix, projectionMatrix, cameraPosition);
+            OcclusionCuller.endConditional();
+        }
+
+        DefaultRenderStrategy.finishBatch();
+
+        // Видимість намальованих - для наступного кадру
+        drawnMeshes.clear();
+        for (DrawItem item : drawn) {
+            drawnMeshes.add(item.mesh);
+        }
+        OcclusionCuller.testVisible(drawnMeshes);
+    }
+
+    private void writeDrawData(List<DrawItem> drawItems, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        for (DrawItem item : drawItems) {
+            if (item.strategy == DEFAULT_STRATEGY) {
+                item.drawOffset = DEFAULT_STRATEGY.writeDrawData(item.mesh, viewMatrix, projectionMatrix);
+            }
+        }
+    }
+
+    private void draw(DrawItem item, Matrix4f viewMatrix, Matrix4f projectionMatrix, Vector3f cameraPosition) {
+        if (item.strategy == DEFAULT_STRATEGY) {
+            DEFAULT_STRATEGY.render(item.mesh, item.program, cameraPosition, NO_LIGHT_NODES, item.drawOffset);
+        } else {
+            item.strategy.render(item.mesh, item.program, viewMatrix, projectionMatrix, cameraPosition, NO_LIGHT_NODES);
+            // Інша стратегія прив'язує свою програму й VAO і знімає їх
+            DefaultRenderStrategy.resetBindings();
+        }
+    }
+
+    public int size() {
+        return items.size();
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.Render;
+
+import org.example.Mesh;
+import org.example.Node;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Звільнення геометрії мешів, видалених зі сцени.
+ *
+ * Основні функції:
+ * - `retire(node)` / `retire(mesh)` викликаються одразу після того, як вузол або меш від'єднано від дерева
+ *   (з потоком симуляції - під його блокуванням). Меш позначається номером першого знімка, у якому його
+ *   вже не буде (setTickSource).
+ * - `release(snapshotTick)` у потоці рендерингу, щойно отриманий знімок має такий номер: до цього старіший
+ *   знімок ще малює меш. Стан OcclusionCuller для меша видаляється одразу; PointShadowMap сам відпускає
+ *   меш у prepareCasters, бо знімок його вже не містить.
+ * - `freeReleased()` після проходів кадру звільняє всі рівні деталізації меша в GeometryArena (Mesh.cleanup).
+ *
+ * Видалений меш не повертається до сцени.
+ */
+public class RetiredMeshes {
+    private static class Entry {
+        final Mesh mesh;
+        final long tick;
+
+        Entry(Mesh mesh, long tick) {
+            this.mesh = mesh;
+            this.tick = tick;
+        }
+    }
+
+    private static final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    // Лише потік рендерингу: меші, відпущені в цьому кадрі
+    private static final List<Mesh> released = new ArrayList<>();
+    private static volatile LongSupplier tickSource = () -> 0L;
+    private static long freedTotal = 0;
+
+    /**
+     * @param source номер наступного знімка (SnapshotWriter.getNextTick)
+     */
+    public static void setTickSource(LongSupplier source) {
+        tickSource = source;
+    }
+
+    // Усі меші вузла та його нащадків
+    public static void retire(Node node) {
+        retire(node, tickSource.getAsLong());
+    }
+
+    public static void retire(Mesh mesh) {
+        pending.add(new Entry(mesh, tickSource.getAsLong()));
+    }
+
+    private static void retire(Node node, long tick) {
+        for (Mesh mesh : node.getMeshes()) {
+            pending.add(new Entry(mesh, tick));
+        }
+        for (Node child : node.getChildren()) {
+            retire(child, tick);
+        }
+    }
+
+    /**
+     * Відпустити меші, яких уже немає в знімку кадру. Викликається з потоку рендерингу до проходів
+     *
+     * @param snapshotTick номер знімка кадру (RenderSnapshot.getTick)
+     */
+    public static void release(long snapshotTick) {
+        Iterator<Entry> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.tick <= snapshotTick) {
+                iterator.remove();
+                OcclusionCuller.forget(entry.mesh);
+                released.add(entry.mesh);
+            }
+        }
+    }
+
+    // Звільнити геометрію відпущених мешів; викликається після проходів кадру
+    public static void freeReleased() {
+        for (Mesh mesh : released) {
+            mesh.cleanup();
+        }
+        freedTotal += released.size();
+        released.clear();
+    }
+
+    // Меші, що чекають на знімок без них
+    public static int getPendingCount() {
+        return pending.size();
+    }
+
+    public static long getFreedTotal() {
+        return freedTotal;
+    }
+}
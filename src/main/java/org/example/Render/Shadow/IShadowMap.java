@@ -1,7 +1,9 @@
 package org.example.Render.Shadow;
 
+import org.example.Simulation.RenderSnapshot;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
+import org.joml.Vector4f;
 
 public interface IShadowMap {
     void updateLightSpaceMatrix(Vector3f lightPos, Vector3f lightTarget, float near, float far);
@@ -10,4 +12,52 @@ public interface IShadowMap {
     void bindDepthMapForReading(int textureUnit);
     Matrix4f getLightSpaceMatrix();
     void cleanup();
-}
\ No newline at end of file
+
+    // Кількість граней (проходів), які рендеряться для цієї карти за кадр
+    default int getFaceCount() {
+        return 1;
+    }
+
+    // Підготовка грані до рендерингу. false - грань не потребує оновлення в цьому кадрі
+    default boolean bindFaceForShadowPass(int face) {
+        bindForShadowPass();
+        return true;
+    }
+
+    default Matrix4f getFaceLightSpaceMatrix(int face) {
+        return getLightSpaceMatrix();
+    }
+
+    // Чи потрапляє AABB об'єкта (у світових координатах) в піраміду видимості грані
+    default boolean isCasterVisible(int face, Vector3f worldMin, Vector3f worldMax) {
+        return true;
+    }
+
+    // Викликається перед тіньовим проходом для відстеження рухомих об'єктів (RenderSnapshot.FLAG_SHADOW_CASTER)
+    default void prepareCasters(RenderSnapshot snapshot) {
+    }
+
+    // Розподіл карти між першими lightCount світлами знімка (використовує тіньовий атлас)
+    default void assignLights(RenderSnapshot snapshot, int lightCount, Vector3f cameraPosition,
+                              Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+    }
+
+    // Матриця простору світла з індексом у списку світел; карта на одне світло має лише індекс 0
+    default Matrix4f getLightSpaceMatrix(int lightIndex) {
+        return getLightSpaceMatrix();
+    }
+
+    // UV-прямокутник карти світла в текстурі: (x, y, ширина, висота); від'ємна ширина - світло без тіні
+    default Vector4f getAtlasRect(int lightIndex) {
+        return lightIndex == 0 ? new Vector4f(0, 0, 1, 1) : new Vector4f(0, 0, -1, -1);
+    }
+
+    // true - кубічна карта для точкового світла (samplerCube у шейдері)
+    default boolean isOmnidirectional() {
+        return false;
+    }
+
+    default float getFarPlane() {
+        return 0.0f;
+    }
+}
@@ -0,0 +1,337 @@
+package org.example.Render.Shadow;
+
+import org.example.Mesh;
+import org.example.Profiler.RenderStats;
+import org.example.Simulation.RenderSnapshot;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Всенаправлена тіньова карта для точкових джерел світла (вузли LIGHT).
+ * Глибина зберігається в кубічній текстурі, по одній грані на кожен напрямок (±X, ±Y, ±Z).
+ *
+ * Основні функції:
+ * - Кожна грань рендериться окремо зі своєю перспективною матрицею 90°,
+ *   об'єкти поза пірамідою видимості грані відкидаються (isCasterVisible).
+ * - Грані оновлюються ліниво: перемальовуються лише ті, в піраміду яких потрапили
+ *   рухомі, нові або видалені об'єкти та об'єкти, що змінили рівень деталізації.
+ *   Рух світла оновлює всі грані.
+ * - Роздільна здатність грані обмежена бюджетом (setResolutionBudget) та
+ *   максимальним розміром кубічної текстури драйвера.
+ * - У текстуру пишеться лінійна відстань до світла / farPlane (pointShadowShaderProgram).
+ */
+public class PointShadowMap implements IShadowMap {
+    public static final int FACE_COUNT = 6;
+    private static final int MIN_RESOLUTION = 64;
+
+    // Напрямки граней у порядку GL_TEXTURE_CUBE_MAP_POSITIVE_X + i
+    private static final Vector3f[] FACE_DIRECTIONS = {
+            new Vector3f(1, 0, 0), new Vector3f(-1, 0, 0),
+            new Vector3f(0, 1, 0), new Vector3f(0, -1, 0),
+            new Vector3f(0, 0, 1), new Vector3f(0, 0, -1)
+    };
+    private static final Vector3f[] FACE_UPS = {
+            new Vector3f(0, -1, 0), new Vector3f(0, -1, 0),
+            new Vector3f(0, 0, 1), new Vector3f(0, 0, -1),
+            new Vector3f(0, -1, 0), new Vector3f(0, -1, 0)
+    };
+
+    private int depthMapFBO;
+    private int depthCubeMap;
+    private int resolution;
+    private int requestedResolution;
+    private int resolutionBudget;
+    private final int shadowShaderProgram;
+    private final int lightSpaceMatrixLoc;
+    private final int lightPosLoc;
+    private final int farPlaneLoc;
+    // Один буфер на всі грані - bindFaceForShadowPass нічого не виділяє
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+
+    private final Vector3f lightPos = new Vector3f(Float.NaN);
+    private float nearPlane = 0.1f;
+    private float farPlane = 25.0f;
+
+    private final Matrix4f[] faceMatrices = new Matrix4f[FACE_COUNT];
+    private final FrustumIntersection[] faceFrustums = new FrustumIntersection[FACE_COUNT];
+    private final boolean[] faceDirty = new boolean[FACE_COUNT];
+    private int currentFace = 0;
+    private int facesUpdatedLastFrame = 0;
+
+    // Стан об'єктів, що відкидають тінь, з попереднього кадру
+    private final Map<Mesh, CasterState> casters = new HashMap<>();
+    private final Matrix4f casterModel = new Matrix4f();
+
+    private static class CasterState {
+        final Matrix4f model = new Matrix4f();
+        final Vector3f min = new Vector3f();
+        final Vector3f max = new Vector3f();
+        int lodLevel;
+        boolean seen;
+    }
+
+    public PointShadowMap(int shadowShaderProgram, int resolution) {
+        this.shadowShaderProgram = shadowShaderProgram;
+        this.lightSpaceMatrixLoc = glGetUniformLocation(shadowShaderProgram, "lightSpaceMatrix");
+        this.lightPosLoc = glGetUniformLocation(shadowShaderProgram, "lightPos");
+        this.farPlaneLoc = glGetUniformLocation(shadowShaderProgram, "farPlane");
+        this.requestedResolution = resolution;
+        this.resolutionBudget = glGetInteger(GL_MAX_CUBE_MAP_TEXTURE_SIZE);
+
+        for (int i = 0; i < FACE_COUNT; i++) {
+            faceMatrices[i] = new Matrix4f();
+            faceFrustums[i] = new FrustumIntersection();
+        }
+
+        depthMapFBO = glGenFramebuffers();
+        allocateCubeMap(clampResolution(resolution));
+    }
+
+    private int clampResolution(int value) {
+        int maxSize = Math.min(resolutionBudget, glGetInteger(GL_MAX_CUBE_MAP_TEXTURE_SIZE));
+        return Math.max(MIN_RESOLUTION, Math.min(value, maxSize));
+    }
+
+    /**
+     * Створює (або перестворює) кубічну текстуру глибини потрібного розміру
+     */
+    private void allocateCubeMap(int newResolution) {
+        if (depthCubeMap != 0) {
+            glDeleteTextures(depthCubeMap);
+        }
+        resolution = newResolution;
+
+        depthCubeMap = glGenTextures();
+        glBindTexture(GL_TEXTURE_CUBE_MAP, depthCubeMap);
+        for (int i = 0; i < FACE_COUNT; i++) {
+            glTexImage2D(GL_TEXTURE_CUBE_MAP_POSITIVE_X + i, 0, GL_DEPTH_COMPONENT,
+                    resolution, resolution, 0, GL_DEPTH_COMPONENT, GL_FLOAT, (FloatBuffer) null);
+        }
+        glTexParameteri(GL_TEXTURE_CUBE_MAP, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_CUBE_MAP, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_CUBE_MAP, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_CUBE_MAP, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_CUBE_MAP, GL_TEXTURE_WRAP_R, GL_CLAMP_TO_EDGE);
+        glBindTexture(GL_TEXTURE_CUBE_MAP, 0);
+
+        // Вміст нової текстури невизначений - перемальовуємо всі грані
+        markAllFacesDirty();
+    }
+
+    @Override
+    public void updateLightSpaceMatrix(Vector3f lightPos, Vector3f lightTarget, float near, float far) {
+        // Для точкового світла ціль не використовується - дивимося в усі шість боків
+        if (this.lightPos.equals(lightPos) && nearPlane == near && farPlane == far) {
+            return;
+        }
+        this.lightPos.set(lightPos);
+        this.nearPlane = near;
+        this.farPlane = far;
+
+        Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(90.0), 1.0f, near, far);
+        Vector3f target = new Vector3f();
+        for (int i = 0; i < FACE_COUNT; i++) {
+            lightPos.add(FACE_DIRECTIONS[i], target);
+            projection.mul(new Matrix4f().lookAt(lightPos, target, FACE_UPS[i]), faceMatrices[i]);
+            faceFrustums[i].set(faceMatrices[i]);
+        }
+
+        markAllFacesDirty();
+    }
+
+    @Override
+    public void prepareCasters(RenderSnapshot snapshot) {
+        for (CasterState state : casters.values()) {
+            state.seen = false;
+        }
+
+        for (int i = 0; i < snapshot.getMeshCount(); i++) {
+            // Прихований об'єкт - як видалений: грані, де була його тінь, оновлюються
+            if ((snapshot.getFlags(i) & RenderSnapshot.FLAG_SHADOW_CASTER) != 0 && snapshot.isVisible(i)) {
+                updateCaster(snapshot.getMesh(i));
+            }
+        }
+
+        // Видалені об'єкти залишили тінь у гранях, які їх бачили
+        Iterator<CasterState> iterator = casters.values().iterator();
+        while (iterator.hasNext()) {
+            CasterState state = iterator.next();
+            if (!state.seen) {
+                markFacesDirty(state.min, state.max);
+                iterator.remove();
+            }
+        }
+
+        facesUpdatedLastFrame = 0;
+    }
+
+    private void updateCaster(Mesh mesh) {
+        Matrix4f model = mesh.getModelMatrix(casterModel);
+        CasterState state = casters.get(mesh);
+
+        if (state == null) {
+            state = new CasterState();
+            state.model.set(model);
+            state.lodLevel = mesh.getLodLevel();
+            mesh.getWorldBounds(state.min, state.max);
+            casters.put(mesh, state);
+            markFacesDirty(state.min, state.max);
+        } else if (!state.model.equals(model)) {
+            // Об'єкт рухався: оновлюємо грані зі старим і новим положенням
+            markFacesDirty(state.min, state.max);
+            state.model.set(model);
+            mesh.getWorldBounds(state.min, state.max);
+            markFacesDirty(state.min, state.max);
+            state.lodLevel = mesh.getLodLevel();
+        } else if (state.lodLevel != mesh.getLodLevel()) {
+            // Інший рівень деталізації - інший силует тіні в гранях з цим об'єктом
+            state.lodLevel = mesh.getLodLevel();
+            markFacesDirty(state.min, state.max);
+        }
+        state.seen = true;
+    }
+
+    private void markFacesDirty(Vector3f min, Vector3f max) {
+        for (int i = 0; i < FACE_COUNT; i++) {
+            if (!faceDirty[i] && faceFrustums[i].testAab(min, max)) {
+                faceDirty[i] = true;
+            }
+        }
+    }
+
+    public void markAllFacesDirty() {
+        for (int i = 0; i < FACE_COUNT; i++) {
+            faceDirty[i] = true;
+        }
+    }
+
+    @Override
+    public int getFaceCount() {
+        return FACE_COUNT;
+    }
+
+    @Override
+    public boolean bindFaceForShadowPass(int face) {
+        if (!faceDirty[face]) {
+            return false;
+        }
+        faceDirty[face] = false;
+        currentFace = face;
+        facesUpdatedLastFrame++;
+
+        glViewport(0, 0, resolution, resolution);
+        glBindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
+        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT,
+                GL_TEXTURE_CUBE_MAP_POSITIVE_X + face, depthCubeMap, 0);
+        glDrawBuffer(GL_NONE);
+        glReadBuffer(GL_NONE);
+
+        if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE) {
+            System.err.println("Помилка фреймбуфера кубічної тіньової карти (грань " + face + ")");
+        }
+
+        glClear(GL_DEPTH_BUFFER_BIT);
+
+        // Параметри шейдера лінійної глибини
+        glUseProgram(shadowShaderProgram);
+        faceMatrices[face].get(matrixBuffer);
+        glUniformMatrix4fv(lightSpaceMatrixLoc, false, matrixBuffer);
+        RenderStats.uniformUpload();
+        glUniform3f(lightPosLoc, lightPos.x, lightPos.y, lightPos.z);
+        RenderStats.uniformUpload();
+        glUniform1f(farPlaneLoc, farPlane);
+        RenderStats.uniformUpload();
+        return true;
+    }
+
+    @Override
+    public void bindForShadowPass() {
+        // Повне оновлення всіх граней при явному виклику
+        markAllFacesDirty();
+        bindFaceForShadowPass(0);
+    }
+
+    @Override
+    public Matrix4f getFaceLightSpaceMatrix(int face) {
+        return new Matrix4f(faceMatrices[face]);
+    }
+
+    @Override
+    public boolean isCasterVisible(int face, Vector3f worldMin, Vector3f worldMax) {
+        return faceFrustums[face].testAab(worldMin, worldMax);
+    }
+
+    @Override
+    public void unbind(int width, int height) {
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        glViewport(0, 0, width, height);
+    }
+
+    @Override
+    public void bindDepthMapForReading(int textureUnit) {
+        glActiveTexture(GL_TEXTURE0 + textureUnit);
+        glBindTexture(GL_TEXTURE_CUBE_MAP, depthCubeMap);
+    }
+
+    @Override
+    public Matrix4f getLightSpaceMatrix() {
+        return new Matrix4f(faceMatrices[currentFace]);
+    }
+
+    @Override
+    public boolean isOmnidirectional() {
+        return true;
+    }
+
+    @Override
+    public float getFarPlane() {
+        return farPlane;
+    }
+
+    // Бажана роздільна здатність грані (обмежується бюджетом)
+    public void setResolution(int newResolution) {
+        requestedResolution = newResolution;
+        int clamped = clampResolution(newResolution);
+        if (clamped != resolution) {
+            allocateCubeMap(clamped);
+        }
+    }
+
+    // Максимальна роздільна здатність грані, яку дозволено виділити
+    public void setResolutionBudget(int maxResolution) {
+        resolutionBudget = Math.max(MIN_RESOLUTION, maxResolution);
+        setResolution(requestedResolution);
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    public int getResolutionBudget() {
+        return resolutionBudget;
+    }
+
+    // Обсяг відеопам'яті кубічної карти (6 граней по 4 байти на тексель)
+    public long getMemoryBytes() {
+        return (long) FACE_COUNT * resolution * resolution * Float.BYTES;
+    }
+
+    public int getFacesUpdatedLastFrame() {
+        return facesUpdatedLastFrame;
+    }
+
+    @Override
+    public void cleanup() {
+        glDeleteFramebuffers(depthMapFBO);
+        glDeleteTextures(depthCubeMap);
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.Render.Shadow;
+
+/**
+ * Квадродерево для виділення квадратних тайлів (розмір - степінь двійки) всередині атласу.
+ * Вузол або вільний, або зайнятий тайлом, або поділений на чотири дочірні квадранти.
+ * При звільненні тайла вільні сусіди зливаються назад у батьківський вузол.
+ */
+public class QuadTreeAllocator {
+    private final int size;
+    private final int minTileSize;
+    private QuadNode root;
+    private int usedArea;
+
+    // Виділений тайл у пікселях атласу
+    public static class Region {
+        public final int x;
+        public final int y;
+        public final int size;
+        private final QuadNode node;
+
+        private Region(QuadNode node) {
+            this.x = node.x;
+            this.y = node.y;
+            this.size = node.size;
+            this.node = node;
+        }
+    }
+
+    private static class QuadNode {
+        final int x, y, size;
+        final QuadNode parent;
+        QuadNode[] children;
+        boolean used;
+
+        QuadNode(int x, int y, int size, QuadNode parent) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+            this.parent = parent;
+        }
+
+        boolean isFree() {
+            return !used && children == null;
+        }
+    }
+
+    public QuadTreeAllocator(int size, int minTileSize) {
+        if (Integer.bitCount(size) != 1 || Integer.bitCount(minTileSize) != 1 || minTileSize > size) {
+            throw new IllegalArgumentException("Розміри атласу та тайла мають бути степенями двійки: " + size + ", " + minTileSize);
+        }
+        this.size = size;
+        this.minTileSize = minTileSize;
+        reset();
+    }
+
+    // Звільняє весь атлас
+    public void reset() {
+        root = new QuadNode(0, 0, size, null);
+        usedArea = 0;
+    }
+
+    /**
+     * Виділяє тайл заданого розміру (округлюється вгору до степеня двійки)
+     *
+     * @return тайл або null, якщо вільного місця немає
+     */
+    public Region allocate(int tileSize) {
+        int requested = Math.max(minTileSize, roundUpToPowerOfTwo(tileSize));
+        if (requested > size) {
+            return null;
+        }
+        QuadNode node = find(root, requested);
+        if (node == null) {
+            return null;
+        }
+        node.used = true;
+        usedArea += node.size * node.size;
+        return new Region(node);
+    }
+
+    private QuadNode find(QuadNode node, int tileSize) {
+        if (node.used || node.size < tileSize) {
+            return null;
+        }
+        if (node.children == null) {
+            if (node.size == tileSize) {
+                return node;
+            }
+            split(node);
+        }
+        for (QuadNode child : node.children) {
+            QuadNode found = find(child, tileSize);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private void split(QuadNode node) {
+        int half = node.size / 2;
+        node.children = new QuadNode[]{
+                new QuadNode(node.x, node.y, half, node),
+                new QuadNode(node.x + half, node.y, half, node),
+                new QuadNode(node.x, node.y + half, half, node),
+                new QuadNode(node.x + half, node.y + half, half, node)
+        };
+    }
+
+    // Повертає тайл в атлас і зливає вільні квадранти
+    public void free(Region region) {
+        QuadNode node = region.node;
+        if (!node.used) {
+            return;
+        }
+        node.used = false;
+        usedArea -= node.size * node.size;
+
+        QuadNode parent = node.parent;
+        while (parent != null && allChildrenFree(parent)) {
+            parent.children = null;
+            parent = parent.parent;
+        }
+    }
+
+    private boolean allChildrenFree(QuadNode node) {
+        for (QuadNode child : node.children) {
+            if (!child.isFree()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(Math.max(1, value));
+        return highest == value ? value : highest << 1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMinTileSize() {
+        return minTileSize;
+    }
+
+    // Частка зайнятої площі атласу (0..1)
+    public float getOccupancy() {
+        return (float) usedArea / ((float) size * size);
+    }
+}
@@ -0,0 +1,288 @@
+package org.example.Render.Shadow;
+
+import org.example.Profiler.RenderStats;
+import org.example.Simulation.RenderSnapshot;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Тіньовий атлас: одна велика текстура глибини, поділена на тайли для кількох джерел світла.
+ * Замість окремого фреймбуфера 4096² на кожне світло всі карти живуть в одній текстурі.
+ *
+ * Основні функції:
+ * - Тайли виділяються квадродеревом (QuadTreeAllocator) і перерозподіляються кожен кадр.
+ * - Розмір тайла залежить від важливості світла: частки екрана, яку займає його сфера впливу,
+ *   та відстані до камери. Найважливіші світла отримують тайли першими.
+ * - Якщо місця не вистачає, тайл зменшується аж до мінімального; світло без тайла тіні не має.
+ * - Для кожного світла доступні матриця простору світла та UV-прямокутник тайла (getAtlasRect);
+ *   основний шейдер отримує їх масивами за індексом світла і рахує тінь для кожного світла окремо.
+ */
+public class ShadowAtlas implements IShadowMap {
+    private static final int MIN_TILE_SIZE = 128;
+    // Найбільший тайл - половина атласу по стороні (чверть площі)
+    private static final int MAX_TILE_DIVISOR = 2;
+
+    private final int atlasSize;
+    private final int shadowShaderProgram;
+    private final QuadTreeAllocator allocator;
+
+    private int depthMapFBO;
+    private int depthMap;
+
+    private final Vector3f lightTarget = new Vector3f(0, 0, 0);
+    private float nearPlane = 0.1f;
+    private float farPlane = 25.0f;
+
+    // Тайли поточного кадру в порядку рендерингу (за спаданням важливості)
+    private final List<LightTile> tiles = new ArrayList<>();
+    // Тайли за індексом світла знімка, переданого в assignLights
+    private LightTile[] tilesByLight = new LightTile[0];
+
+    private static class LightTile {
+        int lightIndex;
+        float importance;
+        final Vector3f position = new Vector3f();
+        final Matrix4f lightSpaceMatrix = new Matrix4f();
+        QuadTreeAllocator.Region region;
+    }
+
+    public ShadowAtlas(int shadowShaderProgram, int atlasSize) {
+        this.shadowShaderProgram = shadowShaderProgram;
+        this.atlasSize = atlasSize;
+        this.allocator = new QuadTreeAllocator(atlasSize, MIN_TILE_SIZE);
+        init();
+    }
+
+    private void init() {
+        depthMapFBO = glGenFramebuffers();
+
+        depthMap = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, depthMap);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_DEPTH_COMPONENT,
+                atlasSize, atlasSize, 0, GL_DEPTH_COMPONENT, GL_FLOAT, (FloatBuffer) null);
+
+        // Без GL_LINEAR: білінійна фільтрація змішувала б глибину сусідніх тайлів
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+
+        glBindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
+        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depthMap, 0);
+        glDrawBuffer(GL_NONE);
+        glReadBuffer(GL_NONE);
+
+        if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE) {
+            System.err.println("Помилка при створенні фреймбуфера тіньового атласу");
+        }
+
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+    }
+
+    @Override
+    public void updateLightSpaceMatrix(Vector3f lightPos, Vector3f lightTarget, float near, float far) {
+        this.lightTarget.set(lightTarget);
+        this.nearPlane = near;
+        this.farPlane = far;
+
+        // Без списку світел атлас працює як звичайна карта для одного світла
+        if (tilesByLight.length == 0) {
+            assignTiles(List.of(lightPos), new float[]{1.0f});
+        }
+        for (LightTile tile : tiles) {
+            calculateLightSpaceMatrix(tile);
+        }
+    }
+
+    @Override
+    public void assignLights(RenderSnapshot snapshot, int lightCount, Vector3f cameraPosition,
+                             Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        List<Vector3f> positions = new ArrayList<>(lightCount);
+        float[] importance = new float[lightCount];
+
+        Matrix4f viewProjection = new Matrix4f(projectionMatrix).mul(viewMatrix);
+        // Масштаб проекції по вертикалі: радіус у NDC = r * m11 / відстань
+        float projectionScale = Math.abs(projectionMatrix.m11());
+
+        for (int i = 0; i < lightCount; i++) {
+            Vector3f position = snapshot.getLightPosition(i, new Vector3f());
+            positions.add(position);
+            importance[i] = calculateImportance(position, snapshot.getLightIntensity(i),
+                    cameraPosition, viewProjection, projectionScale);
+        }
+
+        assignTiles(positions, importance);
+    }
+
+    /**
+     * Важливість світла: частка екрана, яку покриває сфера його впливу (радіус = farPlane),
+     * помножена на інтенсивність. Світла поза пірамідою камери отримують мінімальну вагу,
+     * бо їхні тіні все ще можуть падати у видиму частину сцени.
+     */
+    private float calculateImportance(Vector3f lightPos, float intensity, Vector3f cameraPosition,
+                                      Matrix4f viewProjection, float projectionScale) {
+        float distance = lightPos.distance(cameraPosition);
+        float coverage = distance <= farPlane ? 1.0f : Math.min(1.0f, farPlane * projectionScale / distance);
+
+        if (!viewProjection.testSphere(lightPos.x, lightPos.y, lightPos.z, farPlane)) {
+            coverage *= 0.1f;
+        }
+        return coverage * Math.max(intensity, 0.0f);
+    }
+
+    // Перерозподіл тайлів: найважливіші світла першими, розмір падає, поки не знайдеться місце
+    private void assignTiles(List<Vector3f> positions, float[] importance) {
+        allocator.reset();
+        tiles.clear();
+        tilesByLight = new LightTile[positions.size()];
+
+        List<LightTile> candidates = new ArrayList<>(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            LightTile tile = new LightTile();
+            tile.lightIndex = i;
+            tile.importance = importance[i];
+            tile.position.set(positions.get(i));
+            candidates.add(tile);
+        }
+        candidates.sort(Comparator.comparingDouble((LightTile tile) -> tile.importance).reversed());
+
+        int maxTileSize = atlasSize / MAX_TILE_DIVISOR;
+        for (LightTile tile : candidates) {
+            int tileSize = desiredTileSize(tile.importance, maxTileSize);
+            while (tileSize >= MIN_TILE_SIZE && tile.region == null) {
+                tile.region = allocator.allocate(tileSize);
+                tileSize /= 2;
+            }
+            if (tile.region == null) {
+                continue;
+            }
+            calculateLightSpaceMatrix(tile);
+            tiles.add(tile);
+            tilesByLight[tile.lightIndex] = tile;
+        }
+    }
+
+    // Кожне подвоєння важливості подвоює сторону тайла
+    private int desiredTileSize(float importance, int maxTileSize) {
+        if (importance <= 0.0f) {
+            return MIN_TILE_SIZE;
+        }
+        int level = (int) Math.floor(-Math.log(Math.min(importance, 1.0f)) / Math.log(2.0));
+        return Math.max(MIN_TILE_SIZE, maxTileSize >> Math.min(level, 30));
+    }
+
+    private void calculateLightSpaceMatrix(LightTile tile) {
+        // Та сама ортографічна проекція, що й у ShadowMap
+        Matrix4f lightProjection = new Matrix4f().ortho(-15.0f, 15.0f, -15.0f, 15.0f, nearPlane, farPlane);
+        Matrix4f lightView = new Matrix4f().lookAt(tile.position, lightTarget, new Vector3f(0.0f, 1.0f, 0.0f));
+        lightProjection.mul(lightView, tile.lightSpaceMatrix);
+    }
+
+    @Override
+    public int getFaceCount() {
+        return tiles.size();
+    }
+
+    @Override
+    public boolean bindFaceForShadowPass(int face) {
+        QuadTreeAllocator.Region region = tiles.get(face).region;
+
+        glBindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
+        glViewport(region.x, region.y, region.size, region.size);
+
+        // Очищаємо лише свій тайл
+        glEnable(GL_SCISSOR_TEST);
+        glScissor(region.x, region.y, region.size, region.size);
+        glClear(GL_DEPTH_BUFFER_BIT);
+
+        glUseProgram(shadowShaderProgram);
+        int lightSpaceMatrixLoc = glGetUniformLocation(shadowShaderProgram, "lightSpaceMatrix");
+        FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+        tiles.get(face).lightSpaceMatrix.get(matrixBuffer);
+        glUniformMatrix4fv(lightSpaceMatrixLoc, false, matrixBuffer);
+        RenderStats.uniformUpload();
+        return true;
+    }
+
+    @Override
+    public void bindForShadowPass() {
+        if (!tiles.isEmpty()) {
+            bindFaceForShadowPass(0);
+        }
+    }
+
+    @Override
+    public Matrix4f getFaceLightSpaceMatrix(int face) {
+        return new Matrix4f(tiles.get(face).lightSpaceMatrix);
+    }
+
+    @Override
+    public void unbind(int width, int height) {
+        glDisable(GL_SCISSOR_TEST);
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        glViewport(0, 0, width, height);
+    }
+
+    @Override
+    public void bindDepthMapForReading(int textureUnit) {
+        glActiveTexture(GL_TEXTURE0 + textureUnit);
+        glBindTexture(GL_TEXTURE_2D, depthMap);
+    }
+
+    // Матриця простору першого світла
+    @Override
+    public Matrix4f getLightSpaceMatrix() {
+        return getLightSpaceMatrix(0);
+    }
+
+    @Override
+    public Matrix4f getLightSpaceMatrix(int lightIndex) {
+        if (lightIndex >= tilesByLight.length || tilesByLight[lightIndex] == null) {
+            return new Matrix4f();
+        }
+        return new Matrix4f(tilesByLight[lightIndex].lightSpaceMatrix);
+    }
+
+    // UV-прямокутник тайла світла: (зміщення x, зміщення y, ширина, висота); від'ємна ширина - тіні немає
+    @Override
+    public Vector4f getAtlasRect(int lightIndex) {
+        if (lightIndex >= tilesByLight.length || tilesByLight[lightIndex] == null) {
+            return new Vector4f(0, 0, -1, -1);
+        }
+        QuadTreeAllocator.Region region = tilesByLight[lightIndex].region;
+        float scale = 1.0f / atlasSize;
+        return new Vector4f(region.x * scale, region.y * scale, region.size * scale, region.size * scale);
+    }
+
+    public int getAtlasSize() {
+        return atlasSize;
+    }
+
+    public int getShadowedLightCount() {
+        return tiles.size();
+    }
+
+    public float getOccupancy() {
+        return allocator.getOccupancy();
+    }
+
+    @Override
+    public float getFarPlane() {
+        return farPlane;
+    }
+
+    @Override
+    public void cleanup() {
+        glDeleteFramebuffers(depthMapFBO);
+        glDeleteTextures(depthMap);
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.Render.Shadow;
 
+import org.example.Profiler.RenderStats;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
@@ -112,6 +113,7 @@ public class ShadowMap implements IShadowMap {
         FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
         lightSpaceMatrix.get(matrixBuffer);
         glUniformMatrix4fv(lightSpaceMatrixLoc, false, matrixBuffer);
+        RenderStats.uniformUpload();
     }
 
     @Override
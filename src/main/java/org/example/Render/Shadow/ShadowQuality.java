@@ -0,0 +1,18 @@
+package org.example.Render.Shadow;
+
+// Спосіб фільтрації тіньової карти у фрагментному шейдері (значення shaderId - uniform shadowQuality)
+public enum ShadowQuality {
+    MANUAL_PCF(0),   // 9 ручних вибірок 3x3 з порівнянням у шейдері (попередня поведінка)
+    POISSON_PCF(1),  // N ручних вибірок за диском Пуассона
+    HARDWARE_PCF(2); // N вибірок через sampler2DShadow: кожна - апаратне порівняння 2x2 з білінійною вагою
+
+    private final int shaderId;
+
+    ShadowQuality(int shaderId) {
+        this.shaderId = shaderId;
+    }
+
+    public int getShaderId() {
+        return shaderId;
+    }
+}
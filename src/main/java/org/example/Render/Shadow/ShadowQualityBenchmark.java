@@ -0,0 +1,166 @@
+package org.example.Render.Shadow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Порівняння режимів фільтрації тіней за часом GPU основного проходу.
+ *
+ * Бенчмарк - скінченний автомат, яким кадр за кадром керує Core:
+ * - `beginFrame()` виставляє поточну конфігурацію в ShadowSettings;
+ * - `addSample(ms)` приймає час основного проходу з GpuTimer.
+ * Перші WARMUP_FRAMES результатів кожної конфігурації відкидаються: запити часу
+ * запізнюються на кілька кадрів і ще належать попередній конфігурації.
+ * Після останньої конфігурації початкові налаштування повертаються, а звіт друкується в консоль.
+ */
+public class ShadowQualityBenchmark {
+    private static final int WARMUP_FRAMES = 10;
+    private static final int SAMPLE_FRAMES = 120;
+
+    public static class Result {
+        private final String label;
+        private final double averageMillis;
+        private final double medianMillis;
+        private final double minMillis;
+
+        private Result(String label, List<Double> samples) {
+            List<Double> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            double sum = 0.0;
+            for (double sample : sorted) {
+                sum += sample;
+            }
+            this.label = label;
+            this.averageMillis = sorted.isEmpty() ? 0.0 : sum / sorted.size();
+            this.medianMillis = sorted.isEmpty() ? 0.0 : sorted.get(sorted.size() / 2);
+            this.minMillis = sorted.isEmpty() ? 0.0 : sorted.get(0);
+        }
+
+        public String getLabel() { return label; }
+        public double getAverageMillis() { return averageMillis; }
+        public double getMedianMillis() { return medianMillis; }
+        public double getMinMillis() { return minMillis; }
+    }
+
+    private static class Config {
+        final ShadowQuality quality;
+        final int taps;
+        final boolean earlyOut;
+
+        Config(ShadowQuality quality, int taps, boolean earlyOut) {
+            this.quality = quality;
+            this.taps = taps;
+            this.earlyOut = earlyOut;
+        }
+
+        String label() {
+            String tapsLabel = quality == ShadowQuality.MANUAL_PCF ? "9" : String.valueOf(taps);
+            return quality + " x" + tapsLabel + (earlyOut ? " early-out" : "");
+        }
+    }
+
+    private final ShadowSettings settings;
+    private final List<Config> configs = new ArrayList<>();
+    private final List<Result> results = new ArrayList<>();
+    private final List<Double> samples = new ArrayList<>();
+
+    private boolean running = false;
+    private int configIndex;
+    private int framesInConfig;
+
+    // Налаштування до запуску, повертаються після завершення
+    private ShadowQuality savedQuality;
+    private int savedTaps;
+    private boolean savedEarlyOut;
+
+    public ShadowQualityBenchmark(ShadowSettings settings) {
+        this.settings = settings;
+
+        configs.add(new Config(ShadowQuality.MANUAL_PCF, 9, false));
+        configs.add(new Config(ShadowQuality.MANUAL_PCF, 9, true));
+        for (int taps : new int[]{4, 8, 16}) {
+            configs.add(new Config(ShadowQuality.POISSON_PCF, taps, true));
+        }
+        for (int taps : new int[]{1, 4, 8, 16}) {
+            configs.add(new Config(ShadowQuality.HARDWARE_PCF, taps, true));
+        }
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        savedQuality = settings.getQuality();
+        savedTaps = settings.getPcfTaps();
+        savedEarlyOut = settings.isEarlyOut();
+
+        results.clear();
+        samples.clear();
+        configIndex = 0;
+        framesInConfig = 0;
+        running = true;
+    }
+
+    // Викликається на початку кадру, до рендерингу основного проходу
+    public void beginFrame() {
+        if (!running) {
+            return;
+        }
+        Config config = configs.get(configIndex);
+        settings.setQuality(config.quality);
+        settings.setPcfTaps(config.taps);
+        settings.setEarlyOut(config.earlyOut);
+    }
+
+    // Час основного проходу (мс) для поточної конфігурації
+    public void addSample(double gpuMillis) {
+        if (!running) {
+            return;
+        }
+        framesInConfig++;
+        if (framesInConfig <= WARMUP_FRAMES) {
+            return;
+        }
+        samples.add(gpuMillis);
+
+        if (samples.size() >= SAMPLE_FRAMES) {
+            results.add(new Result(configs.get(configIndex).label(), samples));
+            samples.clear();
+            framesInConfig = 0;
+            configIndex++;
+
+            if (configIndex >= configs.size()) {
+                finish();
+            }
+        }
+    }
+
+    private void finish() {
+        running = false;
+        settings.setQuality(savedQuality);
+        settings.setPcfTaps(savedTaps);
+        settings.setEarlyOut(savedEarlyOut);
+
+        System.out.println("Бенчмарк якості тіней (час GPU основного проходу, мс):");
+        for (Result result : results) {
+            System.out.printf("  %-28s avg %.3f  median %.3f  min %.3f%n",
+                    result.getLabel(), result.getAverageMillis(), result.getMedianMillis(), result.getMinMillis());
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Прогрес від 0 до 1
+    public float getProgress() {
+        int framesPerConfig = WARMUP_FRAMES + SAMPLE_FRAMES;
+        int done = configIndex * framesPerConfig + framesInConfig;
+        return Math.min(1.0f, (float) done / (configs.size() * framesPerConfig));
+    }
+
+    public List<Result> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+}
@@ -1,12 +1,20 @@
 package org.example.Render.Shadow;
 
 import org.example.Mesh;
+import org.example.Profiler.RenderStats;
 import org.example.Render.RenderStrategy;
 import org.joml.Matrix4f;
 
 import static org.lwjgl.opengl.GL30.*;
 
 public class ShadowRenderStrategy implements RenderStrategy {
+    // Розташування uniform-ів останньої програми - тіньова програма між викликами зазвичай та сама
+    private int cachedProgram = 0;
+    private int lightSpaceMatrixLoc = -1;
+    private int modelLoc = -1;
+    private final Matrix4f drawMatrix = new Matrix4f();
+    private final float[] lightSpaceMatrixData = new float[16];
+    private final float[] modelData = new float[16];
 
     @Override
     public void render(Mesh mesh, int shaderProgram, Matrix4f viewMatrix, Matrix4f projectionMatrix, Matrix4f lightSpaceMatrix) {
@@ -14,19 +22,27 @@ public class ShadowRenderStrategy implements RenderStrategy {
         glBindVertexArray(mesh.getVaoID());
 
         // Передаємо матриці в шейдер тіней
-        int lightSpaceMatrixLoc = glGetUniformLocation(shaderProgram, "lightSpaceMatrix");
-        int modelLoc = glGetUniformLocation(shaderProgram, "model");
+        if (shaderProgram != cachedProgram) {
+            cachedProgram = shaderProgram;
+            lightSpaceMatrixLoc = glGetUniformLocation(shaderProgram, "lightSpaceMatrix");
+            modelLoc = glGetUniformLocation(shaderProgram, "model");
+        }
 
-        float[] lightSpaceMatrixData = new float[16];
         lightSpaceMatrix.get(lightSpaceMatrixData);
         glUniformMatrix4fv(lightSpaceMatrixLoc, false, lightSpaceMatrixData);
+        RenderStats.uniformUpload();
 
-        float[] modelData = new float[16];
-        mesh.getModelMatrix().get(modelData);
+        mesh.getDrawMatrix(drawMatrix).get(modelData);
         glUniformMatrix4fv(modelLoc, false, modelData);
+        RenderStats.uniformUpload();
 
         // Малюємо
-        glDrawElements(GL_TRIANGLES, mesh.getVertexCount(), GL_UNSIGNED_INT, 0);
+        mesh.draw();
+
+        // Статистика кадру: програма, VAO, виклик малювання
+        RenderStats.programBind();
+        RenderStats.vaoBind();
+        RenderStats.drawCall(mesh.getVertexCount());
 
         glBindVertexArray(0);
         glUseProgram(0);
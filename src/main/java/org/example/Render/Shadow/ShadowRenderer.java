@@ -1,31 +1,44 @@
 package org.example.Render.Shadow;
 
 import org.example.Mesh;
-import org.example.Node;
+import org.example.Profiler.RenderStats;
+import org.example.Simulation.RenderSnapshot;
 import org.joml.Matrix4f;
+import org.joml.Vector3f;
 
 public class ShadowRenderer {
     private IShadowMap shadowMap;
     private int shadowShaderProgram;
+    private final ShadowRenderStrategy shadowStrategy = new ShadowRenderStrategy();
+
+    // Тимчасові вектори для AABB, щоб не створювати їх для кожного меша
+    private final Vector3f worldMin = new Vector3f();
+    private final Vector3f worldMax = new Vector3f();
 
     public ShadowRenderer(IShadowMap shadowMap, int shadowShaderProgram) {
         this.shadowMap = shadowMap;
         this.shadowShaderProgram = shadowShaderProgram;
     }
 
-    public void renderNodeShadows(Node node, Matrix4f lightSpaceMatrix) {
-        ShadowRenderStrategy shadowStrategy = new ShadowRenderStrategy();
-
-        // Рендеримо меші поточного вузла
-        for (Mesh mesh : node.getMeshes()) {
-            shadowStrategy.render(mesh, shadowShaderProgram, null, null, lightSpaceMatrix);
-        }
+    public void renderShadows(RenderSnapshot snapshot, Matrix4f lightSpaceMatrix) {
+        renderShadows(snapshot, lightSpaceMatrix, 0);
+    }
 
-        // Рекурсивно рендеримо дочірні вузли
-        for (Node child : node.getChildren()) {
-            if (child.getNodeType() == Node.NodeType.DEFAULT) {
-                renderNodeShadows(child, lightSpaceMatrix);
+    // Рендеринг у конкретну грань тіньової карти з відсіканням об'єктів поза її пірамідою.
+    // Тінь відкидають лише меші з RenderSnapshot.FLAG_SHADOW_CASTER (вузли DEFAULT, без джерел світла та сітки)
+    public void renderShadows(RenderSnapshot snapshot, Matrix4f lightSpaceMatrix, int face) {
+        for (int i = 0; i < snapshot.getMeshCount(); i++) {
+            if ((snapshot.getFlags(i) & RenderSnapshot.FLAG_SHADOW_CASTER) == 0 || !snapshot.isVisible(i)) {
+                continue;
+            }
+            Mesh mesh = snapshot.getMesh(i);
+            mesh.getWorldBounds(worldMin, worldMax);
+            if (!shadowMap.isCasterVisible(face, worldMin, worldMax)) {
+                RenderStats.culledShadowCaster();
+                continue;
             }
+            RenderStats.shadowCaster();
+            shadowStrategy.render(mesh, shadowShaderProgram, null, null, lightSpaceMatrix);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package org.example.Render.Shadow;
+
+import org.example.Profiler.RenderStats;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Налаштування якості тіней для основного шейдера.
+ *
+ * Основні функції:
+ * - Вибір фільтрації (ShadowQuality) та кількості вибірок для PCF за диском Пуассона.
+ * - Раннє завершення для фрагментів поза пірамідою світла (без жодної вибірки з карти).
+ * - Власний об'єкт семплера з GL_TEXTURE_COMPARE_MODE: та сама текстура глибини прив'язується
+ *   ще й до блоку COMPARE_TEXTURE_UNIT, де шейдер читає її як sampler2DShadow.
+ *   Параметри самої текстури не змінюються, тож ручні режими працюють як раніше.
+ */
+public class ShadowSettings {
+    // Блок для sampler2DShadow; 0 - diffuseMap, 1 - shadowMap, 2 - pointShadowMap
+    public static final int COMPARE_TEXTURE_UNIT = 3;
+    // Розмір масиву poissonDisk у fragment_shader.glsl
+    public static final int MAX_PCF_TAPS = 16;
+
+    private ShadowQuality quality = ShadowQuality.MANUAL_PCF;
+    private int pcfTaps = 8;
+    private boolean earlyOut = true;
+
+    private int compareSampler;
+
+    public ShadowSettings() {
+        compareSampler = glGenSamplers();
+        // LINEAR з увімкненим порівнянням - апаратне зважування чотирьох результатів порівняння
+        glSamplerParameteri(compareSampler, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glSamplerParameteri(compareSampler, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glSamplerParameteri(compareSampler, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_BORDER);
+        glSamplerParameteri(compareSampler, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_BORDER);
+        glSamplerParameterfv(compareSampler, GL_TEXTURE_BORDER_COLOR, new float[]{1.0f, 1.0f, 1.0f, 1.0f});
+        glSamplerParameteri(compareSampler, GL_TEXTURE_COMPARE_MODE, GL_COMPARE_REF_TO_TEXTURE);
+        glSamplerParameteri(compareSampler, GL_TEXTURE_COMPARE_FUNC, GL_LEQUAL);
+    }
+
+    // Прив'язує текстуру глибини до блоку порівняння (викликається після bindDepthMapForReading)
+    public void bindCompareSampler(IShadowMap shadowMap) {
+        shadowMap.bindDepthMapForReading(COMPARE_TEXTURE_UNIT);
+        glBindSampler(COMPARE_TEXTURE_UNIT, compareSampler);
+    }
+
+    public void unbindCompareSampler() {
+        glBindSampler(COMPARE_TEXTURE_UNIT, 0);
+    }
+
+    // Передає налаштування в шейдерну програму
+    public void apply(int shaderProgram) {
+        glUniform1i(glGetUniformLocation(shaderProgram, "shadowQuality"), quality.getShaderId());
+        RenderStats.uniformUpload();
+        glUniform1i(glGetUniformLocation(shaderProgram, "shadowPcfTaps"), pcfTaps);
+        RenderStats.uniformUpload();
+        glUniform1i(glGetUniformLocation(shaderProgram, "shadowEarlyOut"), earlyOut ? 1 : 0);
+        RenderStats.uniformUpload();
+    }
+
+    public ShadowQuality getQuality() {
+        return quality;
+    }
+
+    public void setQuality(ShadowQuality quality) {
+        this.quality = quality;
+    }
+
+    public int getPcfTaps() {
+        return pcfTaps;
+    }
+
+    public void setPcfTaps(int pcfTaps) {
+        this.pcfTaps = Math.max(1, Math.min(MAX_PCF_TAPS, pcfTaps));
+    }
+
+    public boolean isEarlyOut() {
+        return earlyOut;
+    }
+
+    public void setEarlyOut(boolean earlyOut) {
+        this.earlyOut = earlyOut;
+    }
+
+    public void cleanup() {
+        glDeleteSamplers(compareSampler);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.Render.Shadow;
+
+// Спосіб побудови тіней від джерела світла
+public enum ShadowTechnique {
+    DIRECTIONAL, // Одна ортографічна карта (ShadowMap)
+    POINT,       // Кубічна карта для точкового світла (PointShadowMap)
+    ATLAS;       // Спільний атлас для кількох світел (ShadowAtlas)
+
+    public static ShadowTechnique parse(String name) {
+        for (ShadowTechnique technique : values()) {
+            if (technique.name().equalsIgnoreCase(name)) {
+                return technique;
+            }
+        }
+        throw new IllegalArgumentException("Невідомий спосіб побудови тіней: " + name);
+    }
+}
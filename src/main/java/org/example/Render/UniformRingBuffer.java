@@ -0,0 +1,311 @@
+package org.example.Render;
+
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.ARBBufferStorage;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.lwjgl.opengl.GL32.*;
+
+/**
+ * Кільцевий uniform-буфер для даних окремих викликів малювання (блок `DrawBlock` основного вершинного шейдера).
+ *
+ * Основні функції:
+ * - Один великий UBO з FRAME_REGIONS областями - по одній на кадр. Матриці виклику (MVP, модельна,
+ *   нормалей; std140, DRAW_BYTES) пишуться в область поточного кадру підряд, з кроком, вирівняним
+ *   до GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT, і прив'язуються через glBindBufferRange зі зміщенням -
+ *   один виклик замість трьох glUniformMatrix4fv.
+ * - З ARB_buffer_storage (або OpenGL 4.4) буфер відображається постійно (persistent + coherent) і
+ *   записується напряму. Без нього дані збираються в пам'яті CPU і `flush()` копіює їх у
+ *   glMapBufferRange з GL_MAP_UNSYNCHRONIZED_BIT - драйвер не чекає на GPU.
+ * - Наприкінці кадру в області ставиться glFenceSync; перед повторним записом у ту саму область
+ *   (через FRAME_REGIONS кадрів) `beginFrame()` чекає на неї - GPU вже прочитав старі дані.
+ * - Якщо область переповнилась, решта викликів кадру йде в окремий буфер (glBufferData щоразу заново),
+ *   а на наступному кадрі кільце збільшується вдвічі.
+ *
+ * Усі методи викликаються з потоку з контекстом OpenGL.
+ */
+public class UniformRingBuffer {
+    public static final int BINDING = 1;
+    public static final int FRAME_REGIONS = 3;
+    // mat4 mvp, mat4 model, mat4 normalMatrix (std140)
+    public static final int DRAW_BYTES = 3 * 64;
+    private static final int INITIAL_SLOTS = 4096;
+    // Крок очікування паркану: між спробами команди відправляються на GPU
+    private static final long FENCE_WAIT_NANOS = 1_000_000L;
+
+    private static int bufferId = 0;
+    private static int overflowBufferId = 0;
+    private static boolean persistent = false;
+    // Постійне відображення всього буфера або копія області поточного кадру в пам'яті CPU
+    private static ByteBuffer mapped;
+    private static ByteBuffer staging;
+    private static ByteBuffer overflowStaging;
+    private static int slotBytes = DRAW_BYTES;
+    private static int slotsPerRegion = INITIAL_SLOTS;
+    private static final long[] fences = new long[FRAME_REGIONS];
+    private static final Set<Integer> programs = new HashSet<>();
+
+    private static int region = 0;
+    private static int cursor = 0;
+    private static int flushedSlots = 0;
+    private static int overflowCount = 0;
+    private static int overflowFlushed = 0;
+    private static boolean overflowed = false;
+    private static long boundOffset = Long.MIN_VALUE;
+
+    private static int drawsLastFrame = 0;
+    private static int overflowDrawsLastFrame = 0;
+    private static double fenceWaitMillisLastFrame = 0.0;
+    private static long fenceStalls = 0;
+
+    public static void init() {
+        GLCapabilities caps = GL.getCapabilities();
+        persistent = caps.OpenGL44 || caps.GL_ARB_buffer_storage;
+        int alignment = Math.max(1, glGetInteger(GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT));
+        slotBytes = (DRAW_BYTES + alignment - 1) / alignment * alignment;
+        slotsPerRegion = INITIAL_SLOTS;
+        overflowBufferId = glGenBuffers();
+        overflowStaging = BufferUtils.createByteBuffer(64 * slotBytes);
+        create();
+    }
+
+    private static void create() {
+        long size = (long) FRAME_REGIONS * regionBytes();
+        bufferId = glGenBuffers();
+        glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+        if (persistent) {
+            int flags = GL_MAP_WRITE_BIT | ARBBufferStorage.GL_MAP_PERSISTENT_BIT | ARBBufferStorage.GL_MAP_COHERENT_BIT;
+            ARBBufferStorage.glBufferStorage(GL_UNIFORM_BUFFER, size, flags);
+            mapped = glMapBufferRange(GL_UNIFORM_BUFFER, 0, size, flags);
+            if (mapped == null) {
+                // Незмінний розмір сховища вже задано - створюємо буфер заново без постійного відображення
+                System.err.println("Не вдалося постійно відобразити uniform-буфер, використовується GL_MAP_UNSYNCHRONIZED_BIT");
+                glBindBuffer(GL_UNIFORM_BUFFER, 0);
+                glDeleteBuffers(bufferId);
+                persistent = false;
+                create();
+                return;
+            }
+        } else {
+            glBufferData(GL_UNIFORM_BUFFER, size, GL_STREAM_DRAW);
+            staging = BufferUtils.createByteBuffer(regionBytes());
+        }
+        glBindBuffer(GL_UNIFORM_BUFFER, 0);
+    }
+
+    private static int regionBytes() {
+        return slotsPerRegion * slotBytes;
+    }
+
+    public static boolean isPersistent() {
+        return persistent;
+    }
+
+    // Прив'язка блоку DrawBlock програми до BINDING - один раз на програму
+    public static void setupProgram(int shaderProgram) {
+        if (programs.add(shaderProgram)) {
+            int blockIndex = glGetUniformBlockIndex(shaderProgram, "DrawBlock");
+            if (blockIndex != GL_INVALID_INDEX) {
+                glUniformBlockBinding(shaderProgram, blockIndex, BINDING);
+            }
+        }
+    }
+
+    /**
+     * Перейти до області наступного кадру, дочекавшись, поки GPU дочитає її попередній вміст
+     */
+    public static void beginFrame() {
+        if (bufferId == 0) {
+            return;
+        }
+        drawsLastFrame = cursor + overflowCount;
+        overflowDrawsLastFrame = overflowCount;
+        if (overflowed) {
+            grow(cursor + overflowCount);
+        }
+        region = (region + 1) % FRAME_REGIONS;
+        fenceWaitMillisLastFrame = waitFence(region);
+        cursor = 0;
+        flushedSlots = 0;
+        overflowCount = 0;
+        overflowFlushed = 0;
+        overflowed = false;
+        boundOffset = Long.MIN_VALUE;
+    }
+
+    // Паркан після всіх команд кадру - область можна буде перезаписати, коли GPU його пройде
+    public static void endFrame() {
+        if (bufferId == 0) {
+            return;
+        }
+        fences[region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    private static double waitFence(int index) {
+        long fence = fences[index];
+        if (fence == 0) {
+            return 0.0;
+        }
+        long start = System.nanoTime();
+        int result = glClientWaitSync(fence, 0, 0);
+        if (result == GL_TIMEOUT_EXPIRED) {
+            fenceStalls++;
+            do {
+                result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_WAIT_NANOS);
+            } while (result == GL_TIMEOUT_EXPIRED);
+        }
+        if (result == GL_WAIT_FAILED) {
+            System.err.println("Помилка очікування паркану uniform-буфера");
+        }
+        glDeleteSync(fence);
+        fences[index] = 0;
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    // Збільшити кільце, щоб кадр з required викликами вміщався в одну область
+    private static void grow(int required) {
+        for (int i = 0; i < FRAME_REGIONS; i++) {
+            waitFence(i);
+        }
+        if (persistent) {
+            glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+            glUnmapBuffer(GL_UNIFORM_BUFFER);
+            glBindBuffer(GL_UNIFORM_BUFFER, 0);
+            mapped = null;
+        }
+        glDeleteBuffers(bufferId);
+        while (slotsPerRegion < required) {
+            slotsPerRegion *= 2;
+        }
+        create();
+    }
+
+    /**
+     * Записати дані виклику в область поточного кадру. Перед малюванням з цим зміщенням - flush()
+     *
+     * @return зміщення для bind()
+     */
+    public static long write(Matrix4f mvp, Matrix4f model, Matrix4f normalMatrix) {
+        if (cursor < slotsPerRegion) {
+            int slot = cursor++;
+            int regionOffset = region * regionBytes();
+            ByteBuffer target = persistent ? mapped : staging;
+            int position = (persistent ? regionOffset : 0) + slot * slotBytes;
+            mvp.get(position, target);
+            model.get(position + 64, target);
+            normalMatrix.get(position + 128, target);
+            return (long) regionOffset + (long) slot * slotBytes;
+        }
+
+        // Область заповнена - окремий буфер до кінця кадру; від'ємне зміщення позначає його слот
+        overflowed = true;
+        int slot = overflowCount++;
+        if (overflowStaging.capacity() < overflowCount * slotBytes) {
+            ByteBuffer larger = BufferUtils.createByteBuffer(overflowStaging.capacity() * 2);
+            MemoryUtil.memCopy(overflowStaging, larger);
+            overflowStaging = larger;
+        }
+        int position = slot * slotBytes;
+        mvp.get(position, overflowStaging);
+        model.get(position + 64, overflowStaging);
+        normalMatrix.get(position + 128, overflowStaging);
+        return -1L - slot;
+    }
+
+    /**
+     * Зробити записані дані видимими для GPU: без постійного відображення - одне відображення
+     * GL_MAP_UNSYNCHRONIZED_BIT на всі нові слоти
+     */
+    public static void flush() {
+        if (!persistent && cursor > flushedSlots) {
+            long offset = (long) region * regionBytes() + (long) flushedSlots * slotBytes;
+            int length = (cursor - flushedSlots) * slotBytes;
+            glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+            ByteBuffer target = glMapBufferRange(GL_UNIFORM_BUFFER, offset, length,
+                    GL_MAP_WRITE_BIT | GL_MAP_UNSYNCHRONIZED_BIT | GL_MAP_INVALIDATE_RANGE_BIT);
+            if (target != null) {
+                MemoryUtil.memCopy(MemoryUtil.memAddress(staging) + (long) flushedSlots * slotBytes,
+                        MemoryUtil.memAddress(target), length);
+                glUnmapBuffer(GL_UNIFORM_BUFFER);
+            }
+            glBindBuffer(GL_UNIFORM_BUFFER, 0);
+            flushedSlots = cursor;
+        }
+        if (overflowCount > overflowFlushed) {
+            // Нове сховище щоразу: виклики, вже відправлені з попереднім вмістом, його зберігають
+            ByteBuffer data = MemoryUtil.memSlice(overflowStaging, 0, overflowCount * slotBytes);
+            glBindBuffer(GL_UNIFORM_BUFFER, overflowBufferId);
+            glBufferData(GL_UNIFORM_BUFFER, data, GL_STREAM_DRAW);
+            glBindBuffer(GL_UNIFORM_BUFFER, 0);
+            overflowFlushed = overflowCount;
+            boundOffset = Long.MIN_VALUE;
+        }
+    }
+
+    // Прив'язати дані виклику до блоку DrawBlock; повторна прив'язка того самого зміщення пропускається
+    public static void bind(long offset) {
+        if (offset == boundOffset) {
+            return;
+        }
+        if (offset >= 0) {
+            glBindBufferRange(GL_UNIFORM_BUFFER, BINDING, bufferId, offset, DRAW_BYTES);
+        } else {
+            glBindBufferRange(GL_UNIFORM_BUFFER, BINDING, overflowBufferId, (-1L - offset) * slotBytes, DRAW_BYTES);
+        }
+        boundOffset = offset;
+    }
+
+    // Викликів, записаних у попередньому кадрі
+    public static int getDrawsLastFrame() {
+        return drawsLastFrame;
+    }
+
+    public static int getOverflowDrawsLastFrame() {
+        return overflowDrawsLastFrame;
+    }
+
+    // Очікування паркану на початку кадру, мс
+    public static double getFenceWaitMillisLastFrame() {
+        return fenceWaitMillisLastFrame;
+    }
+
+    // Скільки разів GPU ще не дочитав область, коли CPU повернувся до неї
+    public static long getFenceStalls() {
+        return fenceStalls;
+    }
+
+    public static int getRegionBytes() {
+        return regionBytes();
+    }
+
+    public static void cleanup() {
+        if (bufferId == 0) {
+            return;
+        }
+        for (int i = 0; i < FRAME_REGIONS; i++) {
+            if (fences[i] != 0) {
+                glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+        if (persistent) {
+            glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+            glUnmapBuffer(GL_UNIFORM_BUFFER);
+            glBindBuffer(GL_UNIFORM_BUFFER, 0);
+        }
+        glDeleteBuffers(bufferId);
+        glDeleteBuffers(overflowBufferId);
+        bufferId = 0;
+        overflowBufferId = 0;
+        mapped = null;
+        staging = null;
+        programs.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.Render;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Розкладка вершини в буфері GPU. Вхідні дані завжди однакові - 8 float на вершину
+ * (позиція, текстурні координати, нормаль); формат визначає, як вони кодуються при завантаженні.
+ *
+ * Основні функції:
+ * - STANDARD: 32 байти, усі атрибути float.
+ * - COMPACT: 16 байт. Позиція - три 16-бітні цілі відносно центру AABB меша (масштаб і зсув
+ *   переносяться в модельну матрицю через decodeMatrix), текстурні координати - half float,
+ *   нормаль - GL_INT_2_10_10_10_REV. Шейдери лишаються ті самі: GL перетворює атрибути у vec3/vec2.
+ * - `configureAttributes()` налаштовує атрибути 0-2 для прив'язаного GL_ARRAY_BUFFER.
+ */
+public enum VertexFormat {
+    STANDARD(32),
+    COMPACT(16);
+
+    public static final int SOURCE_FLOATS = 8;
+    private static final float POSITION_RANGE = 32767.0f;
+
+    private final int stride;
+
+    VertexFormat(int stride) {
+        this.stride = stride;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public static VertexFormat parse(String name) {
+        for (VertexFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Невідомий формат вершин: " + name);
+    }
+
+    // Атрибути 0 (позиція), 1 (текстурні координати), 2 (нормаль) для поточного GL_ARRAY_BUFFER
+    public void configureAttributes() {
+        if (this == STANDARD) {
+            glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
+            glVertexAttribPointer(1, 2, GL_FLOAT, false, stride, 3 * Float.BYTES);
+            glVertexAttribPointer(2, 3, GL_FLOAT, false, stride, 5 * Float.BYTES);
+        } else {
+            // Позиція не нормалізується: ділення на POSITION_RANGE входить у decodeMatrix
+            glVertexAttribPointer(0, 3, GL_SHORT, false, stride, 0);
+            glVertexAttribPointer(1, 2, GL_HALF_FLOAT, false, stride, 8);
+            glVertexAttribPointer(2, 4, GL_INT_2_10_10_10_REV, true, stride, 12);
+        }
+        glEnableVertexAttribArray(0);
+        glEnableVertexAttribArray(1);
+        glEnableVertexAttribArray(2);
+    }
+
+    /**
+     * Закодувати вершини для завантаження в GPU
+     *
+     * @param vertices вершини по SOURCE_FLOATS float
+     * @param boundsMin AABB меша - діапазон квантування позицій (для COMPACT)
+     */
+    public ByteBuffer encode(float[] vertices, Vector3f boundsMin, Vector3f boundsMax) {
+        int vertexCount = vertices.length / SOURCE_FLOATS;
+        ByteBuffer data = BufferUtils.createByteBuffer(vertexCount * stride);
+        if (this == STANDARD) {
+            data.asFloatBuffer().put(vertices, 0, vertexCount * SOURCE_FLOATS);
+            return data;
+        }
+
+        Vector3f center = new Vector3f(boundsMin).add(boundsMax).mul(0.5f);
+        Vector3f halfExtent = halfExtent(boundsMin, boundsMax);
+        for (int v = 0; v < vertexCount; v++) {
+            int i = v * SOURCE_FLOATS;
+            data.putShort(quantize(vertices[i], center.x, halfExtent.x))
+                    .putShort(quantize(vertices[i + 1], center.y, halfExtent.y))
+                    .putShort(quantize(vertices[i + 2], center.z, halfExtent.z))
+                    .putShort((short) 0);
+            data.putShort(toHalf(vertices[i + 3])).putShort(toHalf(vertices[i + 4]));
+            data.putInt(packNormal(vertices[i + 5], vertices[i + 6], vertices[i + 7]));
+        }
+        data.flip();
+        return data;
+    }
+
+    /**
+     * Матриця, що переводить закодовану позицію в локальні координати меша
+     * (для STANDARD - одинична). Множиться справа на модельну матрицю.
+     */
+    public Matrix4f decodeMatrix(Vector3f boundsMin, Vector3f boundsMax, Matrix4f dest) {
+        dest.identity();
+        if (this == COMPACT) {
+            Vector3f center = new Vector3f(boundsMin).add(boundsMax).mul(0.5f);
+            Vector3f scale = halfExtent(boundsMin, boundsMax).div(POSITION_RANGE);
+            dest.translate(center).scale(scale);
+        }
+        return dest;
+    }
+
+    // Половина розміру AABB; вироджена вісь (плоский меш) отримує одиничний масштаб
+    private static Vector3f halfExtent(Vector3f boundsMin, Vector3f boundsMax) {
+        Vector3f halfExtent = new Vector3f(boundsMax).sub(boundsMin).mul(0.5f);
+        if (halfExtent.x <= 0.0f) halfExtent.x = 1.0f;
+        if (halfExtent.y <= 0.0f) halfExtent.y = 1.0f;
+        if (halfExtent.z <= 0.0f) halfExtent.z = 1.0f;
+        return halfExtent;
+    }
+
+    private static short quantize(float value, float center, float halfExtent) {
+        float normalized = Math.max(-1.0f, Math.min(1.0f, (value - center) / halfExtent));
+        return (short) Math.round(normalized * POSITION_RANGE);
+    }
+
+    // Нормаль у 10 біт на компоненту зі знаком (x - молодші біти), w = 0
+    private static int packNormal(float x, float y, float z) {
+        return packSnorm10(x) | (packSnorm10(y) << 10) | (packSnorm10(z) << 20);
+    }
+
+    private static int packSnorm10(float value) {
+        int packed = Math.round(Math.max(-1.0f, Math.min(1.0f, value)) * 511.0f);
+        return packed & 0x3FF;
+    }
+
+    // float -> IEEE 754 half з округленням до найближчого; поза діапазоном - нескінченність
+    static short toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+        int mantissa = bits & 0x7FFFFF;
+
+        if (((bits >>> 23) & 0xFF) == 0xFF) {
+            // NaN або нескінченність
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        if (exponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign;
+            }
+            // Денормалізоване число
+            mantissa = (mantissa | 0x800000) >> (1 - exponent);
+            return (short) (sign | ((mantissa + 0x1000) >> 13));
+        }
+        int half = sign | (exponent << 10) | (mantissa >> 13);
+        // Перенос при округленні коректно переходить у наступну експоненту
+        return (short) (half + ((mantissa & 0x1000) != 0 ? 1 : 0));
+    }
+}
@@ -10,21 +10,14 @@ import org.joml.Vector3f;
 
 import java.io.File;
 import java.io.FileReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class LoadScene {
     public static Node loadScene(String resourcePath) {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-
-        // Регистрируем десериализаторы
-        gsonBuilder.registerTypeAdapter(Node.class, new NodeDeserializer());
-        gsonBuilder.registerTypeAdapter(Vector3f.class, new Vector3fDeserializer());
-        gsonBuilder.registerTypeAdapter(Quaternionf.class, new QuaternionDeserializer());
-        gsonBuilder.registerTypeAdapter(Mesh.class, new MeshDeserializer());
-
-        Gson gson = gsonBuilder.create();
-
         try {
             URL resourceUrl = LoadScene.class.getClassLoader().getResource(resourcePath);
             if (resourceUrl == null) {
@@ -34,7 +27,7 @@ public class LoadScene {
 
             File file = new File(resourceUrl.toURI());
             try (FileReader reader = new FileReader(file)) {
-                Node rootNode = gson.fromJson(reader, Node.class);
+                Node rootNode = loadScene(reader);
                 System.out.println("Сцена загружена из файла: " + file.getAbsolutePath());
                 return rootNode;
             }
@@ -44,6 +37,34 @@ public class LoadScene {
         }
     }
 
+    // Загрузка сцены из файла на диске (не из ресурсов), например для headless-прогонов
+    public static Node loadSceneFromFile(String filePath) {
+        try (Reader reader = Files.newBufferedReader(Paths.get(filePath))) {
+            Node rootNode = loadScene(reader);
+            System.out.println("Сцена загружена из файла: " + Paths.get(filePath).toAbsolutePath());
+            return rootNode;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static Node loadScene(Reader reader) {
+        return createGson().fromJson(reader, Node.class);
+    }
+
+    private static Gson createGson() {
+        GsonBuilder gsonBuilder = new GsonBuilder();
+
+        // Регистрируем десериализаторы
+        gsonBuilder.registerTypeAdapter(Node.class, new NodeDeserializer());
+        gsonBuilder.registerTypeAdapter(Vector3f.class, new Vector3fDeserializer());
+        gsonBuilder.registerTypeAdapter(Quaternionf.class, new QuaternionDeserializer());
+        gsonBuilder.registerTypeAdapter(Mesh.class, new MeshDeserializer());
+
+        return gsonBuilder.create();
+    }
+
     // Десериализатор для Node
     private static class NodeDeserializer implements JsonDeserializer<Node> {
         @Override
@@ -72,6 +93,11 @@ public class LoadScene {
                 node.setScale(scale);
             }
 
+            // Скрытый узел (по умолчанию видим)
+            if (jsonObject.has("visible")) {
+                node.setVisible(jsonObject.get("visible").getAsBoolean());
+            }
+
             // Устанавливаем тип узла
             if (jsonObject.has("nodeType")) {
                 String nodeTypeStr = jsonObject.get("nodeType").getAsString();
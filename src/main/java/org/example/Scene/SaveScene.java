@@ -10,6 +10,7 @@ import org.joml.Vector3f;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.FileReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.net.URL;
 import java.nio.file.Paths;
@@ -17,16 +18,6 @@ import java.util.UUID;
 
 public class SaveScene {
     public static void saveScene(Node rootNode, String resourcePath) {
-        GsonBuilder gsonBuilder = new GsonBuilder().setPrettyPrinting();
-
-        // Регистрируем адаптеры для классов
-        gsonBuilder.registerTypeAdapter(Node.class, new NodeSerializer());
-        gsonBuilder.registerTypeAdapter(Vector3f.class, new Vector3fSerializer());
-        gsonBuilder.registerTypeAdapter(Quaternionf.class, new QuaternionSerializer());
-        gsonBuilder.registerTypeAdapter(Mesh.class, new MeshSerializer());
-
-        Gson gson = gsonBuilder.create();
-
         try {
             URL resourceUrl = SaveScene.class.getClassLoader().getResource(resourcePath);
             File file;
@@ -40,7 +31,7 @@ public class SaveScene {
             }
 
             try (FileWriter writer = new FileWriter(file)) {
-                gson.toJson(rootNode, writer);
+                saveScene(rootNode, writer);
                 System.out.println("Файл сохранён: " + file.getAbsolutePath());
             }
         } catch (Exception e) {
@@ -48,6 +39,23 @@ public class SaveScene {
         }
     }
 
+    // Сериализация сцены в произвольный Writer (файл, строка, сеть)
+    public static void saveScene(Node rootNode, Writer writer) {
+        createGson().toJson(rootNode, writer);
+    }
+
+    private static Gson createGson() {
+        GsonBuilder gsonBuilder = new GsonBuilder().setPrettyPrinting();
+
+        // Регистрируем адаптеры для классов
+        gsonBuilder.registerTypeAdapter(Node.class, new NodeSerializer());
+        gsonBuilder.registerTypeAdapter(Vector3f.class, new Vector3fSerializer());
+        gsonBuilder.registerTypeAdapter(Quaternionf.class, new QuaternionSerializer());
+        gsonBuilder.registerTypeAdapter(Mesh.class, new MeshSerializer());
+
+        return gsonBuilder.create();
+    }
+
     // Сериализатор для Node
     private static class NodeSerializer implements JsonSerializer<Node> {
         @Override
@@ -61,6 +69,9 @@ public class SaveScene {
             result.add("rotation", context.serialize(src.getRotation()));
             result.add("scale", context.serialize(src.getScale()));
             result.addProperty("nodeType", src.getNodeType().toString());
+            if (!src.isVisible()) {
+                result.addProperty("visible", false);
+            }
 
             // Сериализуем светозависимые свойства
             if (src.getNodeType() == Node.NodeType.LIGHT) {
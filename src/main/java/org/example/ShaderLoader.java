@@ -10,9 +10,30 @@ import static org.lwjgl.opengl.GL20.*;
 public class ShaderLoader {
 
     public static int loadShader(String vertexShaderPath, String fragmentShaderPath) throws IOException {
-        String vertexShaderSource = readResource(vertexShaderPath);
-        String fragmentShaderSource = readResource(fragmentShaderPath);
+        return compileProgram(readResource(vertexShaderPath), readResource(fragmentShaderPath));
+    }
+
+    /**
+     * Варіант програми з іншою версією GLSL і макросами: рядок #version обох шейдерів замінюється
+     * на version, після нього додаються #define для кожного макросу
+     *
+     * @param version напр. "430 core"
+     */
+    public static int loadShader(String vertexShaderPath, String fragmentShaderPath, String version,
+                                 String... defines) throws IOException {
+        StringBuilder header = new StringBuilder("#version ").append(version).append('\n');
+        for (String define : defines) {
+            header.append("#define ").append(define).append('\n');
+        }
+        return compileProgram(withHeader(readResource(vertexShaderPath), header.toString()),
+                withHeader(readResource(fragmentShaderPath), header.toString()));
+    }
+
+    private static String withHeader(String source, String header) {
+        return source.replaceFirst("#version[^\\n]*\\n", header);
+    }
 
+    private static int compileProgram(String vertexShaderSource, String fragmentShaderSource) {
         int vertexShader = glCreateShader(GL_VERTEX_SHADER);
         glShaderSource(vertexShader, vertexShaderSource);
         glCompileShader(vertexShader);
@@ -1,11 +1,18 @@
 package org.example;
 
+import org.example.Texture.TextureArray;
 import org.joml.Vector3f;
 
 import java.io.IOException;
 
-import static org.lwjgl.opengl.GL20.*;
-
+/**
+ * Матеріал меша: кольори освітлення, блиск і дифузна текстура.
+ *
+ * Вміст матеріалу належить потоку рендерингу: параметри лежать в UBO MaterialRegistry, текстури -
+ * у TextureManager. Сеттери викликаються лише з потоку з контекстом OpenGL (панель властивостей працює
+ * в ньому) і перевіряють це (MaterialRegistry.checkRenderThread). Який матеріал у меша
+ * (Mesh.setShaderMaterial) - стан сцени: його змінює SceneCommandQueue, а рендерингу передає RenderSnapshot.
+ */
 public class ShaderMaterial {
     private Vector3f ambient;
     private Vector3f diffuse;
@@ -15,6 +22,13 @@ public class ShaderMaterial {
     private TextureLoader diffuseMap;  // Текстура
     private boolean hasTexture;  // Прапор наявності текстури
 
+    // Шар масиву текстур з тією самою дифузною картою (TextureArrayBuilder); null - окрема текстура
+    private transient TextureArray textureArray;
+    private transient int textureLayer;
+
+    // Ідентифікатор у MaterialRegistry; 0 - ще не зареєстровано
+    transient int materialId;
+
 
     public ShaderMaterial(Vector3f ambient, Vector3f diffuse, Vector3f specular, float shininess) {
         this.ambient = ambient;
@@ -31,32 +45,16 @@ public class ShaderMaterial {
         this.hasTexture = diffuseMap != null;
     }
 
+    // Параметри лежать у спільному UBO (MaterialRegistry); тут лише перемикання індексу та текстури
     public void apply(int shaderProgram) {
-        int ambientLoc = glGetUniformLocation(shaderProgram, "material.ambient");
-        int diffuseLoc = glGetUniformLocation(shaderProgram, "material.diffuse");
-        int specularLoc = glGetUniformLocation(shaderProgram, "material.specular");
-        int shininessLoc = glGetUniformLocation(shaderProgram, "material.shininess");
-        int useTextureLoc = glGetUniformLocation(shaderProgram, "material.useTexture");
-
-        glUniform3f(ambientLoc, ambient.x, ambient.y, ambient.z);
-        glUniform3f(diffuseLoc, diffuse.x, diffuse.y, diffuse.z);
-        glUniform3f(specularLoc, specular.x, specular.y, specular.z);
-        glUniform1f(shininessLoc, shininess);
-        glUniform1i(useTextureLoc, hasTexture ? 1 : 0);
-
-        if (hasTexture) {
-            // Активуємо та прив'язуємо текстуру
-            int diffuseMapLoc = glGetUniformLocation(shaderProgram, "material.diffuseMap");
-            glActiveTexture(GL_TEXTURE0);
-            diffuseMap.bind();
-            glUniform1i(diffuseMapLoc, 0);
-        }
+        MaterialRegistry.apply(this, shaderProgram);
     }
 
 
     public static ShaderMaterial createTexturedMaterial(String texturePath) {
         try {
-            TextureLoader textureLoader = new TextureLoader(texturePath);
+            // Та сама текстура спільна для всіх матеріалів з цим шляхом
+            TextureLoader textureLoader = TextureManager.acquire(texturePath);
             return new ShaderMaterial(
                     new Vector3f(0.5f, 0.5f, 0.5f),  // ambient - середній сірий
                     new Vector3f(1.0f, 1.0f, 1.0f),  // diffuse - білий для повного відображення текстури
@@ -135,7 +133,9 @@ public class ShaderMaterial {
     }
 
     public void setAmbient(Vector3f ambient) {
+        MaterialRegistry.checkRenderThread();
         this.ambient = ambient;
+        MaterialRegistry.markDirty(this);
     }
 
     public Vector3f getDiffuse() {
@@ -143,7 +143,9 @@ public class ShaderMaterial {
     }
 
     public void setDiffuse(Vector3f diffuse) {
+        MaterialRegistry.checkRenderThread();
         this.diffuse = diffuse;
+        MaterialRegistry.markDirty(this);
     }
 
     public Vector3f getSpecular() {
@@ -151,7 +153,9 @@ public class ShaderMaterial {
     }
 
     public void setSpecular(Vector3f specular) {
+        MaterialRegistry.checkRenderThread();
         this.specular = specular;
+        MaterialRegistry.markDirty(this);
     }
 
     public float getShininess() {
@@ -159,7 +163,9 @@ public class ShaderMaterial {
     }
 
     public void setShininess(float shininess) {
+        MaterialRegistry.checkRenderThread();
         this.shininess = shininess;
+        MaterialRegistry.markDirty(this);
     }
 
     public TextureLoader getDiffuseMap() {
@@ -167,25 +173,58 @@ public class ShaderMaterial {
     }
 
     public void setDiffuseMap(TextureLoader diffuseMap) {
-        if (this.diffuseMap != null && diffuseMap == null) {
-            // Очищаем предыдущую текстуру, если она была
-            this.diffuseMap.cleanup();
+        MaterialRegistry.checkRenderThread();
+        if (this.diffuseMap != null && this.diffuseMap != diffuseMap) {
+            // Повертаємо попередню текстуру: спільна видаляється, коли звільнять усі матеріали
+            TextureManager.release(this.diffuseMap);
         }
         this.diffuseMap = diffuseMap;
         this.hasTexture = diffuseMap != null;
+        // Нова текстура не входить до масиву
+        this.textureArray = null;
+        MaterialRegistry.markDirty(this);
     }
 
     public void setDiffuseMapPath(String texturePath) {
+        MaterialRegistry.checkRenderThread();
         try {
-            this.diffuseMap = new TextureLoader(texturePath);
-            this.hasTexture = true;
+            // Спершу отримуємо нову текстуру, щоб не перезавантажувати ту саму при повторному виборі
+            TextureLoader texture = TextureManager.acquire(texturePath);
+            if (texture == diffuseMap) {
+                TextureManager.release(texture); // Та сама текстура - зайве посилання
+                return;
+            }
+            setDiffuseMap(texture);
         } catch (IOException e) {
             System.err.println("Помилка при завантаженні текстури: " + e.getMessage());
             e.printStackTrace();
-            this.hasTexture = false;
         }
     }
 
+    public void setTextureArrayLayer(TextureArray textureArray, int layer) {
+        MaterialRegistry.checkRenderThread();
+        this.textureArray = textureArray;
+        this.textureLayer = layer;
+        MaterialRegistry.markDirty(this);
+    }
+
+    public TextureArray getTextureArray() {
+        return textureArray;
+    }
+
+    public int getTextureLayer() {
+        return textureLayer;
+    }
+
+    public int getMaterialId() {
+        return MaterialRegistry.idOf(this);
+    }
+
+    // Ідентифікатор без реєстрації (0 - ще не зареєстрований); безпечно читати з потоку симуляції
+    public int getRegisteredMaterialId() {
+        return materialId;
+    }
+
     public boolean hasTexture() {
         return hasTexture;
     }
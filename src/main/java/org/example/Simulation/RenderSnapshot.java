@@ -0,0 +1,237 @@
+package org.example.Simulation;
+
+import org.example.Mesh;
+import org.example.ShaderMaterial;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * Знімок сцени після кроку симуляції - один із трьох буферів TripleBuffer у SimulationThread, а без потоку
+ * симуляції - знімок кадру головного циклу. Проходи рендерингу читають сцену лише з нього.
+ *
+ * Основні функції:
+ * - Заздалегідь виділені примітивні масиви: модельна матриця кроку (16 float), перетворення вузла
+ *   двох останніх кроків (TRANSFORM_SIZE float: переміщення, обертання, масштаб і кут анімації меша),
+ *   ідентифікатори матеріалів і видимість кожного меша. Масиви ростуть лише зі сценою,
+ *   щокроку нічого не створюється.
+ * - Елементи малювання: для кожного меша - матеріал, прапорці програми й стратегії (FLAG_*), які дав би
+ *   обхід Node.render, і номер вузла (getGroup), тож RenderQueue, проходи тіней і LodSelector не обходять
+ *   живе дерево. Рівень деталізації залежить від камери, тому його вибирає LodSelector у потоці рендерингу
+ *   за цим знімком і зберігає в Mesh - потік оновлення рівня не читає й не змінює.
+ * - Джерела світла (вузли LIGHT у порядку Node.getLightNodes): позиція, колір та інтенсивність.
+ * - Заповнюється SnapshotWriter (потік оновлення або головний цикл без нього); після обміну буферів
+ *   потік рендерингу лише читає його.
+ * - `apply(alpha)` інтерполює окремо перетворення вузла (переміщення і масштаб лінійно, обертання - slerp)
+ *   і кут анімації, а потім складає їх так само, як Mesh.setModelMatrix. Готова матриця не розкладається,
+ *   тож поворот анімації під нерівномірним масштабом вузла не дає зсуву. Зсув, який уже є у світовій
+ *   матриці вузла (нерівномірний масштаб предка з поворотом нащадка), інтерполяцією не зберігається.
+ * - Нерухомі меші отримують матрицю кроку без змін, тож глибина в обох проходах DepthPrepass
+ *   і між кадрами збігається біт у біт.
+ */
+public final class RenderSnapshot {
+    // Перетворення одного меша: переміщення xyz, обертання xyzw, масштаб xyz, кут анімації (градуси)
+    static final int TRANSFORM_SIZE = 11;
+
+    // Вузол верхнього рівня типу DEFAULT - основна програма
+    public static final int FLAG_DEFAULT_PROGRAM = 1;
+    // Вузол верхнього рівня типу LIGHT - програма джерел світла
+    public static final int FLAG_LIGHT_PROGRAM = 2;
+    // Вузол меша типу LIGHT - LightRenderStrategy замість DefaultRenderStrategy
+    public static final int FLAG_LIGHT_STRATEGY = 4;
+    // Усі вузли від верхнього рівня до меша типу DEFAULT - меш відкидає тінь
+    public static final int FLAG_SHADOW_CASTER = 8;
+
+    private long tick;
+    private long timeNanos;
+    private int meshCount;
+    private Mesh[] meshes = new Mesh[0];
+    private float[] currentMatrices = new float[0];
+    private float[] previousTransforms = new float[0];
+    private float[] currentTransforms = new float[0];
+    private ShaderMaterial[] materials = new ShaderMaterial[0];
+    private int[] materialIds = new int[0];
+    private boolean[] visible = new boolean[0];
+    private int[] flags = new int[0];
+    private int[] groups = new int[0];
+    private int lightCount;
+    private float[] lightPositions = new float[0];
+    private float[] lightColors = new float[0];
+    private float[] lightIntensities = new float[0];
+
+    // Тимчасові об'єкти apply() - лише потік рендерингу
+    private final Matrix4f matrix = new Matrix4f();
+    private final Vector3f fromTranslation = new Vector3f();
+    private final Vector3f toTranslation = new Vector3f();
+    private final Vector3f fromScale = new Vector3f();
+    private final Vector3f toScale = new Vector3f();
+    private final Quaternionf fromRotation = new Quaternionf();
+    private final Quaternionf toRotation = new Quaternionf();
+
+    // Почати заповнення знімка (потік оновлення)
+    void reset(long tick, long timeNanos, int meshCount) {
+        if (meshCount > meshes.length) {
+            int capacity = Math.max(meshCount, meshes.length + meshes.length / 2);
+            meshes = Arrays.copyOf(meshes, capacity);
+            currentMatrices = new float[capacity * 16];
+            previousTransforms = new float[capacity * TRANSFORM_SIZE];
+            currentTransforms = new float[capacity * TRANSFORM_SIZE];
+            materials = new ShaderMaterial[capacity];
+            materialIds = new int[capacity];
+            visible = new boolean[capacity];
+            flags = new int[capacity];
+            groups = new int[capacity];
+        }
+        // Меші, що зникли зі сцени, не утримуються знімком
+        if (this.meshCount > meshCount) {
+            Arrays.fill(meshes, meshCount, this.meshCount, null);
+            Arrays.fill(materials, meshCount, this.meshCount, null);
+        }
+        this.tick = tick;
+        this.timeNanos = timeNanos;
+        this.meshCount = meshCount;
+    }
+
+    /**
+     * Записати меш (потік оновлення)
+     *
+     * @param current модельна матриця кроку (Mesh.getSimulatedMatrix)
+     * @param transform перетворення кроку, TRANSFORM_SIZE float
+     * @param previous перетворення попереднього кроку, TRANSFORM_SIZE float з позиції previousOffset
+     * @param meshFlags FLAG_* за типами вузлів на шляху до меша
+     * @param group номер вузла меша в порядку обходу
+     */
+    void set(int index, Mesh mesh, Matrix4f current, float[] transform, float[] previous, int previousOffset,
+             ShaderMaterial material, boolean meshVisible, int meshFlags, int group) {
+        meshes[index] = mesh;
+        current.get(currentMatrices, index * 16);
+        System.arraycopy(transform, 0, currentTransforms, index * TRANSFORM_SIZE, TRANSFORM_SIZE);
+        System.arraycopy(previous, previousOffset, previousTransforms, index * TRANSFORM_SIZE, TRANSFORM_SIZE);
+        materials[index] = material;
+        materialIds[index] = material != null ? material.getRegisteredMaterialId() : 0;
+        visible[index] = meshVisible;
+        flags[index] = meshFlags;
+        groups[index] = group;
+    }
+
+    // Записати джерело світла (потік оновлення)
+    void setLight(int index, Vector3f position, Vector3f color, float intensity) {
+        if (index >= lightIntensities.length) {
+            int capacity = Math.max(index + 1, lightIntensities.length * 2);
+            lightPositions = Arrays.copyOf(lightPositions, capacity * 3);
+            lightColors = Arrays.copyOf(lightColors, capacity * 3);
+            lightIntensities = Arrays.copyOf(lightIntensities, capacity);
+        }
+        int offset = index * 3;
+        lightPositions[offset] = position.x;
+        lightPositions[offset + 1] = position.y;
+        lightPositions[offset + 2] = position.z;
+        lightColors[offset] = color.x;
+        lightColors[offset + 1] = color.y;
+        lightColors[offset + 2] = color.z;
+        lightIntensities[index] = intensity;
+    }
+
+    void setLightCount(int count) {
+        lightCount = count;
+    }
+
+    /**
+     * Виставити мешам стан між попереднім і поточним кроком. Викликати з потоку рендерингу
+     *
+     * @param alpha частка кроку, що минула після поточного кроку: 0 - попередній, 1 - поточний
+     */
+    public void apply(float alpha) {
+        for (int i = 0; i < meshCount; i++) {
+            int offset = i * TRANSFORM_SIZE;
+            matrix.set(currentMatrices, i * 16);
+            if (alpha < 1.0f && !Arrays.equals(previousTransforms, offset, offset + TRANSFORM_SIZE,
+                    currentTransforms, offset, offset + TRANSFORM_SIZE)) {
+                interpolate(previousTransforms, currentTransforms, offset, alpha);
+            }
+            meshes[i].applySnapshot(matrix, visible[i], materials[i], materialIds[i]);
+        }
+    }
+
+    // Перетворення вузла між кроками, потім поворот анімації - як у Mesh.setModelMatrix
+    private void interpolate(float[] from, float[] to, int offset, float alpha) {
+        fromTranslation.set(from[offset], from[offset + 1], from[offset + 2]);
+        toTranslation.set(to[offset], to[offset + 1], to[offset + 2]);
+        fromRotation.set(from[offset + 3], from[offset + 4], from[offset + 5], from[offset + 6]);
+        toRotation.set(to[offset + 3], to[offset + 4], to[offset + 5], to[offset + 6]);
+        fromScale.set(from[offset + 7], from[offset + 8], from[offset + 9]);
+        toScale.set(to[offset + 7], to[offset + 8], to[offset + 9]);
+
+        // Кут береться по коротшій дузі: після 359 градусів іде 0, а не зворотний оберт
+        float fromAngle = from[offset + 10];
+        float delta = to[offset + 10] - fromAngle;
+        delta -= 360.0f * Math.round(delta / 360.0f);
+        float angle = fromAngle + delta * alpha;
+
+        matrix.translationRotateScale(fromTranslation.lerp(toTranslation, alpha),
+                fromRotation.slerp(toRotation, alpha), fromScale.lerp(toScale, alpha));
+        if (angle != 0.0f) {
+            matrix.rotateY((float) Math.toRadians(angle));
+        }
+    }
+
+    // Номер кроку симуляції, після якого зроблено знімок
+    public long getTick() {
+        return tick;
+    }
+
+    // Запланований момент кроку (System.nanoTime)
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    public int getMeshCount() {
+        return meshCount;
+    }
+
+    public Mesh getMesh(int index) {
+        return meshes[index];
+    }
+
+    public ShaderMaterial getMaterial(int index) {
+        return materials[index];
+    }
+
+    public int getMaterialId(int index) {
+        return materialIds[index];
+    }
+
+    public boolean isVisible(int index) {
+        return visible[index];
+    }
+
+    // FLAG_* меша
+    public int getFlags(int index) {
+        return flags[index];
+    }
+
+    public int getLightCount() {
+        return lightCount;
+    }
+
+    public Vector3f getLightPosition(int index, Vector3f dest) {
+        int offset = index * 3;
+        return dest.set(lightPositions[offset], lightPositions[offset + 1], lightPositions[offset + 2]);
+    }
+
+    public Vector3f getLightColor(int index, Vector3f dest) {
+        int offset = index * 3;
+        return dest.set(lightColors[offset], lightColors[offset + 1], lightColors[offset + 2]);
+    }
+
+    public float getLightIntensity(int index) {
+        return lightIntensities[index];
+    }
+
+    // Номер вузла меша: меші одного вузла йдуть у знімку підряд з однаковим номером
+    public int getGroup(int index) {
+        return groups[index];
+    }
+}
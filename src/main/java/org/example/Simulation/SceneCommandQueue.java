@@ -0,0 +1,52 @@
+package org.example.Simulation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Черга змін сцени з GUI для потоку оновлення.
+ *
+ * Основні функції:
+ * - Панелі (NodePropertiesPanel) не змінюють Node напряму, а додають команду (`submit`) -
+ *   без блокувань, з будь-якого потоку.
+ * - Потік оновлення виконує всі накопичені команди на початку кроку (`drain`) - у тому ж потоці,
+ *   що пише трансформації, тож Node змінюється лише з одного потоку.
+ * - Без SimulationThread чергу виконує головний цикл на початку кадру.
+ * - Вміст матеріалів (ShaderMaterial) - стан потоку рендерингу, панелі змінюють його напряму;
+ *   через чергу йде лише призначення матеріалу мешу (Mesh.setShaderMaterial).
+ */
+public class SceneCommandQueue {
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private volatile long executed = 0;
+
+    public void submit(Runnable command) {
+        commands.add(command);
+    }
+
+    /**
+     * Виконати команди, додані до цього моменту
+     *
+     * @return кількість виконаних команд
+     */
+    public int drain() {
+        int count = 0;
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                System.err.println("Помилка виконання команди сцени: " + e.getMessage());
+            }
+            count++;
+        }
+        executed += count;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.Simulation;
+
+import org.example.Node;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Оновлення сцени з фіксованим кроком в окремому потоці, паралельно з рендерингом.
+ *
+ * Основні функції:
+ * - Кожен крок (1 / ticksPerSecond): команди SceneCommandQueue, Node.simulate (компоненти, анімація мешів),
+ *   Node.updateWorldTransformation, потім запис RenderSnapshot у вільний буфер TripleBuffer і його публікація.
+ * - Потік рендерингу не чекає на симуляцію: `acquireSnapshot()` атомарно забирає найновіший знімок,
+ *   матриці інтерполюються за часом, що минув після кроку (getAlpha).
+ * - Зміни вузлів з панелі властивостей ідуть через SceneCommandQueue і виконуються в цьому потоці.
+ *   Редактор (вибір об'єктів), інструмент трансформації та панелі GUI поки змінюють вузли самі -
+ *   між lock() і unlock(). Проходи рендерингу (стримінг текстур, LOD, світла, тіні, RenderQueue,
+ *   IndirectRenderer) живого дерева не читають - лише знімок, тож блокування не беруть.
+ * - Якщо крок не встигає, за одне пробудження виконується не більше MAX_STEPS_PER_WAKE кроків,
+ *   решта відкидається (getDroppedSteps), щоб відставання не наростало.
+ *
+ * Вмикається `--simulation-thread`; без нього сцена оновлюється в головному циклі, як раніше.
+ */
+public class SimulationThread {
+    private static final int MAX_STEPS_PER_WAKE = 5;
+
+    private final Node root;
+    private final SceneCommandQueue commandQueue;
+    private final long stepNanos;
+    private final float stepSeconds;
+    private final ReentrantLock sceneLock = new ReentrantLock();
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    private final Thread thread;
+    private volatile boolean running = false;
+
+    // Стан лише потоку симуляції: запис знімків
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();
+
+    private volatile long ticks = 0;
+    private volatile long droppedSteps = 0;
+    private volatile double lastStepMillis = 0.0;
+    private volatile double totalStepMillis = 0.0;
+
+    /**
+     * @param commandQueue зміни сцени з GUI, що виконуються на початку кроку
+     * @param ticksPerSecond частота кроків симуляції
+     */
+    public SimulationThread(Node root, SceneCommandQueue commandQueue, int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Частота симуляції має бути більше нуля: " + ticksPerSecond);
+        }
+        this.root = root;
+        this.commandQueue = commandQueue;
+        this.stepNanos = 1_000_000_000L / ticksPerSecond;
+        this.stepSeconds = 1.0f / ticksPerSecond;
+        this.thread = new Thread(this::run, "Simulation");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Опублікувати початковий стан сцени (перший кадр вже має знімок) і запустити потік
+     */
+    public void start() {
+        sceneLock.lock();
+        try {
+            commandQueue.drain();
+            root.updateWorldTransformation();
+            publish(System.nanoTime());
+        } finally {
+            sceneLock.unlock();
+        }
+        running = true;
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Блокування сцени для змін з інших потоків
+    public void lock() {
+        sceneLock.lock();
+    }
+
+    public void unlock() {
+        sceneLock.unlock();
+    }
+
+    // Номер наступного знімка; читати під lock(), щоб крок не йшов паралельно
+    public long getNextSnapshotTick() {
+        return snapshotWriter.getNextTick();
+    }
+
+    // Найновіший знімок; діє до наступного виклику (потік рендерингу)
+    public RenderSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Частка кроку для інтерполяції знімка в момент nowNanos, від 0 до 1
+     */
+    public float getAlpha(RenderSnapshot snapshot, long nowNanos) {
+        float alpha = (float) (nowNanos - snapshot.getTimeNanos()) / stepNanos;
+        return Math.max(0.0f, Math.min(alpha, 1.0f));
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime() + stepNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            int steps = 0;
+            while (now >= nextTick && steps < MAX_STEPS_PER_WAKE) {
+                step(nextTick);
+                nextTick += stepNanos;
+                steps++;
+            }
+            // Симуляція не встигає - пропускаємо відставання замість наздоганяння
+            if (now >= nextTick) {
+                droppedSteps += (now - nextTick) / stepNanos + 1;
+                nextTick = now + stepNanos;
+            }
+        }
+    }
+
+    private void step(long tickNanos) {
+        long start = System.nanoTime();
+        sceneLock.lock();
+        try {
+            commandQueue.drain();
+            root.simulate(stepSeconds);
+            root.updateWorldTransformation();
+            publish(tickNanos);
+        } finally {
+            sceneLock.unlock();
+        }
+        lastStepMillis = (System.nanoTime() - start) / 1_000_000.0;
+        totalStepMillis += lastStepMillis;
+        ticks++;
+    }
+
+    // Записати стан мешів у вільний буфер і обміняти його на найновіший
+    private void publish(long tickNanos) {
+        snapshotWriter.write(root, snapshots.getWriteBuffer(), tickNanos);
+        snapshots.publish();
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+
+    public double getLastStepMillis() {
+        return lastStepMillis;
+    }
+
+    public double getAverageStepMillis() {
+        return ticks > 0 ? totalStepMillis / ticks : 0.0;
+    }
+
+    public int getTicksPerSecond() {
+        return (int) (1_000_000_000L / stepNanos);
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.Simulation;
+
+import org.example.Mesh;
+import org.example.Node;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запис стану дерева сцени в RenderSnapshot.
+ *
+ * Основні функції:
+ * - Обходить дерево один раз (меші вузла, потім дочірні вузли) і для кожного меша записує матрицю,
+ *   перетворення, матеріал, видимість, номер вузла і прапорці RenderSnapshot.FLAG_* - ті самі програму
+ *   і стратегію, що дав би Node.render, і належність до тіньових проходів.
+ * - Пам'ятає перетворення попереднього запису; якщо склад сцени змінився, попередні перетворення
+ *   шукаються за мешем, а нові меші починають з поточного.
+ * - Джерела світла записуються в тому самому обході, у порядку Node.getLightNodes.
+ * - Номер знімка зростає з кожним записом (getNextTick).
+ *
+ * Викликається з потоку, що змінює сцену: SimulationThread після кроку або головний цикл без нього.
+ */
+public final class SnapshotWriter {
+    private Mesh[] lastMeshes = new Mesh[0];
+    private int lastMeshCount = 0;
+    private float[] lastTransforms = new float[0];
+    private final Map<Mesh, Integer> lastIndices = new IdentityHashMap<>();
+    private final List<Mesh> collected = new ArrayList<>();
+    private int[] collectedFlags = new int[0];
+    private int[] collectedGroups = new int[0];
+    private int groupCount = 0;
+    private int lightCount = 0;
+    private final Matrix4f matrix = new Matrix4f();
+    private final Vector3f translation = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+    private final Vector3f scale = new Vector3f();
+    private final float[] transform = new float[RenderSnapshot.TRANSFORM_SIZE];
+    private long nextTick = 0;
+
+    /**
+     * Записати сцену в знімок
+     *
+     * @param timeNanos момент стану сцени (System.nanoTime), для інтерполяції
+     */
+    public void write(Node root, RenderSnapshot snapshot, long timeNanos) {
+        collected.clear();
+        groupCount = 0;
+        lightCount = 0;
+        // Меші самого кореня не малюються - без прапорців
+        collectLight(root, snapshot);
+        collectMeshes(root, 0);
+        for (Node child : root.getChildren()) {
+            int programFlag = child.getNodeType() == Node.NodeType.LIGHT
+                    ? RenderSnapshot.FLAG_LIGHT_PROGRAM
+                    : RenderSnapshot.FLAG_DEFAULT_PROGRAM | RenderSnapshot.FLAG_SHADOW_CASTER;
+            collect(child, programFlag, snapshot);
+        }
+        snapshot.setLightCount(lightCount);
+
+        int count = collected.size();
+        boolean sameMeshes = count == lastMeshCount;
+        for (int i = 0; sameMeshes && i < count; i++) {
+            sameMeshes = collected.get(i) == lastMeshes[i];
+        }
+        if (!sameMeshes) {
+            int size = RenderSnapshot.TRANSFORM_SIZE;
+            float[] remapped = new float[count * size];
+            for (int i = 0; i < count; i++) {
+                Mesh mesh = collected.get(i);
+                Integer lastIndex = lastIndices.get(mesh);
+                if (lastIndex != null) {
+                    System.arraycopy(lastTransforms, lastIndex * size, remapped, i * size, size);
+                } else {
+                    readTransform(mesh, remapped, i * size);
+                }
+            }
+            lastTransforms = remapped;
+            lastMeshes = collected.toArray(new Mesh[0]);
+            lastMeshCount = count;
+            lastIndices.clear();
+            for (int i = 0; i < count; i++) {
+                lastIndices.put(lastMeshes[i], i);
+            }
+        }
+
+        snapshot.reset(nextTick++, timeNanos, count);
+        for (int i = 0; i < count; i++) {
+            Mesh mesh = lastMeshes[i];
+            int offset = i * RenderSnapshot.TRANSFORM_SIZE;
+            readTransform(mesh, transform, 0);
+            mesh.getSimulatedMatrix(matrix);
+            snapshot.set(i, mesh, matrix, transform, lastTransforms, offset, mesh.getSimulatedShaderMaterial(),
+                    mesh.isSimulatedVisible(), collectedFlags[i], collectedGroups[i]);
+            System.arraycopy(transform, 0, lastTransforms, offset, RenderSnapshot.TRANSFORM_SIZE);
+        }
+    }
+
+    // Номер, який отримає наступний записаний знімок
+    public long getNextTick() {
+        return nextTick;
+    }
+
+    // Програма - від вузла верхнього рівня; стратегія - від вузла меша; тінь - лише через вузли DEFAULT
+    private void collect(Node node, int inherited, RenderSnapshot snapshot) {
+        collectLight(node, snapshot);
+        int meshFlags = inherited;
+        if (node.getNodeType() == Node.NodeType.LIGHT) {
+            inherited &= ~RenderSnapshot.FLAG_SHADOW_CASTER;
+            meshFlags = inherited | RenderSnapshot.FLAG_LIGHT_STRATEGY;
+        }
+        collectMeshes(node, meshFlags);
+        for (Node child : node.getChildren()) {
+            collect(child, inherited, snapshot);
+        }
+    }
+
+    private void collectLight(Node node, RenderSnapshot snapshot) {
+        if (node.getNodeType() == Node.NodeType.LIGHT) {
+            snapshot.setLight(lightCount++, node.getPosition(), node.getLightColor(), node.getLightIntensity());
+        }
+    }
+
+    private void collectMeshes(Node node, int nodeFlags) {
+        List<Mesh> meshes = node.getMeshes();
+        if (meshes.isEmpty()) {
+            return;
+        }
+        int start = collected.size();
+        collected.addAll(meshes);
+        int end = collected.size();
+        if (end > collectedFlags.length) {
+            int capacity = Math.max(end, collectedFlags.length * 2);
+            collectedFlags = Arrays.copyOf(collectedFlags, capacity);
+            collectedGroups = Arrays.copyOf(collectedGroups, capacity);
+        }
+        for (int i = start; i < end; i++) {
+            collectedFlags[i] = nodeFlags;
+            collectedGroups[i] = groupCount;
+        }
+        groupCount++;
+    }
+
+    // Перетворення вузла меша і кут анімації в розкладці RenderSnapshot.TRANSFORM_SIZE
+    private void readTransform(Mesh mesh, float[] dest, int offset) {
+        mesh.getNodeMatrix(matrix);
+        matrix.getTranslation(translation);
+        matrix.getUnnormalizedRotation(rotation);
+        matrix.getScale(scale);
+        dest[offset] = translation.x;
+        dest[offset + 1] = translation.y;
+        dest[offset + 2] = translation.z;
+        dest[offset + 3] = rotation.x;
+        dest[offset + 4] = rotation.y;
+        dest[offset + 5] = rotation.z;
+        dest[offset + 6] = rotation.w;
+        dest[offset + 7] = scale.x;
+        dest[offset + 8] = scale.y;
+        dest[offset + 9] = scale.z;
+        dest[offset + 10] = mesh.getSpinAngle();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.Simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Потрійний буфер для передачі даних між одним записувачем і одним читачем без блокувань.
+ *
+ * Основні функції:
+ * - Три заздалегідь створені буфери: один пише записувач, один читає читач, третій - останній
+ *   завершений. Обмін - атомарна заміна індексу (AtomicInteger.getAndSet), жоден потік не чекає.
+ * - Записувач після `publish()` отримує вільний буфер; читач у `acquire()` забирає найновіший
+ *   завершений буфер, а якщо нового немає - лишається на своєму.
+ * - getAndSet дає happens-before між записом буфера і його читанням, тож вміст буферів
+ *   може бути звичайними примітивними масивами.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0x3;
+    // Позначка: останній завершений буфер ще не забраний читачем
+    private static final int FRESH = 0x4;
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger latest = new AtomicInteger(2);
+    // Індекси, якими володіють лише записувач і лише читач
+    private int writeIndex = 0;
+    private int readIndex = 1;
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    // Буфер для наступного запису (потік записувача)
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    // Зробити записаний буфер найновішим і взяти вільний (потік записувача)
+    public void publish() {
+        writeIndex = latest.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+    }
+
+    // Найновіший завершений буфер (потік читача); діє до наступного acquire()
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((latest.get() & FRESH) != 0) {
+            readIndex = latest.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return (T) buffers[readIndex];
+    }
+}
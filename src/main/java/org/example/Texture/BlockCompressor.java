@@ -0,0 +1,193 @@
+package org.example.Texture;
+
+/**
+ * Програмне стиснення RGBA8 у блокові формати BC1 / BC3 / BC4 для попередньої обробки текстур.
+ *
+ * Основні функції:
+ * - Зображення ділиться на блоки 4×4; пікселі за краєм зображення повторюють крайні.
+ * - Кінцеві кольори блоку - межі охоплюючого паралелепіпеда, стягнуті всередину на 1/16,
+ *   що зменшує похибку на проміжних значеннях; індекс кожного пікселя - найближчий колір палітри.
+ * - Альфа (BC3) та одноканальні дані (BC4) кодуються блоком з 8 інтерпольованих значень.
+ *
+ * Якість нижча, ніж у спеціалізованих кодерів, зате код простий і не потребує сторонніх бібліотек.
+ */
+public class BlockCompressor {
+
+    /**
+     * Стиснути один mip-рівень
+     *
+     * @param rgba пікселі RGBA8, рядок за рядком
+     * @param format BC1, BC3 або BC4 (для BC4 береться червоний канал)
+     */
+    public static byte[] compress(byte[] rgba, int width, int height, TextureFormat format) {
+        if (!format.isCompressed()) {
+            throw new IllegalArgumentException("Формат не є стислим: " + format);
+        }
+        byte[] out = new byte[format.levelSize(width, height)];
+        int blocksX = (width + 3) / 4;
+        int blocksY = (height + 3) / 4;
+        int[] block = new int[16 * 4];
+        int offset = 0;
+
+        for (int by = 0; by < blocksY; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                readBlock(rgba, width, height, bx * 4, by * 4, block);
+                switch (format) {
+                    case BC1:
+                        encodeColorBlock(block, out, offset);
+                        offset += 8;
+                        break;
+                    case BC3:
+                        encodeScalarBlock(block, 3, out, offset);
+                        encodeColorBlock(block, out, offset + 8);
+                        offset += 16;
+                        break;
+                    case BC4:
+                        encodeScalarBlock(block, 0, out, offset);
+                        offset += 8;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return out;
+    }
+
+    // 16 пікселів блоку по 4 канали; за межами зображення - найближчий крайній піксель
+    private static void readBlock(byte[] rgba, int width, int height, int startX, int startY, int[] block) {
+        for (int y = 0; y < 4; y++) {
+            int sy = Math.min(startY + y, height - 1);
+            for (int x = 0; x < 4; x++) {
+                int sx = Math.min(startX + x, width - 1);
+                int src = (sy * width + sx) * 4;
+                int dst = (y * 4 + x) * 4;
+                for (int c = 0; c < 4; c++) {
+                    block[dst + c] = rgba[src + c] & 0xFF;
+                }
+            }
+        }
+    }
+
+    // Колірний блок BC1: два кольори RGB565 та 2-бітні індекси (режим 4 кольорів)
+    private static void encodeColorBlock(int[] block, byte[] out, int offset) {
+        int[] min = {255, 255, 255};
+        int[] max = {0, 0, 0};
+        for (int i = 0; i < 16; i++) {
+            for (int c = 0; c < 3; c++) {
+                min[c] = Math.min(min[c], block[i * 4 + c]);
+                max[c] = Math.max(max[c], block[i * 4 + c]);
+            }
+        }
+        for (int c = 0; c < 3; c++) {
+            int inset = (max[c] - min[c]) >> 4;
+            min[c] += inset;
+            max[c] -= inset;
+        }
+
+        int color0 = toRgb565(max);
+        int color1 = toRgb565(min);
+        if (color0 < color1) {
+            int swap = color0;
+            color0 = color1;
+            color1 = swap;
+        }
+
+        int indices = 0;
+        if (color0 != color1) {
+            int[][] palette = new int[4][];
+            palette[0] = fromRgb565(color0);
+            palette[1] = fromRgb565(color1);
+            palette[2] = new int[3];
+            palette[3] = new int[3];
+            for (int c = 0; c < 3; c++) {
+                palette[2][c] = (2 * palette[0][c] + palette[1][c]) / 3;
+                palette[3][c] = (palette[0][c] + 2 * palette[1][c]) / 3;
+            }
+            for (int i = 0; i < 16; i++) {
+                int best = 0;
+                int bestDistance = Integer.MAX_VALUE;
+                for (int p = 0; p < 4; p++) {
+                    int distance = 0;
+                    for (int c = 0; c < 3; c++) {
+                        int delta = block[i * 4 + c] - palette[p][c];
+                        distance += delta * delta;
+                    }
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = p;
+                    }
+                }
+                indices |= best << (i * 2);
+            }
+        }
+
+        putShort(out, offset, color0);
+        putShort(out, offset + 2, color1);
+        putInt(out, offset + 4, indices);
+    }
+
+    // Скалярний блок BC4 / альфа-блок BC3: два 8-бітні значення та 3-бітні індекси (режим 8 значень)
+    private static void encodeScalarBlock(int[] block, int channel, byte[] out, int offset) {
+        int min = 255;
+        int max = 0;
+        for (int i = 0; i < 16; i++) {
+            min = Math.min(min, block[i * 4 + channel]);
+            max = Math.max(max, block[i * 4 + channel]);
+        }
+
+        long indices = 0;
+        if (max != min) {
+            int[] palette = new int[8];
+            palette[0] = max;
+            palette[1] = min;
+            for (int k = 2; k < 8; k++) {
+                palette[k] = ((8 - k) * max + (k - 1) * min) / 7;
+            }
+            for (int i = 0; i < 16; i++) {
+                int value = block[i * 4 + channel];
+                int best = 0;
+                int bestDistance = Integer.MAX_VALUE;
+                for (int p = 0; p < 8; p++) {
+                    int distance = Math.abs(value - palette[p]);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = p;
+                    }
+                }
+                indices |= (long) best << (i * 3);
+            }
+        }
+
+        out[offset] = (byte) max;
+        out[offset + 1] = (byte) min;
+        for (int i = 0; i < 6; i++) {
+            out[offset + 2 + i] = (byte) (indices >>> (i * 8));
+        }
+    }
+
+    private static int toRgb565(int[] rgb) {
+        int r = (rgb[0] * 31 + 127) / 255;
+        int g = (rgb[1] * 63 + 127) / 255;
+        int b = (rgb[2] * 31 + 127) / 255;
+        return (r << 11) | (g << 5) | b;
+    }
+
+    private static int[] fromRgb565(int color) {
+        int r = (color >> 11) & 0x1F;
+        int g = (color >> 5) & 0x3F;
+        int b = color & 0x1F;
+        return new int[]{(r << 3) | (r >> 2), (g << 2) | (g >> 4), (b << 3) | (b >> 2)};
+    }
+
+    private static void putShort(byte[] out, int offset, int value) {
+        out[offset] = (byte) value;
+        out[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putInt(byte[] out, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            out[offset + i] = (byte) (value >>> (i * 8));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.Texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Файл кешу текстури (.htex) з готовим ланцюжком mip-рівнів.
+ *
+ * Структура (little-endian):
+ * - заголовок: "HTEX", версія, формат (TextureFormat), ширина, висота, кількість рівнів;
+ * - таблиця рівнів: ширина, висота, розмір у байтах, зміщення даних від початку файлу;
+ * - дані рівнів, кожен вирівняний на 16 байт.
+ *
+ * Файл читається через відображення в пам'ять (FileChannel.map): дані рівнів передаються
+ * в glTexImage2D / glCompressedTexImage2D без копіювання в купу Java.
+ */
+public class HtexFile implements AutoCloseable {
+    public static final String EXTENSION = ".htex";
+
+    private static final int MAGIC = 0x58455448; // "HTEX" у little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int LEVEL_ENTRY_SIZE = 20;
+    private static final int DATA_ALIGNMENT = 16;
+    // Найбільша сторона, яку приймаємо з файлу; гарантує, що розміри рівнів вміщаються в int
+    private static final int MAX_DIMENSION = 16384;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final TextureFormat format;
+    private final int width;
+    private final int height;
+    private final int[] levelWidths;
+    private final int[] levelHeights;
+    private final int[] levelSizes;
+    private final long[] levelOffsets;
+
+    private HtexFile(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл не є кешем текстури (.htex)");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Непідтримувана версія кешу текстури: " + buffer.getInt(4));
+        }
+        format = readFormat(buffer.getInt(8));
+        width = buffer.getInt(12);
+        height = buffer.getInt(16);
+        int levelCount = buffer.getInt(20);
+        if (width < 1 || height < 1 || width > MAX_DIMENSION || height > MAX_DIMENSION) {
+            throw new IOException("Пошкоджений кеш текстури: розмір " + width + "x" + height);
+        }
+        if (levelCount < 1 || levelCount > MipChain.levelCount(width, height)) {
+            throw new IOException("Пошкоджений кеш текстури: кількість рівнів " + levelCount);
+        }
+        if (HEADER_SIZE + (long) levelCount * LEVEL_ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("Пошкоджений кеш текстури: таблиця рівнів виходить за межі файлу");
+        }
+
+        levelWidths = new int[levelCount];
+        levelHeights = new int[levelCount];
+        levelSizes = new int[levelCount];
+        levelOffsets = new long[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            int entry = HEADER_SIZE + level * LEVEL_ENTRY_SIZE;
+            levelWidths[level] = buffer.getInt(entry);
+            levelHeights[level] = buffer.getInt(entry + 4);
+            levelSizes[level] = buffer.getInt(entry + 8);
+            levelOffsets[level] = buffer.getLong(entry + 12);
+            if (levelWidths[level] != MipChain.levelSize(width, level)
+                    || levelHeights[level] != MipChain.levelSize(height, level)) {
+                throw new IOException("Пошкоджений кеш текстури: невідповідний розмір рівня " + level);
+            }
+            if (levelSizes[level] != format.levelSize(levelWidths[level], levelHeights[level])) {
+                throw new IOException("Пошкоджений кеш текстури: невідповідний обсяг даних рівня " + level);
+            }
+            if (levelOffsets[level] < HEADER_SIZE || levelOffsets[level] + levelSizes[level] > buffer.capacity()) {
+                throw new IOException("Пошкоджений кеш текстури: рівень " + level + " виходить за межі файлу");
+            }
+        }
+    }
+
+    private static TextureFormat readFormat(int id) throws IOException {
+        try {
+            return TextureFormat.fromId(id);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Пошкоджений кеш текстури: " + e.getMessage());
+        }
+    }
+
+    public static HtexFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new HtexFile(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Запис кешу текстури
+     *
+     * @param levels дані рівнів від найбільшого; розмір кожного має відповідати format.levelSize
+     */
+    public static void write(Path path, TextureFormat format, int width, int height, List<byte[]> levels) throws IOException {
+        int levelCount = levels.size();
+        long offset = align(HEADER_SIZE + (long) levelCount * LEVEL_ENTRY_SIZE);
+        long[] offsets = new long[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            offsets[level] = offset;
+            offset = align(offset + levels.get(level).length);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate((int) offsets[0]).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(format.getId())
+                .putInt(width).putInt(height).putInt(levelCount);
+        for (int level = 0; level < levelCount; level++) {
+            int levelWidth = Math.max(1, width >> level);
+            int levelHeight = Math.max(1, height >> level);
+            if (levels.get(level).length != format.levelSize(levelWidth, levelHeight)) {
+                throw new IllegalArgumentException("Невідповідний розмір даних рівня " + level);
+            }
+            header.putInt(levelWidth).putInt(levelHeight).putInt(levels.get(level).length).putLong(offsets[level]);
+        }
+        header.position(0);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            for (int level = 0; level < levelCount; level++) {
+                channel.write(ByteBuffer.wrap(levels.get(level)), offsets[level]);
+            }
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+    }
+
+    // Дані рівня - зріз відображеного файлу, без копіювання
+    public ByteBuffer getLevelData(int level) {
+        ByteBuffer data = buffer.duplicate();
+        data.position((int) levelOffsets[level]);
+        data.limit((int) levelOffsets[level] + levelSizes[level]);
+        return data.slice();
+    }
+
+    public TextureFormat getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLevelCount() {
+        return levelSizes.length;
+    }
+
+    public int getLevelWidth(int level) {
+        return levelWidths[level];
+    }
+
+    public int getLevelHeight(int level) {
+        return levelHeights[level];
+    }
+
+    // Сумарний розмір усіх рівнів - скільки займе текстура у відеопам'яті
+    public long getTotalBytes() {
+        long total = 0;
+        for (int size : levelSizes) {
+            total += size;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.Texture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Побудова ланцюжка mip-рівнів RGBA8 на CPU (для TexturePreprocessor та потокового завантаження).
+ * Кожен наступний рівень - усереднення 2×2 попереднього, до розміру 1×1.
+ */
+public class MipChain {
+
+    // Кількість рівнів повного ланцюжка для текстури width × height
+    public static int levelCount(int width, int height) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(1, Math.max(width, height)));
+    }
+
+    // Розмір рівня по одній стороні
+    public static int levelSize(int size, int level) {
+        return Math.max(1, size >> level);
+    }
+
+    /**
+     * @param rgba рівень 0, рядок за рядком
+     * @return усі рівні від найбільшого; рівень 0 - той самий масив
+     */
+    public static List<byte[]> build(byte[] rgba, int width, int height) {
+        List<byte[]> levels = new ArrayList<>();
+        byte[] level = rgba;
+        int levelWidth = width;
+        int levelHeight = height;
+        levels.add(level);
+        while (levelWidth > 1 || levelHeight > 1) {
+            int nextWidth = Math.max(1, levelWidth / 2);
+            int nextHeight = Math.max(1, levelHeight / 2);
+            level = downsample(level, levelWidth, levelHeight, nextWidth, nextHeight);
+            levels.add(level);
+            levelWidth = nextWidth;
+            levelHeight = nextHeight;
+        }
+        return levels;
+    }
+
+    // Усереднення 2×2; для непарних розмірів крайній піксель бере участь двічі
+    private static byte[] downsample(byte[] src, int width, int height, int newWidth, int newHeight) {
+        byte[] dst = new byte[newWidth * newHeight * 4];
+        for (int y = 0; y < newHeight; y++) {
+            int y0 = Math.min(y * 2, height - 1);
+            int y1 = Math.min(y * 2 + 1, height - 1);
+            for (int x = 0; x < newWidth; x++) {
+                int x0 = Math.min(x * 2, width - 1);
+                int x1 = Math.min(x * 2 + 1, width - 1);
+                for (int c = 0; c < 4; c++) {
+                    int sum = (src[(y0 * width + x0) * 4 + c] & 0xFF)
+                            + (src[(y0 * width + x1) * 4 + c] & 0xFF)
+                            + (src[(y1 * width + x0) * 4 + c] & 0xFF)
+                            + (src[(y1 * width + x1) * 4 + c] & 0xFF);
+                    dst[(y * newWidth + x) * 4 + c] = (byte) ((sum + 2) / 4);
+                }
+            }
+        }
+        return dst;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.Texture;
+
+import java.nio.file.Path;
+
+/**
+ * Стан однієї текстури, mip-рівні якої догружає TextureStreamer.
+ *
+ * Текстура в GPU завжди повна від рівня residentBase до останнього (1×1): GL_TEXTURE_BASE_LEVEL
+ * дорівнює residentBase, тож семплер не звертається до ще не завантажених рівнів.
+ * Поля змінюються лише з потоку з контекстом OpenGL; фоновий потік лише читає незмінні поля.
+ */
+public class StreamedTexture {
+    final String resourcePath;
+    // Файл кешу .htex або null - тоді рівні будуються з PNG/JPG
+    final Path cacheFile;
+    final int id;
+    final int width;
+    final int height;
+    final int levelCount;
+    final TextureFormat format;
+    // Найгрубший рівень, що завантажується одразу; нижче нього рівні не скидаються
+    final int initialBase;
+
+    int residentBase;
+    int desiredBase;
+    // Найтонший рівень, запитаний у фонового потоку; поки він не завантажений, новий запит не ставиться
+    int requestedBase;
+    long residentBytes;
+    long lastVisibleFrame;
+    // Найдокладніший рівень серед видимих мешів у поточному проході оцінки (Integer.MAX_VALUE - не видно)
+    int frameDesired;
+    // Помилка декодування: нові рівні більше не запитуються
+    boolean failed = false;
+    volatile boolean released = false;
+
+    StreamedTexture(String resourcePath, Path cacheFile, int id, int width, int height, TextureFormat format,
+                    int initialBase, long initialBytes) {
+        this.resourcePath = resourcePath;
+        this.cacheFile = cacheFile;
+        this.id = id;
+        this.width = width;
+        this.height = height;
+        this.levelCount = MipChain.levelCount(width, height);
+        this.format = format;
+        this.initialBase = initialBase;
+        this.residentBase = initialBase;
+        this.desiredBase = initialBase;
+        this.requestedBase = initialBase;
+        this.residentBytes = initialBytes;
+    }
+
+    boolean isRequestPending() {
+        return requestedBase < residentBase;
+    }
+
+    // Розмір рівня в байтах у GPU
+    long levelBytes(int level) {
+        return format.levelSize(MipChain.levelSize(width, level), MipChain.levelSize(height, level));
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public TextureFormat getFormat() {
+        return format;
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    // Найдокладніший рівень, що зараз у GPU
+    public int getResidentBase() {
+        return residentBase;
+    }
+
+    // Рівень, потрібний за екранним розміром
+    public int getDesiredBase() {
+        return desiredBase;
+    }
+
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+}
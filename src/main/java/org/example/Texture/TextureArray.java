@@ -0,0 +1,87 @@
+package org.example.Texture;
+
+import org.example.Profiler.RenderStats;
+import org.example.TextureManager;
+
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Масив текстур (GL_TEXTURE_2D_ARRAY) з дифузними картами кількох матеріалів однакового розміру й формату.
+ *
+ * Матеріал, прив'язаний до масиву, вибирає свій шар (ShaderMaterial.getTextureLayer), тож
+ * послідовні виклики малювання з різними матеріалами не перемикають текстуру:
+ * bind() звертається до GL лише тоді, коли на блоці TEXTURE_UNIT інший масив.
+ * Розмір масиву враховується в бюджеті відеопам'яті TextureManager від створення до cleanup().
+ */
+public class TextureArray {
+    // Окремий текстурний блок: 0 - звичайні дифузні карти, 1-3 - карти тіней
+    public static final int TEXTURE_UNIT = 4;
+
+    // Масив, прив'язаний зараз до TEXTURE_UNIT
+    private static int boundId = 0;
+
+    private final int id;
+    private final int width;
+    private final int height;
+    private final int layers;
+    private final TextureFormat format;
+    private final long sizeBytes;
+
+    TextureArray(int id, int width, int height, int layers, TextureFormat format, long sizeBytes) {
+        this.id = id;
+        this.width = width;
+        this.height = height;
+        this.layers = layers;
+        this.format = format;
+        this.sizeBytes = sizeBytes;
+        TextureManager.registerArray(sizeBytes);
+    }
+
+    public void bind() {
+        if (boundId == id) {
+            return;
+        }
+        glActiveTexture(GL_TEXTURE0 + TEXTURE_UNIT);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, id);
+        glActiveTexture(GL_TEXTURE0);
+        boundId = id;
+        RenderStats.textureBind();
+    }
+
+    // Викликається на початку кадру: стан блоку міг змінити сторонній код
+    public static void resetBinding() {
+        boundId = 0;
+    }
+
+    public void cleanup() {
+        if (boundId == id) {
+            boundId = 0;
+        }
+        glDeleteTextures(id);
+        TextureManager.unregisterArray(sizeBytes);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLayers() {
+        return layers;
+    }
+
+    public TextureFormat getFormat() {
+        return format;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.Texture;
+
+import org.example.Mesh;
+import org.example.Node;
+import org.example.ShaderMaterial;
+import org.example.TextureLoader;
+import org.example.TextureManager;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Пакування дифузних карт матеріалів сцени в масиви текстур.
+ *
+ * Основні функції:
+ * - Збирає текстуровані матеріали всіх мешів сцени та групує їхні текстури за розміром і форматом.
+ * - Для групи з кількох різних текстур створює GL_TEXTURE_2D_ARRAY, де кожна текстура - окремий шар,
+ *   і призначає матеріалам масив та номер шару.
+ * - Дані копіюються з уже завантажених текстур (glGetTexImage / glGetCompressedTexImage), тож
+ *   зображення не декодуються вдруге; для RGBA8 mip-рівні масиву генеруються, стислі копіюються по рівнях.
+ *
+ * Після копіювання окремі текстури звільняються в GPU (TextureManager.releasePacked): дескриптори
+ * лишаються у матеріалів для редактора, а у відеопам'яті кожна текстура є лише шаром масиву.
+ * Розмір масиву входить до бюджету TextureManager.
+ */
+public class TextureArrayBuilder {
+    private static final int MIN_LAYERS = 2;
+
+    public static List<TextureArray> build(Node rootNode) {
+        // Ключ групи: ширина, висота, формат; значення - матеріали групи
+        Map<String, List<ShaderMaterial>> groups = new LinkedHashMap<>();
+        Map<ShaderMaterial, Boolean> seen = new IdentityHashMap<>();
+        for (Node node : rootNode.getAllNodes()) {
+            for (Mesh mesh : node.getMeshes()) {
+                ShaderMaterial material = mesh.getShaderMaterial();
+                // Текстури з потоковим завантаженням лишаються окремими: їхні рівні змінюються під час роботи
+                if (material == null || !material.hasTexture() || material.getDiffuseMap() == null
+                        || material.getDiffuseMap().getStreamedTexture() != null
+                        || seen.put(material, Boolean.TRUE) != null) {
+                    continue;
+                }
+                TextureLoader texture = material.getDiffuseMap();
+                String key = texture.getWidth() + "x" + texture.getHeight() + " " + texture.getFormat();
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(material);
+            }
+        }
+
+        List<TextureArray> arrays = new ArrayList<>();
+        for (Map.Entry<String, List<ShaderMaterial>> group : groups.entrySet()) {
+            // Шар на кожну різну текстуру; матеріали зі спільною текстурою отримують спільний шар
+            Map<TextureLoader, Integer> layers = new IdentityHashMap<>();
+            List<TextureLoader> textures = new ArrayList<>();
+            for (ShaderMaterial material : group.getValue()) {
+                if (!layers.containsKey(material.getDiffuseMap())) {
+                    layers.put(material.getDiffuseMap(), textures.size());
+                    textures.add(material.getDiffuseMap());
+                }
+            }
+            if (textures.size() < MIN_LAYERS) {
+                continue;
+            }
+
+            TextureArray array = createArray(textures);
+            for (ShaderMaterial material : group.getValue()) {
+                material.setTextureArrayLayer(array, layers.get(material.getDiffuseMap()));
+            }
+            for (TextureLoader texture : textures) {
+                TextureManager.releasePacked(texture);
+            }
+            arrays.add(array);
+            System.out.println("Масив текстур " + group.getKey() + ": " + textures.size() + " шарів, "
+                    + group.getValue().size() + " матеріалів");
+        }
+        return arrays;
+    }
+
+    private static TextureArray createArray(List<TextureLoader> textures) {
+        TextureLoader first = textures.get(0);
+        int width = first.getWidth();
+        int height = first.getHeight();
+        int layerCount = textures.size();
+        TextureFormat format = first.getFormat();
+        int levelCount = MipChain.levelCount(width, height);
+
+        int arrayId = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D_ARRAY, arrayId);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAX_LEVEL, levelCount - 1);
+        if (format == TextureFormat.BC4) {
+            glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_SWIZZLE_G, GL_RED);
+            glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_SWIZZLE_B, GL_RED);
+        }
+
+        long sizeBytes = 0;
+        if (format.isCompressed()) {
+            int internalFormat = TextureCache.internalFormat(format);
+            for (int level = 0; level < levelCount; level++) {
+                int levelWidth = Math.max(1, width >> level);
+                int levelHeight = Math.max(1, height >> level);
+                int levelSize = format.levelSize(levelWidth, levelHeight);
+                glCompressedTexImage3D(GL_TEXTURE_2D_ARRAY, level, internalFormat, levelWidth, levelHeight,
+                        layerCount, 0, levelSize * layerCount, 0L);
+                sizeBytes += (long) levelSize * layerCount;
+            }
+        } else {
+            glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA8, width, height, layerCount, 0,
+                    GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+            sizeBytes = (long) width * height * 4L * layerCount * 4L / 3L;
+        }
+
+        // Буфер на найбільший рівень, спільний для всіх копіювань
+        ByteBuffer pixels = MemoryUtil.memAlloc(format.levelSize(width, height));
+        try {
+            for (int layer = 0; layer < layerCount; layer++) {
+                glBindTexture(GL_TEXTURE_2D, textures.get(layer).getId());
+                if (format.isCompressed()) {
+                    for (int level = 0; level < levelCount; level++) {
+                        int levelWidth = Math.max(1, width >> level);
+                        int levelHeight = Math.max(1, height >> level);
+                        pixels.clear().limit(format.levelSize(levelWidth, levelHeight));
+                        glGetCompressedTexImage(GL_TEXTURE_2D, level, pixels);
+                        glCompressedTexSubImage3D(GL_TEXTURE_2D_ARRAY, level, 0, 0, layer, levelWidth, levelHeight, 1,
+                                TextureCache.internalFormat(format), pixels);
+                    }
+                } else {
+                    pixels.clear();
+                    glGetTexImage(GL_TEXTURE_2D, 0, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+                    glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, width, height, 1,
+                            GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+                }
+            }
+        } finally {
+            MemoryUtil.memFree(pixels);
+        }
+
+        if (!format.isCompressed()) {
+            glGenerateMipmap(GL_TEXTURE_2D_ARRAY);
+        }
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+        glBindTexture(GL_TEXTURE_2D, 0);
+
+        return new TextureArray(arrayId, width, height, layerCount, format, sizeBytes);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.Texture;
+
+import org.lwjgl.opengl.GL;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.lwjgl.opengl.EXTTextureCompressionS3TC.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+import static org.lwjgl.opengl.EXTTextureCompressionS3TC.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Завантаження текстур з кешу, підготовленого TexturePreprocessor.
+ *
+ * Основні функції:
+ * - Для шляху до ресурсу шукає файл .htex у каталогі кешу; без каталогу або файлу TextureLoader
+ *   декодує зображення як раніше.
+ * - Рівні передаються в GPU прямо з відображеного в пам'ять файлу: стислі - через
+ *   glCompressedTexImage2D, RGBA8 - через glTexImage2D; glGenerateMipmap не викликається.
+ * - Стислий шлях можна вимкнути (`--no-compressed-textures`); тоді, як і за відсутності
+ *   EXT_texture_compression_s3tc, стислі файли пропускаються, а текстура декодується з PNG/JPG.
+ * - Одноканальні (BC4) текстури читаються в шейдері як сірі: канали G і B повторюють R.
+ */
+public class TextureCache {
+    private static Path directory = null;
+    private static boolean compressedEnabled = true;
+
+    // Результат завантаження з кешу
+    public static class Entry {
+        public final int textureId;
+        public final int width;
+        public final int height;
+        public final long sizeBytes;
+        public final TextureFormat format;
+
+        Entry(int textureId, int width, int height, long sizeBytes, TextureFormat format) {
+            this.textureId = textureId;
+            this.width = width;
+            this.height = height;
+            this.sizeBytes = sizeBytes;
+            this.format = format;
+        }
+    }
+
+    /**
+     * @param cacheDirectory каталог з файлами .htex або null, щоб не використовувати кеш
+     * @param compressed дозволити стислі формати
+     */
+    public static void configure(Path cacheDirectory, boolean compressed) {
+        directory = cacheDirectory;
+        compressedEnabled = compressed;
+    }
+
+    // Шлях до файлу кешу: /Textures/a/b.png -> <каталог>/Textures/a/b.png.htex
+    public static Path cachePath(Path cacheDirectory, String resourcePath) {
+        String relative = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+        return cacheDirectory.resolve(relative + HtexFile.EXTENSION);
+    }
+
+    /**
+     * Завантажити текстуру з кешу
+     *
+     * @return текстура або null, якщо в кеші її немає чи формат зараз недоступний
+     */
+    public static Entry load(String resourcePath) {
+        Path path = findCacheFile(resourcePath);
+        if (path == null) {
+            return null;
+        }
+
+        try (HtexFile file = HtexFile.open(path)) {
+            if (!isSupported(file.getFormat())) {
+                return null;
+            }
+            return new Entry(upload(file), file.getWidth(), file.getHeight(), file.getTotalBytes(), file.getFormat());
+        } catch (IOException e) {
+            System.err.println("Помилка при читанні кешу текстури " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Файл кешу для ресурсу або null, якщо кеш не налаштований чи файлу немає
+    static Path findCacheFile(String resourcePath) {
+        if (directory == null) {
+            return null;
+        }
+        Path path = cachePath(directory, resourcePath);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    static boolean isSupported(TextureFormat format) {
+        switch (format) {
+            case RGBA8:
+                return true;
+            case BC4:
+                // RGTC входить до ядра OpenGL 3.0
+                return compressedEnabled;
+            default:
+                return compressedEnabled && GL.getCapabilities().GL_EXT_texture_compression_s3tc;
+        }
+    }
+
+    private static int upload(HtexFile file) {
+        int textureID = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, textureID);
+
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, 0);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, file.getLevelCount() - 1);
+
+        TextureFormat format = file.getFormat();
+        if (format == TextureFormat.BC4) {
+            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_SWIZZLE_G, GL_RED);
+            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_SWIZZLE_B, GL_RED);
+        }
+
+        for (int level = 0; level < file.getLevelCount(); level++) {
+            int width = file.getLevelWidth(level);
+            int height = file.getLevelHeight(level);
+            if (format.isCompressed()) {
+                glCompressedTexImage2D(GL_TEXTURE_2D, level, internalFormat(format), width, height, 0,
+                        file.getLevelData(level));
+            } else {
+                glTexImage2D(GL_TEXTURE_2D, level, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE,
+                        file.getLevelData(level));
+            }
+        }
+        return textureID;
+    }
+
+    static int internalFormat(TextureFormat format) {
+        switch (format) {
+            case BC1:
+                return GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+            case BC3:
+                return GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case BC4:
+                return GL_COMPRESSED_RED_RGTC1;
+            default:
+                throw new IllegalArgumentException("Формат не є стислим: " + format);
+        }
+    }
+}
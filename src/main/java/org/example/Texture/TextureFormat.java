@@ -0,0 +1,53 @@
+package org.example.Texture;
+
+/**
+ * Формати даних у файлі кешу текстур (.htex).
+ *
+ * Стислі формати зберігають блоки 4×4 пікселі:
+ * - BC1 (DXT1) - RGB, 8 байт на блок (0.5 байта на піксель), для кольорових карт без прозорості.
+ * - BC3 (DXT5) - RGBA, 16 байт на блок: альфа окремим блоком, колір як у BC1.
+ * - BC4 (RGTC1) - один канал, 8 байт на блок, для карт у відтінках сірого.
+ * RGBA8 - без стиснення, 4 байти на піксель, лише з готовим ланцюжком mip-рівнів.
+ */
+public enum TextureFormat {
+    RGBA8(0, 4, false),
+    BC1(1, 8, true),
+    BC3(2, 16, true),
+    BC4(3, 8, true);
+
+    private final int id;
+    // Байтів на піксель (RGBA8) або на блок 4×4 (стислі формати)
+    private final int unitBytes;
+    private final boolean compressed;
+
+    TextureFormat(int id, int unitBytes, boolean compressed) {
+        this.id = id;
+        this.unitBytes = unitBytes;
+        this.compressed = compressed;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    // Розмір одного mip-рівня в байтах
+    public int levelSize(int width, int height) {
+        if (!compressed) {
+            return width * height * unitBytes;
+        }
+        return ((width + 3) / 4) * ((height + 3) / 4) * unitBytes;
+    }
+
+    public static TextureFormat fromId(int id) {
+        for (TextureFormat format : values()) {
+            if (format.id == id) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Невідомий формат текстури: " + id);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.Texture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Офлайн-підготовка текстур: PNG/JPG з ресурсів перетворюються на файли кешу .htex
+ * з готовим ланцюжком mip-рівнів, за бажанням стиснутих у BC1 / BC3 / BC4.
+ *
+ * Використання: TexturePreprocessor <каталог кешу> [--format auto|rgba8|bc1|bc3|bc4] [шлях до ресурсу...]
+ * Без шляхів обробляються всі текстури, що постачаються з рушієм. Каталог кешу потім
+ * передається рушію аргументом `--texture-cache`.
+ *
+ * Основні функції:
+ * - Зображення перевертається по вертикалі, як і в TextureLoader (stbi_set_flip_vertically_on_load).
+ * - Mip-рівні будуються усередненням 2×2 до розміру 1×1 (MipChain) - під час запуску glGenerateMipmap не потрібен.
+ * - Формат auto: BC4 для зображень у відтінках сірого, BC3 за наявності прозорості, інакше BC1.
+ */
+public class TexturePreprocessor {
+    private static final String[] BUNDLED_TEXTURES = {
+            "/Textures/primitivesPack/wood_01.png",
+            "/Textures/primitivesPack/brick_01.png",
+            "/Textures/primitivesPack/metal_01.png",
+            "/Textures/barrel/Barrel_BaseColor.jpg"
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Використання: TexturePreprocessor <каталог кешу> [--format auto|rgba8|bc1|bc3|bc4] [ресурс...]");
+            System.exit(2);
+        }
+        Path cacheDirectory = Paths.get(args[0]);
+        String formatName = "auto";
+        List<String> resources = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--format")) {
+                if (++i >= args.length) {
+                    throw new IllegalArgumentException("Аргумент --format потребує значення");
+                }
+                formatName = args[i].toLowerCase(Locale.ROOT);
+            } else {
+                resources.add(args[i]);
+            }
+        }
+        if (resources.isEmpty()) {
+            resources.addAll(List.of(BUNDLED_TEXTURES));
+        }
+
+        for (String resource : resources) {
+            process(resource, cacheDirectory, formatName);
+        }
+    }
+
+    /**
+     * Підготувати одну текстуру
+     *
+     * @param resourcePath шлях до зображення в ресурсах (той самий, що передається в TextureLoader)
+     * @param formatName auto, rgba8, bc1, bc3 або bc4
+     */
+    public static void process(String resourcePath, Path cacheDirectory, String formatName) throws IOException {
+        BufferedImage image;
+        try (InputStream is = TexturePreprocessor.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("Не вдалось знайти ресурс: " + resourcePath);
+            }
+            image = ImageIO.read(is);
+            if (image == null) {
+                throw new IOException("Непідтримуваний формат зображення: " + resourcePath);
+            }
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] rgba = toRgba(image);
+        TextureFormat format = formatName.equals("auto")
+                ? chooseFormat(rgba)
+                : TextureFormat.valueOf(formatName.toUpperCase(Locale.ROOT));
+
+        List<byte[]> rgbaLevels = MipChain.build(rgba, width, height);
+        List<byte[]> levels = new ArrayList<>(rgbaLevels.size());
+        for (int level = 0; level < rgbaLevels.size(); level++) {
+            levels.add(format.isCompressed()
+                    ? BlockCompressor.compress(rgbaLevels.get(level), MipChain.levelSize(width, level),
+                            MipChain.levelSize(height, level), format)
+                    : rgbaLevels.get(level));
+        }
+
+        Path output = TextureCache.cachePath(cacheDirectory, resourcePath);
+        HtexFile.write(output, format, width, height, levels);
+
+        long total = 0;
+        for (byte[] data : levels) {
+            total += data.length;
+        }
+        long uncompressed = (long) width * height * 4L * 4L / 3L;
+        System.out.println(String.format(Locale.ROOT, "%s -> %s: %dx%d %s, %d рівнів, %.2f МБ (RGBA8 з mip: %.2f МБ)",
+                resourcePath, output, width, height, format, levels.size(),
+                total / (1024.0 * 1024.0), uncompressed / (1024.0 * 1024.0)));
+    }
+
+    // RGBA8 рядок за рядком, перший рядок - нижній (як після stbi_set_flip_vertically_on_load)
+    private static byte[] toRgba(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] rgba = new byte[width * height * 4];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, height - 1 - y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int argb = row[x];
+                int dst = (y * width + x) * 4;
+                rgba[dst] = (byte) (argb >> 16);
+                rgba[dst + 1] = (byte) (argb >> 8);
+                rgba[dst + 2] = (byte) argb;
+                rgba[dst + 3] = (byte) (argb >>> 24);
+            }
+        }
+        return rgba;
+    }
+
+    private static TextureFormat chooseFormat(byte[] rgba) {
+        boolean grayscale = true;
+        boolean alpha = false;
+        for (int i = 0; i < rgba.length; i += 4) {
+            if (rgba[i] != rgba[i + 1] || rgba[i] != rgba[i + 2]) {
+                grayscale = false;
+            }
+            if ((rgba[i + 3] & 0xFF) != 255) {
+                alpha = true;
+            }
+        }
+        if (alpha) {
+            return TextureFormat.BC3;
+        }
+        return grayscale ? TextureFormat.BC4 : TextureFormat.BC1;
+    }
+}
@@ -0,0 +1,505 @@
+package org.example.Texture;
+
+import org.example.ShaderMaterial;
+import org.example.Simulation.RenderSnapshot;
+import org.example.TextureLoader;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.lwjgl.opengl.GL33.*;
+import static org.lwjgl.stb.STBImage.*;
+
+/**
+ * Потокове завантаження mip-рівнів текстур.
+ *
+ * Основні функції:
+ * - `load(path)` одразу створює текстуру лише з дрібних рівнів: з кешу .htex - рівні до INITIAL_SIZE
+ *   пікселів, для PNG/JPG - сіра заглушка 1×1 (щоб отримати дрібний рівень, зображення все одно треба
+ *   декодувати повністю, тож це робиться у фоні). Головний потік не чекає на декодування.
+ * - Раз на DESIRED_INTERVAL кадрів оцінюється екранний розмір кожного меша знімка сцени (AABB у світі,
+ *   відстань до камери, проекція) і з нього - потрібний рівень для його дифузної текстури.
+ * - Відсутні рівні декодуються у фоновому потоці (STB + MipChain або копія з кешу .htex) і
+ *   завантажуються в GPU від грубих до дрібних, не більше uploadBudgetBytes за кадр
+ *   (але щонайменше один рівень); після кожного рівня зсувається GL_TEXTURE_BASE_LEVEL.
+ * - Коли рівні всіх текстур займають більше memoryBudgetBytes, спершу скидаються рівні, дрібніші
+ *   за потрібні, потім - рівні текстур, яких давно не видно (у порядку давності), але не нижче
+ *   початкових. Рівні текстур, видимих зараз, не скидаються.
+ *
+ * Усі методи, крім фонового декодування, викликаються з потоку з контекстом OpenGL.
+ */
+public class TextureStreamer {
+    public static final long DEFAULT_UPLOAD_BUDGET_BYTES = 8L * 1024 * 1024;
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 256L * 1024 * 1024;
+    // Найбільша сторона рівнів, що завантажуються одразу з кешу .htex
+    private static final int INITIAL_SIZE = 64;
+    private static final int DESIRED_INTERVAL = 8;
+    private static final float MIN_DISTANCE = 0.01f;
+
+    // Рівень, підготовлений фоновим потоком; data == null - помилка декодування
+    private static class LevelData {
+        final StreamedTexture texture;
+        final int level;
+        final ByteBuffer data;
+
+        LevelData(StreamedTexture texture, int level, ByteBuffer data) {
+            this.texture = texture;
+            this.level = level;
+            this.data = data;
+        }
+    }
+
+    private static final List<StreamedTexture> textures = new ArrayList<>();
+    private static final Queue<LevelData> ready = new ConcurrentLinkedQueue<>();
+    private static ExecutorService worker = null;
+
+    private static boolean enabled = false;
+    private static long uploadBudgetBytes = DEFAULT_UPLOAD_BUDGET_BYTES;
+    private static long memoryBudgetBytes = DEFAULT_MEMORY_BUDGET_BYTES;
+    private static long residentBytes = 0;
+    private static long frameIndex = 0;
+
+    // Статистика для панелі рендерингу
+    private static long uploadedBytesLastFrame = 0;
+    private static int uploadedLevels = 0;
+    private static int droppedLevels = 0;
+
+    // Тимчасові об'єкти оцінки видимості, щоб не створювати їх щокадру
+    private static final Matrix4f viewProjection = new Matrix4f();
+    private static final FrustumIntersection frustum = new FrustumIntersection();
+    private static final Vector3f boundsMin = new Vector3f();
+    private static final Vector3f boundsMax = new Vector3f();
+    private static final Vector3f center = new Vector3f();
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Створити текстуру з дрібними рівнями; решта рівнів догружатиметься в update()
+     *
+     * @param resourcePath шлях до зображення в ресурсах
+     */
+    public static StreamedTexture load(String resourcePath) throws IOException {
+        Path cacheFile = TextureCache.findCacheFile(resourcePath);
+        StreamedTexture texture = null;
+        if (cacheFile != null) {
+            texture = loadFromCache(resourcePath, cacheFile);
+        }
+        if (texture == null) {
+            texture = loadPlaceholder(resourcePath);
+        }
+        textures.add(texture);
+        residentBytes += texture.residentBytes;
+        return texture;
+    }
+
+    private static StreamedTexture loadFromCache(String resourcePath, Path cacheFile) {
+        try (HtexFile file = HtexFile.open(cacheFile)) {
+            TextureFormat format = file.getFormat();
+            if (!TextureCache.isSupported(format)) {
+                return null;
+            }
+            int levelCount = file.getLevelCount();
+            int initialBase = levelCount - 1;
+            while (initialBase > 0 && Math.max(file.getLevelWidth(initialBase - 1),
+                    file.getLevelHeight(initialBase - 1)) <= INITIAL_SIZE) {
+                initialBase--;
+            }
+
+            int textureId = createTexture(format, levelCount);
+            long bytes = 0;
+            for (int level = levelCount - 1; level >= initialBase; level--) {
+                ByteBuffer data = file.getLevelData(level);
+                uploadLevel(format, level, file.getLevelWidth(level), file.getLevelHeight(level), data);
+                bytes += data.remaining();
+            }
+            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, initialBase);
+            glBindTexture(GL_TEXTURE_2D, 0);
+            return new StreamedTexture(resourcePath, cacheFile, textureId, file.getWidth(), file.getHeight(),
+                    format, initialBase, bytes);
+        } catch (IOException e) {
+            System.err.println("Помилка при читанні кешу текстури " + cacheFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Розміри читаються із заголовка зображення; до декодування у фоні текстура - сірий піксель
+    private static StreamedTexture loadPlaceholder(String resourcePath) throws IOException {
+        int width;
+        int height;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            ByteBuffer encoded = readResource(resourcePath);
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+            if (!stbi_info_from_memory(encoded, w, h, channels)) {
+                throw new IOException("Не вдалось прочитати заголовок зображення: " + stbi_failure_reason());
+            }
+            width = w.get(0);
+            height = h.get(0);
+        }
+
+        int levelCount = MipChain.levelCount(width, height);
+        int initialBase = levelCount - 1;
+        int textureId = createTexture(TextureFormat.RGBA8, levelCount);
+        ByteBuffer gray = BufferUtils.createByteBuffer(4);
+        gray.put((byte) 128).put((byte) 128).put((byte) 128).put((byte) 255).flip();
+        uploadLevel(TextureFormat.RGBA8, initialBase, 1, 1, gray);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, initialBase);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        return new StreamedTexture(resourcePath, null, textureId, width, height, TextureFormat.RGBA8, initialBase, 4);
+    }
+
+    // Створює та прив'язує текстуру; рівні задаються окремо
+    private static int createTexture(TextureFormat format, int levelCount) {
+        int textureId = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, textureId);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, levelCount - 1);
+        if (format == TextureFormat.BC4) {
+            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_SWIZZLE_G, GL_RED);
+            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_SWIZZLE_B, GL_RED);
+        }
+        return textureId;
+    }
+
+    private static void uploadLevel(TextureFormat format, int level, int width, int height, ByteBuffer data) {
+        if (format.isCompressed()) {
+            glCompressedTexImage2D(GL_TEXTURE_2D, level, TextureCache.internalFormat(format), width, height, 0, data);
+        } else {
+            glTexImage2D(GL_TEXTURE_2D, level, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, data);
+        }
+    }
+
+    /**
+     * Видалити текстуру; рівні, які ще декодуються, буде відкинуто
+     */
+    public static void release(StreamedTexture texture) {
+        if (texture == null || texture.released) {
+            return;
+        }
+        texture.released = true;
+        textures.remove(texture);
+        residentBytes -= texture.residentBytes;
+        glDeleteTextures(texture.id);
+    }
+
+    /**
+     * Оновлення за кадр: оцінка потрібних рівнів, завантаження готових рівнів у межах бюджету,
+     * нові запити фоновому потоку та скидання зайвих рівнів
+     *
+     * @param snapshot знімок сцени кадру
+     * @param viewportHeight висота кадру в пікселях
+     */
+    public static void update(RenderSnapshot snapshot, Matrix4f viewMatrix, Matrix4f projectionMatrix, int viewportHeight,
+                              Vector3f cameraPosition) {
+        if (textures.isEmpty() && ready.isEmpty()) {
+            return;
+        }
+        frameIndex++;
+        if (frameIndex % DESIRED_INTERVAL == 1) {
+            updateDesired(snapshot, viewMatrix, projectionMatrix, viewportHeight, cameraPosition);
+        }
+        uploadReady();
+        requestLevels();
+        enforceBudget();
+    }
+
+    // Потрібний рівень: текстура приблизно один раз покриває меш, тож на його екранний діаметр
+    // вистачає рівня з такою самою кількістю текселів
+    private static void updateDesired(RenderSnapshot snapshot, Matrix4f viewMatrix, Matrix4f projectionMatrix,
+                                      int viewportHeight, Vector3f cameraPosition) {
+        for (StreamedTexture texture : textures) {
+            texture.frameDesired = Integer.MAX_VALUE;
+        }
+
+        frustum.set(viewProjection.set(projectionMatrix).mul(viewMatrix));
+        // Пікселів на одиницю довжини на відстані 1
+        float pixelScale = projectionMatrix.m11() * viewportHeight * 0.5f;
+        for (int i = 0; i < snapshot.getMeshCount(); i++) {
+            ShaderMaterial material = snapshot.getMaterial(i);
+            TextureLoader diffuse = material != null ? material.getDiffuseMap() : null;
+            StreamedTexture texture = diffuse != null ? diffuse.getStreamedTexture() : null;
+            if (texture == null) {
+                continue;
+            }
+            snapshot.getMesh(i).getWorldBounds(boundsMin, boundsMax);
+            if (!frustum.testAab(boundsMin, boundsMax)) {
+                continue;
+            }
+            float radius = boundsMin.distance(boundsMax) * 0.5f;
+            boundsMin.add(boundsMax, center).mul(0.5f);
+            float distance = Math.max(center.distance(cameraPosition) - radius, MIN_DISTANCE);
+            float projectedPixels = Math.max(2.0f * radius * pixelScale / distance, 1.0f);
+            int textureSize = Math.max(texture.width, texture.height);
+            int level = (int) Math.floor(Math.log(textureSize / projectedPixels) / Math.log(2.0));
+            level = Math.max(0, Math.min(level, texture.initialBase));
+            texture.frameDesired = Math.min(texture.frameDesired, level);
+            texture.lastVisibleFrame = frameIndex;
+        }
+
+        // Невидимі текстури лишаються з тим, що вже завантажено
+        for (StreamedTexture texture : textures) {
+            texture.desiredBase = texture.frameDesired == Integer.MAX_VALUE
+                    ? Math.min(texture.residentBase, texture.initialBase)
+                    : texture.frameDesired;
+        }
+    }
+
+    private static void uploadReady() {
+        uploadedBytesLastFrame = 0;
+        LevelData item;
+        while ((item = ready.peek()) != null) {
+            StreamedTexture texture = item.texture;
+            if (item.data != null && uploadedBytesLastFrame > 0
+                    && uploadedBytesLastFrame + item.data.remaining() > uploadBudgetBytes) {
+                break;
+            }
+            ready.poll();
+            if (item.data == null) {
+                System.err.println("Помилка при потоковому завантаженні текстури: " + texture.resourcePath);
+                texture.failed = true;
+                texture.requestedBase = texture.residentBase;
+                continue;
+            }
+            // Рівні однієї текстури надходять від грубих до дрібних; інші - застарілі
+            if (texture.released || item.level != texture.residentBase - 1) {
+                MemoryUtil.memFree(item.data);
+                continue;
+            }
+
+            int size = item.data.remaining();
+            glBindTexture(GL_TEXTURE_2D, texture.id);
+            uploadLevel(texture.format, item.level, MipChain.levelSize(texture.width, item.level),
+                    MipChain.levelSize(texture.height, item.level), item.data);
+            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, item.level);
+            MemoryUtil.memFree(item.data);
+
+            texture.residentBase = item.level;
+            texture.residentBytes += size;
+            residentBytes += size;
+            uploadedBytesLastFrame += size;
+            uploadedLevels++;
+        }
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    // Одна заявка на текстуру: наступна - після завантаження всіх рівнів попередньої
+    private static void requestLevels() {
+        for (StreamedTexture texture : textures) {
+            if (texture.failed || texture.isRequestPending() || texture.desiredBase >= texture.residentBase) {
+                continue;
+            }
+            int fromLevel = texture.desiredBase;
+            int toLevel = texture.residentBase;
+            texture.requestedBase = fromLevel;
+            getWorker().execute(() -> decodeLevels(texture, fromLevel, toLevel));
+        }
+    }
+
+    private static ExecutorService getWorker() {
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "texture-streamer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return worker;
+    }
+
+    // Фоновий потік: рівні [fromLevel, toLevel) у порядку від грубого до дрібного
+    private static void decodeLevels(StreamedTexture texture, int fromLevel, int toLevel) {
+        if (texture.released) {
+            return;
+        }
+        try {
+            if (texture.cacheFile != null) {
+                try (HtexFile file = HtexFile.open(texture.cacheFile)) {
+                    for (int level = toLevel - 1; level >= fromLevel && !texture.released; level--) {
+                        ByteBuffer source = file.getLevelData(level);
+                        ByteBuffer copy = MemoryUtil.memAlloc(source.remaining());
+                        copy.put(source).flip();
+                        ready.add(new LevelData(texture, level, copy));
+                    }
+                }
+                return;
+            }
+
+            byte[] rgba;
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                IntBuffer w = stack.mallocInt(1);
+                IntBuffer h = stack.mallocInt(1);
+                IntBuffer channels = stack.mallocInt(1);
+                stbi_set_flip_vertically_on_load_thread(1);
+                ByteBuffer image = stbi_load_from_memory(readResource(texture.resourcePath), w, h, channels, 4);
+                if (image == null) {
+                    throw new IOException(stbi_failure_reason());
+                }
+                rgba = new byte[image.remaining()];
+                image.get(rgba);
+                stbi_image_free(image);
+            }
+            List<byte[]> levels = MipChain.build(rgba, texture.width, texture.height);
+            for (int level = toLevel - 1; level >= fromLevel && !texture.released; level--) {
+                byte[] pixels = levels.get(level);
+                ByteBuffer copy = MemoryUtil.memAlloc(pixels.length);
+                copy.put(pixels).flip();
+                ready.add(new LevelData(texture, level, copy));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Помилка при декодуванні текстури " + texture.resourcePath + ": " + e.getMessage());
+            ready.add(new LevelData(texture, fromLevel, null));
+        }
+    }
+
+    private static ByteBuffer readResource(String resourcePath) throws IOException {
+        try (InputStream is = TextureStreamer.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("Не вдалось знайти ресурс: " + resourcePath);
+            }
+            byte[] data = is.readAllBytes();
+            ByteBuffer buffer = BufferUtils.createByteBuffer(data.length);
+            buffer.put(data).flip();
+            return buffer;
+        }
+    }
+
+    // Скидання рівнів при перевищенні бюджету: спершу зайві, потім рівні давно невидимих текстур
+    private static void enforceBudget() {
+        if (residentBytes <= memoryBudgetBytes) {
+            return;
+        }
+        List<StreamedTexture> candidates = new ArrayList<>();
+        for (StreamedTexture texture : textures) {
+            if (!texture.isRequestPending()) {
+                candidates.add(texture);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(texture -> texture.lastVisibleFrame));
+
+        for (StreamedTexture texture : candidates) {
+            while (residentBytes > memoryBudgetBytes && texture.residentBase < texture.desiredBase) {
+                dropFinestLevel(texture);
+            }
+        }
+        for (StreamedTexture texture : candidates) {
+            if (texture.lastVisibleFrame + DESIRED_INTERVAL > frameIndex) {
+                continue;
+            }
+            while (residentBytes > memoryBudgetBytes && texture.residentBase < texture.initialBase) {
+                dropFinestLevel(texture);
+            }
+            texture.desiredBase = texture.residentBase;
+        }
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    // Спершу зсувається базовий рівень, потім пам'ять рівня звільняється заданням розміру 0×0
+    private static void dropFinestLevel(StreamedTexture texture) {
+        int level = texture.residentBase;
+        glBindTexture(GL_TEXTURE_2D, texture.id);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, level + 1);
+        glTexImage2D(GL_TEXTURE_2D, level, GL_RGBA, 0, 0, 0, GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+
+        long bytes = texture.levelBytes(level);
+        texture.residentBase = level + 1;
+        texture.requestedBase = texture.residentBase;
+        texture.residentBytes -= bytes;
+        residentBytes -= bytes;
+        droppedLevels++;
+    }
+
+    public static void setUploadBudgetBytes(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Бюджет завантаження за кадр має бути більше нуля: " + budget);
+        }
+        uploadBudgetBytes = budget;
+    }
+
+    public static long getUploadBudgetBytes() {
+        return uploadBudgetBytes;
+    }
+
+    public static void setMemoryBudgetBytes(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Бюджет відеопам'яті має бути більше нуля: " + budget);
+        }
+        memoryBudgetBytes = budget;
+    }
+
+    public static long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    public static long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public static int getTextureCount() {
+        return textures.size();
+    }
+
+    // Текстури, у яких ще не всі потрібні рівні в GPU
+    public static int getPendingCount() {
+        int count = 0;
+        for (StreamedTexture texture : textures) {
+            if (texture.residentBase > texture.desiredBase && !texture.failed) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static long getUploadedBytesLastFrame() {
+        return uploadedBytesLastFrame;
+    }
+
+    public static int getUploadedLevels() {
+        return uploadedLevels;
+    }
+
+    public static int getDroppedLevels() {
+        return droppedLevels;
+    }
+
+    // Зупинка фонового потоку; викликається після видалення всіх текстур
+    public static void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+            worker = null;
+        }
+        LevelData item;
+        while ((item = ready.poll()) != null) {
+            if (item.data != null) {
+                MemoryUtil.memFree(item.data);
+            }
+        }
+        textures.clear();
+        residentBytes = 0;
+    }
+}
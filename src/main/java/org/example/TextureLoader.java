@@ -1,5 +1,9 @@
 package org.example;
 
+import org.example.Texture.TextureCache;
+import org.example.Texture.StreamedTexture;
+import org.example.Texture.TextureFormat;
+import org.example.Texture.TextureStreamer;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.system.MemoryStack;
 
@@ -15,16 +19,50 @@ import static org.lwjgl.opengl.GL30.glGenerateMipmap;
 import static org.lwjgl.stb.STBImage.*;
 
 public class TextureLoader {
-    private final int id;
-    private static int width;
-    private static int height;
+    private final String path;
+    // 0 - текстуру видалено (або окрему копію звільнено після пакування в масив текстур)
+    private int id;
+    // Розміри та формат саме цієї текстури (у файл сцени не пишуться)
+    private transient int width;
+    private transient int height;
+    private transient long sizeBytes;
+    private transient TextureFormat format = TextureFormat.RGBA8;
+    // Текстура з потоковим завантаженням mip-рівнів (TextureStreamer) або null
+    private transient StreamedTexture streamed;
+
+    // Облік TextureManager: кількість власників, оцінка розміру в GPU та кадр останнього використання
+    transient int refCount = 0;
+    transient boolean managed = false;
+    transient long managedBytes = 0;
+    transient long lastUsedFrame = 0;
 
     public TextureLoader(String path) throws IOException {
+        this.path = path;
         // Завантаження текстури з ресурсів
         id = loadTexture(path);
     }
 
-    private static int loadTexture(String path) throws IOException {
+    private int loadTexture(String path) throws IOException {
+        // Потокове завантаження: одразу лише дрібні рівні, решта - у фоні
+        if (TextureStreamer.isEnabled()) {
+            streamed = TextureStreamer.load(path);
+            width = streamed.getWidth();
+            height = streamed.getHeight();
+            sizeBytes = streamed.getResidentBytes();
+            format = streamed.getFormat();
+            return streamed.getId();
+        }
+
+        // Готові mip-рівні з кешу (TexturePreprocessor), якщо він налаштований
+        TextureCache.Entry cached = TextureCache.load(path);
+        if (cached != null) {
+            width = cached.width;
+            height = cached.height;
+            sizeBytes = cached.sizeBytes;
+            format = cached.format;
+            return cached.textureId;
+        }
+
         // Завантаження зображення використовуючи STB бібліотеку
         ByteBuffer imageBuffer;
         try (MemoryStack stack = MemoryStack.stackPush()) {
@@ -55,6 +93,9 @@ public class TextureLoader {
 
             width = w.get(0);
             height = h.get(0);
+            // RGBA8 плюс ланцюжок mip-рівнів (~1/3)
+            sizeBytes = (long) width * height * 4L * 4L / 3L;
+            format = TextureFormat.RGBA8;
         }
 
         // Створюємо OpenGL текстуру
@@ -78,6 +119,9 @@ public class TextureLoader {
     }
 
     public void bind() {
+        if (managed) {
+            TextureManager.markUsed(this);
+        }
         glActiveTexture(GL_TEXTURE0);
         glBindTexture(GL_TEXTURE_2D, id);
     }
@@ -87,7 +131,30 @@ public class TextureLoader {
     }
 
     public void cleanup() {
-        glDeleteTextures(id);
+        if (streamed != null) {
+            TextureStreamer.release(streamed);
+            streamed = null;
+            id = 0;
+        }
+        if (id != 0) {
+            glDeleteTextures(id);
+            id = 0;
+        }
+    }
+
+    // Повторне завантаження окремої копії, звільненої після пакування в масив
+    void reload() throws IOException {
+        if (id == 0) {
+            id = loadTexture(path);
+        }
+    }
+
+    boolean isResident() {
+        return id != 0;
+    }
+
+    public String getPath() {
+        return path;
     }
 
     public int getId() {
@@ -101,4 +168,19 @@ public class TextureLoader {
     public int getHeight() {
         return height;
     }
+
+    // Розмір у відеопам'яті в байтах (з усіма mip-рівнями; для потокових - початкових рівнів)
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    // Стан потокового завантаження або null, якщо текстура завантажена повністю
+    public StreamedTexture getStreamedTexture() {
+        return streamed;
+    }
+
+    // Формат даних у GPU: RGBA8 або стислий формат з кешу текстур
+    public TextureFormat getFormat() {
+        return format;
+    }
 }
\ No newline at end of file
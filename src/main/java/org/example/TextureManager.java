@@ -0,0 +1,187 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Кеш текстур за шляхом до ресурсу зі спільними дескрипторами та лічильниками посилань.
+ *
+ * Основні функції:
+ * - `acquire(path)` повертає вже завантажену текстуру для того самого шляху (зображення
+ *   декодується і завантажується в GPU лише раз) та збільшує лічильник посилань.
+ * - `release(texture)` зменшує лічильник; на нулі текстура лишається в кеші як невикористана,
+ *   щоб повторний acquire того самого шляху не завантажував її знову.
+ * - Бюджет відеопам'яті: коли оцінка зайнятої пам'яті перевищує бюджет, видаляються невикористані
+ *   текстури (лічильник посилань 0), які найдовше не прив'язувались (LRU). Текстури з власниками
+ *   не вивантажуються ніколи, тож bind() не завантажує нічого синхронно; для потокових текстур
+ *   пам'ять звільняє TextureStreamer, скидаючи дрібні mip-рівні.
+ *
+ * - Масиви текстур (TextureArrayBuilder) теж входять у бюджет (`registerArray`), а окремі копії
+ *   запакованих текстур звільняються (`releasePacked`) - кожна текстура в GPU лише один раз.
+ *
+ * Розмір береться з TextureLoader: для RGBA8 - ширина × висота × 4 байти × 4/3 (з mip-рівнями),
+ * для текстур зі стислого кешу - фактичний розмір рівнів.
+ * Усі методи викликаються з потоку з контекстом OpenGL.
+ */
+public class TextureManager {
+    public static final long DEFAULT_BUDGET_BYTES = 256L * 1024 * 1024;
+
+    // Порядок доступу: перший запис - найдавніше використана текстура
+    private static final Map<String, TextureLoader> textures = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long budgetBytes = DEFAULT_BUDGET_BYTES;
+    private static long residentBytes = 0;
+    private static long arrayBytes = 0;
+    private static long frameIndex = 1;
+    private static int evictions = 0;
+
+    /**
+     * Отримати спільну текстуру за шляхом до ресурсу
+     *
+     * @param path шлях до зображення в ресурсах
+     * @return дескриптор текстури; після використання його треба повернути через release
+     */
+    public static TextureLoader acquire(String path) throws IOException {
+        TextureLoader texture = textures.get(path);
+        if (texture == null) {
+            texture = new TextureLoader(path);
+            texture.managed = true;
+            texture.managedBytes = texture.getSizeBytes();
+            textures.put(path, texture);
+            residentBytes += texture.managedBytes;
+        } else if (!texture.isResident()) {
+            // Окрему копію звільнено після пакування в масив; новий власник масиву не має
+            texture.reload();
+            residentBytes += texture.managedBytes;
+        }
+        texture.refCount++;
+        texture.lastUsedFrame = frameIndex;
+        enforceBudget();
+        return texture;
+    }
+
+    /**
+     * Повернути текстуру. Текстури, створені поза менеджером, просто видаляються.
+     */
+    public static void release(TextureLoader texture) {
+        if (texture == null) {
+            return;
+        }
+        if (!texture.managed) {
+            texture.cleanup();
+            return;
+        }
+        if (--texture.refCount > 0) {
+            return;
+        }
+        enforceBudget();
+    }
+
+    // Викликається на початку кожного кадру
+    public static void beginFrame() {
+        frameIndex++;
+    }
+
+    // Викликається з TextureLoader.bind(): лише оновлює порядок LRU
+    static void markUsed(TextureLoader texture) {
+        textures.get(texture.getPath());
+        texture.lastUsedFrame = frameIndex;
+    }
+
+    // Видалення найдавніше використаних текстур без власників, поки зайнята пам'ять більша за бюджет
+    private static void enforceBudget() {
+        Iterator<TextureLoader> iterator = textures.values().iterator();
+        while (residentBytes > budgetBytes && iterator.hasNext()) {
+            TextureLoader texture = iterator.next();
+            if (texture.refCount > 0 || texture.lastUsedFrame >= frameIndex) {
+                continue;
+            }
+            iterator.remove();
+            if (texture.isResident()) {
+                residentBytes -= texture.managedBytes;
+                evictions++;
+            }
+            texture.cleanup();
+            texture.managed = false;
+        }
+    }
+
+    /**
+     * Звільнити окрему копію текстури, вже скопійованої в масив текстур. Дескриптор лишається
+     * у матеріалів (шлях, розмір для редактора); новий acquire того самого шляху завантажить її знову.
+     */
+    public static void releasePacked(TextureLoader texture) {
+        if (!texture.managed || !texture.isResident()) {
+            return;
+        }
+        texture.cleanup();
+        residentBytes -= texture.managedBytes;
+    }
+
+    // Масив текстур у відеопам'яті: враховується в бюджеті, але не вивантажується
+    public static void registerArray(long sizeBytes) {
+        arrayBytes += sizeBytes;
+        residentBytes += sizeBytes;
+        enforceBudget();
+    }
+
+    public static void unregisterArray(long sizeBytes) {
+        arrayBytes -= sizeBytes;
+        residentBytes -= sizeBytes;
+    }
+
+    public static void setBudgetBytes(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Бюджет відеопам'яті має бути більше нуля: " + budget);
+        }
+        budgetBytes = budget;
+        enforceBudget();
+    }
+
+    public static long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public static long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public static int getTextureCount() {
+        return textures.size();
+    }
+
+    // Текстури, які зараз хтось використовує (решта - невикористані в кеші)
+    public static int getReferencedCount() {
+        int count = 0;
+        for (TextureLoader texture : textures.values()) {
+            if (texture.refCount > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Частка getResidentBytes, яку займають масиви текстур
+    public static long getArrayBytes() {
+        return arrayBytes;
+    }
+
+    public static int getEvictions() {
+        return evictions;
+    }
+
+    // Видалення всіх текстур при завершенні роботи
+    public static void cleanup() {
+        List<TextureLoader> all = new ArrayList<>(textures.values());
+        for (TextureLoader texture : all) {
+            texture.cleanup();
+            texture.managed = false;
+        }
+        textures.clear();
+        residentBytes = arrayBytes;
+    }
+}
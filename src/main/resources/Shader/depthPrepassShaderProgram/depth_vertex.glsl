@@ -0,0 +1,18 @@
+#version 330 core
+
+layout (location = 0) in vec3 aPos;
+
+// Та же позиция, что и в mainShaderProgram/vertex_shader.glsl: GL_EQUAL цветового прохода
+// совпадает только при одинаковом выражении над одинаковыми данными в обоих invariant-шейдерах
+invariant gl_Position;
+
+// Диапазон кольцевого буфера UniformRingBuffer, записанный для цветового прохода (std140, 192 байта)
+layout(std140) uniform DrawBlock {
+    mat4 mvp;          // Model-View-Projection матрица
+    mat4 model;        // Не используется - только для совпадения раскладки блока
+    mat4 normalMatrix; // Не используется
+};
+
+void main() {
+    gl_Position = mvp * vec4(aPos, 1.0);
+}
@@ -0,0 +1,66 @@
+#version 330 core
+
+in vec3 nearPoint;
+in vec3 farPoint;
+
+out vec4 FragColor;
+
+uniform mat4 viewProjection; // Для глубины точки на плоскости
+uniform vec3 viewPos;        // Позиция камеры
+uniform float gridSize;      // Шаг второстепенных линий; основные - каждые 5
+uniform float fadeDistance;  // Расстояние, на котором сетка полностью исчезает
+uniform vec4 minorColor;
+uniform vec4 majorColor;
+uniform vec4 xAxisColor;
+uniform vec4 zAxisColor;
+
+// Покрытие пикселя линией сетки с шагом spacing: ширина линии - один пиксель по производным
+float lineCoverage(vec2 coord, float spacing) {
+    vec2 cell = coord / spacing;
+    vec2 width = fwidth(cell);
+    vec2 distanceToLine = abs(fract(cell - 0.5) - 0.5) / width;
+    float coverage = 1.0 - min(min(distanceToLine.x, distanceToLine.y), 1.0);
+    // Когда ячейка меньше нескольких пикселей, линии сливаются в муар - плавно убираем их
+    float density = max(width.x, width.y);
+    return coverage * (1.0 - smoothstep(0.2, 0.5, density));
+}
+
+void main()
+{
+    // Пересечение луча с плоскостью y = 0; выше горизонта плоскости нет
+    float t = -nearPoint.y / (farPoint.y - nearPoint.y);
+    if (t <= 0.0) {
+        discard;
+    }
+    vec3 worldPos = nearPoint + t * (farPoint - nearPoint);
+
+    vec4 clipPos = viewProjection * vec4(worldPos, 1.0);
+    gl_FragDepth = clipPos.z / clipPos.w * 0.5 + 0.5;
+
+    vec2 coord = worldPos.xz;
+    float minor = lineCoverage(coord, gridSize);
+    float major = lineCoverage(coord, gridSize * 5.0);
+    vec4 color = major > 0.0 ? majorColor : minorColor;
+    float alpha = max(minor, major);
+
+    // Оси: линия x = 0 идёт вдоль Z, линия z = 0 - вдоль X
+    vec2 axisWidth = fwidth(coord);
+    float zAxis = 1.0 - min(abs(coord.x) / axisWidth.x, 1.0);
+    float xAxis = 1.0 - min(abs(coord.y) / axisWidth.y, 1.0);
+    if (zAxis > 0.0) {
+        color = zAxisColor;
+        alpha = max(alpha, zAxis);
+    }
+    if (xAxis > 0.0) {
+        color = xAxisColor;
+        alpha = max(alpha, xAxis);
+    }
+
+    // Затухание с расстоянием от камеры
+    float distance = length(worldPos - viewPos);
+    alpha *= 1.0 - smoothstep(fadeDistance * 0.5, fadeDistance, distance);
+    if (alpha <= 0.0) {
+        discard;
+    }
+    FragColor = vec4(color.rgb, color.a * alpha);
+}
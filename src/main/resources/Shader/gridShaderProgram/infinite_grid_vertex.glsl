@@ -0,0 +1,23 @@
+#version 330 core
+
+// Полноэкранный прямоугольник без вершинного буфера: углы берутся из gl_VertexID
+const vec2 corners[4] = vec2[](vec2(-1.0, -1.0), vec2(1.0, -1.0), vec2(-1.0, 1.0), vec2(1.0, 1.0));
+
+uniform mat4 inverseViewProjection; // Обратная матрица вида-проекции
+
+// Точки на ближней и дальней плоскостях в мировых координатах - луч через пиксель
+out vec3 nearPoint;
+out vec3 farPoint;
+
+vec3 unproject(vec2 ndc, float depth) {
+    vec4 point = inverseViewProjection * vec4(ndc, depth, 1.0);
+    return point.xyz / point.w;
+}
+
+void main()
+{
+    vec2 ndc = corners[gl_VertexID];
+    nearPoint = unproject(ndc, -1.0);
+    farPoint = unproject(ndc, 1.0);
+    gl_Position = vec4(ndc, 0.0, 1.0);
+}
@@ -4,38 +4,94 @@
 in vec3 FragPos;
 in vec3 Normal;
 in vec2 TexCoord;
-in vec4 FragPosLightSpace; // Для теней
 
 // Выходной цвет фрагмента
 out vec4 FragColor;
 
-// Структура для описания материала
-struct Material {
-    vec3 ambient;        // Ambient отражение
-    vec3 diffuse;        // Diffuse отражение
-    vec3 specular;       // Specular отражение
-    float shininess;     // Коэффициент блеска
-    int useTexture;      // Флаг использования текстуры (1 = использовать, 0 = не использовать)
-    sampler2D diffuseMap; // Диффузная текстура
+// Параметры материала в std140 (MaterialRegistry): 64 байта на материал
+struct MaterialData {
+    vec4 ambient;   // xyz - ambient отражение, w - коэффициент блеска
+    vec4 diffuse;   // xyz - diffuse отражение
+    vec4 specular;  // xyz - specular отражение
+    ivec4 flags;    // x - текстура (0 = нет, 1 = diffuseMap, 2 = слой diffuseArrayMap), y - слой массива
 };
 
+#ifdef INDIRECT_DRAW
+// Путь glMultiDrawElementsIndirect (GL 4.3): весь реестр материалов в SSBO, индекс - из данных вызова
+layout(std430, binding = 1) readonly buffer MaterialBuffer {
+    MaterialData materials[];
+};
+flat in int MaterialId;
+#else
+// Страница реестра материалов; переключение материала - только смена materialIndex
+layout(std140) uniform MaterialBlock {
+    MaterialData materials[256];
+};
+#endif
+
+// Источники света (LightUniforms); индекс света общий для всех массивов
+const int MAX_LIGHTS = 8;
+uniform int lightCount;
+uniform vec3 lightPositions[MAX_LIGHTS];
+uniform vec3 lightColors[MAX_LIGHTS];
+uniform float lightIntensities[MAX_LIGHTS];
+uniform mat4 lightSpaceMatrices[MAX_LIGHTS]; // Матрица пространства света для каждого света
+uniform vec4 shadowAtlasRects[MAX_LIGHTS];   // Тайл света в атласе: xy - смещение, zw - размер (UV); z < 0 - тени нет
+
 // Uniforms
-uniform vec3 lightPos;     // Позиция источника света
 uniform vec3 viewPos;      // Позиция камеры
-uniform vec3 lightColor;   // Цвет источника света
-uniform float lightIntensity; // Интенсивность источника света
-uniform Material material;
+uniform int materialIndex;  // Индекс материала на текущей странице MaterialBlock
+uniform sampler2D diffuseMap; // Диффузная текстура (блок 0)
+uniform sampler2DArray diffuseArrayMap; // Массив диффузных текстур одного размера (общий для нескольких материалов)
 uniform sampler2D shadowMap; // Карта теней
+uniform sampler2DShadow shadowMapCompare; // Та же карта теней с аппаратным сравнением глубины
+uniform int shadowQuality;    // 0 - PCF 3x3, 1 - PCF по диску Пуассона, 2 - аппаратный PCF (sampler2DShadow)
+uniform int shadowPcfTaps;    // Количество выборок для режимов 1 и 2 (до 16)
+uniform int shadowEarlyOut;   // 1 = не читать карту для фрагментов вне пирамиды света
+uniform samplerCube pointShadowMap; // Кубическая карта теней точечного света
+uniform int usePointShadow;         // 1 = тень первого света из pointShadowMap вместо shadowMap
+uniform float shadowFarPlane;       // Дальняя плоскость кубической карты
+
+// Смещения для PCF по кубической карте (вершины куба)
+const vec3 pointShadowOffsets[8] = vec3[](
+    vec3( 1,  1,  1), vec3( 1, -1,  1), vec3(-1, -1,  1), vec3(-1,  1,  1),
+    vec3( 1,  1, -1), vec3( 1, -1, -1), vec3(-1, -1, -1), vec3(-1,  1, -1)
+);
+
+// Диск Пуассона для PCF (в текселях, радиус ~1)
+const vec2 poissonDisk[16] = vec2[](
+    vec2(-0.94201624, -0.39906216), vec2( 0.94558609, -0.76890725),
+    vec2(-0.09418410, -0.92938870), vec2( 0.34495938,  0.29387760),
+    vec2(-0.91588581,  0.45771432), vec2(-0.81544232, -0.87912464),
+    vec2(-0.38277543,  0.27676845), vec2( 0.97484398,  0.75648379),
+    vec2( 0.44323325, -0.97511554), vec2( 0.53742981, -0.47373420),
+    vec2(-0.26496911, -0.41893023), vec2( 0.79197514,  0.19090188),
+    vec2(-0.24188840,  0.99706507), vec2(-0.81409955,  0.91437590),
+    vec2( 0.19984126,  0.78641367), vec2( 0.14383161, -0.14100790)
+);
+const float poissonRadius = 2.0; // Радиус диска в текселях
+
+float ShadowCalculation(vec3 fragPos, int light) {
+    vec4 fragPosLightSpace = lightSpaceMatrices[light] * vec4(fragPos, 1.0);
 
-float ShadowCalculation(vec4 fragPosLightSpace) {
     // Преобразуем координаты в нормализованные координаты устройства
     vec3 projCoords = fragPosLightSpace.xyz / fragPosLightSpace.w;
 
     // Преобразуем диапазон [-1,1] в [0,1]
     projCoords = projCoords * 0.5 + 0.5;
 
-    // Получаем ближайшую глубину от источника света
-    float closestDepth = texture(shadowMap, projCoords.xy).r;
+    // Тайл в атласе; незаданный прямоугольник (нулевой) - вся текстура
+    vec4 atlasRect = shadowAtlasRects[light].z == 0.0 ? vec4(0.0, 0.0, 1.0, 1.0) : shadowAtlasRects[light];
+    if (atlasRect.z < 0.0)
+    return 0.0;
+
+    // Фрагмент вне пирамиды света (и вне своего тайла в атласе) тени не получает
+    bool outside = projCoords.x < 0.0 || projCoords.x > 1.0 || projCoords.y < 0.0 || projCoords.y > 1.0
+        || projCoords.z > 1.0;
+
+    // Раннее завершение - карту не читаем вовсе
+    if (shadowEarlyOut == 1 && outside)
+    return 0.0;
 
     // Получаем глубину текущего фрагмента от источника света
     float currentDepth = projCoords.z;
@@ -46,64 +102,111 @@ float ShadowCalculation(vec4 fragPosLightSpace) {
     // Проверяем, находится ли фрагмент в тени
     float shadow = 0.0;
 
-    // PCF (Percentage Closer Filtering) для сглаживания теней
+    // Выборки зажаты внутри тайла, чтобы не читать соседние тайлы атласа
     vec2 texelSize = 1.0 / vec2(textureSize(shadowMap, 0));
-    for(int x = -1; x <= 1; ++x) {
-        for(int y = -1; y <= 1; ++y) {
-            float pcfDepth = texture(shadowMap, projCoords.xy + vec2(x, y) * texelSize).r;
+    vec2 tileUV = atlasRect.xy + projCoords.xy * atlasRect.zw;
+    vec2 tileMin = atlasRect.xy + texelSize * 0.5;
+    vec2 tileMax = atlasRect.xy + atlasRect.zw - texelSize * 0.5;
+
+    if (shadowQuality == 2) {
+        // Аппаратный PCF: каждая выборка сравнивает 4 текселя и смешивает результат билинейно
+        int taps = clamp(shadowPcfTaps, 1, 16);
+        float radius = taps > 1 ? poissonRadius : 0.0;
+        for (int i = 0; i < taps; ++i) {
+            vec2 uv = clamp(tileUV + poissonDisk[i] * radius * texelSize, tileMin, tileMax);
+            shadow += 1.0 - texture(shadowMapCompare, vec3(uv, currentDepth - bias));
+        }
+        shadow /= float(taps);
+    } else if (shadowQuality == 1) {
+        // PCF по диску Пуассона с настраиваемым числом выборок
+        int taps = clamp(shadowPcfTaps, 1, 16);
+        for (int i = 0; i < taps; ++i) {
+            float pcfDepth = texture(shadowMap, clamp(tileUV + poissonDisk[i] * poissonRadius * texelSize, tileMin, tileMax)).r;
             shadow += currentDepth - bias > pcfDepth ? 1.0 : 0.0;
         }
+        shadow /= float(taps);
+    } else {
+        // PCF (Percentage Closer Filtering) 3x3 для сглаживания теней
+        for(int x = -1; x <= 1; ++x) {
+            for(int y = -1; y <= 1; ++y) {
+                float pcfDepth = texture(shadowMap, clamp(tileUV + vec2(x, y) * texelSize, tileMin, tileMax)).r;
+                shadow += currentDepth - bias > pcfDepth ? 1.0 : 0.0;
+            }
+        }
+        shadow /= 9.0;
     }
-    shadow /= 9.0;
 
-    // Проверяем, находится ли вообще фрагмент в пределах карты теней
-    if(projCoords.z > 1.0)
+    // Без раннего завершения результат тот же, но выборки уже сделаны
+    if (outside)
     shadow = 0.0;
 
     return shadow;
 }
 
+float PointShadowCalculation(vec3 fragPos, vec3 lightPos) {
+    // Вектор от света к фрагменту - он же направление выборки из кубической карты
+    vec3 fragToLight = fragPos - lightPos;
+    float currentDepth = length(fragToLight);
+
+    // За дальней плоскостью теней нет
+    if (currentDepth > shadowFarPlane)
+    return 0.0;
+
+    float bias = 0.05;
+    float shadow = 0.0;
+    float diskRadius = 0.01 * (1.0 + currentDepth / shadowFarPlane);
+    for (int i = 0; i < 8; ++i) {
+        float closestDepth = texture(pointShadowMap, fragToLight + pointShadowOffsets[i] * diskRadius * currentDepth).r;
+        closestDepth *= shadowFarPlane; // Обратно из [0,1] в расстояние
+        shadow += currentDepth - bias > closestDepth ? 1.0 : 0.0;
+    }
+    return shadow / 8.0;
+}
+
 void main() {
     // Нормализуем нормаль (она может быть не нормализованной из-за интерполяции)
     vec3 norm = normalize(Normal);
 
-    // Направление к источнику света
-    vec3 lightDir = normalize(lightPos - FragPos);
-
     // Направление обзора (от фрагмента к камере)
     vec3 viewDir = normalize(viewPos - FragPos);
 
-    // Направление отражения (для зеркального освещения)
-    vec3 reflectDir = reflect(-lightDir, norm);
+#ifdef INDIRECT_DRAW
+    MaterialData material = materials[MaterialId];
+#else
+    MaterialData material = materials[materialIndex];
+#endif
+
+    // Цвет текстуры: отдельная текстура или слой массива текстур
+    vec3 texColor = vec3(1.0);
+    if (material.flags.x == 1) {
+        texColor = texture(diffuseMap, TexCoord).rgb;
+    } else if (material.flags.x == 2) {
+        texColor = texture(diffuseArrayMap, vec3(TexCoord, float(material.flags.y))).rgb;
+    }
 
-    // Рассчитываем коэффициенты освещения
+    // Фоновое освещение (ambient) - один раз, не от каждого света
+    vec3 result = material.ambient.rgb * texColor;
 
-    // Фоновое освещение (ambient)
-    vec3 ambient;
-    if (material.useTexture == 1) {
-        ambient = material.ambient * texture(material.diffuseMap, TexCoord).rgb;
-    } else {
-        ambient = material.ambient;
-    }
+    for (int i = 0; i < min(lightCount, MAX_LIGHTS); ++i) {
+        // Направление к источнику света и направление отражения (для зеркального освещения)
+        vec3 lightDir = normalize(lightPositions[i] - FragPos);
+        vec3 reflectDir = reflect(-lightDir, norm);
 
-    // Диффузное освещение (diffuse)
-    float diff = max(dot(norm, lightDir), 0.0);
-    vec3 diffuse;
-    if (material.useTexture == 1) {
-        diffuse = diff * material.diffuse * texture(material.diffuseMap, TexCoord).rgb;
-    } else {
-        diffuse = diff * material.diffuse;
-    }
+        // Диффузное освещение (diffuse)
+        float diff = max(dot(norm, lightDir), 0.0);
+        vec3 diffuse = diff * material.diffuse.rgb * texColor;
 
-    // Зеркальное освещение (specular)
-    float spec = pow(max(dot(viewDir, reflectDir), 0.0), material.shininess);
-    vec3 specular = spec * material.specular;
+        // Зеркальное освещение (specular)
+        float spec = pow(max(dot(viewDir, reflectDir), 0.0), material.ambient.w);
+        vec3 specular = spec * material.specular.rgb;
 
-    // Рассчитываем коэффициент тени
-    float shadow = ShadowCalculation(FragPosLightSpace);
+        // Коэффициент тени: кубическая карта есть только у первого света, остальные - тайлы атласа
+        float shadow = (i == 0 && usePointShadow == 1)
+            ? PointShadowCalculation(FragPos, lightPositions[i])
+            : ShadowCalculation(FragPos, i);
 
-    // Итоговый цвет с учетом теней
-    vec3 result = ambient + (1.0 - shadow) * (diffuse + specular) * lightColor * lightIntensity;
+        result += (1.0 - shadow) * (diffuse + specular) * lightColors[i] * lightIntensities[i];
+    }
 
     FragColor = vec4(result, 1.0);
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+#version 430 core
+
+// Входные вершинные атрибуты (общий буфер геометрии IndirectRenderer)
+layout (location = 0) in vec3 aPos;
+layout (location = 1) in vec2 aTexCoord;
+layout (location = 2) in vec3 aNormal;
+layout (location = 3) in int aDrawIndex; // Номер вызова: атрибут с делителем 1, читается по baseInstance команды
+
+// Данные одного вызова отрисовки (std430, 144 байта)
+struct DrawData {
+    mat4 model;        // Модельная матрица
+    mat4 normalMatrix; // Матрица для преобразования нормалей
+    ivec4 info;        // x - идентификатор материала в MaterialRegistry
+};
+
+layout(std430, binding = 0) readonly buffer DrawBuffer {
+    DrawData draws[];
+};
+
+// Выходные данные для фрагментного шейдера
+out vec3 FragPos;
+out vec3 Normal;
+out vec2 TexCoord;
+flat out int MaterialId;
+
+// Uniforms
+uniform mat4 viewProjection;   // Проекция * вид, одна на кадр
+
+void main()
+{
+    DrawData draw = draws[aDrawIndex];
+    vec4 worldPos = draw.model * vec4(aPos, 1.0);
+
+    gl_Position = viewProjection * worldPos;
+    FragPos = vec3(worldPos);
+    Normal = mat3(draw.normalMatrix) * aNormal;
+    TexCoord = aTexCoord;
+    MaterialId = draw.info.x;
+}
@@ -9,13 +9,16 @@ layout (location = 2) in vec3 aNormal;
 out vec3 FragPos;           // Позиция фрагмента в мировом пространстве
 out vec3 Normal;            // Нормаль фрагмента в мировом пространстве
 out vec2 TexCoord;          // Текстурные координаты
-out vec4 FragPosLightSpace; // Для теней
 
-// Uniforms
-uniform mat4 model;            // Модельная матрица
-uniform mat4 mvp;              // Model-View-Projection матрица
-uniform mat4 normalMatrix;     // Матрица для преобразования нормалей
-uniform mat4 lightSpaceMatrix; // Матрица преобразования в пространство света
+// Позиция вычисляется так же, как в depthPrepassShaderProgram/depth_vertex.glsl
+invariant gl_Position;
+
+// Данные одного вызова отрисовки: диапазон кольцевого буфера UniformRingBuffer (std140, 192 байта)
+layout(std140) uniform DrawBlock {
+    mat4 mvp;          // Model-View-Projection матрица
+    mat4 model;        // Модельная матрица
+    mat4 normalMatrix; // Матрица для преобразования нормалей
+};
 
 void main()
 {
@@ -23,7 +26,4 @@ void main()
     FragPos = vec3(model * vec4(aPos, 1.0));
     Normal = mat3(normalMatrix) * aNormal;
     TexCoord = aTexCoord;
-
-    // Позиция фрагмента в пространстве источника света
-    FragPosLightSpace = lightSpaceMatrix * vec4(FragPos, 1.0);
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+#version 330 core
+
+void main() {
+    // Запись цвета и глубины отключена - запросу GL_ANY_SAMPLES_PASSED нужен только тест глубины
+}
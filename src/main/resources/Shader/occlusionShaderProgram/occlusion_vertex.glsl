@@ -0,0 +1,10 @@
+#version 330 core
+
+layout (location = 0) in vec3 aPos;
+
+// Единичный куб [-1, 1], растянутый на AABB объекта в мировых координатах
+uniform mat4 mvp;
+
+void main() {
+    gl_Position = mvp * vec4(aPos, 1.0);
+}
@@ -0,0 +1,11 @@
+#version 330 core
+
+in vec3 FragPos;
+
+uniform vec3 lightPos;  // Позиция точечного источника света
+uniform float farPlane; // Дальняя плоскость кубической карты
+
+void main() {
+    // Записываем линейное расстояние до света, нормализованное в [0,1]
+    gl_FragDepth = length(FragPos - lightPos) / farPlane;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+#version 330 core
+
+layout (location = 0) in vec3 aPos;
+
+uniform mat4 lightSpaceMatrix; // Матрица текущей грани кубической карты
+uniform mat4 model;
+
+out vec3 FragPos;
+
+void main() {
+    vec4 worldPos = model * vec4(aPos, 1.0);
+    FragPos = worldPos.xyz;
+    gl_Position = lightSpaceMatrix * worldPos;
+}
\ No newline at end of file